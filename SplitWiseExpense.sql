@@ -19,48 +19,169 @@ INSERT INTO users (name) VALUES ('nikki');
 INSERT INTO users (name) VALUES ('bakki');
 
 
+-- Groups of expenses with running totals, kept up to date by the application on every write.
+-- Existing databases are converted with migrations/expense-groups.sql.
+CREATE TABLE IF NOT EXISTS expense_groups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    expense_count BIGINT NOT NULL,
+    member_count BIGINT NOT NULL,
+    total_amount DECIMAL(15, 2) NOT NULL
+);
+
+-- Creators and participants of a group's expenses
+CREATE TABLE IF NOT EXISTS group_member (
+    group_id BIGINT,
+    user_id BIGINT,
+    PRIMARY KEY (group_id, user_id),
+    INDEX idx_group_member_user (user_id, group_id),
+    FOREIGN KEY (group_id) REFERENCES expense_groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Sample group of the sample expense below, with its totals
+INSERT INTO expense_groups (name, expense_count, member_count, total_amount) VALUES ('Trip to Goa', 1, 3, 3000);
+
+
 CREATE TABLE IF NOT EXISTS expenses (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     expense_date DATE NOT NULL,
     group_name VARCHAR(100) NOT NULL,
     expense_name VARCHAR(100) NOT NULL UNIQUE,  -- Add UNIQUE constraint to ensure indexing
-    total_amount DECIMAL(10, 2) NOT NULL
+    total_amount DECIMAL(10, 2) NOT NULL,
+    group_id BIGINT NULL,
+    -- The group listing reads (group_id, expense_date, id) from this index, newest first
+    INDEX idx_expenses_group_date (group_id, expense_date),
+    FOREIGN KEY (group_id) REFERENCES expense_groups(id)
 );
+-- Tables reference users and expenses by their BIGINT ids; names are unique lookup columns only.
+-- Existing databases keyed by name are converted with migrations/numeric-foreign-keys.sql.
 ALTER TABLE expenses
-ADD COLUMN created_by VARCHAR(100) NOT NULL,
+ADD COLUMN created_by_id BIGINT NOT NULL,
 ADD COLUMN split_type ENUM('EQUAL', 'PERCENTAGE', 'MANUAL') NOT NULL DEFAULT 'EQUAL',
-ADD FOREIGN KEY (created_by) REFERENCES users(name) ON DELETE CASCADE;
+ADD FOREIGN KEY (created_by_id) REFERENCES users(id) ON DELETE CASCADE;
 
-INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, created_by, split_type)
-VALUES ('2025-05-01', 'Trip to Goa', 'Hotel', 3000, 'manish', 'EQUAL');
+INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, created_by_id, split_type, group_id)
+SELECT '2025-05-01', 'Trip to Goa', 'Hotel', 3000, u.id, 'EQUAL', g.id
+FROM users u JOIN expense_groups g ON g.name = 'Trip to Goa' WHERE u.name = 'manish';
 
 
 CREATE TABLE IF NOT EXISTS expense_user (
-    expense_name VARCHAR(100),
-    user_name VARCHAR(100),
-    PRIMARY KEY (expense_name, user_name),
-    FOREIGN KEY (expense_name) REFERENCES expenses(expense_name) ON DELETE CASCADE,
-    FOREIGN KEY (user_name) REFERENCES users(name) ON DELETE CASCADE
+    expense_id BIGINT,
+    user_id BIGINT,
+    PRIMARY KEY (expense_id, user_id),
+    INDEX idx_expense_user_user (user_id, expense_id),
+    FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
 
 -- Insert data into expense_user
-INSERT INTO expense_user (expense_name, user_name)
-VALUES
-('Hotel', 'manish'),
-('Hotel', 'keerthi'),
-('Hotel', 'nikki');
+INSERT INTO expense_user (expense_id, user_id)
+SELECT e.id, u.id FROM expenses e JOIN users u ON u.name IN ('manish', 'keerthi', 'nikki')
+WHERE e.expense_name = 'Hotel';
+
+-- The creator and participants of the sample expense are the members of its group
+INSERT INTO group_member (group_id, user_id)
+SELECT g.id, u.id FROM expense_groups g JOIN users u ON u.name IN ('manish', 'keerthi', 'nikki')
+WHERE g.name = 'Trip to Goa';
 
 
 CREATE TABLE IF NOT EXISTS expense_share (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    expense_name VARCHAR(100) NOT NULL,
-    user_name VARCHAR(100) NOT NULL,
+    expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
     percentage DECIMAL(5, 2),     -- For percentage-based splits (0.00 to 100.00)
     amount DECIMAL(10, 2),        -- For manual splits (fixed amount)
-    UNIQUE (expense_name, user_name),  -- Ensures each user-expense combo is unique
-    FOREIGN KEY (expense_name) REFERENCES expenses(expense_name) ON DELETE CASCADE,
-    FOREIGN KEY (user_name) REFERENCES users(name) ON DELETE CASCADE
+    UNIQUE KEY uk_expense_share_expense_user (expense_id, user_id),  -- Ensures each user-expense combo is unique
+    FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+
+-- expense_share ids come from a pooled sequence so inserts can be batched.
+-- On an existing database, create it above the current ids BEFORE starting the new version:
+CREATE TABLE IF NOT EXISTS expense_share_seq (
+    next_val BIGINT
+);
+-- Guarded, so running the script again keeps the single row the generator reads
+INSERT INTO expense_share_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 100 FROM expense_share
+WHERE NOT EXISTS (SELECT 1 FROM expense_share_seq);
+
+
+-- Materialized balances, adjusted in the same transaction as every expense, mapping and share write
+CREATE TABLE IF NOT EXISTS user_balance (
+    user_id BIGINT PRIMARY KEY,
+    balance DECIMAL(14, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_expense_balance (
+    expense_id BIGINT,
+    user_id BIGINT,
+    share DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (expense_id, user_id)
+);
+
+-- Progress of bulk imports, advanced in the same transaction as each committed chunk
+CREATE TABLE IF NOT EXISTS import_checkpoint (
+    import_id VARCHAR(64) PRIMARY KEY,
+    committed_line BIGINT NOT NULL,
+    rows_imported BIGINT NOT NULL,
+    rows_failed BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL
+);
+
+-- Responses of POST requests sent with an Idempotency-Key header; status_code 0 while the request runs.
+-- Times are epoch milliseconds, expired rows are purged by the application.
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_hash BIGINT NOT NULL,
+    status_code SMALLINT NOT NULL,
+    content_type VARCHAR(100),
+    response_body VARBINARY(8192),
+    created_at BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    INDEX idx_idempotency_key_expires (expires_at)
+);
+
+-- Last journal sequence number applied by each write-behind ingestion partition, per journal: every
+-- instance numbers its writes in its own journal, identified by the journal.id file in its directory
+CREATE TABLE IF NOT EXISTS ingestion_checkpoint (
+    journal_id VARCHAR(36) NOT NULL,
+    partition_id INT NOT NULL,
+    applied_sequence BIGINT NOT NULL,
+    PRIMARY KEY (journal_id, partition_id)
+);
+
+-- Committed ledger records not yet forced to disk in their journal, appended in id order; journal_sequence is
+-- set just before the append, so a record lost from the journal is appended again at the same number
+CREATE TABLE IF NOT EXISTS ledger_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    journal_id VARCHAR(36) NOT NULL,
+    journal_sequence BIGINT,
+    record_type VARCHAR(16) NOT NULL,
+    expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    split_type VARCHAR(16),
+    total_cents BIGINT NOT NULL,
+    percentage_hundredths BIGINT,
+    amount_cents BIGINT,
+    INDEX idx_ledger_outbox_journal (journal_id, id)
+);
+
+-- Startup backfills that have completed and are skipped on later starts; completed_at is in epoch milliseconds
+CREATE TABLE IF NOT EXISTS backfill_run (
+    task VARCHAR(64) PRIMARY KEY,
+    completed_at BIGINT NOT NULL
+);
+
+-- Change counters behind the ETags: one row per listed table (scope_id 0) and per user ('user', user id)
+CREATE TABLE IF NOT EXISTS data_version (
+    scope VARCHAR(32) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (scope, scope_id)
 );
 
 
@@ -69,26 +190,28 @@ SELECT
     e.group_name,
     e.expense_name,
     e.total_amount,
-    e.created_by,
+    c.name AS created_by,
     e.split_type,
     u.name AS user_name,
     -- Calculate share
     CASE 
-        WHEN e.created_by = u.name THEN  -- If user created the expense
-            e.total_amount - (e.total_amount / (SELECT COUNT(*) FROM expense_user eu WHERE eu.expense_name = e.expense_name))
+        WHEN e.created_by_id = u.id THEN  -- If user created the expense
+            e.total_amount - (e.total_amount / (SELECT COUNT(*) FROM expense_user eu WHERE eu.expense_id = e.id))
         ELSE  -- User is a participant, not the creator
-            -(e.total_amount / (SELECT COUNT(*) FROM expense_user eu WHERE eu.expense_name = e.expense_name))
+            -(e.total_amount / (SELECT COUNT(*) FROM expense_user eu WHERE eu.expense_id = e.id))
     END AS share
 FROM 
     expenses e
 JOIN 
-    expense_user eu ON e.expense_name = eu.expense_name
+    expense_user eu ON e.id = eu.expense_id
+JOIN 
+    users u ON eu.user_id = u.id
 JOIN 
-    users u ON eu.user_name = u.name
+    users c ON e.created_by_id = c.id
 WHERE 
     u.name = 'keerthi'  -- Specific user whose view we want
 GROUP BY 
-    e.expense_name, e.expense_date, e.group_name, e.total_amount, e.created_by, e.split_type, u.name;
+    e.id, e.expense_name, e.expense_date, e.group_name, e.total_amount, c.name, e.created_by_id, e.split_type, u.id, u.name;
 
 
 select * from users;
@@ -0,0 +1,58 @@
+-- Online migration from free-text group names to the expense_groups table (MySQL 8).
+--
+-- Adds the group tables and expenses.group_id, then fills them from expenses.group_name,
+-- expenses.created_by_id and expense_user. The index is built INPLACE with LOCK=NONE, so reads and
+-- writes continue while it runs.
+--
+-- Order of operations:
+--   1. Expand    (old version running)  create the tables, add the nullable group_id column and its index
+--   2. Deploy    the new version; from now on new expenses get a group_id and the totals are maintained
+--   3. Backfill  (new version running)  start one instance with splitwise.migration.backfill-groups=true
+--   4. Contract  (new version only)     group_id becomes NOT NULL
+--
+-- The backfill (GroupBackfillRunner) never holds more than one group's lock or one chunk of expenses:
+--   - it creates the missing groups and sets group_id in expense id chunks of
+--     splitwise.migration.backfill-chunk-size, each statement committed on its own
+--   - it then adds the missing members and recounts the totals of one group per transaction, under
+--     that group's row lock, which writers take before changing the totals
+-- It can be stopped and restarted. Settlements and group share rows read expenses through group_id, so
+-- they leave out the expenses it has not linked yet.
+--
+-- expenses.group_name is kept: the listings, the export and GroupBalanceEngine still read it.
+
+-- ---------------------------------------------------------------------------
+-- 1. Expand
+-- ---------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS expense_groups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    expense_count BIGINT NOT NULL,
+    member_count BIGINT NOT NULL,
+    total_amount DECIMAL(15, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS group_member (
+    group_id BIGINT,
+    user_id BIGINT,
+    PRIMARY KEY (group_id, user_id),
+    INDEX idx_group_member_user (user_id, group_id),
+    FOREIGN KEY (group_id) REFERENCES expense_groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+ALTER TABLE expenses ADD COLUMN group_id BIGINT NULL, ALGORITHM=INSTANT;
+ALTER TABLE expenses ADD INDEX idx_expenses_group_date (group_id, expense_date), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- ---------------------------------------------------------------------------
+-- 3. Backfill: run by the application, see above. Until it finishes, this lists the expenses left:
+-- ---------------------------------------------------------------------------
+SELECT COUNT(*) AS unlinked_expenses FROM expenses WHERE group_id IS NULL;
+
+-- ---------------------------------------------------------------------------
+-- 4. Contract
+-- ---------------------------------------------------------------------------
+-- INPLACE foreign keys need the checks off; the backfill has just set every group_id to an existing group
+SET foreign_key_checks = 0;
+ALTER TABLE expenses ADD FOREIGN KEY (group_id) REFERENCES expense_groups(id), ALGORITHM=INPLACE, LOCK=NONE;
+SET foreign_key_checks = 1;
+ALTER TABLE expenses MODIFY group_id BIGINT NOT NULL, ALGORITHM=INPLACE, LOCK=NONE;
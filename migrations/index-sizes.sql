@@ -0,0 +1,51 @@
+-- Index size and share-query latency, run before and after migrations/numeric-foreign-keys.sql (MySQL 8).
+
+ANALYZE TABLE users, expenses, expense_user, expense_share, user_expense_balance, user_balance;
+
+-- Size of every index (the PRIMARY index is the clustered table itself)
+SELECT table_name,
+       index_name,
+       ROUND(stat_value * @@innodb_page_size / 1024 / 1024, 2) AS size_mb
+FROM mysql.innodb_index_stats
+WHERE database_name = DATABASE()
+  AND stat_name = 'size'
+  AND table_name IN ('users', 'expenses', 'expense_user', 'expense_share', 'user_expense_balance', 'user_balance')
+ORDER BY table_name, index_name;
+
+-- Total secondary index size per table
+SELECT table_name,
+       ROUND(SUM(stat_value) * @@innodb_page_size / 1024 / 1024, 2) AS secondary_index_mb
+FROM mysql.innodb_index_stats
+WHERE database_name = DATABASE()
+  AND stat_name = 'size'
+  AND index_name <> 'PRIMARY'
+GROUP BY table_name
+ORDER BY table_name;
+
+-- Share-query latency for one user: set @user to a user mapped to many expenses.
+SET @user = 'manish';
+
+-- Before: the share query joining on names
+EXPLAIN ANALYZE
+SELECT eu.user_name, e.expense_date, e.group_name, e.expense_name, e.total_amount, e.created_by, e.split_type,
+       COUNT(p.user_name), SUM(p.user_name < eu.user_name), es.percentage, es.amount
+FROM expense_user eu
+JOIN expenses e ON e.expense_name = eu.expense_name
+JOIN expense_user p ON p.expense_name = eu.expense_name
+LEFT JOIN expense_share es ON es.expense_name = eu.expense_name AND es.user_name = eu.user_name
+WHERE eu.user_name = @user
+GROUP BY eu.user_name, e.id, es.id;
+
+-- After: the same query joining on ids
+EXPLAIN ANALYZE
+SELECT u.name, e.expense_date, e.group_name, e.expense_name, e.total_amount, c.name, e.split_type,
+       COUNT(p.user_id), SUM(pu.name < u.name), es.percentage, es.amount
+FROM users u
+JOIN expense_user eu ON eu.user_id = u.id
+JOIN expenses e ON e.id = eu.expense_id
+JOIN users c ON c.id = e.created_by_id
+JOIN expense_user p ON p.expense_id = eu.expense_id
+JOIN users pu ON pu.id = p.user_id
+LEFT JOIN expense_share es ON es.expense_id = eu.expense_id AND es.user_id = eu.user_id
+WHERE u.name = @user
+GROUP BY u.id, e.id, c.id, es.id;
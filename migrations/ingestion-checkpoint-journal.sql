@@ -0,0 +1,22 @@
+-- Keys ingestion_checkpoint by journal as well as partition (MySQL 8).
+--
+-- Sequence numbers come from the local journal of each instance, so a checkpoint keyed by partition
+-- alone mixes the progress of different instances. The new version identifies each journal directory by
+-- the UUID in its journal.id file and creates that file on first start.
+--
+-- Order of operations, with ingestion enabled on a single instance:
+--   1. Stop the instance
+--   2. Give its journal an id:   uuidgen > <splitwise.ingest.directory>/journal.id
+--   3. Run the statements below with that id in @journal_id
+--   4. Deploy the new version
+--
+-- If several instances shared the old table, its rows cannot be attributed to their journals. Stop every
+-- instance and check that none logged "Ingestion writer ... failed" while stopping, so every acknowledged
+-- write is committed. Then delete the rows and the journal directories, skip step 2, and deploy.
+
+SET @journal_id = '00000000-0000-0000-0000-000000000000';
+
+ALTER TABLE ingestion_checkpoint ADD COLUMN journal_id VARCHAR(36) NOT NULL DEFAULT '' FIRST, ALGORITHM=INSTANT;
+UPDATE ingestion_checkpoint SET journal_id = @journal_id;
+ALTER TABLE ingestion_checkpoint ALTER COLUMN journal_id DROP DEFAULT,
+    DROP PRIMARY KEY, ADD PRIMARY KEY (journal_id, partition_id);
@@ -0,0 +1,150 @@
+-- Online migration from VARCHAR name joins to BIGINT id foreign keys (MySQL 8).
+--
+-- Every statement below is either INSTANT or INPLACE with LOCK=NONE, so reads and writes
+-- continue while it runs. The id columns are filled by the chunked backfill of the new version
+-- (ForeignKeyBackfillRunner), which updates a bounded range of rows per short transaction.
+--
+-- Order of operations:
+--   1. Expand     (old version running)  add nullable id columns and triggers keeping both keys in sync
+--   2. Backfill   (old version running)  java -jar splitwise.jar --spring.main.web-application-type=none
+--                                          --spring.jpa.hibernate.ddl-auto=none
+--                                          --splitwise.migration.backfill-foreign-keys=true
+--   3. Switch     (old version running)  ids become NOT NULL primary/foreign keys, names become nullable
+--      -> deploy the new version; the triggers fill the name columns for instances not yet upgraded
+--   4. Contract   (new version only)     drop the triggers and the name columns
+--
+-- Record index sizes and share-query latency with migrations/index-sizes.sql before step 1 and after step 4.
+-- The constraint names (*_ibfk_*) are the ones MySQL generates for SplitWiseExpense.sql; check
+-- information_schema.TABLE_CONSTRAINTS if the schema was created differently.
+
+-- ---------------------------------------------------------------------------
+-- 1. Expand
+-- ---------------------------------------------------------------------------
+ALTER TABLE expenses ADD COLUMN created_by_id BIGINT NULL, ALGORITHM=INSTANT;
+ALTER TABLE expense_user ADD COLUMN expense_id BIGINT NULL, ADD COLUMN user_id BIGINT NULL, ALGORITHM=INSTANT;
+ALTER TABLE expense_share ADD COLUMN expense_id BIGINT NULL, ADD COLUMN user_id BIGINT NULL, ALGORITHM=INSTANT;
+ALTER TABLE user_expense_balance ADD COLUMN expense_id BIGINT NULL, ADD COLUMN user_id BIGINT NULL, ALGORITHM=INSTANT;
+ALTER TABLE user_balance ADD COLUMN user_id BIGINT NULL, ALGORITHM=INSTANT;
+
+-- Rows written by either version get both keys: names from ids for the new version, ids from names for the old one
+DELIMITER //
+CREATE TRIGGER expenses_sync_keys BEFORE INSERT ON expenses FOR EACH ROW
+BEGIN
+    SET NEW.created_by_id = COALESCE(NEW.created_by_id, (SELECT id FROM users WHERE name = NEW.created_by));
+    SET NEW.created_by = COALESCE(NEW.created_by, (SELECT name FROM users WHERE id = NEW.created_by_id));
+END//
+
+CREATE TRIGGER expense_user_sync_keys BEFORE INSERT ON expense_user FOR EACH ROW
+BEGIN
+    SET NEW.expense_id = COALESCE(NEW.expense_id, (SELECT id FROM expenses WHERE expense_name = NEW.expense_name));
+    SET NEW.user_id = COALESCE(NEW.user_id, (SELECT id FROM users WHERE name = NEW.user_name));
+    SET NEW.expense_name = COALESCE(NEW.expense_name, (SELECT expense_name FROM expenses WHERE id = NEW.expense_id));
+    SET NEW.user_name = COALESCE(NEW.user_name, (SELECT name FROM users WHERE id = NEW.user_id));
+END//
+
+CREATE TRIGGER expense_share_sync_keys BEFORE INSERT ON expense_share FOR EACH ROW
+BEGIN
+    SET NEW.expense_id = COALESCE(NEW.expense_id, (SELECT id FROM expenses WHERE expense_name = NEW.expense_name));
+    SET NEW.user_id = COALESCE(NEW.user_id, (SELECT id FROM users WHERE name = NEW.user_name));
+    SET NEW.expense_name = COALESCE(NEW.expense_name, (SELECT expense_name FROM expenses WHERE id = NEW.expense_id));
+    SET NEW.user_name = COALESCE(NEW.user_name, (SELECT name FROM users WHERE id = NEW.user_id));
+END//
+
+CREATE TRIGGER user_expense_balance_sync_keys BEFORE INSERT ON user_expense_balance FOR EACH ROW
+BEGIN
+    SET NEW.expense_id = COALESCE(NEW.expense_id, (SELECT id FROM expenses WHERE expense_name = NEW.expense_name));
+    SET NEW.user_id = COALESCE(NEW.user_id, (SELECT id FROM users WHERE name = NEW.user_name));
+    SET NEW.expense_name = COALESCE(NEW.expense_name, (SELECT expense_name FROM expenses WHERE id = NEW.expense_id));
+    SET NEW.user_name = COALESCE(NEW.user_name, (SELECT name FROM users WHERE id = NEW.user_id));
+END//
+
+CREATE TRIGGER user_balance_sync_keys BEFORE INSERT ON user_balance FOR EACH ROW
+BEGIN
+    SET NEW.user_id = COALESCE(NEW.user_id, (SELECT id FROM users WHERE name = NEW.user_name));
+    SET NEW.user_name = COALESCE(NEW.user_name, (SELECT name FROM users WHERE id = NEW.user_id));
+END//
+DELIMITER ;
+
+-- ---------------------------------------------------------------------------
+-- 2. Backfill: run ForeignKeyBackfillRunner until it reports 0 remaining rows, then verify
+-- ---------------------------------------------------------------------------
+SELECT 'expenses' AS table_name, COUNT(*) AS missing FROM expenses WHERE created_by_id IS NULL
+UNION ALL SELECT 'expense_user', COUNT(*) FROM expense_user WHERE expense_id IS NULL OR user_id IS NULL
+UNION ALL SELECT 'expense_share', COUNT(*) FROM expense_share WHERE expense_id IS NULL OR user_id IS NULL
+UNION ALL SELECT 'user_expense_balance', COUNT(*) FROM user_expense_balance WHERE expense_id IS NULL OR user_id IS NULL
+UNION ALL SELECT 'user_balance', COUNT(*) FROM user_balance WHERE user_id IS NULL;
+
+-- ---------------------------------------------------------------------------
+-- 3. Switch: id keys become authoritative, name columns become optional
+-- ---------------------------------------------------------------------------
+SET SESSION foreign_key_checks = 0;  -- lets ADD FOREIGN KEY run INPLACE; the backfill already guarantees the references
+
+ALTER TABLE expenses
+    DROP FOREIGN KEY expenses_ibfk_1,
+    MODIFY created_by VARCHAR(100) NULL,
+    MODIFY created_by_id BIGINT NOT NULL,
+    ADD CONSTRAINT fk_expenses_created_by FOREIGN KEY (created_by_id) REFERENCES users(id) ON DELETE CASCADE,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE expense_user
+    DROP FOREIGN KEY expense_user_ibfk_1,
+    DROP FOREIGN KEY expense_user_ibfk_2,
+    MODIFY expense_name VARCHAR(100) NULL,
+    MODIFY user_name VARCHAR(100) NULL,
+    MODIFY expense_id BIGINT NOT NULL,
+    MODIFY user_id BIGINT NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (expense_id, user_id),
+    ADD INDEX idx_expense_user_user (user_id, expense_id),
+    ADD CONSTRAINT fk_expense_user_expense FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_expense_user_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE expense_share
+    DROP FOREIGN KEY expense_share_ibfk_1,
+    DROP FOREIGN KEY expense_share_ibfk_2,
+    DROP INDEX expense_name,
+    MODIFY expense_name VARCHAR(100) NULL,
+    MODIFY user_name VARCHAR(100) NULL,
+    MODIFY expense_id BIGINT NOT NULL,
+    MODIFY user_id BIGINT NOT NULL,
+    ADD UNIQUE KEY uk_expense_share_expense_user (expense_id, user_id),
+    ADD CONSTRAINT fk_expense_share_expense FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_expense_share_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE user_expense_balance
+    MODIFY expense_name VARCHAR(100) NULL,
+    MODIFY user_name VARCHAR(100) NULL,
+    MODIFY expense_id BIGINT NOT NULL,
+    MODIFY user_id BIGINT NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (expense_id, user_id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE user_balance
+    MODIFY user_name VARCHAR(100) NULL,
+    MODIFY user_id BIGINT NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (user_id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+SET SESSION foreign_key_checks = 1;
+
+-- ---------------------------------------------------------------------------
+-- 4. Contract: once no instance of the old version is left
+-- ---------------------------------------------------------------------------
+DROP TRIGGER expenses_sync_keys;
+DROP TRIGGER expense_user_sync_keys;
+DROP TRIGGER expense_share_sync_keys;
+DROP TRIGGER user_expense_balance_sync_keys;
+DROP TRIGGER user_balance_sync_keys;
+
+ALTER TABLE expenses DROP COLUMN created_by, ALGORITHM=INPLACE, LOCK=NONE;
+ALTER TABLE expense_user DROP COLUMN expense_name, DROP COLUMN user_name, ALGORITHM=INPLACE, LOCK=NONE;
+ALTER TABLE expense_share DROP COLUMN expense_name, DROP COLUMN user_name, ALGORITHM=INPLACE, LOCK=NONE;
+ALTER TABLE user_expense_balance DROP COLUMN expense_name, DROP COLUMN user_name, ALGORITHM=INPLACE, LOCK=NONE;
+ALTER TABLE user_balance DROP COLUMN user_name, ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Refresh the statistics used by migrations/index-sizes.sql
+ANALYZE TABLE expenses, expense_user, expense_share, user_expense_balance, user_balance;
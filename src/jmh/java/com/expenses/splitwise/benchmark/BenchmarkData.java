@@ -0,0 +1,149 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.SplitwiseApplication;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared setup for the JMH benchmarks.
+ * <p>
+ * Starts the application without the web layer against a fresh embedded H2 database and
+ * seeds it with plain JDBC batches, so seeding cost stays out of the measured paths. Rows are
+ * written by name and resolved to ids in the insert, like the REST API does.
+ * Every expense includes "user-0" plus a rotating window of other participants, so
+ * "user-0" has one share row per expense.
+ * </p>
+ */
+final class BenchmarkData {
+
+    /** Participant included in every seeded expense */
+    static final String HOT_USER = "user-0";
+
+    /** Group used for every seeded expense */
+    static final String GROUP = "benchmark";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Starts a non-web application context on a private in-memory database.
+     *
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts an application context of the given type on a private in-memory database.
+     *
+     * @param webApplicationType the web application type, SERVLET to serve HTTP on a random port
+     * @param extraArgs additional `--key=value` arguments, replacing the defaults with the same key
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"));
+        for (String extraArg : extraArgs) {
+            String key = extraArg.substring(0, extraArg.indexOf('=') + 1);
+            args.removeIf(arg -> arg.startsWith(key));
+            args.add(extraArg);
+        }
+        return new SpringApplicationBuilder(SplitwiseApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Seeds users, expenses, participants and (for non-EQUAL splits) share rows.
+     *
+     * @param jdbc template bound to the benchmark database
+     * @param users number of users
+     * @param expenses number of expenses
+     * @param participants number of participants per expense, including {@link #HOT_USER}
+     * @param splitType split type applied to every expense
+     */
+    static void seed(JdbcTemplate jdbc, int users, int expenses, int participants, SPLIT_TYPE splitType) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            userRows.add(new Object[]{userName(u)});
+        }
+        jdbc.batchUpdate("INSERT INTO users (name) VALUES (?)", userRows);
+
+        BigDecimal total = new BigDecimal("1000.00");
+        BigDecimal percentage = BigDecimal.valueOf(100).divide(BigDecimal.valueOf(participants), 2, RoundingMode.HALF_UP);
+        BigDecimal amount = total.divide(BigDecimal.valueOf(participants), 2, RoundingMode.HALF_UP);
+        Date date = Date.valueOf(LocalDate.of(2025, 5, 1));
+
+        List<Object[]> expenseRows = new ArrayList<>();
+        List<Object[]> mappingRows = new ArrayList<>();
+        List<Object[]> shareRows = new ArrayList<>();
+        for (int e = 0; e < expenses; e++) {
+            String expenseName = expenseName(e);
+            List<String> members = participants(e, users, participants);
+            expenseRows.add(new Object[]{date, GROUP, expenseName, total, splitType.name(), members.get(e % members.size())});
+            for (String member : members) {
+                mappingRows.add(new Object[]{expenseName, member});
+                if (splitType != SPLIT_TYPE.EQUAL) {
+                    shareRows.add(new Object[]{percentage, amount, expenseName, member});
+                }
+            }
+            if (mappingRows.size() >= 10_000) {
+                flush(jdbc, expenseRows, mappingRows, shareRows);
+            }
+        }
+        flush(jdbc, expenseRows, mappingRows, shareRows);
+    }
+
+    /**
+     * Returns the participants of the given expense: the hot user plus a rotating window.
+     */
+    static List<String> participants(int expense, int users, int participants) {
+        List<String> members = new ArrayList<>(participants);
+        members.add(HOT_USER);
+        for (int p = 1; p < participants; p++) {
+            members.add(userName(1 + (expense + p) % (users - 1)));
+        }
+        return members;
+    }
+
+    static String userName(int index) {
+        return "user-" + index;
+    }
+
+    static String expenseName(int index) {
+        return "expense-" + index;
+    }
+
+    private static void flush(JdbcTemplate jdbc, List<Object[]> expenseRows, List<Object[]> mappingRows, List<Object[]> shareRows) {
+        jdbc.batchUpdate("INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, split_type, created_by_id) " +
+                "SELECT ?, ?, ?, ?, ?, id FROM users WHERE name = ?", expenseRows);
+        jdbc.batchUpdate("INSERT INTO expense_user (expense_id, user_id) " +
+                "SELECT e.id, u.id FROM expenses e, users u WHERE e.expense_name = ? AND u.name = ?", mappingRows);
+        jdbc.batchUpdate("INSERT INTO expense_share (id, expense_id, user_id, percentage, amount) " +
+                "SELECT NEXT VALUE FOR expense_share_seq, e.id, u.id, ?, ? FROM expenses e, users u " +
+                "WHERE e.expense_name = ? AND u.name = ?", shareRows);
+        expenseRows.clear();
+        mappingRows.clear();
+        shareRows.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.ExpenseDto;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.service.ExpenseInterface;
+import com.expenses.splitwise.service.ExpenseUserInterface;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the expense write paths on top of a database seeded with existing expenses.
+ * <p>
+ * Every invocation works on a new expense so unique constraints never short-circuit the write.
+ * The mapping benchmark attaches participants to expenses created before each iteration, outside the
+ * measurement; it runs a fixed batch of {@value PendingExpenses#BATCH} mappings per iteration, so its
+ * score in milliseconds per batch reads as microseconds per mapping.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseWriteBenchmark {
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"1000", "10000"})
+    public int expenses;
+
+    @Param({"5", "50"})
+    public int participants;
+
+    private ConfigurableApplicationContext context;
+
+    private ExpenseInterface expenseInterface;
+
+    private ExpenseUserInterface expenseUserInterface;
+
+    private List<String> participantNames;
+
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context.getBean(JdbcTemplate.class), users, expenses, participants, SPLIT_TYPE.EQUAL);
+        expenseInterface = context.getBean(ExpenseInterface.class);
+        expenseUserInterface = context.getBean(ExpenseUserInterface.class);
+        participantNames = BenchmarkData.participants(0, users, participants);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseDto createExpense() {
+        return expenseInterface.createExpense(newExpense());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = PendingExpenses.BATCH)
+    @Measurement(iterations = 5, batchSize = PendingExpenses.BATCH)
+    public void createExpenseUserMapping(PendingExpenses pending) {
+        expenseUserInterface.createExpenseUserMapping(pending.next(), participantNames);
+    }
+
+    private ExpenseDto newExpense() {
+        return new ExpenseDto(LocalDate.of(2025, 5, 1), BenchmarkData.GROUP, "bench-" + sequence++,
+                new BigDecimal("1000.00"), SPLIT_TYPE.EQUAL, BenchmarkData.HOT_USER);
+    }
+
+    /**
+     * Expenses without participants, created through the service before each iteration of the mapping
+     * benchmark and consumed one per invocation; only that benchmark uses this state.
+     */
+    @State(Scope.Benchmark)
+    public static class PendingExpenses {
+
+        /** Mappings per iteration, and expenses created before each */
+        static final int BATCH = 1000;
+
+        private final Deque<String> names = new ArrayDeque<>();
+
+        @Setup(Level.Iteration)
+        public void create(ExpenseWriteBenchmark benchmark) {
+            names.clear();
+            for (int i = 0; i < BATCH; i++) {
+                names.add(benchmark.expenseInterface.createExpense(benchmark.newExpense()).getExpenseName());
+            }
+        }
+
+        String next() {
+            String name = names.poll();
+            if (name == null) {
+                throw new IllegalStateException("More invocations than the " + BATCH + " expenses created for the iteration");
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.expenses.splitwise.benchmark;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the user share query on the old name-keyed schema with the id-keyed schema.
+ * <p>
+ * Both schemas are created side by side in one embedded H2 database with identical data, so
+ * the only difference is the join key: `VARCHAR(100)` names or `BIGINT` ids. The trial setup
+ * also prints the on-disk size of each schema's join tables after seeding.
+ * </p>
+ * Run `migrations/index-sizes.sql` on MySQL for the production numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForeignKeyJoinBenchmark {
+
+    /** Share query over the name-keyed schema */
+    private static final String NAME_QUERY = "SELECT eu.user_name, e.expense_date, e.group_name, e.expense_name, " +
+            "e.total_amount, e.created_by, e.split_type, COUNT(p.user_name), " +
+            "SUM(CASE WHEN p.user_name < eu.user_name THEN 1 ELSE 0 END), es.percentage, es.amount " +
+            "FROM by_name.expense_user eu JOIN by_name.expenses e ON e.expense_name = eu.expense_name " +
+            "JOIN by_name.expense_user p ON p.expense_name = eu.expense_name " +
+            "LEFT JOIN by_name.expense_share es ON es.expense_name = eu.expense_name AND es.user_name = eu.user_name " +
+            "WHERE eu.user_name = ? GROUP BY eu.user_name, e.id, es.id";
+
+    /** Share query over the id-keyed schema */
+    private static final String ID_QUERY = "SELECT u.name, e.expense_date, e.group_name, e.expense_name, " +
+            "e.total_amount, c.name, e.split_type, COUNT(p.user_id), " +
+            "SUM(CASE WHEN pu.name < u.name THEN 1 ELSE 0 END), es.percentage, es.amount " +
+            "FROM by_id.users u JOIN by_id.expense_user eu ON eu.user_id = u.id " +
+            "JOIN by_id.expenses e ON e.id = eu.expense_id JOIN by_id.users c ON c.id = e.created_by_id " +
+            "JOIN by_id.expense_user p ON p.expense_id = eu.expense_id JOIN by_id.users pu ON pu.id = p.user_id " +
+            "LEFT JOIN by_id.expense_share es ON es.expense_id = eu.expense_id AND es.user_id = eu.user_id " +
+            "WHERE u.name = ? GROUP BY u.id, e.id, c.id, es.id";
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"1000", "10000", "100000"})
+    public int expenses;
+
+    @Param({"5"})
+    public int participants;
+
+    @Param({"NAME", "ID"})
+    public String keys;
+
+    private Connection connection;
+
+    private PreparedStatement query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fk-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            createSchemas(statement);
+            seed(statement);
+            statement.execute("ANALYZE");
+            printSizes(statement);
+        }
+        query = connection.prepareStatement("NAME".equals(keys) ? NAME_QUERY : ID_QUERY);
+        query.setString(1, BenchmarkData.HOT_USER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int shareRowsForHotUser() throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static void createSchemas(Statement statement) throws SQLException {
+        statement.execute("CREATE SCHEMA by_name");
+        statement.execute("CREATE TABLE by_name.users (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL UNIQUE)");
+        statement.execute("CREATE TABLE by_name.expenses (id BIGINT AUTO_INCREMENT PRIMARY KEY, expense_date DATE NOT NULL, " +
+                "group_name VARCHAR(100) NOT NULL, expense_name VARCHAR(100) NOT NULL UNIQUE, total_amount DECIMAL(10, 2) NOT NULL, " +
+                "split_type VARCHAR(20) NOT NULL, created_by VARCHAR(100) NOT NULL REFERENCES by_name.users(name))");
+        statement.execute("CREATE TABLE by_name.expense_user (expense_name VARCHAR(100) REFERENCES by_name.expenses(expense_name), " +
+                "user_name VARCHAR(100) REFERENCES by_name.users(name), PRIMARY KEY (expense_name, user_name))");
+        statement.execute("CREATE INDEX by_name_expense_user_user ON by_name.expense_user (user_name)");
+        statement.execute("CREATE TABLE by_name.expense_share (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "expense_name VARCHAR(100) NOT NULL REFERENCES by_name.expenses(expense_name), " +
+                "user_name VARCHAR(100) NOT NULL REFERENCES by_name.users(name), percentage DECIMAL(5, 2), amount DECIMAL(10, 2), " +
+                "UNIQUE (expense_name, user_name))");
+
+        statement.execute("CREATE SCHEMA by_id");
+        statement.execute("CREATE TABLE by_id.users (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL UNIQUE)");
+        statement.execute("CREATE TABLE by_id.expenses (id BIGINT AUTO_INCREMENT PRIMARY KEY, expense_date DATE NOT NULL, " +
+                "group_name VARCHAR(100) NOT NULL, expense_name VARCHAR(100) NOT NULL UNIQUE, total_amount DECIMAL(10, 2) NOT NULL, " +
+                "split_type VARCHAR(20) NOT NULL, created_by_id BIGINT NOT NULL REFERENCES by_id.users(id))");
+        statement.execute("CREATE TABLE by_id.expense_user (expense_id BIGINT REFERENCES by_id.expenses(id), " +
+                "user_id BIGINT REFERENCES by_id.users(id), PRIMARY KEY (expense_id, user_id))");
+        statement.execute("CREATE INDEX by_id_expense_user_user ON by_id.expense_user (user_id, expense_id)");
+        statement.execute("CREATE TABLE by_id.expense_share (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "expense_id BIGINT NOT NULL REFERENCES by_id.expenses(id), user_id BIGINT NOT NULL REFERENCES by_id.users(id), " +
+                "percentage DECIMAL(5, 2), amount DECIMAL(10, 2), UNIQUE (expense_id, user_id))");
+    }
+
+    /**
+     * Seeds the name-keyed schema with the same shape as {@link BenchmarkData}, then copies it to the id-keyed one.
+     */
+    private void seed(Statement statement) throws SQLException {
+        try (PreparedStatement insertUser = connection.prepareStatement("INSERT INTO by_name.users (name) VALUES (?)")) {
+            for (int u = 0; u < users; u++) {
+                insertUser.setString(1, BenchmarkData.userName(u));
+                insertUser.addBatch();
+            }
+            insertUser.executeBatch();
+        }
+        try (PreparedStatement insertExpense = connection.prepareStatement("INSERT INTO by_name.expenses " +
+                "(expense_date, group_name, expense_name, total_amount, split_type, created_by) " +
+                "VALUES (DATE '2025-05-01', ?, ?, 1000.00, 'PERCENTAGE', ?)");
+             PreparedStatement insertMapping = connection.prepareStatement(
+                     "INSERT INTO by_name.expense_user (expense_name, user_name) VALUES (?, ?)");
+             PreparedStatement insertShare = connection.prepareStatement(
+                     "INSERT INTO by_name.expense_share (expense_name, user_name, percentage, amount) VALUES (?, ?, 20.00, 200.00)")) {
+            for (int e = 0; e < expenses; e++) {
+                String expenseName = BenchmarkData.expenseName(e);
+                var members = BenchmarkData.participants(e, users, participants);
+                insertExpense.setString(1, BenchmarkData.GROUP);
+                insertExpense.setString(2, expenseName);
+                insertExpense.setString(3, members.get(e % members.size()));
+                insertExpense.addBatch();
+                for (String member : members) {
+                    insertMapping.setString(1, expenseName);
+                    insertMapping.setString(2, member);
+                    insertMapping.addBatch();
+                    insertShare.setString(1, expenseName);
+                    insertShare.setString(2, member);
+                    insertShare.addBatch();
+                }
+                if (e % 1000 == 999) {
+                    insertExpense.executeBatch();
+                    insertMapping.executeBatch();
+                    insertShare.executeBatch();
+                }
+            }
+            insertExpense.executeBatch();
+            insertMapping.executeBatch();
+            insertShare.executeBatch();
+        }
+
+        statement.execute("INSERT INTO by_id.users (id, name) SELECT id, name FROM by_name.users");
+        statement.execute("INSERT INTO by_id.expenses (id, expense_date, group_name, expense_name, total_amount, split_type, created_by_id) " +
+                "SELECT e.id, e.expense_date, e.group_name, e.expense_name, e.total_amount, e.split_type, u.id " +
+                "FROM by_name.expenses e JOIN by_name.users u ON u.name = e.created_by");
+        statement.execute("INSERT INTO by_id.expense_user (expense_id, user_id) SELECT e.id, u.id FROM by_name.expense_user eu " +
+                "JOIN by_name.expenses e ON e.expense_name = eu.expense_name JOIN by_name.users u ON u.name = eu.user_name");
+        statement.execute("INSERT INTO by_id.expense_share (id, expense_id, user_id, percentage, amount) " +
+                "SELECT es.id, e.id, u.id, es.percentage, es.amount FROM by_name.expense_share es " +
+                "JOIN by_name.expenses e ON e.expense_name = es.expense_name JOIN by_name.users u ON u.name = es.user_name");
+    }
+
+    /**
+     * Prints the storage used by the join tables of each schema.
+     */
+    private static void printSizes(Statement statement) throws SQLException {
+        for (String schema : new String[]{"BY_NAME", "BY_ID"}) {
+            long bytes = 0;
+            for (String table : new String[]{"EXPENSES", "EXPENSE_USER", "EXPENSE_SHARE"}) {
+                try (ResultSet size = statement.executeQuery("CALL DISK_SPACE_USED('" + schema + "." + table + "')")) {
+                    size.next();
+                    bytes += size.getLong(1);
+                }
+            }
+            System.out.printf("%n%s join tables: %.2f MB%n", schema, bytes / 1024.0 / 1024.0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.service.impl.BalanceSnapshot;
+import com.expenses.splitwise.service.impl.GroupBalanceEngine;
+import com.expenses.splitwise.service.impl.GroupLedger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GroupBalanceEngine#compute(GroupLedger, ForkJoinPool)} on an in-memory ledger for
+ * growing pool sizes; with many groups the time should drop close to linearly with {@code parallelism}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupBalanceBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"1000000"})
+    public int expenses;
+
+    @Param({"10000"})
+    public int groups;
+
+    @Param({"4"})
+    public int participants;
+
+    private GroupLedger ledger;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int users = Math.max(groups * participants / 2, participants);
+        ledger = new GroupLedger();
+        for (int i = 0; i < users; i++) {
+            ledger.addUser(i, BenchmarkData.userName(i));
+        }
+        SPLIT_TYPE[] splitTypes = SPLIT_TYPE.values();
+        for (int e = 0; e < expenses; e++) {
+            int group = e % groups;
+            SPLIT_TYPE splitType = splitTypes[e % splitTypes.length];
+            long total = random.nextInt(1, 1_000_000);
+            ledger.addExpense(e, "group-" + group, total, splitType, member(group, 0, users));
+            for (int p = 0; p < participants; p++) {
+                ledger.addParticipant(e, member(group, p, users));
+            }
+            if (splitType != SPLIT_TYPE.EQUAL) {
+                for (int p = 0; p < participants; p++) {
+                    ledger.addShare(e, member(group, p, users), 10_000L / participants, total / participants);
+                }
+            }
+        }
+        ledger.seal();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BalanceSnapshot compute() {
+        return GroupBalanceEngine.compute(ledger, pool);
+    }
+
+    /**
+     * Members of neighbouring groups overlap, so balances of shared users are merged across groups.
+     */
+    private int member(int group, int position, int users) {
+        return (group * participants / 2 + position) % users;
+    }
+}
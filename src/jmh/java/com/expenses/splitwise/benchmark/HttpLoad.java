@@ -0,0 +1,123 @@
+package com.expenses.splitwise.benchmark;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator shared by the load benchmarks.
+ * <p>
+ * Keeps a fixed number of request chains busy until the deadline; each chain sends its next
+ * request as soon as the previous one completes. Latencies of successful requests are kept per
+ * chain and merged once the run ends, so recording does not contend between chains.
+ * </p>
+ */
+final class HttpLoad {
+
+    private HttpLoad() {
+    }
+
+    /**
+     * Keeps {@code concurrency} request chains busy for {@code duration} and collects their latencies.
+     *
+     * @param concurrency number of requests in flight
+     * @param duration length of the run
+     * @param requests supplies the next request of a chain; called from HTTP client threads
+     * @return the sorted latencies and error count of the run
+     */
+    static Result run(int concurrency, Duration duration, Supplier<HttpRequest> requests) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        LatencyLog[] logs = new LatencyLog[concurrency];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            logs[i] = new LatencyLog();
+            next(client, requests, deadline, logs[i], errors, done);
+        }
+        done.await();
+
+        int total = Arrays.stream(logs).mapToInt(log -> log.size).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (LatencyLog log : logs) {
+            System.arraycopy(log.nanos, 0, latencies, offset, log.size);
+            offset += log.size;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get());
+    }
+
+    /**
+     * Sends one request and, once it completes, the next one on the same chain until the deadline passes.
+     */
+    private static void next(HttpClient client, Supplier<HttpRequest> requests, long deadline, LatencyLog log,
+                             AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            if (failure != null || response.statusCode() >= 300) {
+                errors.incrementAndGet();
+            } else {
+                log.add(System.nanoTime() - start);
+            }
+            next(client, requests, deadline, log, errors, done);
+        });
+    }
+
+    /**
+     * Reads an integer `name=value` argument, falling back to the default when absent.
+     */
+    static int intArg(String[] args, String name, int defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return Integer.parseInt(arg.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Growable latency buffer owned by a single request chain.
+     */
+    private static final class LatencyLog {
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void add(long latency) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latency;
+        }
+    }
+
+    /**
+     * Sorted successful latencies plus the error count of one run.
+     */
+    record Result(long[] sortedNanos, long errors) {
+
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentileMs(int percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.ExpenseDto;
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.service.ExpenseInterface;
+import com.expenses.splitwise.service.impl.IngestionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares expense creation throughput of the synchronous path with the write-behind ingestion.
+ * <p>
+ * Both run from many threads at once. The ingestion queue is kept small, so once it fills up the
+ * measured acknowledgements are bounded by what the group-committing writers apply; every iteration
+ * also waits for the queue to drain, so no backlog is carried into the next one.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class IngestionThroughputBenchmark {
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"4"})
+    public int partitions;
+
+    @Param({"200"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ExpenseInterface expenseInterface;
+
+    private IngestionServiceImpl ingestion;
+
+    private Path journal;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journal = Files.createTempDirectory("ingest-bench");
+        context = BenchmarkData.start(WebApplicationType.NONE,
+                "--splitwise.ingest.enabled=true",
+                "--splitwise.ingest.directory=" + journal,
+                "--splitwise.ingest.partitions=" + partitions,
+                "--splitwise.ingest.batch-size=" + batchSize,
+                "--splitwise.ingest.queue-capacity=2000");
+        BenchmarkData.seed(context.getBean(JdbcTemplate.class), users, 0, 1, SPLIT_TYPE.EQUAL);
+        expenseInterface = context.getBean(ExpenseInterface.class);
+        ingestion = context.getBean(IngestionServiceImpl.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws InterruptedException {
+        ingestion.awaitDrained(TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(journal);
+    }
+
+    @Benchmark
+    public ExpenseDto synchronous() {
+        return expenseInterface.createExpense(newExpense());
+    }
+
+    @Benchmark
+    public long ingested() {
+        IngestionCommand command = IngestionCommand.expense(newExpense());
+        while (true) {
+            var ack = ingestion.submit(command);
+            if (ack.isPresent()) {
+                return ack.get().getSequence();
+            }
+            // Queue full: back off like a client honouring Retry-After, scaled down
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private ExpenseDto newExpense() {
+        return new ExpenseDto(LocalDate.of(2025, 5, 1), BenchmarkData.GROUP, "ingest-" + sequence.getAndIncrement(),
+                new BigDecimal("1000.00"), SPLIT_TYPE.EQUAL, BenchmarkData.HOT_USER);
+    }
+}
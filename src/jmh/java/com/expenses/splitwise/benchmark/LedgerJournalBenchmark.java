@@ -0,0 +1,99 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.LedgerSyncPolicy;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.service.impl.LedgerJournal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures appending an expense with its participants to the {@link LedgerJournal} under each sync
+ * policy, and replaying a journal of {@code records} records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerJournalBenchmark {
+
+    @Param({"EVERY_WRITE", "INTERVAL", "OS"})
+    public LedgerSyncPolicy syncPolicy;
+
+    @Param({"1000000"})
+    public int records;
+
+    @Param({"4"})
+    public int participants;
+
+    private Path directory;
+
+    private Path replayDirectory;
+
+    private LedgerJournal journal;
+
+    private long expenseId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-append");
+        journal = LedgerJournal.open(directory, 1 << 20, syncPolicy);
+        replayDirectory = Files.createTempDirectory("ledger-replay");
+        try (LedgerJournal replay = LedgerJournal.open(replayDirectory, 1 << 20, LedgerSyncPolicy.OS)) {
+            for (long e = 0; e * (participants + 1) < records; e++) {
+                replay.append(expense(e));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        delete(directory);
+        delete(replayDirectory);
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        long sequence = journal.append(expense(expenseId++));
+        if (syncPolicy == LedgerSyncPolicy.INTERVAL && expenseId % 1000 == 0) {
+            // Stands in for the scheduled sync
+            journal.sync();
+        }
+        return sequence;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replay(Blackhole blackhole) throws IOException {
+        return LedgerJournal.read(replayDirectory, blackhole::consume);
+    }
+
+    private List<LedgerRecord> expense(long id) {
+        LedgerRecord[] expense = new LedgerRecord[participants + 1];
+        expense[0] = LedgerRecord.expense(id, SPLIT_TYPE.EQUAL, 10_000, 0);
+        for (int p = 0; p < participants; p++) {
+            expense[p + 1] = LedgerRecord.participant(id, p);
+        }
+        return List.of(expense);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.expenses.splitwise.benchmark.HttpLoad.intArg;
+
+/**
+ * HTTP load benchmark measuring what request-path logging costs.
+ * <p>
+ * Runs the `GET /users/{userName}/expense-shares` load of {@link VirtualThreadLoadBenchmark} once per
+ * logging mode:
+ * - `verbose`: the previous setup, every INFO line and every SQL statement written on the request thread
+ * - `async`: INFO lines queued to the background appender, controller lines and slow queries sampled
+ * - `off`: WARN and above only, no slow-query log
+ * </p>
+ * Redirect stdout to a file or /dev/null so the terminal does not become the bottleneck; the results
+ * table is printed to stderr:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenses.splitwise.benchmark.LoggingThroughputBenchmark \
+ *     -Dexec.args="concurrency=200 seconds=30" &gt; /dev/null
+ * </pre>
+ */
+public final class LoggingThroughputBenchmark {
+
+    private LoggingThroughputBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = intArg(args, "concurrency", 200);
+        int seconds = intArg(args, "seconds", 20);
+        int warmupSeconds = intArg(args, "warmup", 5);
+        int users = intArg(args, "users", 1000);
+        int expenses = intArg(args, "expenses", 20000);
+
+        Map<String, String[]> modes = new LinkedHashMap<>();
+        modes.put("verbose", new String[]{"--spring.profiles.active=sync-logging", "--logging.level.root=INFO",
+                "--spring.jpa.show-sql=true", "--splitwise.logging.sample-rates="});
+        modes.put("async", new String[]{"--logging.level.root=INFO"});
+        modes.put("off", new String[]{"--logging.level.root=WARN", "--splitwise.logging.slow-query-ms=0"});
+
+        System.err.printf("%-8s %12s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Map.Entry<String, String[]> mode : modes.entrySet()) {
+            try (ConfigurableApplicationContext context = BenchmarkData.start(WebApplicationType.SERVLET, mode.getValue())) {
+                BenchmarkData.seed(context.getBean(JdbcTemplate.class), users, expenses, 5, SPLIT_TYPE.EQUAL);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Supplier<HttpRequest> requests = () -> VirtualThreadLoadBenchmark.shareRequest(port, users);
+                HttpLoad.run(concurrency, Duration.ofSeconds(warmupSeconds), requests);
+                HttpLoad.Result result = HttpLoad.run(concurrency, Duration.ofSeconds(seconds), requests);
+                System.err.printf("%-8s %12.1f %10.2f %10.2f %8d%n", mode.getKey(),
+                        result.count() / (double) seconds, result.percentileMs(50), result.percentileMs(99), result.errors());
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.service.impl.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the BigDecimal share arithmetic with the {@link Money} cents arithmetic on the same inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private BigDecimal[] totals;
+
+    private BigDecimal[] percentages;
+
+    private long[] totalCents;
+
+    private long[] percentageHundredths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        totals = new BigDecimal[rows];
+        percentages = new BigDecimal[rows];
+        totalCents = new long[rows];
+        percentageHundredths = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            totalCents[i] = random.nextLong(1, 10_000_000);
+            percentageHundredths[i] = random.nextLong(0, 10_001);
+            totals[i] = BigDecimal.valueOf(totalCents[i], 2);
+            percentages[i] = BigDecimal.valueOf(percentageHundredths[i], 2);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimalShares(Blackhole blackhole) {
+        BigDecimal hundred = BigDecimal.valueOf(100);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal share = totals[i].multiply(percentages[i]).divide(hundred, 2, RoundingMode.HALF_UP);
+            blackhole.consume(totals[i].subtract(share));
+            blackhole.consume(totals[i].divide(BigDecimal.valueOf(3), 2, RoundingMode.HALF_UP).negate());
+        }
+    }
+
+    @Benchmark
+    public void centsShares(Blackhole blackhole) {
+        for (int i = 0; i < rows; i++) {
+            long share = Money.percentOf(totalCents[i], percentageHundredths[i]);
+            blackhole.consume(totalCents[i] - share);
+            blackhole.consume(-Money.equalShare(totalCents[i], 3, i % 3));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.service.impl.SettlementEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SettlementEngine#settle(long[])} on random zero-sum group balances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementBenchmark {
+
+    @Param({"200", "10000", "100000"})
+    public int members;
+
+    private long[] balances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        balances = new long[members];
+        long sum = 0;
+        for (int i = 0; i < members - 1; i++) {
+            balances[i] = random.nextLong(-1_000_000, 1_000_000);
+            sum += balances[i];
+        }
+        balances[members - 1] = -sum;
+    }
+
+    @Benchmark
+    public SettlementEngine.Transfers settle() {
+        return SettlementEngine.settle(balances);
+    }
+}
@@ -0,0 +1,56 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.service.UserInterface;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link UserInterface#calculateUserExpenseShares(String)} for a user mapped to every seeded expense.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShareCalculationBenchmark {
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"100", "1000", "10000"})
+    public int expenses;
+
+    @Param({"5"})
+    public int participants;
+
+    @Param({"EQUAL", "PERCENTAGE", "MANUAL"})
+    public SPLIT_TYPE splitType;
+
+    private ConfigurableApplicationContext context;
+
+    private UserInterface userInterface;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context.getBean(JdbcTemplate.class), users, expenses, participants, splitType);
+        userInterface = context.getBean(UserInterface.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ExpenseShareDto> calculateUserExpenseShares() {
+        return userInterface.calculateUserExpenseShares(BenchmarkData.HOT_USER);
+    }
+}
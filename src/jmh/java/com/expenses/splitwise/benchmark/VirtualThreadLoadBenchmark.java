@@ -0,0 +1,72 @@
+package com.expenses.splitwise.benchmark;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static com.expenses.splitwise.benchmark.HttpLoad.intArg;
+
+/**
+ * HTTP load benchmark comparing platform-thread and virtual-thread request execution.
+ * <p>
+ * For each mode it starts the full application on a random port against a seeded H2 database,
+ * then keeps `concurrency` requests in flight against `GET /users/{userName}/expense-shares`
+ * for the warmup and measurement windows. It prints, per mode:
+ * - Throughput in requests per second
+ * - p50, p99 and max latency
+ * - The number of failed requests (non-2xx or I/O errors, e.g. when the acquisition limit trips)
+ * </p>
+ * Virtual threads need a JDK 21 runtime, so run it with the `jdk21` profile:
+ * <pre>
+ * mvn -Pbenchmark,jdk21 test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenses.splitwise.benchmark.VirtualThreadLoadBenchmark \
+ *     -Dexec.args="concurrency=2000 seconds=30"
+ * </pre>
+ */
+public final class VirtualThreadLoadBenchmark {
+
+    private VirtualThreadLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = intArg(args, "concurrency", 1000);
+        int seconds = intArg(args, "seconds", 20);
+        int warmupSeconds = intArg(args, "warmup", 5);
+        int users = intArg(args, "users", 1000);
+        int expenses = intArg(args, "expenses", 20000);
+
+        System.out.printf("%-9s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = BenchmarkData.start(WebApplicationType.SERVLET,
+                    "--spring.threads.virtual.enabled=" + virtual)) {
+                BenchmarkData.seed(context.getBean(JdbcTemplate.class), users, expenses, 5, SPLIT_TYPE.EQUAL);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Supplier<HttpRequest> requests = () -> shareRequest(port, users);
+                HttpLoad.run(concurrency, Duration.ofSeconds(warmupSeconds), requests);
+                HttpLoad.Result result = HttpLoad.run(concurrency, Duration.ofSeconds(seconds), requests);
+                System.out.printf("%-9s %12.1f %10.2f %10.2f %10.2f %8d%n", virtual ? "virtual" : "platform",
+                        result.count() / (double) seconds, result.percentileMs(50), result.percentileMs(99),
+                        result.percentileMs(100), result.errors());
+            }
+        }
+    }
+
+    /**
+     * Builds a share listing request for a random seeded user.
+     */
+    static HttpRequest shareRequest(int port, int users) {
+        String user = BenchmarkData.userName(ThreadLocalRandom.current().nextInt(users));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + user + "/expense-shares"))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+}
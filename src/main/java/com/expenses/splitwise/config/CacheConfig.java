@@ -0,0 +1,65 @@
+package com.expenses.splitwise.config;
+
+import com.expenses.splitwise.dto.IdempotentResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the in-process lookup caches.
+ * <p>
+ * This class creates bounded Caffeine caches for:
+ * - Users by name, used on every expense write to resolve the creator
+ * - Completed responses by idempotency key, the hot index in front of the 'idempotency_key' table
+ * </p>
+ * Size and TTL eviction come from the Caffeine spec in `splitwise.cache.spec`, and from
+ * `splitwise.idempotency.cache-spec` for idempotent responses, which is bounded by weight in bytes
+ * (`maximumWeight`) since response bodies vary in size. Statistics are
+ * recorded so hit, miss and eviction counts are published as `cache.*` metrics. Cache writes and
+ * evictions are deferred until the surrounding transaction commits.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Cache of {@link com.expenses.splitwise.entity.User} entities keyed by user name */
+    public static final String USERS_BY_NAME = "usersByName";
+
+    /** Cache of {@link com.expenses.splitwise.dto.IdempotentResponse} keyed by idempotency key */
+    public static final String IDEMPOTENT_RESPONSES = "idempotentResponses";
+
+    /** Approximate bytes held by a cached response besides its body: entry, key and object headers */
+    static final int RESPONSE_OVERHEAD_BYTES = 256;
+
+    /**
+     * Creates the cache manager holding the lookup caches.
+     *
+     * @param spec Caffeine specification with the size and TTL limits
+     * @param idempotencySpec Caffeine specification for idempotent responses, with a `maximumWeight` in bytes
+     * @return the transaction-aware cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${splitwise.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec,
+                                     @Value("${splitwise.idempotency.cache-spec:maximumWeight=67108864,expireAfterWrite=10m}")
+                                     String idempotencySpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_BY_NAME);
+        cacheManager.setCaffeine(Caffeine.from(spec).recordStats());
+        cacheManager.registerCustomCache(IDEMPOTENT_RESPONSES, Caffeine.from(idempotencySpec)
+                .weigher(CacheConfig::responseWeight).recordStats().build());
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Weighs a cached idempotent response by its approximate size in bytes.
+     */
+    static int responseWeight(Object key, Object value) {
+        byte[] body = value instanceof IdempotentResponse response ? response.getBody() : null;
+        return RESPONSE_OVERHEAD_BYTES + (body != null ? body.length : 0);
+    }
+}
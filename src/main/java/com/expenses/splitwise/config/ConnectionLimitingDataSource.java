@@ -0,0 +1,116 @@
+package com.expenses.splitwise.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that caps how many callers may hold or wait for a pooled connection at once.
+ * <p>
+ * With virtual threads every request can reach the pool at the same time, so thousands of
+ * callers would otherwise queue inside the pool until its connection timeout. This wrapper:
+ * - Hands out at most the configured number of permits, one per open connection
+ * - Fails fast with {@link SQLTransientConnectionException} when no permit frees up in time
+ * - Releases the permit when the connection is closed
+ * </p>
+ * Waiting uses a {@link Semaphore}, which parks virtual threads without pinning their carrier.
+ *
+ * @see MySQLConfig
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    /** Permits for open connections */
+    private final Semaphore permits;
+
+    /** Maximum time in milliseconds to wait for a permit */
+    private final long acquireTimeoutMs;
+
+    /**
+     * Constructs a limiting wrapper around the given pool.
+     *
+     * @param target the pool handing out physical connections
+     * @param maxConnections maximum number of connections open through this wrapper
+     * @param acquireTimeoutMs maximum time in milliseconds to wait for a permit
+     */
+    public ConnectionLimitingDataSource(DataSource target, int maxConnections, long acquireTimeoutMs) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquirePermit();
+        try {
+            return limited(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquirePermit();
+        try {
+            return limited(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the wrapped pool if it is closeable.
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Waits for a free permit up to the configured timeout.
+     *
+     * @throws SQLTransientConnectionException if the limit is still reached after the timeout
+     */
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection acquisition limit reached, no connection available within " + acquireTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * Wraps the connection so that closing it returns the permit exactly once.
+     */
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,242 @@
+package com.expenses.splitwise.config;
+
+import com.expenses.splitwise.dto.IdempotencyClaim;
+import com.expenses.splitwise.dto.IdempotentResponse;
+import com.expenses.splitwise.service.IdempotencyInterface;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Makes write requests sent with an `Idempotency-Key` header safe to retry.
+ * <p>
+ * For a POST with the header this filter:
+ * 1. Fingerprints the method, path, parameters and body of the request
+ * 2. Claims the key; a retry of a completed request gets the stored response replayed with the
+ *    {@value #REPLAYED_HEADER} header, without running the request again
+ * 3. Runs the request and stores its response, or releases the key on a 5xx so the retry runs again
+ * </p>
+ * Once the request returned below 500 its writes are committed, so the key is never released after
+ * that: a response too large to store is recorded with its status only, and if it cannot be recorded
+ * at all the claim stays until `splitwise.idempotency.lock-timeout-ms`.
+ * A key reused with a different request is rejected with 422, and a retry arriving while the first
+ * request still runs gets 409 with `Retry-After`. Paths in `splitwise.idempotency.excluded-paths`
+ * are not handled; `/import` resumes by its `importId` instead and its body is streamed.
+ *
+ * @see IdempotencyInterface
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    /** Request header carrying the client's key */
+    public static final String KEY_HEADER = "Idempotency-Key";
+
+    /** Response header set on replayed responses */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /** Longest accepted key, matching the 'idempotency_key' column */
+    static final int MAX_KEY_LENGTH = 64;
+
+    /** Service recording responses by key */
+    private final IdempotencyInterface idempotencyInterface;
+
+    /** Paths whose requests are never handled */
+    private final Set<String> excludedPaths;
+
+    /**
+     * Constructs a new IdempotencyFilter.
+     *
+     * @param idempotencyInterface service recording responses by key
+     * @param excludedPaths comma-separated paths whose requests are never handled
+     */
+    public IdempotencyFilter(IdempotencyInterface idempotencyInterface,
+                             @Value("${splitwise.idempotency.excluded-paths:/import}") String[] excludedPaths) {
+        this.idempotencyInterface = idempotencyInterface;
+        this.excludedPaths = Set.of(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(KEY_HEADER) == null
+                || excludedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Form parameters are parsed before the body is read, so they survive the wrapper below
+        Map<String, String[]> parameters = request.getParameterMap();
+        byte[] body = request.getInputStream().readAllBytes();
+        long requestHash = fingerprint(request, parameters, body);
+
+        IdempotencyClaim claim = idempotencyInterface.claim(key, requestHash);
+        if (!claim.isOwned()) {
+            replay(response, claim.getRecorded(), requestHash);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean handled = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            handled = cachingResponse.getStatus() < 500;
+            if (handled) {
+                store(key, claim.getToken(), requestHash, cachingResponse);
+            }
+        } finally {
+            // Only a request that failed before committing may run again
+            if (!handled) {
+                idempotencyInterface.release(key, claim.getToken());
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Records the response of a handled request, keeping the claim if that fails.
+     */
+    private void store(String key, long token, long requestHash, ContentCachingResponseWrapper response) {
+        try {
+            if (!idempotencyInterface.complete(key, token, requestHash, response.getStatus(), response.getContentType(),
+                    response.getContentAsByteArray())) {
+                logger.warn("Response for idempotency key {} not stored, the claim was taken over", key);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Response for idempotency key {} not stored, retries wait for the claim to expire", key, e);
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotentResponse recorded, long requestHash)
+            throws IOException {
+        if (recorded.getRequestHash() != requestHash) {
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY, KEY_HEADER + " was already used for a different request");
+        } else if (recorded.inProgress()) {
+            response.setHeader("Retry-After", "1");
+            reject(response, HttpStatus.CONFLICT, "A request with this " + KEY_HEADER + " is still being processed");
+        } else {
+            response.setStatus(recorded.getStatus());
+            response.setHeader(REPLAYED_HEADER, "true");
+            if (recorded.getContentType() != null) {
+                response.setContentType(recorded.getContentType());
+            }
+            byte[] recordedBody = recorded.getBody() != null ? recorded.getBody() : new byte[0];
+            response.setContentLength(recordedBody.length);
+            response.getOutputStream().write(recordedBody);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    /**
+     * Returns the first 64 bits of the SHA-256 of the method, path, sorted parameters and body.
+     */
+    static long fingerprint(HttpServletRequest request, Map<String, String[]> parameters, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '\n').getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+                digest.update((parameter.getKey() + '=' + String.join(",", parameter.getValue()) + '\n')
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(body);
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request whose body, already read for the fingerprint, is served again from memory.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Notifies the listener at once: the whole body is in memory, so it is available and, once
+                 * the listener has read it, fully read.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.expenses.splitwise.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the application metrics that Spring Boot does not publish by itself.
+ * <p>
+ * Request rate, error rate and latency percentiles come from `http.server.requests`, repository
+ * method timings from `spring.data.repository.invocations` and connection-acquire time from
+ * `hikaricp.connections.acquire`; their histograms are enabled in `application.properties`.
+ * This class adds the per-request statement count, see {@link RequestMetricsFilter}.
+ * All meters are served at `/actuator/metrics` and, in Prometheus format, at `/actuator/prometheus`.
+ * </p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the application's data source in a {@link QueryCountingDataSource}.
+     * <p>
+     * Ordered, so it runs before unordered post-processors that wrap the data source again.
+     * </p>
+     *
+     * @return post-processor wrapping every data source bean once
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource() {
+        return new QueryCountingPostProcessor();
+    }
+
+    private static final class QueryCountingPostProcessor implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource target && !(bean instanceof QueryCountingDataSource)
+                    ? new QueryCountingDataSource(target) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.expenses.splitwise.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 
@@ -15,6 +20,17 @@ import javax.sql.DataSource;
  * configuration file (e.g., `application.properties` or `application.yml`) using
  * Spring's {@link Value} annotation.
  * </p>
+ * <p>
+ * Connections are served from HikariCP pools. When `splitwise.datasource.replica.url` is set,
+ * read-only transactions are routed to a second pool for the replica and writes stay on the
+ * primary. Pool metrics (active, idle, pending connections and acquire time) are published
+ * to Micrometer under the `hikaricp` prefix.
+ * </p>
+ * <p>
+ * When requests run on virtual threads (`spring.threads.virtual.enabled`), each pool is wrapped
+ * in a {@link ConnectionLimitingDataSource} so that at most `splitwise.datasource.acquire-limit.permits`
+ * callers (the pool size by default) hold or wait for a connection, and the rest fail fast.
+ * </p>
  */
 @Configuration
 public class MySQLConfig {
@@ -52,23 +68,147 @@ public class MySQLConfig {
     @Value("${spring.datasource.password}")
     private String dbPassword;
 
+    /**
+     * The JDBC driver class, defaulting to the official MySQL driver.
+     */
+    @Value("${spring.datasource.driver-class-name:com.mysql.cj.jdbc.Driver}")
+    private String driverClassName;
+
+    /**
+     * The URL of the read replica; read-only transactions use the primary when empty.
+     */
+    @Value("${splitwise.datasource.replica.url:}")
+    private String replicaUrl;
+
+    /**
+     * The username for the read replica, defaulting to the primary username.
+     */
+    @Value("${splitwise.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    /**
+     * The password for the read replica, defaulting to the primary password.
+     */
+    @Value("${splitwise.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    /**
+     * Maximum number of connections per pool.
+     */
+    @Value("${splitwise.datasource.pool.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    /**
+     * Minimum number of idle connections kept per pool.
+     */
+    @Value("${splitwise.datasource.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    /**
+     * Maximum time in milliseconds to wait for a connection before failing.
+     */
+    @Value("${splitwise.datasource.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    /**
+     * Time in milliseconds after which idle connections above the minimum are retired.
+     */
+    @Value("${splitwise.datasource.pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    /**
+     * Maximum lifetime in milliseconds of a pooled connection.
+     */
+    @Value("${splitwise.datasource.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    /**
+     * Time in milliseconds a connection may be held before a leak warning is logged, 0 to disable.
+     */
+    @Value("${splitwise.datasource.pool.leak-detection-threshold-ms:0}")
+    private long leakDetectionThresholdMs;
+
+    /**
+     * Whether requests are served on virtual threads.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Maximum number of callers holding or waiting for a connection per pool, 0 for the pool size
+     * on virtual threads and no limit otherwise.
+     */
+    @Value("${splitwise.datasource.acquire-limit.permits:0}")
+    private int acquireLimitPermits;
+
+    /**
+     * Maximum time in milliseconds to wait under the acquisition limit before failing.
+     */
+    @Value("${splitwise.datasource.acquire-limit.timeout-ms:1000}")
+    private long acquireLimitTimeoutMs;
+
     /**
      * Creates and configures the {@link DataSource} bean for connecting to the MySQL database.
      * <p>
-     * This method initializes a {@link DriverManagerDataSource} instance with the
-     * database connection properties (URL, username, and password). The driver class
-     * name is set to `com.mysql.cj.jdbc.Driver`, which is the official MySQL JDBC driver.
+     * This method builds a HikariCP pool for the primary database and, when configured, a
+     * second pool for the read replica. Both are wrapped in a {@link ReadWriteRoutingDataSource}
+     * so `@Transactional(readOnly = true)` work is served by the replica.
      * </p>
      *
+     * @param meterRegistry registry receiving pool metrics, if available
      * @return the configured {@link DataSource} instance for database interactions
      */
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource ds = new DriverManagerDataSource();
-        ds.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        ds.setUrl(dbUrl);
-        ds.setUsername(dbUsername);
-        ds.setPassword(dbPassword);
-        return ds;
+    public DataSource dataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        DataSource primary = limit(createPool("splitwise-primary", dbUrl, dbUsername, dbPassword, registry));
+        DataSource replica = StringUtils.hasText(replicaUrl)
+                ? limit(createPool("splitwise-replica", replicaUrl, replicaUsername, replicaPassword, registry))
+                : null;
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+
+    /**
+     * Applies the connection-acquisition limit to a pool when one is configured or virtual threads are on.
+     *
+     * @param pool the pool to limit
+     * @return the pool itself, or a {@link ConnectionLimitingDataSource} around it
+     */
+    private DataSource limit(HikariDataSource pool) {
+        int permits = acquireLimitPermits > 0 ? acquireLimitPermits : (virtualThreads ? maximumPoolSize : 0);
+        return permits > 0 ? new ConnectionLimitingDataSource(pool, permits, acquireLimitTimeoutMs) : pool;
+    }
+
+    /**
+     * Creates a HikariCP pool with the configured sizing, timeouts and leak detection.
+     *
+     * @param poolName name used in logs and as the metrics `pool` tag
+     * @param url the JDBC URL
+     * @param username the database username
+     * @param password the database password
+     * @param registry registry receiving pool metrics, may be null
+     * @return the started pool
+     */
+    private HikariDataSource createPool(String poolName, String url, String username, String password, MeterRegistry registry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setIdleTimeout(idleTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+        if (url.startsWith("jdbc:mysql:")) {
+            // Let the driver turn JDBC batches into multi-row INSERT statements
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+        if (registry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return new HikariDataSource(config);
     }
 }
@@ -0,0 +1,118 @@
+package com.expenses.splitwise.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Data source counting the SQL statements executed on the current thread.
+ * <p>
+ * {@link RequestMetricsFilter} opens a count for each request and records it when the request ends.
+ * Statements are counted where they reach JDBC, so those of `JdbcTemplate` are included as well as
+ * Hibernate's; a JDBC batch counts as one statement, matching a single round trip. Statements run
+ * outside a counted request, e.g. by scheduled jobs or on other threads, are not counted.
+ * </p>
+ * {@link MetricsConfig} wraps the application's data source; the pool behind it is reached through
+ * {@link #unwrap(Class)}, so its own metrics are unchanged.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    /** Statements executed so far by the request on this thread, null when no request is counted */
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    /**
+     * Constructs a new QueryCountingDataSource.
+     *
+     * @param target the data source running the statements
+     */
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Starts counting statements on the current thread.
+     */
+    public static void begin() {
+        COUNT.set(new long[1]);
+    }
+
+    /**
+     * Returns the number of statements executed since {@link #begin()}, 0 when nothing is being counted.
+     */
+    public static long current() {
+        long[] count = COUNT.get();
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return the number of statements executed since {@link #begin()}
+     */
+    public static long end() {
+        long count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, super.getConnection(), QueryCountingDataSource::onConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, super.getConnection(username, password), QueryCountingDataSource::onConnection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object onConnection(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        if (result instanceof Statement statement) {
+            Class<? extends Statement> type = (Class<? extends Statement>) method.getReturnType();
+            return wrap(type, statement, QueryCountingDataSource::onStatement);
+        }
+        return result;
+    }
+
+    private static Object onStatement(Object statement, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute")) {
+            long[] count = COUNT.get();
+            if (count != null) {
+                count[0]++;
+            }
+        }
+        return invoke(statement, method, args);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, Object target, Handler handler) {
+        // Identity semantics, so the transaction managers recognise the connection they bound
+        InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 && proxy == args[0];
+            case "hashCode" -> args == null ? System.identityHashCode(proxy) : handler.handle(target, method, args);
+            default -> handler.handle(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, invocationHandler));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
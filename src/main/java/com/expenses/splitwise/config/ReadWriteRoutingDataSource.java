@@ -0,0 +1,54 @@
+package com.expenses.splitwise.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource that routes read-only transactions to a replica pool and everything else to the primary pool.
+ * <p>
+ * Physical connections are fetched lazily on first use, after the transaction manager has marked
+ * the connection read-only for {@code @Transactional(readOnly = true)} work. At that point:
+ * - Read-only connections are taken from the replica pool, if one is configured
+ * - All other connections are taken from the primary pool
+ * </p>
+ * Closing this DataSource closes both underlying pools.
+ *
+ * @see MySQLConfig
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    /** Pool serving write and default transactions */
+    private final DataSource primary;
+
+    /** Pool serving read-only transactions, or null when no replica is configured */
+    private final DataSource replica;
+
+    /**
+     * Constructs a routing DataSource over the given pools.
+     *
+     * @param primary pool serving write and default transactions
+     * @param replica pool serving read-only transactions, may be null to use the primary for everything
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        if (replica != null) {
+            setReadOnlyDataSource(replica);
+        }
+    }
+
+    /**
+     * Closes the primary and replica pools.
+     */
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
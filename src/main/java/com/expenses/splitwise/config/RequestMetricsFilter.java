@@ -0,0 +1,62 @@
+package com.expenses.splitwise.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the number of SQL statements each request runs.
+ * <p>
+ * The count is published as the `splitwise.http.server.queries` distribution summary, tagged with
+ * the same `method` and `uri` as `http.server.requests`, so a jump in statements per request points
+ * at the endpoint that regressed. Which repository methods those statements come from, and how long
+ * each takes, is in the `spring.data.repository.invocations` timer.
+ * </p>
+ *
+ * @see QueryCountingDataSource
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    /** Name of the statements-per-request summary */
+    public static final String QUERIES_METRIC = "splitwise.http.server.queries";
+
+    /** Registry receiving the summary */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new RequestMetricsFilter.
+     *
+     * @param meterRegistry registry receiving the statements-per-request summary
+     */
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountingDataSource.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long queries = QueryCountingDataSource.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(QUERIES_METRIC)
+                    .description("SQL statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(queries);
+        }
+    }
+}
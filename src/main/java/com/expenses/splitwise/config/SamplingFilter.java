@@ -0,0 +1,89 @@
+package com.expenses.splitwise.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logback appender filter keeping only a fraction of the INFO and lower events of selected loggers.
+ * <p>
+ * Rates are configured in `logback-spring.xml` from `splitwise.logging.sample-rates`, a comma
+ * separated list of `logger=rate` pairs such as
+ * `com.expenses.splitwise.controller=0.01,org.hibernate.SQL_SLOW=0.1`. A rate applies to the named
+ * logger and its children, the most specific name wins, and:
+ * - Loggers without a rate, and WARN or ERROR events, are never sampled
+ * - A rate of 0 drops every INFO and lower event, 1 keeps all of them
+ * </p>
+ * The filter decides on the built event, so calls through the fluent API (`log.atInfo()...log()`) are
+ * sampled like classic ones, and a call guarded by `isInfoEnabled()` is sampled once. It is attached to
+ * the first appender an event reaches, so the asynchronous queue only holds kept events.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    /** Configured rate per logger name */
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+
+    /** Effective rate per logger, resolved on first use; 1 when no rate applies */
+    private final Map<String, Double> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the sampling rates, called by Logback with the `rates` element of the configuration.
+     *
+     * @param rates comma separated `logger=rate` pairs, may be empty
+     * @throws IllegalArgumentException if a pair is malformed or a rate is outside [0, 1]
+     */
+    public void setRates(String rates) {
+        this.rates.clear();
+        this.resolved.clear();
+        for (String pair : rates.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected logger=rate, got: " + pair);
+            }
+            double rate = Double.parseDouble(pair.substring(separator + 1).trim());
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + pair);
+            }
+            this.rates.put(pair.substring(0, separator).trim(), rate);
+        }
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rates.isEmpty() || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = resolved.computeIfAbsent(event.getLoggerName(), this::rateFor);
+        if (rate >= 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    /**
+     * Finds the rate of the most specific configured logger covering the given name.
+     */
+    private double rateFor(String loggerName) {
+        String name = loggerName;
+        while (true) {
+            Double rate = rates.get(name);
+            if (rate != null) {
+                return rate;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) {
+                return 1;
+            }
+            name = name.substring(0, dot);
+        }
+    }
+}
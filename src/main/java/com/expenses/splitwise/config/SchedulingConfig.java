@@ -0,0 +1,12 @@
+package com.expenses.splitwise.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling scheduled background jobs such as the balance reconciliation.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
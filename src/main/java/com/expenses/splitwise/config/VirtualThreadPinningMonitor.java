@@ -0,0 +1,102 @@
+package com.expenses.splitwise.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread.
+ * <p>
+ * Active only when requests run on virtual threads. A JFR stream listens for
+ * `jdk.VirtualThreadPinned` events, which the JDK emits when a virtual thread blocks inside
+ * a `synchronized` block or native frame (for example in a JDBC driver) for longer than the
+ * threshold in `splitwise.virtual-threads.pinned-threshold-ms`. Each event is:
+ * - Logged as a warning with the top frames of the pinned stack
+ * - Counted in the `splitwise.virtual.threads.pinned` metric
+ * </p>
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    /** JFR event emitted when a virtual thread blocks while pinned */
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /** Number of stack frames included in each warning */
+    private static final int REPORTED_FRAMES = 8;
+
+    /** Registry receiving the pinning counter, if available */
+    private final MeterRegistry meterRegistry;
+
+    /** Minimum pinned duration reported */
+    private final Duration threshold;
+
+    /** Stream receiving the pinning events */
+    private RecordingStream stream;
+
+    /**
+     * Constructs a new VirtualThreadPinningMonitor.
+     *
+     * @param meterRegistry registry receiving the pinning counter, if available
+     * @param thresholdMs minimum pinned duration in milliseconds that is reported
+     */
+    public VirtualThreadPinningMonitor(ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${splitwise.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    /**
+     * Starts listening for pinning events in the background.
+     */
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        logger.info("Reporting virtual threads pinned for more than {}ms", threshold.toMillis());
+    }
+
+    /**
+     * Stops the event stream.
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Logs and counts a single pinning event.
+     */
+    private void report(RecordedEvent event) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("splitwise.virtual.threads.pinned").increment();
+        }
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .limit(REPORTED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\tat "));
+        logger.warn("Virtual thread {} pinned for {}ms\n\tat {}",
+                event.getThread() == null ? "?" : event.getThread().getJavaName(), event.getDuration().toMillis(), stack);
+    }
+}
@@ -0,0 +1,77 @@
+package com.expenses.splitwise.controller;
+
+import com.expenses.splitwise.service.BalanceFeedInterface;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+/**
+ * REST controller for the Server-Sent Events balance feeds.
+ * <p>
+ * This controller provides feeds of committed balance changes for:
+ * - One user
+ * - Every member of one group
+ * </p>
+ * Each change is a `balance` event carrying a {@link com.expenses.splitwise.dto.BalanceDeltaDto}. A `resync`
+ * event means changes were dropped because the client fell behind; the client should reload the balance and
+ * keep the connection. Clients load the balance once after connecting and then only apply changes.
+ */
+@RestController
+@RequiredArgsConstructor
+public class BalanceFeedController {
+
+    /** Seconds a client should wait before reconnecting when the node is full */
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    /** Service pushing balance changes to subscribers */
+    private final BalanceFeedInterface balanceFeedInterface;
+
+    /**
+     * Opens the balance feed of a user.
+     *
+     * @param userName the name of the user
+     * @return the event stream, or 503 when the node has too many open feeds
+     */
+    @Operation(summary = "User balance feed", description = "Streams the balance changes of a user as Server-Sent Events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of balance and resync events"),
+            @ApiResponse(responseCode = "503", description = "Too many open feeds on this node")
+    })
+    @GetMapping(value = "/users/{userName}/balance-feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> userBalanceFeed(@PathVariable String userName) {
+        return stream(balanceFeedInterface.subscribeUser(userName));
+    }
+
+    /**
+     * Opens the balance feed of a group.
+     *
+     * @param groupName the name of the group
+     * @return the event stream, or 503 when the node has too many open feeds
+     */
+    @Operation(summary = "Group balance feed", description = "Streams the balance changes of a group's members as Server-Sent Events")
+    @GetMapping(value = "/groups/{groupName}/balance-feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> groupBalanceFeed(@PathVariable String groupName) {
+        return stream(balanceFeedInterface.subscribeGroup(groupName));
+    }
+
+    private static ResponseEntity<SseEmitter> stream(Optional<SseEmitter> emitter) {
+        if (emitter.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        // Proxies must pass events through as they are written
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter.get());
+    }
+}
@@ -0,0 +1,106 @@
+package com.expenses.splitwise.controller;
+
+import com.expenses.splitwise.dto.ExpenseDto;
+import com.expenses.splitwise.dto.ExpenseSharePercentage;
+import com.expenses.splitwise.dto.IngestionAckDto;
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.expenses.splitwise.service.IngestionInterface;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST controller for the write-behind ingestion, enabled with `splitwise.ingest.enabled=true`.
+ * <p>
+ * This controller provides asynchronous counterparts of the write endpoints:
+ * - Expense creation
+ * - Expense-user mappings
+ * - Expense shares
+ * </p>
+ * Each endpoint answers 202 with the journal sequence number once the write is durable, or 429 with
+ * `Retry-After` when too many writes are pending. Validation happens when the write is applied, so a
+ * rejected write is only reported in the logs and the `splitwise.ingest.failed` metric.
+ */
+@RestController
+@RequestMapping("/ingest")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "splitwise.ingest.enabled", havingValue = "true")
+public class IngestionController {
+
+    /** Seconds a client should wait before retrying a rejected write */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /** Service accepting writes into the ingestion queue */
+    private final IngestionInterface ingestionInterface;
+
+    /**
+     * Accepts an expense to create.
+     *
+     * @param expenseDto the expense data transfer object containing expense details
+     * @return ResponseEntity containing the acknowledgement or error details
+     */
+    @Operation(summary = "Ingest expense", description = "Queues an expense for creation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Sequence number of the durable write"),
+            @ApiResponse(responseCode = "429", description = "Too many pending writes")
+    })
+    @PostMapping("/expenses")
+    public ResponseEntity<?> ingestExpense(@RequestBody ExpenseDto expenseDto) {
+        return accept(IngestionCommand.expense(expenseDto));
+    }
+
+    /**
+     * Accepts users to map to an expense.
+     *
+     * @param expenseName the name of the expense
+     * @param request comma-separated user names
+     * @return ResponseEntity containing the acknowledgement or error details
+     */
+    @Operation(summary = "Ingest mapping", description = "Queues users to map to an expense")
+    @PostMapping("/expenses/{expenseName}/users")
+    public ResponseEntity<?> ingestUsers(@PathVariable String expenseName, @RequestParam String request) {
+        return accept(IngestionCommand.participants(expenseName, List.of(request.split(","))));
+    }
+
+    /**
+     * Accepts shares to add to an expense.
+     *
+     * @param expenseName the name of the expense
+     * @param shares the shares to add
+     * @return ResponseEntity containing the acknowledgement or error details
+     */
+    @Operation(summary = "Ingest shares", description = "Queues shares to add to an expense")
+    @PostMapping("/expenses/{expenseName}/shares")
+    public ResponseEntity<?> ingestShares(@PathVariable String expenseName,
+                                          @RequestBody List<ExpenseSharePercentage> shares) {
+        return accept(IngestionCommand.shares(expenseName, shares));
+    }
+
+    private ResponseEntity<?> accept(IngestionCommand command) {
+        try {
+            Optional<IngestionAckDto> ack = ingestionInterface.submit(command);
+            if (ack.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .body(Map.of("message", "Too many pending writes, retry later"));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ack.get());
+        } catch (Exception e) {
+            log.error("Failed to ingest {} for expense {}: {}", command.getType(), command.getExpenseName(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to ingest write: " + e.getMessage());
+        }
+    }
+}
@@ -3,8 +3,14 @@ package com.expenses.splitwise.controller;
 import com.expenses.splitwise.dto.*;
 import com.expenses.splitwise.entity.*;
 import com.expenses.splitwise.repository.*;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.BulkImportInterface;
+import com.expenses.splitwise.service.DataVersionInterface;
 import com.expenses.splitwise.service.ExpenseInterface;
+import com.expenses.splitwise.service.ExpenseShareInterface;
 import com.expenses.splitwise.service.ExpenseUserInterface;
+import com.expenses.splitwise.service.GroupInterface;
+import com.expenses.splitwise.service.TableExportInterface;
 import com.expenses.splitwise.service.UserInterface;
 import io.swagger.v3.oas.annotations.*;
 import io.swagger.v3.oas.annotations.media.*;
@@ -14,12 +20,31 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 /**
@@ -39,6 +64,15 @@ public class UserController {
     /** Logger instance for this class */
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    /** Response header carrying the cursor of the next keyset page */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Media type of the streaming exports */
+    private static final String NDJSON = "application/x-ndjson";
+
+    /** Media type of CSV imports */
+    private static final String CSV = "text/csv";
+
     /** Service for handling user-related operations */
     private final UserInterface userInterface;
 
@@ -48,6 +82,15 @@ public class UserController {
     /** Service for handling expense-user mapping operations */
     private final ExpenseUserInterface expenseUserInterface;
 
+    /** Service for handling expense share operations */
+    private final ExpenseShareInterface expenseShareInterface;
+
+    /** Service for reading and reconciling materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /** Service for handling group-level operations */
+    private final GroupInterface groupInterface;
+
     /** Repository for managing expense shares */
     private final ExpenseShareRepository expenseShareRepository;
 
@@ -60,6 +103,19 @@ public class UserController {
     /** Repository for managing expenses */
     private final ExpenseRepository expenseRepository;
 
+    /** Service streaming tables as NDJSON */
+    private final TableExportInterface tableExportInterface;
+
+    /** Service importing expenses, participants and shares in bulk */
+    private final BulkImportInterface bulkImportInterface;
+
+    /** Service reading the version counters behind the ETags */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Upper bound for the {@code limit} parameter of the listing endpoints */
+    @Value("${splitwise.listing.max-limit:1000}")
+    private int maxListingLimit;
+
     /**
      * Creates a new user.
      * <p>
@@ -83,7 +139,7 @@ public class UserController {
     })
     @PostMapping(value = "/addUsers")
     public ResponseEntity<?> createUser(@Parameter @RequestBody UserDto userDto) {
-        logger.info("Received request with userDto: {}", userDto);
+        logger.atInfo().addKeyValue("user", userDto.getName()).log("Creating user");
 
         if (userDto.getName() == null || userDto.getName().isBlank()) {
             return ResponseEntity.badRequest().body("Name cannot be null or empty");
@@ -91,7 +147,7 @@ public class UserController {
 
         try {
             UserDto createdUser = userInterface.createUser(userDto);
-            logger.info("Created user: {}", createdUser);
+            logger.atInfo().addKeyValue("user", createdUser.getName()).log("Created user");
             String message ="Successfully Created user: " + createdUser ;
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", message));
         } catch (Exception e) {
@@ -123,11 +179,12 @@ public class UserController {
     })
     @PostMapping("/addExpenses")
     public ResponseEntity<?> createExpense(@RequestBody ExpenseDto expenseDto) {
-        log.info("Attempting to create expense: {}", expenseDto);
+        log.atInfo().addKeyValue("expense", expenseDto.getExpenseName()).addKeyValue("createdBy", expenseDto.getCreatedBy())
+                .log("Creating expense");
 
         try {
             ExpenseDto createdExpense = expenseInterface.createExpense(expenseDto);
-            log.info("Successfully created expense: {}", createdExpense);
+            log.atInfo().addKeyValue("expense", createdExpense.getExpenseName()).log("Created expense");
             String message ="Successfully created expense: " + createdExpense ;
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", message));
         } catch (Exception e) {
@@ -163,11 +220,11 @@ public class UserController {
     public ResponseEntity<?> addUsersToExpense(
             @PathVariable String expenseName,
             @RequestParam String request) {
-        log.info("Adding users to expense: {}, users: {}", expenseName, request);
+        log.atInfo().addKeyValue("expense", expenseName).addKeyValue("users", request).log("Adding users to expense");
         try {
             List<String> userNames = List.of(request.split(","));
             expenseUserInterface.createExpenseUserMapping(expenseName, userNames);
-            log.info("Successfully added users to expense: {}", expenseName);
+            log.atInfo().addKeyValue("expense", expenseName).log("Added users to expense");
             String message ="Successfully added users to expense: " + expenseName + " with users: " + request;
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", message));
         } catch (Exception e) {
@@ -181,15 +238,19 @@ public class UserController {
     /**
      * Retrieves the expense shares for a specific user.
      * <p>
-     * This endpoint calculates and returns the expense shares for a given user.
+     * This endpoint calculates and returns the expense shares for a given user, tagged with the version
+     * of the user's expense shares. A request whose {@code If-None-Match} holds the current tag gets
+     * 304 Not Modified after a single version lookup.
      * </p>
      *
      * @param userName the name of the user
+     * @param ifNoneMatch the tags of the client's cached copies, if any
      * @return ResponseEntity containing the list of expense shares or error details
      */
     @Operation(summary = "Get expense-shares", description = "Fetch the expense-shares record from the database by passing user name")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Organisation response beans", content = { @Content(mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "The cached copy named in If-None-Match is current", content = @Content),
             @ApiResponse(responseCode = "400", description = "Error message with list of errors",  content = { @Content(mediaType = "application/json") }),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = { @Content(mediaType = "application/json",
                     schema = @Schema(implementation = Object.class)) }),
@@ -199,12 +260,15 @@ public class UserController {
                     schema = @Schema(implementation = Object.class)) })
     })
     @GetMapping("/users/{userName}/expense-shares")
-    public ResponseEntity<?> getUserExpenseShares(@PathVariable String userName) {
-        log.info("Retrieving expense shares for user: {}", userName);
+    public ResponseEntity<?> getUserExpenseShares(@PathVariable String userName,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.atDebug().addKeyValue("user", userName).log("Retrieving expense shares");
         try {
-            List<ExpenseShareDto> shares = userInterface.calculateUserExpenseShares(userName);
-            log.info("Successfully retrieved {} expense shares for user: {}", shares.size(), userName);
-            return ResponseEntity.ok(shares);
+            return conditional(ifNoneMatch, "user", dataVersionInterface.userVersion(userName), () -> {
+                List<ExpenseShareDto> shares = userInterface.calculateUserExpenseShares(userName);
+                log.atInfo().addKeyValue("user", userName).addKeyValue("shares", shares.size()).log("Retrieved expense shares");
+                return ResponseEntity.ok(shares);
+            });
         } catch (Exception e) {
             log.error("Failed to retrieve expense shares for user {}: {}", userName, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -213,6 +277,148 @@ public class UserController {
 
     }
 
+    /**
+     * Retrieves the materialized net balance of a specific user.
+     * <p>
+     * This endpoint reads the balance maintained on every write, without recomputing any share.
+     * </p>
+     *
+     * @param userName the name of the user
+     * @return ResponseEntity containing the user's balance or error details
+     */
+    @Operation(summary = "Get balance", description = "Fetch the materialized net balance of a user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User balance", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = UserBalanceDto.class))
+            }),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
+                    @Content(mediaType = "application/json")
+            })
+    })
+    @GetMapping("/users/{userName}/balance")
+    public ResponseEntity<?> getUserBalance(@PathVariable String userName) {
+        try {
+            return ResponseEntity.ok(balanceInterface.getBalance(userName));
+        } catch (Exception e) {
+            log.error("Failed to retrieve balance for user {}: {}", userName, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve balance: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes all balances from the raw tables and reports the ones that drifted.
+     *
+     * @return ResponseEntity containing the list of drifted balances or error details
+     */
+    @Operation(summary = "Reconcile balances", description = "Compares materialized balances with balances recomputed from the raw tables")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Drifted balances, empty when consistent", content = {
+                    @Content(mediaType = "application/json")
+            }),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
+                    @Content(mediaType = "application/json")
+            })
+    })
+    @GetMapping("/balances/reconciliation")
+    public ResponseEntity<?> reconcileBalances() {
+        try {
+            List<BalanceDriftDto> drifts = balanceInterface.reconcile();
+            log.atInfo().addKeyValue("drifted", drifts.size()).log("Balance reconciliation finished");
+            return ResponseEntity.ok(drifts);
+        } catch (Exception e) {
+            log.error("Failed to reconcile balances: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to reconcile balances: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the payments that settle every expense of a group.
+     * <p>
+     * This endpoint nets all members' balances in the group and returns who pays whom.
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @return ResponseEntity containing the list of settlement transfers or error details
+     */
+    @Operation(summary = "Get group settlements", description = "Computes who pays whom to settle all expenses of a group")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Settlement transfers, empty when everyone is even", content = {
+                    @Content(mediaType = "application/json")
+            }),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
+                    @Content(mediaType = "application/json")
+            })
+    })
+    @GetMapping("/groups/{groupName}/settlements")
+    public ResponseEntity<?> getGroupSettlements(@PathVariable String groupName) {
+        log.atDebug().addKeyValue("group", groupName).log("Calculating settlements");
+        try {
+            List<SettlementTransferDto> transfers = groupInterface.calculateSettlements(groupName);
+            log.atInfo().addKeyValue("group", groupName).addKeyValue("transfers", transfers.size()).log("Calculated settlements");
+            return ResponseEntity.ok(transfers);
+        } catch (Exception e) {
+            log.error("Failed to calculate settlements for group {}: {}", groupName, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to calculate settlements: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the running totals of a group.
+     * <p>
+     * The totals are maintained when expenses and participants are added, so this reads one row
+     * whatever the size of the group.
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @return ResponseEntity containing the number of expenses and members and the total amount, or 404
+     */
+    @Operation(summary = "Get group", description = "Returns the expense count, member count and total amount of a group")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Running totals of the group", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = GroupSummaryDto.class))
+            }),
+            @ApiResponse(responseCode = "404", description = "Group not found")
+    })
+    @GetMapping("/groups/{groupName}")
+    public ResponseEntity<GroupSummaryDto> getGroup(@PathVariable String groupName) {
+        return groupInterface.getGroup(groupName)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves the expenses of a group, newest first.
+     * <p>
+     * Returns one keyset page ordered by date then id, both descending, starting after the opaque cursor
+     * given in {@code after}; the {@value #NEXT_CURSOR_HEADER} response header carries the cursor of the
+     * next page. Each page is read from the group's range of the (group, date) index.
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @param limit maximum number of expenses to return, capped at `splitwise.listing.max-limit`
+     * @param after cursor of the previous page, as returned in {@value #NEXT_CURSOR_HEADER}
+     * @return ResponseEntity containing the page of expenses, each with its creator's id and name
+     */
+    @Operation(summary = "Get group expenses", description = "Lists the expenses of a group, newest first, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of expenses, empty past the last page", content = {
+                    @Content(mediaType = "application/json")
+            })
+    })
+    @GetMapping("/groups/{groupName}/expenses")
+    public ResponseEntity<List<ExpenseListingDto>> getGroupExpenses(@PathVariable String groupName,
+                                                                    @RequestParam(defaultValue = "50") int limit,
+                                                                    @RequestParam(required = false) String after) {
+        // The first page starts after the last date a DATE column holds
+        Map.Entry<LocalDate, Long> key = after == null ? Map.entry(LocalDate.of(9999, 12, 31), Long.MAX_VALUE)
+                : decodeCursor(after, (date, id) -> Map.entry(LocalDate.parse(date), Long.valueOf(id)));
+        List<ExpenseListingDto> expenses = expenseRepository.findGroupListingsBefore(groupName, key.getKey(), key.getValue(), page(limit));
+        return keysetPage(expenses, limit, expense -> encodeCursor(expense.getExpenseDate(), expense.getId()));
+    }
+
     /**
      * Adds shares for a specific expense.
      * <p>
@@ -240,17 +446,10 @@ public class UserController {
             @PathVariable String expenseName,
             @RequestBody List<ExpenseSharePercentage> shares) {
 
-        log.info("Adding shares for expense: {}, count: {}", expenseName, shares.size());
+        log.atDebug().addKeyValue("expense", expenseName).addKeyValue("shares", shares.size()).log("Adding shares");
         try {
-            shares.forEach(shareDto -> {
-                ExpenseShare share = new ExpenseShare();
-                share.setExpenseName(expenseName);
-                share.setUserName(shareDto.getUserName());
-                share.setPercentage(shareDto.getPercentage());
-                share.setAmount(shareDto.getAmount());
-                expenseShareRepository.save(share);
-            });
-            log.info("Successfully added {} shares for expense: {}", shares.size(), expenseName);
+            expenseShareInterface.addShares(expenseName, shares);
+            log.atInfo().addKeyValue("expense", expenseName).addKeyValue("shares", shares.size()).log("Added shares");
             String message ="Successfully added "+ shares.size() + " shares for expense: " + expenseName;
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", message));
         } catch (Exception e) {
@@ -263,60 +462,242 @@ public class UserController {
 
 
     /**
-     * Retrieves all users.
+     * Retrieves users.
      * <p>
-     * This endpoint fetches and returns a list of all users in the system.
+     * Without {@code limit} this endpoint returns every user. With {@code limit} it returns one
+     * keyset page ordered by id, starting after the id given in {@code after}; the
+     * {@value #NEXT_CURSOR_HEADER} response header carries the cursor of the next page.
      * </p>
+     * Every listing is tagged with the version of its table and answers 304 Not Modified, after a single
+     * version lookup, when {@code If-None-Match} holds the current tag.
      *
+     * @param limit maximum number of users to return, capped at `splitwise.listing.max-limit`
+     * @param after cursor of the previous page (the last user id)
+     * @param ifNoneMatch the tags of the client's cached copies, if any
      * @return ResponseEntity containing the list of users
      */
     @GetMapping("/getUsers")
-    public List<User> getUser() {
-        List<User> userDto= userRepository.findAll();
-        return userDto;
+    public ResponseEntity<List<User>> getUser(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listing(ExportTable.USERS, ifNoneMatch, () -> {
+            if (limit == null) {
+                return ResponseEntity.ok(userRepository.findAll());
+            }
+            List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L, page(limit));
+            return keysetPage(users, limit, user -> String.valueOf(user.getId()));
+        });
     }
 
     /**
-     * Retrieves all expenses.
+     * Retrieves expenses.
      * <p>
-     * This endpoint fetches and returns a list of all expenses in the system.
+     * Without {@code limit} this endpoint returns every expense. With {@code limit} it returns one
+     * keyset page ordered by id, starting after the id given in {@code after}.
      * </p>
      *
-     * @return ResponseEntity containing the list of expenses
+     * @param limit maximum number of expenses to return, capped at `splitwise.listing.max-limit`
+     * @param after cursor of the previous page (the last expense id)
+     * @param ifNoneMatch the tags of the client's cached copies, if any
+     * @return ResponseEntity containing the list of expenses, each with its creator's id and name
      */
     @GetMapping("/getExpensese")
-    public List<Expense> getExpensese() {
-        List<Expense> expenses = expenseRepository.findAll();
-        return expenses;
+    public ResponseEntity<List<ExpenseListingDto>> getExpensese(@RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) Long after,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listing(ExportTable.EXPENSES, ifNoneMatch, () -> {
+            if (limit == null) {
+                return ResponseEntity.ok(expenseRepository.findAllListings());
+            }
+            List<ExpenseListingDto> expenses = expenseRepository.findListingsAfter(after != null ? after : 0L, page(limit));
+            return keysetPage(expenses, limit, expense -> String.valueOf(expense.getId()));
+        });
     }
 
     /**
-     * Retrieves all expense-user mappings.
+     * Retrieves expense-user mappings.
      * <p>
-     * This endpoint fetches and returns a list of all expense-user mappings in the system.
+     * Without {@code limit} this endpoint returns every mapping. With {@code limit} it returns one
+     * keyset page ordered by (expense id, user id), starting after the opaque cursor given in {@code after}.
+     * A cursor this endpoint did not return is answered with 400 Bad Request.
      * </p>
      *
-     * @return ResponseEntity containing the list of expense-user mappings
+     * @param limit maximum number of mappings to return, capped at `splitwise.listing.max-limit`
+     * @param after cursor of the previous page, as returned in {@value #NEXT_CURSOR_HEADER}
+     * @param ifNoneMatch the tags of the client's cached copies, if any
+     * @return ResponseEntity containing the list of expense-user mappings, with the expense and user names
      */
     @GetMapping("/getExpenseUser")
-    public List<ExpenseUser> getExpenseUser() {
-        List<ExpenseUser> expenseUsers = expenseUserRepository.findAll();
-        return expenseUsers;
+    public ResponseEntity<List<ExpenseUserListingDto>> getExpenseUser(@RequestParam(required = false) Integer limit,
+                                                                      @RequestParam(required = false) String after,
+                                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listing(ExportTable.EXPENSE_USERS, ifNoneMatch, () -> {
+            if (limit == null) {
+                return ResponseEntity.ok(expenseUserRepository.findAllListings());
+            }
+            ExpenseUserId key = after == null ? new ExpenseUserId(0L, 0L)
+                    : decodeCursor(after, (expenseId, userId) -> new ExpenseUserId(Long.valueOf(expenseId), Long.valueOf(userId)));
+            List<ExpenseUserListingDto> expenseUsers = expenseUserRepository.findListingsAfter(key.getExpenseId(), key.getUserId(), page(limit));
+            return keysetPage(expenseUsers, limit, expenseUser -> encodeCursor(expenseUser.getExpenseId(), expenseUser.getUserId()));
+        });
     }
 
     /**
-     * Retrieves all expense shares.
+     * Retrieves expense shares.
      * <p>
-     * This endpoint fetches and returns a list of all expense shares in the system.
+     * Without {@code limit} this endpoint returns every share. With {@code limit} it returns one
+     * keyset page ordered by id, starting after the id given in {@code after}.
      * </p>
      *
-     * @return ResponseEntity containing the list of expense shares
+     * @param limit maximum number of shares to return, capped at `splitwise.listing.max-limit`
+     * @param after cursor of the previous page (the last share id)
+     * @param ifNoneMatch the tags of the client's cached copies, if any
+     * @return ResponseEntity containing the list of expense shares, with the expense and user names
      */
     @GetMapping("/getExpenseShare")
-    public List<ExpenseShare> getExpenseShare() {
-        List<ExpenseShare> expenseShares = expenseShareRepository.findAll();
-        return expenseShares;
+    public ResponseEntity<List<ExpenseShareListingDto>> getExpenseShare(@RequestParam(required = false) Integer limit,
+                                                                        @RequestParam(required = false) Long after,
+                                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listing(ExportTable.EXPENSE_SHARES, ifNoneMatch, () -> {
+            if (limit == null) {
+                return ResponseEntity.ok(expenseShareRepository.findAllListings());
+            }
+            List<ExpenseShareListingDto> expenseShares = expenseShareRepository.findListingsAfter(after != null ? after : 0L, page(limit));
+            return keysetPage(expenseShares, limit, share -> String.valueOf(share.getId()));
+        });
+    }
+
+    /**
+     * Streams a whole table as newline-delimited JSON.
+     * <p>
+     * Rows are read through a forward-only cursor and written straight to the response,
+     * so memory use does not depend on the table size.
+     * </p>
+     *
+     * @param table one of `users`, `expenses`, `expense-users` or `expense-shares`
+     * @return ResponseEntity streaming one JSON object per row
+     */
+    @Operation(summary = "Export table", description = "Streams users, expenses, expense-users or expense-shares as NDJSON")
+    @GetMapping(value = "/export/{table}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTable(@PathVariable String table) {
+        ExportTable exportTable;
+        try {
+            exportTable = ExportTable.valueOf(table.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            long rows = tableExportInterface.export(exportTable, out);
+            log.atInfo().addKeyValue("table", exportTable).addKeyValue("rows", rows).log("Exported table");
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Imports expenses, participants and shares from a CSV or NDJSON upload.
+     * <p>
+     * The body is read as a stream and committed in chunks; rejected rows are listed in the report
+     * without failing the rest of the file. Sending the same `importId` again resumes after the
+     * last committed chunk.
+     * </p>
+     *
+     * @param importId the id of the import, generated when absent
+     * @param contentType `text/csv` or `application/x-ndjson`
+     * @param body the uploaded file, one row per line
+     * @return ResponseEntity containing the import report or error details
+     */
+    @Operation(summary = "Bulk import", description = "Imports expense, participant and share rows from CSV or NDJSON")
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<?> importRows(@RequestParam(required = false) String importId,
+                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        InputStream body) {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? ImportFormat.CSV : ImportFormat.NDJSON;
+        String id = importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString();
+        try {
+            ImportReportDto report = bulkImportInterface.importRows(id, format, body);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            log.error("Import {} failed: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("importId", id, "message", "Import failed, resend with the same importId to resume: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Builds the page request for a keyset query, capping the requested size.
+     */
+    private Pageable page(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, maxListingLimit)));
     }
 
+    /**
+     * Wraps a keyset page, adding the next-page cursor when the page is full.
+     */
+    private <T> ResponseEntity<List<T>> keysetPage(List<T> rows, int limit, Function<T, String> cursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!rows.isEmpty() && rows.size() >= Math.min(limit, maxListingLimit)) {
+            response.header(NEXT_CURSOR_HEADER, cursor.apply(rows.get(rows.size() - 1)));
+        }
+        return response.body(rows);
+    }
+
+    /**
+     * Answers a listing conditionally on the version of its table.
+     */
+    private <T> ResponseEntity<T> listing(ExportTable table, String ifNoneMatch, Supplier<ResponseEntity<T>> response) {
+        return conditional(ifNoneMatch, table.name().toLowerCase(Locale.ROOT), dataVersionInterface.tableVersion(table), response);
+    }
 
+    /**
+     * Answers a GET conditionally on a version counter, computing the response only when the client's copy is stale.
+     * <p>
+     * The strong ETag is the scope and the version. When {@code If-None-Match} lists it, or is *, the
+     * response is 304 Not Modified and nothing else is read. The version is looked up before the response is
+     * computed, so a tag is never newer than the content it is sent with. Without a version, because the scope
+     * was never changed through the service layer, the response is computed and sent untagged.
+     * </p>
+     */
+    private static <T> ResponseEntity<T> conditional(String ifNoneMatch, String scope, Optional<Long> version,
+                                                     Supplier<ResponseEntity<T>> response) {
+        if (version.isEmpty()) {
+            return response.get();
+        }
+        String etag = "\"" + scope + "-" + version.get() + "\"";
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+                }
+            }
+        }
+        ResponseEntity<T> computed = response.get();
+        return ResponseEntity.status(computed.getStatusCode()).headers(computed.getHeaders())
+                .eTag(etag).cacheControl(CacheControl.noCache()).body(computed.getBody());
+    }
+
+    private static String encodeCursor(Object first, Long second) {
+        String key = first + ":" + second;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor built by {@link #encodeCursor(Object, Long)} and parses its two parts.
+     *
+     * @throws ResponseStatusException with 400 Bad Request when the cursor is not base64, has no separator,
+     *         or a part does not parse
+     */
+    private static <T> T decodeCursor(String cursor, BiFunction<String, String, T> parts) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("No separator");
+            }
+            return parts.apply(key.substring(0, separator), key.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed cursor: " + cursor, e);
+        }
+    }
 }
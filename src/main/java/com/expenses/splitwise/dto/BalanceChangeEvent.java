@@ -0,0 +1,27 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Application event carrying the balance changes of one expense refresh, published inside its transaction.
+ * <p>
+ * Listeners that push changes to clients receive it through a {@code @TransactionalEventListener},
+ * so only committed balances are pushed.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceChangeEvent {
+    /**
+     * Name of the group of the refreshed expense
+     */
+    private String groupName;
+
+    /**
+     * One change per user whose balance changed
+     */
+    private List<BalanceDeltaDto> deltas;
+}
@@ -0,0 +1,44 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for one change of a user's materialized balance, pushed on the balance feeds.
+ * <p>
+ * Contains:
+ * - The user whose balance changed
+ * - The expense whose participants or shares caused the change, and its group
+ * - The change and the balance after it
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDeltaDto {
+    /**
+     * Username of the person whose balance changed
+     */
+    private String userName;
+
+    /**
+     * Name of the group of the expense
+     */
+    private String groupName;
+
+    /**
+     * Name of the expense that changed
+     */
+    private String expenseName;
+
+    /**
+     * Amount added to the balance, negative when the user owes more
+     */
+    private BigDecimal delta;
+
+    /**
+     * Balance after the change
+     */
+    private BigDecimal balance;
+}
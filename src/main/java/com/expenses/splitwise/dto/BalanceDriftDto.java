@@ -0,0 +1,34 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object describing a materialized balance that differs from the raw tables.
+ * <p>
+ * Produced by the balance reconciliation and contains:
+ * - The user whose balance drifted
+ * - The balance recomputed from expenses, mappings and shares
+ * - The balance currently stored in 'user_balance'
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDriftDto {
+    /**
+     * Username of the balance owner
+     */
+    private String userName;
+
+    /**
+     * Balance recomputed from the raw tables
+     */
+    private BigDecimal expectedBalance;
+
+    /**
+     * Balance stored in the materialized table
+     */
+    private BigDecimal actualBalance;
+}
@@ -0,0 +1,59 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Row of the expense listing, read as a projection of 'expenses' joined with its creator.
+ * <p>
+ * Contains:
+ * - The expense id, date, group, name, total amount and split type
+ * - The creator's id and name
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseListingDto {
+    /**
+     * Id of the expense, the cursor of the listing
+     */
+    private Long id;
+
+    /**
+     * Date when the expense was created or incurred
+     */
+    private LocalDate expenseDate;
+
+    /**
+     * Name of the group the expense belongs to
+     */
+    private String groupName;
+
+    /**
+     * Unique name of the expense
+     */
+    private String expenseName;
+
+    /**
+     * Total amount of the expense
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * Type of split applied to the expense
+     */
+    private SPLIT_TYPE splitType;
+
+    /**
+     * Id of the user who created the expense
+     */
+    private Long createdById;
+
+    /**
+     * Name of the user who created the expense
+     */
+    private String createdBy;
+}
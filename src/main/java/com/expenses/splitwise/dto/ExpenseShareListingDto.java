@@ -0,0 +1,54 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of the expense share listing, read as a projection of 'expense_share' joined with the names it refers to.
+ * <p>
+ * Contains:
+ * - The share id
+ * - The expense id and name, and the user's id and name
+ * - The stored percentage or amount, whichever applies to the expense's split type
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseShareListingDto {
+    /**
+     * Id of the share, the cursor of the listing
+     */
+    private Long id;
+
+    /**
+     * Id of the expense
+     */
+    private Long expenseId;
+
+    /**
+     * Unique name of the expense
+     */
+    private String expenseName;
+
+    /**
+     * Id of the user the share belongs to
+     */
+    private Long userId;
+
+    /**
+     * Name of the user the share belongs to
+     */
+    private String userName;
+
+    /**
+     * Stored percentage, for PERCENTAGE expenses
+     */
+    private BigDecimal percentage;
+
+    /**
+     * Stored amount, for MANUAL expenses
+     */
+    private BigDecimal amount;
+}
@@ -0,0 +1,36 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Row of the expense-user listing, read as a projection of 'expense_user' joined with the names it refers to.
+ * <p>
+ * Contains:
+ * - The expense id and name
+ * - The participant's id and name
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseUserListingDto {
+    /**
+     * Id of the expense
+     */
+    private Long expenseId;
+
+    /**
+     * Unique name of the expense
+     */
+    private String expenseName;
+
+    /**
+     * Id of the participant
+     */
+    private Long userId;
+
+    /**
+     * Name of the participant
+     */
+    private String userName;
+}
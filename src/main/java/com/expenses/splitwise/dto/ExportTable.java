@@ -0,0 +1,76 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the tables that can be streamed as NDJSON, with the query and JSON field names used for each.
+ * <p>
+ * Field names are listed in the order of the selected columns:
+ * - USERS: users ordered by id
+ * - EXPENSES: expenses ordered by id, with the creator's id
+ * - EXPENSE_USERS: expense-user mappings in primary key order
+ * - EXPENSE_SHARES: expense shares ordered by id
+ * </p>
+ */
+public enum ExportTable {
+    /**
+     * All users
+     */
+    USERS("SELECT id, name FROM users ORDER BY id", "id", "name"),
+
+    /**
+     * All expenses
+     */
+    EXPENSES("SELECT id, expense_date, group_name, expense_name, total_amount, split_type, created_by_id " +
+            "FROM expenses ORDER BY id",
+            "id", "expenseDate", "groupName", "expenseName", "totalAmount", "splitType", "createdById"),
+
+    /**
+     * All expense-user mappings
+     */
+    EXPENSE_USERS("SELECT expense_id, user_id FROM expense_user ORDER BY expense_id, user_id",
+            "expenseId", "userId"),
+
+    /**
+     * All expense shares
+     */
+    EXPENSE_SHARES("SELECT id, expense_id, user_id, percentage, amount FROM expense_share ORDER BY id",
+            "id", "expenseId", "userId", "percentage", "amount");
+
+    /** Query selecting the exported rows */
+    private final String sql;
+
+    /** JSON field name of each selected column */
+    private final String[] fields;
+
+    ExportTable(String sql, String... fields) {
+        this.sql = sql;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the query selecting the exported rows.
+     *
+     * @return the SQL query
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the JSON field name of a selected column.
+     *
+     * @param column the zero-based column index
+     * @return the field name
+     */
+    public String getField(int column) {
+        return fields[column];
+    }
+
+    /**
+     * Returns the number of selected columns.
+     *
+     * @return the column count
+     */
+    public int getFieldCount() {
+        return fields.length;
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals of a group, read from its 'expense_groups' row.
+ * <p>
+ * Contains:
+ * - The group name
+ * - The number of expenses and members
+ * - The sum of the total amounts of the expenses
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupSummaryDto {
+    /**
+     * Unique name of the group
+     */
+    private String name;
+
+    /**
+     * Number of expenses in the group
+     */
+    private long expenseCount;
+
+    /**
+     * Number of users who created or take part in an expense of the group
+     */
+    private long memberCount;
+
+    /**
+     * Sum of the total amounts of the group's expenses
+     */
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,49 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object holding the outcome of claiming an idempotency key.
+ * <p>
+ * Contains either:
+ * - The claim token, when the caller now owns the key and must run the request
+ * - The response recorded for the key, when another request owns or completed it
+ * </p>
+ * The token is the creation time of the claim. The key is only completed or released while it still
+ * holds that claim, so a request whose claim was taken over by a retry leaves the retry's claim alone.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyClaim {
+    /**
+     * Token of the claim, meaningful only when no response is recorded
+     */
+    private long token;
+
+    /**
+     * Response recorded for the key, null when the caller owns the key
+     */
+    private IdempotentResponse recorded;
+
+    /**
+     * Returns the outcome of a claim the caller now owns.
+     */
+    public static IdempotencyClaim owned(long token) {
+        return new IdempotencyClaim(token, null);
+    }
+
+    /**
+     * Returns the outcome of a claim refused because the key already holds a response or a claim.
+     */
+    public static IdempotencyClaim refused(IdempotentResponse recorded) {
+        return new IdempotencyClaim(0, recorded);
+    }
+
+    /**
+     * Returns whether the caller owns the key and must run the request.
+     */
+    public boolean isOwned() {
+        return recorded == null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object holding the response recorded for an idempotency key.
+ * <p>
+ * Contains:
+ * - The fingerprint of the request the key was first used with
+ * - The response status, {@value #IN_PROGRESS} while that request is still processed
+ * - The response content type and body, replayed to retries
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+    /** Status recorded while the first request is still processed */
+    public static final int IN_PROGRESS = 0;
+
+    /**
+     * Fingerprint of the first request
+     */
+    private long requestHash;
+
+    /**
+     * HTTP status of the response
+     */
+    private int status;
+
+    /**
+     * Content type of the response, may be null
+     */
+    private String contentType;
+
+    /**
+     * Body of the response, null when it was too large to store
+     */
+    private byte[] body;
+
+    /**
+     * Returns whether the first request with this key has not completed yet.
+     */
+    public boolean inProgress() {
+        return status == IN_PROGRESS;
+    }
+}
@@ -0,0 +1,21 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the file formats accepted by the bulk import.
+ * <p>
+ * - CSV: a header line naming the {@link ImportRow} columns, then one row per line
+ * - NDJSON: one {@link ImportRow} JSON object per line
+ * </p>
+ * Rows must not span lines in either format.
+ */
+public enum ImportFormat {
+    /**
+     * Comma-separated values with a header line
+     */
+    CSV,
+
+    /**
+     * Newline-delimited JSON
+     */
+    NDJSON
+}
@@ -0,0 +1,51 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object summarizing a bulk import.
+ * <p>
+ * Contains:
+ * - The import id, to pass again to resume an interrupted import
+ * - The number of rows skipped because an earlier run already committed them
+ * - The number of rows imported and rejected by this run
+ * - The rejected rows, up to `splitwise.import.max-reported-errors`
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDto {
+    /**
+     * Id of the import
+     */
+    private String importId;
+
+    /**
+     * Rows skipped because they were committed by an earlier run
+     */
+    private long rowsSkipped;
+
+    /**
+     * Rows imported by this run
+     */
+    private long rowsImported;
+
+    /**
+     * Rows rejected by this run
+     */
+    private long rowsFailed;
+
+    /**
+     * Rejected rows, capped at the configured maximum
+     */
+    private List<ImportRowError> errors = new ArrayList<>();
+
+    /**
+     * Whether more rows were rejected than listed in {@link #errors}
+     */
+    private boolean errorsTruncated;
+}
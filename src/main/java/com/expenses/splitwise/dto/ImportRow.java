@@ -0,0 +1,73 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of a bulk import file.
+ * <p>
+ * Which fields are required depends on the row type:
+ * - EXPENSE: expenseName, expenseDate, groupName, totalAmount, splitType, createdBy
+ * - PARTICIPANT: expenseName, userName
+ * - SHARE: expenseName, userName and percentage or amount
+ * </p>
+ * Rows referring to an expense may follow the row creating it anywhere in the same file.
+ *
+ * @see ImportRowType
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRow {
+    /**
+     * Type of record carried by the row
+     */
+    private ImportRowType type;
+
+    /**
+     * Name of the expense the row creates or refers to
+     */
+    private String expenseName;
+
+    /**
+     * Date when the expense was incurred
+     */
+    private LocalDate expenseDate;
+
+    /**
+     * Name of the group the expense belongs to
+     */
+    private String groupName;
+
+    /**
+     * Total amount of the expense
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * Type of split applied to the expense
+     */
+    private SPLIT_TYPE splitType;
+
+    /**
+     * Username of the person who created the expense
+     */
+    private String createdBy;
+
+    /**
+     * Username of the participant or share owner
+     */
+    private String userName;
+
+    /**
+     * Percentage of the expense allocated to the user
+     */
+    private BigDecimal percentage;
+
+    /**
+     * Amount of the expense allocated to the user
+     */
+    private BigDecimal amount;
+}
@@ -0,0 +1,26 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object for a bulk import row that was rejected.
+ * <p>
+ * Contains:
+ * - The line number of the row in the uploaded file, starting at 1
+ * - Why the row was rejected
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    /**
+     * Line number of the rejected row
+     */
+    private long line;
+
+    /**
+     * Reason the row was rejected
+     */
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the record types a bulk import row can carry.
+ * <p>
+ * - EXPENSE: creates an expense, like `/addExpenses`
+ * - PARTICIPANT: maps a user to an expense, like `/expenses/{expenseName}/users`
+ * - SHARE: stores a user's percentage or amount for an expense, like `/{expenseName}`
+ * </p>
+ */
+public enum ImportRowType {
+    /**
+     * Expense row
+     */
+    EXPENSE,
+
+    /**
+     * Expense participant row
+     */
+    PARTICIPANT,
+
+    /**
+     * Expense share row
+     */
+    SHARE
+}
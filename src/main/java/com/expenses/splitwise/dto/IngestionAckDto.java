@@ -0,0 +1,26 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object acknowledging a write accepted by the write-behind ingestion.
+ * <p>
+ * Contains:
+ * - The journal sequence number; the write is durable once this is returned
+ * - The partition whose writer applies it, in sequence order with the partition's other writes
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionAckDto {
+    /**
+     * Journal sequence number of the write
+     */
+    private long sequence;
+
+    /**
+     * Partition applying the write
+     */
+    private int partition;
+}
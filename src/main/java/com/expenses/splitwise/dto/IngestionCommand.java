@@ -0,0 +1,61 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one write accepted by the write-behind ingestion.
+ * <p>
+ * Written as one JSON line to the ingestion journal and contains:
+ * - The journal sequence number, assigned when the write is accepted
+ * - The kind of write and the expense it targets, which also picks its partition
+ * - The payload of that kind of write
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionCommand {
+    /**
+     * Journal sequence number, 0 until accepted
+     */
+    private long sequence;
+
+    /**
+     * Kind of write
+     */
+    private IngestionType type;
+
+    /**
+     * Name of the expense written to
+     */
+    private String expenseName;
+
+    /**
+     * Expense to create, for EXPENSE
+     */
+    private ExpenseDto expense;
+
+    /**
+     * Users to map, for PARTICIPANTS
+     */
+    private List<String> userNames;
+
+    /**
+     * Shares to add, for SHARES
+     */
+    private List<ExpenseSharePercentage> shares;
+
+    public static IngestionCommand expense(ExpenseDto expense) {
+        return new IngestionCommand(0, IngestionType.EXPENSE, expense.getExpenseName(), expense, null, null);
+    }
+
+    public static IngestionCommand participants(String expenseName, List<String> userNames) {
+        return new IngestionCommand(0, IngestionType.PARTICIPANTS, expenseName, null, userNames, null);
+    }
+
+    public static IngestionCommand shares(String expenseName, List<ExpenseSharePercentage> shares) {
+        return new IngestionCommand(0, IngestionType.SHARES, expenseName, null, null, shares);
+    }
+}
@@ -0,0 +1,26 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the writes accepted by the write-behind ingestion.
+ * <p>
+ * - EXPENSE: create an expense
+ * - PARTICIPANTS: map users to an expense
+ * - SHARES: add percentage or manual shares to an expense
+ * </p>
+ */
+public enum IngestionType {
+    /**
+     * Create an expense
+     */
+    EXPENSE,
+
+    /**
+     * Map users to an expense
+     */
+    PARTICIPANTS,
+
+    /**
+     * Add shares to an expense
+     */
+    SHARES
+}
@@ -0,0 +1,22 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Application event carrying the state changes of one write, published inside its transaction.
+ * <p>
+ * Listeners that must only see committed changes, such as the ledger journal, receive it through
+ * a {@code @TransactionalEventListener}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEvent {
+    /**
+     * State changes in the order they were made
+     */
+    private List<LedgerRecord> records;
+}
@@ -0,0 +1,75 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object for one state change in the ledger journal.
+ * <p>
+ * Contains:
+ * - The record type, and the sequence number and time assigned when it is journaled
+ * - The expense and the user it concerns: the creator for EXPENSE, the participant or share owner otherwise
+ * - For EXPENSE, the split type and total in cents
+ * - For SHARE, the stored percentage in hundredths and amount in cents, each null when absent
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerRecord {
+    /**
+     * Kind of state change
+     */
+    private LedgerRecordType type;
+
+    /**
+     * Journal sequence number, 0 until journaled
+     */
+    private long sequence;
+
+    /**
+     * When the record was journaled, in epoch milliseconds
+     */
+    private long timestampMillis;
+
+    /**
+     * Id of the expense
+     */
+    private long expenseId;
+
+    /**
+     * Id of the creator, participant or share owner
+     */
+    private long userId;
+
+    /**
+     * Split type, for EXPENSE
+     */
+    private SPLIT_TYPE splitType;
+
+    /**
+     * Total amount in cents, for EXPENSE
+     */
+    private long totalCents;
+
+    /**
+     * Stored percentage in hundredths, for SHARE
+     */
+    private Long percentageHundredths;
+
+    /**
+     * Stored amount in cents, for SHARE
+     */
+    private Long amountCents;
+
+    public static LedgerRecord expense(long expenseId, SPLIT_TYPE splitType, long totalCents, long createdById) {
+        return new LedgerRecord(LedgerRecordType.EXPENSE, 0, 0, expenseId, createdById, splitType, totalCents, null, null);
+    }
+
+    public static LedgerRecord participant(long expenseId, long userId) {
+        return new LedgerRecord(LedgerRecordType.PARTICIPANT, 0, 0, expenseId, userId, null, 0, null, null);
+    }
+
+    public static LedgerRecord share(long expenseId, long userId, Long percentageHundredths, Long amountCents) {
+        return new LedgerRecord(LedgerRecordType.SHARE, 0, 0, expenseId, userId, null, 0, percentageHundredths, amountCents);
+    }
+}
@@ -0,0 +1,47 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the state changes recorded in the ledger journal.
+ * <p>
+ * - EXPENSE: an expense was created, with its split type, total and creator
+ * - PARTICIPANT: a user was mapped to an expense
+ * - SHARE: a percentage or manual share was stored for a user of an expense
+ * </p>
+ * The journal stores {@link #code()}, so constants may be added but never reordered.
+ */
+public enum LedgerRecordType {
+    /**
+     * Expense created
+     */
+    EXPENSE,
+
+    /**
+     * User mapped to an expense
+     */
+    PARTICIPANT,
+
+    /**
+     * Share stored for a user of an expense
+     */
+    SHARE;
+
+    /**
+     * Returns the code stored in the journal; 0 marks an empty record.
+     */
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * Returns the type of a stored code.
+     *
+     * @throws IllegalArgumentException for an unknown code
+     */
+    public static LedgerRecordType ofCode(byte code) {
+        LedgerRecordType[] types = values();
+        if (code < 1 || code > types.length) {
+            throw new IllegalArgumentException("Unknown ledger record type " + code);
+        }
+        return types[code - 1];
+    }
+}
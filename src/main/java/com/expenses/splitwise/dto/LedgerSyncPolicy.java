@@ -0,0 +1,27 @@
+package com.expenses.splitwise.dto;
+
+/**
+ * Enum of the policies deciding when the ledger journal is forced to disk.
+ * <p>
+ * - EVERY_WRITE: after every committed write, losing nothing on a machine crash
+ * - INTERVAL: every `splitwise.ledger.sync-interval-ms`, losing at most that much on a machine crash
+ * - OS: only when a segment rolls over or the journal closes; a process crash loses nothing, the page
+ *   cache is written back by the operating system
+ * </p>
+ */
+public enum LedgerSyncPolicy {
+    /**
+     * Force after every write
+     */
+    EVERY_WRITE,
+
+    /**
+     * Force periodically
+     */
+    INTERVAL,
+
+    /**
+     * Leave write-back to the operating system
+     */
+    OS
+}
@@ -0,0 +1,34 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for one payment needed to settle a group.
+ * <p>
+ * Contains:
+ * - The user who pays
+ * - The user who receives the payment
+ * - The amount to transfer
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementTransferDto {
+    /**
+     * Username of the person paying
+     */
+    private String fromUser;
+
+    /**
+     * Username of the person receiving the payment
+     */
+    private String toUser;
+
+    /**
+     * Amount to transfer
+     */
+    private BigDecimal amount;
+}
@@ -0,0 +1,26 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a user's materialized net balance.
+ * <p>
+ * A positive balance means others owe the user, a negative balance means the user owes others.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBalanceDto {
+    /**
+     * Username of the balance owner
+     */
+    private String userName;
+
+    /**
+     * Net balance over all expenses the user takes part in
+     */
+    private BigDecimal balance;
+}
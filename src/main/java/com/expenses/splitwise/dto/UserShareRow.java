@@ -0,0 +1,94 @@
+package com.expenses.splitwise.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Flat projection of everything needed to compute one user's share of one expense.
+ * <p>
+ * Rows are produced by one query over expense-user mappings and carry:
+ * - The participant the row belongs to (id and name)
+ * - All base expense properties (id, date, group, name, creator id and name, split type)
+ * - The total amount in cents
+ * - The number of participants mapped to the expense and this participant's rank by name, counted by the
+ *   query or set afterwards by {@link com.expenses.splitwise.service.impl.ShareRowQueries}
+ * - The participant's stored percentage (in hundredths) and amount (in cents), if any
+ * </p>
+ *
+ * @see ExpenseShareDto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserShareRow {
+    /**
+     * Id of the participant this row belongs to
+     */
+    private Long userId;
+
+    /**
+     * Username of the participant this row belongs to
+     */
+    private String userName;
+
+    /**
+     * Id of the expense
+     */
+    private Long expenseId;
+
+    /**
+     * Date when the expense was created or incurred
+     */
+    private LocalDate expenseDate;
+
+    /**
+     * Name of the group this expense belongs to
+     */
+    private String groupName;
+
+    /**
+     * Unique identifier/name for the expense
+     */
+    private String expenseName;
+
+    /**
+     * Total amount of the expense in cents
+     */
+    private Long totalCents;
+
+    /**
+     * Id of the user who created the expense
+     */
+    private Long createdById;
+
+    /**
+     * Username of the person who created the expense
+     */
+    private String createdBy;
+
+    /**
+     * Type of split applied to this expense
+     */
+    private SPLIT_TYPE splitType;
+
+    /**
+     * Number of users mapped to the expense
+     */
+    private Long participantCount;
+
+    /**
+     * Number of users mapped to the expense whose name sorts before this participant's
+     */
+    private Long participantRank;
+
+    /**
+     * Stored percentage for the participant in hundredths of a percent, null when not set
+     */
+    private Long percentageHundredths;
+
+    /**
+     * Stored amount for the participant in cents, null when not set
+     */
+    private Long amountCents;
+}
@@ -0,0 +1,34 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class recording the startup backfills that have completed.
+ * <p>
+ * This class maps to the 'backfill_run' table and contains:
+ * - The name of the backfill task as primary key
+ * - When the task last completed, in epoch milliseconds
+ * </p>
+ * A task with a row is skipped on later starts. It is written with plain JDBC by
+ * {@link com.expenses.splitwise.service.impl.EqualShareBackfillRunner}; the entity defines the schema.
+ */
+@Entity
+@Table(name = "backfill_run")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillRun {
+    /**
+     * Primary key - name of the backfill task
+     */
+    @Id
+    @Column(name = "task", length = 64)
+    private String task;
+
+    /**
+     * Epoch milliseconds of the last completion
+     */
+    @Column(name = "completed_at", nullable = false)
+    private long completedAt;
+}
@@ -0,0 +1,43 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class counting the committed changes of a table or of the expense shares of a user.
+ * <p>
+ * This class maps to the 'data_version' table and contains:
+ * - The scope and scope id (composite primary key through {@link DataVersionId}): a table name with id 0,
+ *   or 'user' with the id of the user whose expense shares changed
+ * - The version, incremented in every write transaction that changes the scope
+ * </p>
+ * A row is created by the first change of its scope. It is written and read with plain JDBC by
+ * {@link com.expenses.splitwise.service.impl.DataVersionServiceImpl}; the entity defines the schema.
+ */
+@Entity
+@Table(name = "data_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(DataVersionId.class)
+public class DataVersion {
+    /**
+     * Part of composite primary key - table name or 'user'
+     */
+    @Id
+    @Column(name = "scope", length = 32)
+    private String scope;
+
+    /**
+     * Part of composite primary key - 0 for a table, the user id otherwise
+     */
+    @Id
+    @Column(name = "scope_id")
+    private Long scopeId;
+
+    /**
+     * Number of committed changes of the scope
+     */
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -0,0 +1,30 @@
+package com.expenses.splitwise.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Composite key class for the DataVersion entity.
+ * <p>
+ * This class consists of:
+ * - The scope, a table name or 'user'
+ * - The scope id, 0 for a table or the user id
+ * </p>
+ *
+ * @see DataVersion
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataVersionId implements Serializable {
+    /**
+     * Scope component of the composite key
+     */
+    private String scope;
+
+    /**
+     * Scope id component of the composite key
+     */
+    private Long scopeId;
+}
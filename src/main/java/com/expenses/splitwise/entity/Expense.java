@@ -3,6 +3,8 @@ package com.expenses.splitwise.entity;
 import com.expenses.splitwise.dto.SPLIT_TYPE;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -11,16 +13,20 @@ import java.time.LocalDate;
  * <p>
  * This class maps to the 'expenses' table and contains:
  * - Basic expense details (date, name, amount)
- * - Group association
+ * - Group association, by name and through {@link Group}
  * - Split type configuration
  * - Creator reference
  * </p>
+ * Cached in the Hibernate second-level cache when it is enabled
+ * (`hibernate.cache.use_second_level_cache`).
  *
  * @see User
  * @see SPLIT_TYPE
  */
 @Entity
-@Table(name = "expenses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "expenses", indexes = @Index(name = "idx_expenses_group_date", columnList = "group_id, expense_date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,9 +70,21 @@ public class Expense {
     private SPLIT_TYPE splitType;
 
     /**
-     * Reference to the user who created the expense
+     * Reference to the user who created the expense, joined on the user's id and loaded lazily
      */
-    @ManyToOne
-    @JoinColumn(name = "created_by", referencedColumnName = "name", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "created_by_id", nullable = false)
     private User createdBy;
+
+    /**
+     * Reference to the group this expense belongs to, loaded lazily; null until the expenses written before
+     * groups existed are migrated (see migrations/expense-groups.sql)
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "group_id")
+    private Group group;
 }
@@ -18,29 +18,35 @@ import java.math.BigDecimal;
  * @see User
  */
 @Entity
-@Table(name = "expense_share")
+@Table(name = "expense_share",
+        uniqueConstraints = @UniqueConstraint(name = "uk_expense_share_expense_user", columnNames = {"expense_id", "user_id"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 public class ExpenseShare {
     /**
-     * Unique identifier for the expense share
+     * Unique identifier for the expense share.
+     * <p>
+     * Allocated from a pooled sequence (a table on MySQL) rather than IDENTITY,
+     * which would force Hibernate to insert shares one statement at a time.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_share_seq")
+    @SequenceGenerator(name = "expense_share_seq", sequenceName = "expense_share_seq", allocationSize = 50)
     private Long id;
 
     /**
-     * Name of the expense this share belongs to
+     * Id of the expense this share belongs to
      */
-    @Column(name = "expense_name")
-    private String expenseName;
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
 
     /**
-     * Username of the person sharing the expense
+     * Id of the user sharing the expense
      */
-    @Column(name = "user_name")
-    private String userName;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
 
     /**
      * Percentage of the total expense allocated to this user
@@ -55,16 +61,20 @@ public class ExpenseShare {
     private BigDecimal amount;
 
     /**
-     * Bidirectional relationship to the expense
+     * Bidirectional relationship to the expense, loaded lazily
      */
-    @ManyToOne
-    @JoinColumn(name = "expense_name", referencedColumnName = "expense_name", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "expense_id", insertable = false, updatable = false)
     private Expense expense;
 
     /**
-     * Bidirectional relationship to the user
+     * Bidirectional relationship to the user, loaded lazily
      */
-    @ManyToOne
-    @JoinColumn(name = "user_name", referencedColumnName = "name", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 }
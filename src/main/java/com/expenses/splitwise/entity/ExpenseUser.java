@@ -8,7 +8,7 @@ import lombok.*;
  * <p>
  * This class maps to the 'expense_user' table and manages:
  * - The association between an expense and its participants
- * - Uses composite primary key through {@link ExpenseUserId}
+ * - Uses composite primary key of expense and user ids through {@link ExpenseUserId}
  * - Bidirectional relationships with Expense and User entities
  * </p>
  *
@@ -17,7 +17,7 @@ import lombok.*;
  * @see ExpenseUserId
  */
 @Entity
-@Table(name = "expense_user")
+@Table(name = "expense_user", indexes = @Index(name = "idx_expense_user_user", columnList = "user_id, expense_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,27 +27,31 @@ public class ExpenseUser {
      * Part of composite primary key - expense identifier
      */
     @Id
-    @Column(name = "expense_name")
-    private String expenseName;
+    @Column(name = "expense_id")
+    private Long expenseId;
 
     /**
      * Part of composite primary key - user identifier
      */
     @Id
-    @Column(name = "user_name")
-    private String userName;
+    @Column(name = "user_id")
+    private Long userId;
 
     /**
-     * Bidirectional relationship to the expense
+     * Bidirectional relationship to the expense, loaded lazily
      */
-    @ManyToOne
-    @JoinColumn(name = "expense_name", referencedColumnName = "expense_name", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "expense_id", insertable = false, updatable = false)
     private Expense expense;
 
     /**
-     * Bidirectional relationship to the user
+     * Bidirectional relationship to the user, loaded lazily
      */
-    @ManyToOne
-    @JoinColumn(name = "user_name", referencedColumnName = "name", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 }
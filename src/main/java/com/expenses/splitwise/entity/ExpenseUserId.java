@@ -9,8 +9,8 @@ import java.io.Serializable;
  * <p>
  * This class implements Serializable and serves as the composite primary key for
  * the many-to-many relationship between Expense and User entities. It consists of:
- * - Expense name as the first part of the key
- * - User name as the second part of the key
+ * - Expense id as the first part of the key
+ * - User id as the second part of the key
  * </p>
  *
  * @see ExpenseUser
@@ -20,12 +20,12 @@ import java.io.Serializable;
 @AllArgsConstructor
 public class ExpenseUserId implements Serializable {
     /**
-     * Expense name component of the composite key
+     * Expense id component of the composite key
      */
-    private String expenseName;
+    private Long expenseId;
 
     /**
-     * Username component of the composite key
+     * User id component of the composite key
      */
-    private String userName;
+    private Long userId;
 }
@@ -0,0 +1,59 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity class representing a group of expenses and the running totals of the group.
+ * <p>
+ * This class maps to the 'expense_groups' table and contains:
+ * - Basic group identification (id, unique name)
+ * - The number of expenses and members of the group
+ * - The sum of the total amounts of its expenses
+ * </p>
+ * The totals are maintained on write, in the transaction adding the expense or member, by
+ * {@link com.expenses.splitwise.service.impl.GroupRollupWriter}; reading a group never aggregates its
+ * expenses. The entity is named ExpenseGroup in queries, GROUP being a reserved word.
+ *
+ * @see Expense
+ * @see GroupMember
+ */
+@Entity(name = "ExpenseGroup")
+@Table(name = "expense_groups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Group {
+    /**
+     * Unique identifier for the group
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Unique name of the group, matching 'group_name' of its expenses
+     */
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
+    /**
+     * Number of expenses in the group
+     */
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    /**
+     * Number of users who created or take part in an expense of the group
+     */
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    /**
+     * Sum of the total amounts of the group's expenses
+     */
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,38 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class representing the membership of a user in a group.
+ * <p>
+ * This class maps to the 'group_member' table and contains:
+ * - The group and user ids (composite primary key through {@link GroupMemberId})
+ * - An index by user, for the groups of a user
+ * </p>
+ * A user becomes a member when they create or join an expense of the group. Rows are written with plain
+ * JDBC by {@link com.expenses.splitwise.service.impl.GroupRollupWriter}; the entity defines the schema.
+ *
+ * @see Group
+ */
+@Entity
+@Table(name = "group_member", indexes = @Index(name = "idx_group_member_user", columnList = "user_id, group_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(GroupMemberId.class)
+public class GroupMember {
+    /**
+     * Part of composite primary key - group identifier
+     */
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    /**
+     * Part of composite primary key - user identifier
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+}
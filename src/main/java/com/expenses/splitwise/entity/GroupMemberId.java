@@ -0,0 +1,30 @@
+package com.expenses.splitwise.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Composite key class for the GroupMember entity.
+ * <p>
+ * This class consists of:
+ * - Group id as the first part of the key
+ * - User id as the second part of the key
+ * </p>
+ *
+ * @see GroupMember
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMemberId implements Serializable {
+    /**
+     * Group id component of the composite key
+     */
+    private Long groupId;
+
+    /**
+     * User id component of the composite key
+     */
+    private Long userId;
+}
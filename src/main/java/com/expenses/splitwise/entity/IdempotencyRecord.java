@@ -0,0 +1,66 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class remembering the response of a write request sent with an `Idempotency-Key` header.
+ * <p>
+ * This class maps to the 'idempotency_key' table and contains:
+ * - The key chosen by the client (primary key)
+ * - A 64-bit fingerprint of the request the key was first used with
+ * - The response status, content type and body once the request completed
+ * - Creation and expiry times in epoch milliseconds
+ * </p>
+ * A row with status 0 marks a request still being processed. Rows are written with plain JDBC
+ * by {@link com.expenses.splitwise.service.impl.IdempotencyServiceImpl}; the entity defines the schema.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_expires", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    /**
+     * Key sent by the client
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    /**
+     * Fingerprint of the method, path, parameters and body of the first request
+     */
+    @Column(name = "request_hash", nullable = false)
+    private long requestHash;
+
+    /**
+     * HTTP status of the stored response, 0 while the request is processed
+     */
+    @Column(name = "status_code", nullable = false)
+    private short statusCode;
+
+    /**
+     * Content type of the stored response
+     */
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    /**
+     * Body of the stored response
+     */
+    @Column(name = "response_body", length = 8192)
+    private byte[] responseBody;
+
+    /**
+     * When the key was claimed, in epoch milliseconds
+     */
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+    /**
+     * When the key may be reused, in epoch milliseconds
+     */
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+}
@@ -0,0 +1,53 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class recording how far a bulk import has been committed.
+ * <p>
+ * This class maps to the 'import_checkpoint' table and contains:
+ * - The import id chosen by the client or generated on the first run
+ * - The last line of the file whose chunk was committed
+ * - Running counts of imported and rejected rows
+ * </p>
+ * The row is updated in the same transaction as each chunk, so a restarted import
+ * continues exactly after the last committed chunk.
+ */
+@Entity
+@Table(name = "import_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportCheckpoint {
+    /**
+     * Id of the import
+     */
+    @Id
+    @Column(name = "import_id", length = 64)
+    private String importId;
+
+    /**
+     * Last line number covered by a committed chunk, 0 before the first chunk
+     */
+    @Column(name = "committed_line", nullable = false)
+    private long committedLine;
+
+    /**
+     * Rows imported over all runs
+     */
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    /**
+     * Rows rejected over all runs
+     */
+    @Column(name = "rows_failed", nullable = false)
+    private long rowsFailed;
+
+    /**
+     * Whether the whole file has been committed
+     */
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+}
@@ -0,0 +1,45 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class recording how far each write-behind ingestion partition has been applied.
+ * <p>
+ * This class maps to the 'ingestion_checkpoint' table and contains:
+ * - The journal and the partition, as composite primary key through {@link IngestionCheckpointId}
+ * - The journal sequence number of the last write committed or skipped by the partition's writer
+ * </p>
+ * Every instance has its own journal and sequence numbers, so the rows of one instance are never read
+ * by another.
+ * The row is advanced in the same transaction as each group of writes, so writes journaled after it
+ * are exactly those replayed on startup. It is written with plain JDBC by
+ * {@link com.expenses.splitwise.service.impl.IngestionServiceImpl}; the entity defines the schema.
+ */
+@Entity
+@Table(name = "ingestion_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(IngestionCheckpointId.class)
+public class IngestionCheckpoint {
+    /**
+     * Part of composite primary key - id of the journal, from its 'journal.id' file
+     */
+    @Id
+    @Column(name = "journal_id", length = 36)
+    private String journalId;
+
+    /**
+     * Part of composite primary key - partition index
+     */
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    /**
+     * Sequence number of the last applied write
+     */
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+}
@@ -0,0 +1,31 @@
+package com.expenses.splitwise.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Composite key class for the IngestionCheckpoint entity.
+ * <p>
+ * This class implements Serializable and serves as the composite primary key of a
+ * write-behind ingestion checkpoint. It consists of:
+ * - Journal id as the first part of the key
+ * - Partition index as the second part of the key
+ * </p>
+ *
+ * @see IngestionCheckpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionCheckpointId implements Serializable {
+    /**
+     * Journal id component of the composite key
+     */
+    private String journalId;
+
+    /**
+     * Partition index component of the composite key
+     */
+    private Integer partitionId;
+}
@@ -0,0 +1,89 @@
+package com.expenses.splitwise.entity;
+
+import com.expenses.splitwise.dto.LedgerRecordType;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class holding a committed ledger record until it is durable in its ledger journal.
+ * <p>
+ * This class maps to the 'ledger_outbox' table and contains:
+ * - An auto-incremented id, the order records are appended in
+ * - The id of the journal the record goes to, from the 'journal.id' file of the journal directory
+ * - The journal sequence number, set just before the record is appended
+ * - The fields of the {@link com.expenses.splitwise.dto.LedgerRecord}
+ * </p>
+ * Rows are inserted in the transaction of the change they record, and deleted once the journal holding
+ * them is forced to disk. They are written with plain JDBC by
+ * {@link com.expenses.splitwise.service.impl.LedgerJournalWriter}; the entity defines the schema.
+ */
+@Entity
+@Table(name = "ledger_outbox", indexes = @Index(name = "idx_ledger_outbox_journal", columnList = "journal_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerOutbox {
+    /**
+     * Unique identifier, increasing in insertion order
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Id of the journal the record is appended to
+     */
+    @Column(name = "journal_id", nullable = false, length = 36)
+    private String journalId;
+
+    /**
+     * Journal sequence number, null until the record is about to be appended
+     */
+    @Column(name = "journal_sequence")
+    private Long journalSequence;
+
+    /**
+     * Kind of state change
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "record_type", nullable = false, length = 16)
+    private LedgerRecordType recordType;
+
+    /**
+     * Id of the expense
+     */
+    @Column(name = "expense_id", nullable = false)
+    private long expenseId;
+
+    /**
+     * Id of the creator, participant or share owner
+     */
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    /**
+     * Split type, for EXPENSE
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", length = 16)
+    private SPLIT_TYPE splitType;
+
+    /**
+     * Total amount in cents, for EXPENSE
+     */
+    @Column(name = "total_cents", nullable = false)
+    private long totalCents;
+
+    /**
+     * Stored percentage in hundredths, for SHARE
+     */
+    @Column(name = "percentage_hundredths")
+    private Long percentageHundredths;
+
+    /**
+     * Stored amount in cents, for SHARE
+     */
+    @Column(name = "amount_cents")
+    private Long amountCents;
+}
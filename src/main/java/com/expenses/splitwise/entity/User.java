@@ -2,6 +2,8 @@ package com.expenses.splitwise.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity class representing a user in the system.
@@ -10,9 +12,13 @@ import lombok.*;
  * - Basic user identification (id, name)
  * - Unique constraint on the user's name
  * </p>
+ * Cached in the Hibernate second-level cache when it is enabled
+ * (`hibernate.cache.use_second_level_cache`).
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
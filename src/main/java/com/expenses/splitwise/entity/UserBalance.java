@@ -0,0 +1,38 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity class holding the materialized net balance of a user.
+ * <p>
+ * This class maps to the 'user_balance' table and contains:
+ * - The user the balance belongs to (primary key)
+ * - The sum of the user's signed shares over all expenses
+ * </p>
+ * Rows are adjusted in the same transaction as every expense, mapping and share write,
+ * so reading a balance is a primary-key lookup.
+ *
+ * @see UserExpenseBalance
+ */
+@Entity
+@Table(name = "user_balance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBalance {
+    /**
+     * Id of the balance owner
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Net balance: positive when others owe the user, negative when the user owes others
+     */
+    @Column(name = "balance", nullable = false, precision = 14, scale = 2)
+    private BigDecimal balance;
+}
@@ -0,0 +1,46 @@
+package com.expenses.splitwise.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity class holding the materialized signed share of a user in one expense.
+ * <p>
+ * This class maps to the 'user_expense_balance' table and contains:
+ * - The expense and user (composite key through {@link ExpenseUserId})
+ * - The signed share last applied to the user's {@link UserBalance}
+ * </p>
+ * Keeping the applied share per expense lets a write adjust the balance by the difference
+ * instead of recomputing the user's whole history.
+ *
+ * @see UserBalance
+ */
+@Entity
+@Table(name = "user_expense_balance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ExpenseUserId.class)
+public class UserExpenseBalance {
+    /**
+     * Part of composite primary key - expense identifier
+     */
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    /**
+     * Part of composite primary key - user identifier
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Signed share: positive when others owe the user, negative when the user owes the creator
+     */
+    @Column(name = "share", nullable = false, precision = 12, scale = 2)
+    private BigDecimal share;
+}
@@ -1,10 +1,21 @@
 package com.expenses.splitwise.repository;
 
+import com.expenses.splitwise.dto.ExpenseListingDto;
 import com.expenses.splitwise.entity.Expense;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for managing Expense entities.
  * <p>
@@ -19,4 +30,89 @@ import org.springframework.stereotype.Repository;
 @EnableJpaRepositories(basePackages = "com.expenses.splitwise.repository")
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
+    /**
+     * Projection of an expense joined with its creator, the columns of the expense listing.
+     */
+    String LISTING_SELECT = "SELECT new com.expenses.splitwise.dto.ExpenseListingDto(e.id, e.expenseDate, e.groupName, " +
+            "e.expenseName, e.totalAmount, e.splitType, c.id, c.name) FROM Expense e JOIN e.createdBy c ";
+
+    /**
+     * Finds an expense by its unique name and write-locks it until the transaction ends.
+     * <p>
+     * Writers changing an expense's participants or shares take this lock first, so the
+     * materialized balances of one expense are adjusted by one writer at a time.
+     * </p>
+     *
+     * @param expenseName the unique name of the expense
+     * @return an Optional containing the locked expense if found, empty otherwise
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e WHERE e.expenseName = :expenseName")
+    Optional<Expense> findForUpdateByExpenseName(@Param("expenseName") String expenseName);
+
+    /**
+     * Finds the expenses with any of the given names and write-locks them in id order.
+     *
+     * @param expenseNames the unique names of the expenses
+     * @return the locked expenses found, ordered by id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e WHERE e.expenseName IN :expenseNames ORDER BY e.id")
+    List<Expense> findAllForUpdateByExpenseNameIn(@Param("expenseNames") Collection<String> expenseNames);
+
+    /**
+     * Finds the expenses with any of the given names.
+     *
+     * @param expenseNames the unique names of the expenses
+     * @return the expenses found
+     */
+    List<Expense> findByExpenseNameIn(Collection<String> expenseNames);
+
+    /**
+     * Retrieves one keyset page of the EQUAL expenses ordered by id.
+     *
+     * @param id the last id of the previous page, 0 for the first page
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of EQUAL expenses with an id greater than the given one
+     */
+    @Query("SELECT e FROM Expense e WHERE e.splitType = com.expenses.splitwise.dto.SPLIT_TYPE.EQUAL " +
+            "AND e.id > :id ORDER BY e.id")
+    List<Expense> findEqualExpensesAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Retrieves one keyset page of the expense listing ordered by id.
+     *
+     * @param id the last id of the previous page, 0 for the first page
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of expenses with an id greater than the given one
+     */
+    @Query(LISTING_SELECT + "WHERE e.id > :id ORDER BY e.id")
+    List<ExpenseListingDto> findListingsAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Retrieves one keyset page of the expenses of a group, newest first.
+     * <p>
+     * Reads the 'idx_expenses_group_date' index, which holds the group, the date and the id of every
+     * expense: the group filter, the order and the cursor are all resolved in the index, and only the rows
+     * of the page are read from the table.
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @param date the date of the last expense of the previous page, or a date after every expense
+     * @param id the id of the last expense of the previous page, or {@link Long#MAX_VALUE}
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of the group's expenses before the given date and id
+     */
+    @Query(LISTING_SELECT + "JOIN e.group g WHERE g.name = :groupName " +
+            "AND (e.expenseDate < :date OR (e.expenseDate = :date AND e.id < :id)) ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseListingDto> findGroupListingsBefore(@Param("groupName") String groupName, @Param("date") LocalDate date,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Retrieves the whole expense listing ordered by id in a single query.
+     *
+     * @return all expenses
+     */
+    @Query(LISTING_SELECT + "ORDER BY e.id")
+    List<ExpenseListingDto> findAllListings();
 }
\ No newline at end of file
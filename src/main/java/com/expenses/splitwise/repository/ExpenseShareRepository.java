@@ -1,12 +1,15 @@
 package com.expenses.splitwise.repository;
 
+import com.expenses.splitwise.dto.ExpenseShareListingDto;
 import com.expenses.splitwise.entity.ExpenseShare;
 import com.expenses.splitwise.entity.ExpenseUserId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,10 +23,15 @@ import java.util.Optional;
  * </p>
  *
  * @see ExpenseShare
- * @see ExpenseUserId
  * @see JpaRepository
  */
-public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, ExpenseUserId> {
+public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
+
+    /**
+     * Projection of a share joined with the expense and user names, the columns of the expense share listing.
+     */
+    String LISTING_SELECT = "SELECT new com.expenses.splitwise.dto.ExpenseShareListingDto(es.id, es.expenseId, " +
+            "e.expenseName, es.userId, u.name, es.percentage, es.amount) FROM ExpenseShare es JOIN es.expense e JOIN es.user u ";
 
     /**
      * Retrieves the percentage share for a specific expense and user combination.
@@ -32,7 +40,7 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Expe
      * @param userName the name of the user
      * @return an Optional containing the percentage if found
      */
-    @Query("SELECT es.percentage FROM ExpenseShare es WHERE es.expenseName = :expenseName AND es.userName = :userName")
+    @Query("SELECT es.percentage FROM ExpenseShare es WHERE es.expense.expenseName = :expenseName AND es.user.name = :userName")
     Optional<BigDecimal> findPercentageByExpenseNameAndUserName(@Param("expenseName") String expenseName, @Param("userName") String userName);
 
     /**
@@ -42,6 +50,50 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Expe
      * @param userName the name of the user
      * @return an Optional containing the amount if found
      */
-    @Query("SELECT es.amount FROM ExpenseShare es WHERE es.expenseName = :expenseName AND es.userName = :userName")
+    @Query("SELECT es.amount FROM ExpenseShare es WHERE es.expense.expenseName = :expenseName AND es.user.name = :userName")
     Optional<BigDecimal> findAmountByExpenseNameAndUserName(String expenseName, String userName);
+
+    /**
+     * Retrieves the (expense id, user id) pairs of all shares of the given expenses.
+     *
+     * @param expenseIds the ids of the expenses
+     * @return the expense and user id of every share of the expenses
+     */
+    @Query("SELECT new com.expenses.splitwise.entity.ExpenseUserId(es.expenseId, es.userId) " +
+            "FROM ExpenseShare es WHERE es.expenseId IN :expenseIds")
+    List<ExpenseUserId> findKeysByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Retrieves all shares of a specific expense.
+     *
+     * @param expenseId the id of the expense
+     * @return the shares of the expense
+     */
+    List<ExpenseShare> findByExpenseId(Long expenseId);
+
+    /**
+     * Retrieves all shares of the given expenses.
+     *
+     * @param expenseIds the ids of the expenses
+     * @return the shares of the expenses
+     */
+    List<ExpenseShare> findByExpenseIdIn(Collection<Long> expenseIds);
+
+    /**
+     * Retrieves one keyset page of the expense share listing ordered by id.
+     *
+     * @param id the last id of the previous page, 0 for the first page
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of shares with an id greater than the given one
+     */
+    @Query(LISTING_SELECT + "WHERE es.id > :id ORDER BY es.id")
+    List<ExpenseShareListingDto> findListingsAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Retrieves the whole expense share listing ordered by id in a single query.
+     *
+     * @return all expense shares
+     */
+    @Query(LISTING_SELECT + "ORDER BY es.id")
+    List<ExpenseShareListingDto> findAllListings();
 }
@@ -1,12 +1,16 @@
 package com.expenses.splitwise.repository;
 
+import com.expenses.splitwise.dto.ExpenseUserListingDto;
+import com.expenses.splitwise.dto.UserShareRow;
 import com.expenses.splitwise.entity.ExpenseUser;
 import com.expenses.splitwise.entity.ExpenseUserId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,13 +30,117 @@ import java.util.List;
 @EnableJpaRepositories(basePackages = "com.expenses.splitwise.repository")
 public interface ExpenseUserRepository extends JpaRepository<ExpenseUser, ExpenseUserId> {
 
+    /**
+     * Projection of a mapping joined with its expense, creator, participant count and rank, and stored share.
+     * All joins use the numeric ids; names are only read for the output and the EQUAL remainder rank.
+     * Money columns are converted to cents (percentages to hundredths) in the database.
+     */
+    String SHARE_ROW_SELECT = "SELECT new com.expenses.splitwise.dto.UserShareRow(u.id, u.name, e.id, e.expenseDate, " +
+            "e.groupName, e.expenseName, CAST(e.totalAmount * 100 AS Long), c.id, c.name, e.splitType, COUNT(p), " +
+            "SUM(CASE WHEN pu.name < u.name THEN 1 ELSE 0 END), " +
+            "CAST(es.percentage * 100 AS Long), CAST(es.amount * 100 AS Long)) " +
+            "FROM ExpenseUser eu JOIN eu.user u JOIN eu.expense e JOIN e.createdBy c " +
+            "JOIN ExpenseUser p ON p.expenseId = eu.expenseId JOIN p.user pu " +
+            "LEFT JOIN ExpenseShare es ON es.expenseId = eu.expenseId AND es.userId = eu.userId ";
+
+    /**
+     * Grouping that collapses the participant join of {@link #SHARE_ROW_SELECT} into a count.
+     */
+    String SHARE_ROW_GROUP_BY = "GROUP BY u.id, u.name, e.id, e.expenseDate, e.groupName, e.expenseName, e.totalAmount, " +
+            "c.id, c.name, e.splitType, es.id, es.percentage, es.amount";
+
+    /**
+     * Projection of a mapping joined with its expense, creator and stored share, without the participant join.
+     * <p>
+     * The participant count and rank are returned as 0. Each mapping reads one row of `expense_share` through
+     * its unique (expense_id, user_id) key, and no rows are grouped. Queries reading every participant of an
+     * expense list them by user name, so {@link com.expenses.splitwise.service.impl.ShareRowQueries} can rank
+     * them in memory; with materialized EQUAL shares every share comes from the stored row instead.
+     * </p>
+     */
+    String FLAT_SHARE_ROW_SELECT = "SELECT new com.expenses.splitwise.dto.UserShareRow(u.id, u.name, e.id, " +
+            "e.expenseDate, e.groupName, e.expenseName, CAST(e.totalAmount * 100 AS Long), c.id, c.name, e.splitType, " +
+            "0L, 0L, CAST(es.percentage * 100 AS Long), CAST(es.amount * 100 AS Long)) " +
+            "FROM ExpenseUser eu JOIN eu.user u JOIN eu.expense e JOIN e.createdBy c " +
+            "LEFT JOIN ExpenseShare es ON es.expenseId = eu.expenseId AND es.userId = eu.userId ";
+
+    /**
+     * Projection of a mapping joined with the expense and user names, the columns of the expense-user listing.
+     */
+    String LISTING_SELECT = "SELECT new com.expenses.splitwise.dto.ExpenseUserListingDto(eu.expenseId, e.expenseName, " +
+            "eu.userId, u.name) FROM ExpenseUser eu JOIN eu.expense e JOIN eu.user u ";
+
     /**
      * Retrieves all expense mappings for a specific user.
      *
      * @param userName the name of the user to find mappings for
      * @return list of expense-user mappings for the given user
      */
-    List<ExpenseUser> findByUserName(String userName);
+    @Query(LISTING_SELECT + "WHERE u.name = :userName")
+    List<ExpenseUserListingDto> findByUserName(@Param("userName") String userName);
+
+    /**
+     * Retrieves one keyset page of the expense-user listing ordered by the composite key.
+     *
+     * @param expenseId the expense id of the last mapping of the previous page, 0 for the first page
+     * @param userId the user id of the last mapping of the previous page, 0 for the first page
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of mappings after the given key
+     */
+    @Query(LISTING_SELECT + "WHERE eu.expenseId > :expenseId " +
+            "OR (eu.expenseId = :expenseId AND eu.userId > :userId) ORDER BY eu.expenseId, eu.userId")
+    List<ExpenseUserListingDto> findListingsAfter(@Param("expenseId") Long expenseId, @Param("userId") Long userId,
+                                                  Pageable pageable);
+
+    /**
+     * Retrieves the whole expense-user listing ordered by the composite key in a single query.
+     *
+     * @return all expense-user mappings
+     */
+    @Query(LISTING_SELECT + "ORDER BY eu.expenseId, eu.userId")
+    List<ExpenseUserListingDto> findAllListings();
+
+    /**
+     * Retrieves the ids of all users mapped to a specific expense.
+     *
+     * @param expenseId the id of the expense
+     * @return ids of the users mapped to the expense
+     */
+    @Query("SELECT eu.userId FROM ExpenseUser eu WHERE eu.expenseId = :expenseId")
+    List<Long> findUserIdsByExpenseId(@Param("expenseId") Long expenseId);
+
+    /**
+     * Retrieves the ids of all users mapped to a specific expense, ordered by user name.
+     * <p>
+     * The order is the ranking used to hand out the remainder cents of an EQUAL split.
+     * </p>
+     *
+     * @param expenseId the id of the expense
+     * @return ids of the users mapped to the expense, by ascending user name
+     */
+    @Query("SELECT eu.userId FROM ExpenseUser eu JOIN eu.user u WHERE eu.expenseId = :expenseId ORDER BY u.name")
+    List<Long> findUserIdsByExpenseIdOrderByUserName(@Param("expenseId") Long expenseId);
+
+    /**
+     * Retrieves the keys of all mappings of the given expenses.
+     *
+     * @param expenseIds the ids of the expenses
+     * @return the (expense id, user id) key of every mapping of the expenses
+     */
+    @Query("SELECT new com.expenses.splitwise.entity.ExpenseUserId(eu.expenseId, eu.userId) " +
+            "FROM ExpenseUser eu WHERE eu.expenseId IN :expenseIds")
+    List<ExpenseUserId> findKeysByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Retrieves the keys of all mappings of the given expenses, by expense and then by user name.
+     *
+     * @param expenseIds the ids of the expenses
+     * @return the (expense id, user id) key of every mapping of the expenses, participants of an expense in
+     *         user name order
+     */
+    @Query("SELECT new com.expenses.splitwise.entity.ExpenseUserId(eu.expenseId, eu.userId) " +
+            "FROM ExpenseUser eu JOIN eu.user u WHERE eu.expenseId IN :expenseIds ORDER BY eu.expenseId, u.name")
+    List<ExpenseUserId> findKeysByExpenseIdInOrderByUserName(@Param("expenseIds") Collection<Long> expenseIds);
 
     /**
      * Counts the number of users associated with a specific expense.
@@ -40,6 +148,54 @@ public interface ExpenseUserRepository extends JpaRepository<ExpenseUser, Expens
      * @param expenseName the name of the expense to count users for
      * @return the number of users mapped to the expense
      */
-    @Query("SELECT COUNT(eu) FROM ExpenseUser eu WHERE eu.expenseName = :expenseName")
+    @Query("SELECT COUNT(eu) FROM ExpenseUser eu WHERE eu.expense.expenseName = :expenseName")
     long countUsersForExpense(@Param("expenseName") String expenseName);
+
+    /**
+     * Retrieves everything needed to calculate a user's expense shares in one statement.
+     * <p>
+     * Each row joins the user's mapping with its expense, the creator, the number of
+     * participants of the expense and the user's stored share (if any), so the number
+     * of statements does not grow with the number of expenses.
+     * </p>
+     *
+     * @param userName the name of the user to fetch share rows for
+     * @return one share row per expense the user is mapped to
+     */
+    @Query(SHARE_ROW_SELECT + "WHERE u.name = :userName " + SHARE_ROW_GROUP_BY)
+    List<UserShareRow> findShareRowsByUserName(@Param("userName") String userName);
+
+
+    /**
+     * Retrieves a user's share rows without participant counts, see {@link #FLAT_SHARE_ROW_SELECT}.
+     *
+     * @param userName the name of the user to fetch share rows for
+     * @return one share row per expense the user is mapped to
+     */
+    @Query(FLAT_SHARE_ROW_SELECT + "WHERE u.name = :userName")
+    List<UserShareRow> findFlatShareRowsByUserName(@Param("userName") String userName);
+
+    /**
+     * Retrieves the share rows of every participant of an expense without participant counts, by user name,
+     * see {@link #FLAT_SHARE_ROW_SELECT}.
+     *
+     * @param expenseId the id of the expense to fetch share rows for
+     * @return one share row per participant of the expense, by ascending user name
+     */
+    @Query(FLAT_SHARE_ROW_SELECT + "WHERE eu.expenseId = :expenseId ORDER BY u.name")
+    List<UserShareRow> findFlatShareRowsByExpenseId(@Param("expenseId") Long expenseId);
+
+    /**
+     * Retrieves the share rows of a group without participant counts, by expense and then by user name,
+     * see {@link #FLAT_SHARE_ROW_SELECT}.
+     * <p>
+     * The group is found by its unique name and its expenses through the indexed `group_id` column,
+     * so expenses not yet linked to their group are not read (see migrations/expense-groups.sql).
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @return one share row per expense-user mapping in the group, participants of an expense in user name order
+     */
+    @Query(FLAT_SHARE_ROW_SELECT + "JOIN e.group g WHERE g.name = :groupName ORDER BY e.id, u.name")
+    List<UserShareRow> findFlatShareRowsByGroupName(@Param("groupName") String groupName);
 }
@@ -0,0 +1,33 @@
+package com.expenses.splitwise.repository;
+
+import com.expenses.splitwise.dto.GroupSummaryDto;
+import com.expenses.splitwise.entity.Group;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for managing Group entities.
+ * <p>
+ * Groups and their running totals are written by
+ * {@link com.expenses.splitwise.service.impl.GroupRollupWriter}; this repository reads them.
+ * </p>
+ *
+ * @see Group
+ */
+@Repository
+public interface GroupRepository extends JpaRepository<Group, Long> {
+
+    /**
+     * Finds the running totals of a group by its unique name, reading only its row.
+     *
+     * @param name the name of the group
+     * @return an Optional containing the group's summary if found, empty otherwise
+     */
+    @Query("SELECT new com.expenses.splitwise.dto.GroupSummaryDto(g.name, g.expenseCount, g.memberCount, g.totalAmount) " +
+            "FROM ExpenseGroup g WHERE g.name = :name")
+    Optional<GroupSummaryDto> findSummaryByName(@Param("name") String name);
+}
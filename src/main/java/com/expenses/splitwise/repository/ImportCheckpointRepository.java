@@ -0,0 +1,16 @@
+package com.expenses.splitwise.repository;
+
+import com.expenses.splitwise.entity.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing ImportCheckpoint entities.
+ * <p>
+ * This repository provides CRUD operations for the progress of bulk imports.
+ * </p>
+ *
+ * @see ImportCheckpoint
+ * @see JpaRepository
+ */
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+}
@@ -0,0 +1,49 @@
+package com.expenses.splitwise.repository;
+
+import com.expenses.splitwise.entity.UserBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing UserBalance entities.
+ * <p>
+ * This repository provides:
+ * - Primary-key lookups of materialized user balances
+ * - Locking reads used to adjust balances without lost updates
+ * </p>
+ *
+ * @see UserBalance
+ * @see JpaRepository
+ */
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    /**
+     * Retrieves and write-locks the balances of the given users.
+     * <p>
+     * Rows are locked in user id order so concurrent writers cannot deadlock each other.
+     * </p>
+     *
+     * @param userIds the ids of the users to lock
+     * @return the existing balances of the given users
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM UserBalance b WHERE b.userId IN :userIds ORDER BY b.userId")
+    List<UserBalance> findAllForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Retrieves the balance of a user by the user's name.
+     *
+     * @param userName the name of the user
+     * @return an Optional containing the balance if the user has one
+     */
+    @Query("SELECT b.balance FROM UserBalance b JOIN User u ON u.id = b.userId WHERE u.name = :userName")
+    Optional<BigDecimal> findBalanceByUserName(@Param("userName") String userName);
+}
@@ -0,0 +1,29 @@
+package com.expenses.splitwise.repository;
+
+import com.expenses.splitwise.entity.ExpenseUserId;
+import com.expenses.splitwise.entity.UserExpenseBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing UserExpenseBalance entities.
+ * <p>
+ * This repository provides:
+ * - CRUD operations for per-expense materialized shares
+ * - Lookup of all materialized shares of an expense
+ * </p>
+ *
+ * @see UserExpenseBalance
+ * @see JpaRepository
+ */
+public interface UserExpenseBalanceRepository extends JpaRepository<UserExpenseBalance, ExpenseUserId> {
+
+    /**
+     * Retrieves the materialized shares of every participant of an expense.
+     *
+     * @param expenseId the id of the expense
+     * @return the materialized shares of the expense
+     */
+    List<UserExpenseBalance> findByExpenseId(Long expenseId);
+}
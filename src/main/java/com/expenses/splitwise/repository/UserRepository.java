@@ -1,10 +1,15 @@
 package com.expenses.splitwise.repository;
 
+import com.expenses.splitwise.config.CacheConfig;
 import com.expenses.splitwise.entity.User;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,7 +17,7 @@ import java.util.Optional;
  * <p>
  * This repository provides:
  * - CRUD operations for user management
- * - Custom query method for finding users by name
+ * - Custom query methods for finding users by name
  * - String-based primary key operations
  * </p>
  *
@@ -27,10 +32,29 @@ public interface UserRepository extends JpaRepository<User, String> {
      * Finds a user by their unique name.
      * <p>
      * This method returns an Optional to handle cases where the user may not exist.
+     * Found users are cached in {@link CacheConfig#USERS_BY_NAME}; misses are not cached.
      * </p>
      *
      * @param name the unique name of the user to find
      * @return an Optional containing the user if found, empty otherwise
      */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_NAME, unless = "#result == null")
     Optional<User> findByName(String name);
+
+    /**
+     * Finds the users with any of the given names in one query.
+     *
+     * @param names the names to look up
+     * @return the users found; names without a user are skipped
+     */
+    List<User> findByNameIn(Collection<String> names);
+
+    /**
+     * Retrieves one keyset page of users ordered by id.
+     *
+     * @param id the last id of the previous page, 0 for the first page
+     * @param pageable the page size; the page number must be 0
+     * @return up to the requested number of users with an id greater than the given one
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,10 @@
+package com.expenses.splitwise.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+public interface BalanceFeedInterface {
+    Optional<SseEmitter> subscribeUser(String userName);
+    Optional<SseEmitter> subscribeGroup(String groupName);
+}
@@ -0,0 +1,12 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.BalanceDriftDto;
+import com.expenses.splitwise.dto.UserBalanceDto;
+
+import java.util.List;
+
+public interface BalanceInterface {
+    void refreshExpense(Long expenseId);
+    UserBalanceDto getBalance(String userName);
+    List<BalanceDriftDto> reconcile();
+}
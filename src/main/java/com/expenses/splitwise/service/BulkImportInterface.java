@@ -0,0 +1,10 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.ImportFormat;
+import com.expenses.splitwise.dto.ImportReportDto;
+
+import java.io.InputStream;
+
+public interface BulkImportInterface {
+    ImportReportDto importRows(String importId, ImportFormat format, InputStream in);
+}
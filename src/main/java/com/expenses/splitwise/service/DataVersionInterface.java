@@ -0,0 +1,16 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.ExportTable;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface DataVersionInterface {
+    void bumpTables(ExportTable... tables);
+
+    void bumpParticipants(Collection<Long> expenseIds);
+
+    Optional<Long> tableVersion(ExportTable table);
+
+    Optional<Long> userVersion(String userName);
+}
@@ -0,0 +1,9 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.ExpenseSharePercentage;
+
+import java.util.List;
+
+public interface ExpenseShareInterface {
+    void addShares(String expenseName, List<ExpenseSharePercentage> shares);
+}
@@ -0,0 +1,13 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.GroupSummaryDto;
+import com.expenses.splitwise.dto.SettlementTransferDto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface GroupInterface {
+    List<SettlementTransferDto> calculateSettlements(String groupName);
+
+    Optional<GroupSummaryDto> getGroup(String groupName);
+}
@@ -0,0 +1,13 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.IdempotencyClaim;
+
+public interface IdempotencyInterface {
+    IdempotencyClaim claim(String key, long requestHash);
+
+    boolean complete(String key, long token, long requestHash, int status, String contentType, byte[] body);
+
+    void release(String key, long token);
+
+    int purgeExpired();
+}
@@ -0,0 +1,10 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.IngestionAckDto;
+import com.expenses.splitwise.dto.IngestionCommand;
+
+import java.util.Optional;
+
+public interface IngestionInterface {
+    Optional<IngestionAckDto> submit(IngestionCommand command);
+}
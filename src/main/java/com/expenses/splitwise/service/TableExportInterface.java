@@ -0,0 +1,9 @@
+package com.expenses.splitwise.service;
+
+import com.expenses.splitwise.dto.ExportTable;
+
+import java.io.OutputStream;
+
+public interface TableExportInterface {
+    long export(ExportTable table, OutputStream out);
+}
@@ -0,0 +1,388 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.BalanceChangeEvent;
+import com.expenses.splitwise.dto.BalanceDeltaDto;
+import com.expenses.splitwise.service.BalanceFeedInterface;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class pushing committed balance changes to Server-Sent Events subscribers.
+ * <p>
+ * This service:
+ * 1. Registers a subscriber per user or group feed, refusing new ones beyond `splitwise.feed.max-subscribers`
+ * 2. Receives the {@link BalanceChangeEvent} of every committed expense refresh
+ * 3. Queues each change in the bounded buffer of every subscriber of its user or group, never blocking the
+ *    committing thread
+ * 4. Lets `splitwise.feed.dispatch-threads` dispatcher threads write the buffered changes to the connections
+ * 5. Closes every feed whose write has been blocked for `splitwise.feed.write-timeout-ms`
+ * </p>
+ * When a subscriber's buffer of `splitwise.feed.buffer-size` changes is full, the buffered changes are dropped
+ * and a single `resync` event is sent instead; the client then reloads the balance and keeps listening.
+ * An idle subscriber holds no thread, only its emitter and an empty buffer, and gets a comment every
+ * `splitwise.feed.heartbeat-ms` so dead connections are noticed.
+ * <p>
+ * Writes block until the client's connection accepts them. A dispatcher stuck in a write to a client that
+ * stopped reading stays blocked until the container's write timeout, so a closed stalled feed gets its
+ * dispatcher replaced by an extra thread, up to {@value #MAX_REPLACED_DISPATCHERS} at a time, until the write
+ * returns. Beyond that, feeds share the remaining dispatchers.
+ * </p>
+ */
+@Service
+public class BalanceFeedServiceImpl implements BalanceFeedInterface {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(BalanceFeedServiceImpl.class);
+
+    /** Event name of a balance change */
+    public static final String BALANCE_EVENT = "balance";
+
+    /** Event name telling the client that changes were dropped */
+    public static final String RESYNC_EVENT = "resync";
+
+    /** Most dispatcher threads added at once in place of threads blocked in stalled writes */
+    static final int MAX_REPLACED_DISPATCHERS = 32;
+
+    /** Subscribers of each user feed */
+    private final Map<String, Set<Subscriber>> userFeeds = new ConcurrentHashMap<>();
+
+    /** Subscribers of each group feed */
+    private final Map<String, Set<Subscriber>> groupFeeds = new ConcurrentHashMap<>();
+
+    /** Number of open subscriptions */
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    /** Id of the last pushed change, for the `id` field of the events */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ThreadPoolExecutor dispatcher;
+
+    private final int dispatchThreads;
+
+    /** Dispatcher threads currently added in place of blocked ones, guarded by {@link #dispatcher} */
+    private int replacedDispatchers;
+
+    private final int maxSubscribers;
+
+    private final int bufferSize;
+
+    private final long writeTimeoutNanos;
+
+    private final Counter resyncs;
+
+    private final Counter stalledWrites;
+
+    /**
+     * Constructs a new BalanceFeedServiceImpl.
+     *
+     * @param meterRegistry registry receiving the feed metrics
+     * @param maxSubscribers maximum number of open subscriptions
+     * @param bufferSize maximum number of changes buffered per subscriber
+     * @param dispatchThreads number of threads writing to the connections
+     * @param writeTimeoutMillis time after which a blocked write closes its feed
+     */
+    public BalanceFeedServiceImpl(MeterRegistry meterRegistry,
+                                  @Value("${splitwise.feed.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${splitwise.feed.buffer-size:64}") int bufferSize,
+                                  @Value("${splitwise.feed.dispatch-threads:2}") int dispatchThreads,
+                                  @Value("${splitwise.feed.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.dispatchThreads = Math.max(1, dispatchThreads);
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.dispatcher = new ThreadPoolExecutor(this.dispatchThreads, this.dispatchThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "balance-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.resyncs = meterRegistry.counter("splitwise.feed.resyncs");
+        this.stalledWrites = meterRegistry.counter("splitwise.feed.stalled-writes");
+        Gauge.builder("splitwise.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Open balance feed subscriptions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a feed of the balance changes of one user.
+     *
+     * @param userName the name of the user
+     * @return the emitter of the feed, empty when too many feeds are open
+     */
+    @Override
+    public Optional<SseEmitter> subscribeUser(String userName) {
+        return subscribe(userFeeds, userName);
+    }
+
+    /**
+     * Opens a feed of the balance changes of every member of one group.
+     *
+     * @param groupName the name of the group
+     * @return the emitter of the feed, empty when too many feeds are open
+     */
+    @Override
+    public Optional<SseEmitter> subscribeGroup(String groupName) {
+        return subscribe(groupFeeds, groupName);
+    }
+
+    /**
+     * Queues the changes of a committed refresh for the subscribers of their users and group.
+     *
+     * @param event the balance changes of one expense refresh
+     */
+    @TransactionalEventListener
+    public void publish(BalanceChangeEvent event) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        Set<Subscriber> group = groupFeeds.get(event.getGroupName());
+        for (BalanceDeltaDto delta : event.getDeltas()) {
+            long id = sequence.incrementAndGet();
+            if (group != null) {
+                group.forEach(subscriber -> subscriber.offer(id, delta));
+            }
+            Set<Subscriber> user = userFeeds.get(delta.getUserName());
+            if (user != null) {
+                user.forEach(subscriber -> subscriber.offer(id, delta));
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every idle subscriber, so closed connections are detected and removed.
+     */
+    @Scheduled(fixedDelayString = "${splitwise.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        userFeeds.values().forEach(feed -> feed.forEach(Subscriber::heartbeat));
+        groupFeeds.values().forEach(feed -> feed.forEach(Subscriber::heartbeat));
+    }
+
+    /**
+     * Closes the feeds whose current write has been blocked for longer than the write timeout.
+     */
+    @Scheduled(fixedDelayString = "${splitwise.feed.write-timeout-ms:5000}")
+    public void closeStalledFeeds() {
+        long now = System.nanoTime();
+        userFeeds.values().forEach(feed -> feed.forEach(subscriber -> subscriber.closeIfStalled(now)));
+        groupFeeds.values().forEach(feed -> feed.forEach(subscriber -> subscriber.closeIfStalled(now)));
+    }
+
+    @PreDestroy
+    void close() {
+        dispatcher.shutdownNow();
+        userFeeds.values().forEach(feed -> feed.forEach(subscriber -> subscriber.emitter.complete()));
+        groupFeeds.values().forEach(feed -> feed.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private Optional<SseEmitter> subscribe(Map<String, Set<Subscriber>> feeds, String key) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        // Feeds are added to and removed from under the map's per-key lock, so an emptied set is never reused
+        subscriber.remove = () -> feeds.computeIfPresent(key, (k, feed) -> {
+            if (feed.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+            return feed.isEmpty() ? null : feed;
+        });
+        emitter.onCompletion(subscriber.remove);
+        emitter.onTimeout(subscriber.remove);
+        emitter.onError(error -> subscriber.remove.run());
+        feeds.compute(key, (k, feed) -> {
+            Set<Subscriber> subscribed = feed != null ? feed : ConcurrentHashMap.newKeySet();
+            subscribed.add(subscriber);
+            return subscribed;
+        });
+        return Optional.of(emitter);
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter();
+    }
+
+    /**
+     * Adds or removes dispatcher threads standing in for threads blocked in stalled writes.
+     *
+     * @return whether the change was made; additions beyond {@value #MAX_REPLACED_DISPATCHERS} are refused
+     */
+    private boolean replaceDispatchers(int delta) {
+        synchronized (dispatcher) {
+            if (replacedDispatchers + delta > MAX_REPLACED_DISPATCHERS) {
+                return false;
+            }
+            replacedDispatchers += delta;
+            int size = dispatchThreads + replacedDispatchers;
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (delta > 0) {
+                dispatcher.setMaximumPoolSize(size);
+                dispatcher.setCorePoolSize(size);
+            } else {
+                dispatcher.setCorePoolSize(size);
+                dispatcher.setMaximumPoolSize(size);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One open feed: its emitter and its bounded buffer of changes not yet written.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /** Removes this subscriber from its feed */
+        private Runnable remove;
+
+        /** Changes not yet written, guarded by this subscriber */
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+
+        /** Whether changes were dropped since the last write */
+        private boolean overflowed;
+
+        /** Whether a dispatcher thread is draining the buffer */
+        private boolean draining;
+
+        /** Start of the write in progress in {@link System#nanoTime()}, 0 when not writing */
+        private long writeStarted;
+
+        /** Whether the feed was closed after a stalled write */
+        private boolean stalled;
+
+        /** Whether a dispatcher thread was added while this subscriber's write is blocked */
+        private boolean replaced;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(long id, BalanceDeltaDto delta) {
+            enqueue(SseEmitter.event().id(Long.toString(id)).name(BALANCE_EVENT).data(delta, MediaType.APPLICATION_JSON));
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (!buffer.isEmpty() || overflowed || draining) {
+                    return;
+                }
+            }
+            enqueue(SseEmitter.event().comment("heartbeat"));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (overflowed || stalled) {
+                    return;
+                }
+                if (buffer.size() == bufferSize) {
+                    // The client is too slow; it reloads instead of receiving every change
+                    buffer.clear();
+                    overflowed = true;
+                    resyncs.increment();
+                } else {
+                    buffer.add(event);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            dispatcher.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    if (overflowed) {
+                        overflowed = false;
+                        event = SseEmitter.event().name(RESYNC_EVENT).data("");
+                    } else {
+                        event = buffer.poll();
+                    }
+                    if (event == null || stalled) {
+                        draining = false;
+                        return;
+                    }
+                    writeStarted = System.nanoTime();
+                }
+                Exception failure = null;
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    failure = e;
+                }
+                boolean closed;
+                boolean released;
+                synchronized (this) {
+                    writeStarted = 0;
+                    closed = stalled;
+                    released = replaced;
+                    replaced = false;
+                    if (failure != null || closed) {
+                        buffer.clear();
+                        draining = false;
+                    }
+                }
+                if (released) {
+                    replaceDispatchers(-1);
+                }
+                if (closed) {
+                    emitter.completeWithError(new TimeoutException("Balance feed write timed out"));
+                    return;
+                }
+                if (failure != null) {
+                    logger.debug("Closing balance feed after a failed write: {}", failure.getMessage());
+                    emitter.completeWithError(failure);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Closes this feed when its current write started before the write timeout, freeing its buffer and,
+         * while the write stays blocked, replacing its dispatcher thread. The emitter is completed by that
+         * thread once the write returns, since completing it waits for the write.
+         */
+        void closeIfStalled(long now) {
+            synchronized (this) {
+                if (writeStarted == 0 || stalled || now - writeStarted < writeTimeoutNanos) {
+                    return;
+                }
+                stalled = true;
+                buffer.clear();
+                overflowed = false;
+                replaced = replaceDispatchers(1);
+            }
+            stalledWrites.increment();
+            logger.debug("Closing balance feed after a write blocked for over {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+            remove.run();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.BalanceDriftDto;
+import com.expenses.splitwise.service.BalanceInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scheduled job comparing materialized balances with balances recomputed from the raw tables.
+ * <p>
+ * The schedule is set with `splitwise.balance.reconcile-cron` and is disabled by default.
+ * Drift is logged as a warning per user.
+ * </p>
+ */
+@Component
+public class BalanceReconciliationJob {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(BalanceReconciliationJob.class);
+
+    /** Service maintaining the materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /**
+     * Constructs a new BalanceReconciliationJob.
+     *
+     * @param balanceInterface service maintaining the materialized balances
+     */
+    public BalanceReconciliationJob(BalanceInterface balanceInterface) {
+        this.balanceInterface = balanceInterface;
+    }
+
+    /**
+     * Runs the reconciliation and reports any drift.
+     */
+    @Scheduled(cron = "${splitwise.balance.reconcile-cron:-}")
+    public void reconcile() {
+        List<BalanceDriftDto> drifts = balanceInterface.reconcile();
+        if (drifts.isEmpty()) {
+            logger.info("Balance reconciliation found no drift");
+            return;
+        }
+        drifts.forEach(drift -> logger.warn("Balance drift for user {}: expected {}, stored {}",
+                drift.getUserName(), drift.getExpectedBalance(), drift.getActualBalance()));
+    }
+}
@@ -0,0 +1,205 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.BalanceChangeEvent;
+import com.expenses.splitwise.dto.BalanceDeltaDto;
+import com.expenses.splitwise.dto.BalanceDriftDto;
+import com.expenses.splitwise.dto.UserBalanceDto;
+import com.expenses.splitwise.dto.UserShareRow;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.User;
+import com.expenses.splitwise.entity.UserBalance;
+import com.expenses.splitwise.entity.UserExpenseBalance;
+import com.expenses.splitwise.repository.UserBalanceRepository;
+import com.expenses.splitwise.repository.UserExpenseBalanceRepository;
+import com.expenses.splitwise.service.BalanceInterface;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class maintaining materialized user balances.
+ * <p>
+ * This service handles:
+ * - Adjusting 'user_expense_balance' and 'user_balance' after an expense, its participants or its shares change
+ * - Primary-key reads of a user's balance
+ * - Reconciling the materialized balances against the raw tables
+ * </p>
+ * Balances are keyed by user and expense ids. Refreshes run inside the caller's write transaction, so balances commit or roll back
+ * together with the change that caused them.
+ *
+ * @see UserBalance
+ * @see UserExpenseBalance
+ */
+@Service
+public class BalanceServiceImpl implements BalanceInterface {
+
+    /** Queries reading the share rows of expenses */
+    private final ShareRowQueries shareRowQueries;
+
+    /** Repository for managing materialized user balances */
+    private final UserBalanceRepository userBalanceRepository;
+
+    /** Repository for managing materialized per-expense shares */
+    private final UserExpenseBalanceRepository userExpenseBalanceRepository;
+
+    /** Entity manager used to insert new materialized rows without a merge select */
+    private final EntityManager entityManager;
+
+    /** Engine recomputing every balance from the raw tables */
+    private final GroupBalanceEngine groupBalanceEngine;
+
+    /** Publisher of the balance changes of each refresh */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructs a new BalanceServiceImpl with required repositories.
+     *
+     * @param shareRowQueries queries reading the share rows of expenses
+     * @param userBalanceRepository repository for user balance operations
+     * @param userExpenseBalanceRepository repository for per-expense share operations
+     * @param entityManager entity manager used to insert new rows
+     * @param groupBalanceEngine engine recomputing every balance from the raw tables
+     * @param eventPublisher publisher of the balance changes of each refresh
+     */
+    public BalanceServiceImpl(ShareRowQueries shareRowQueries, UserBalanceRepository userBalanceRepository,
+                              UserExpenseBalanceRepository userExpenseBalanceRepository, EntityManager entityManager,
+                              GroupBalanceEngine groupBalanceEngine, ApplicationEventPublisher eventPublisher) {
+        this.shareRowQueries = shareRowQueries;
+        this.userBalanceRepository = userBalanceRepository;
+        this.userExpenseBalanceRepository = userExpenseBalanceRepository;
+        this.entityManager = entityManager;
+        this.groupBalanceEngine = groupBalanceEngine;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Re-applies the shares of one expense to the materialized balances.
+     * <p>
+     * This method:
+     * 1. Recomputes every participant's signed share of the expense
+     * 2. Compares it with the share previously applied for that participant
+     * 3. Adds the difference to the participant's balance, locking balances in user id order
+     * 4. Publishes the changed balances as a {@link BalanceChangeEvent}
+     * </p>
+     * Callers should hold the expense lock from
+     * {@link com.expenses.splitwise.repository.ExpenseRepository#findForUpdateByExpenseName(String)}.
+     *
+     * @param expenseId the id of the expense whose participants or shares changed
+     */
+    @Override
+    @Transactional
+    public void refreshExpense(Long expenseId) {
+        Map<Long, UserExpenseBalance> applied = userExpenseBalanceRepository.findByExpenseId(expenseId).stream()
+                .collect(Collectors.toMap(UserExpenseBalance::getUserId, Function.identity()));
+        Map<Long, Long> deltas = new TreeMap<>();
+        Map<Long, String> userNames = new HashMap<>();
+        String groupName = null;
+        String expenseName = null;
+
+        for (UserShareRow row : shareRowQueries.byExpenseId(expenseId)) {
+            userNames.put(row.getUserId(), row.getUserName());
+            groupName = row.getGroupName();
+            expenseName = row.getExpenseName();
+            long share = ShareCalculator.signedShareCents(row);
+            UserExpenseBalance current = applied.remove(row.getUserId());
+            if (current == null) {
+                entityManager.persist(new UserExpenseBalance(expenseId, row.getUserId(), Money.toBigDecimal(share)));
+                deltas.put(row.getUserId(), share);
+            } else {
+                long appliedShare = Money.toCents(current.getShare());
+                if (appliedShare != share) {
+                    deltas.put(row.getUserId(), share - appliedShare);
+                    current.setShare(Money.toBigDecimal(share));
+                }
+            }
+        }
+        // Users no longer mapped to the expense give back what was applied for them
+        for (UserExpenseBalance stale : applied.values()) {
+            deltas.put(stale.getUserId(), -Money.toCents(stale.getShare()));
+            userExpenseBalanceRepository.delete(stale);
+        }
+
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (groupName == null) {
+            // Every participant was removed, so no share row named the expense
+            Expense expense = entityManager.find(Expense.class, expenseId);
+            groupName = expense.getGroupName();
+            expenseName = expense.getExpenseName();
+        }
+        Map<Long, UserBalance> balances = userBalanceRepository.findAllForUpdate(deltas.keySet()).stream()
+                .collect(Collectors.toMap(UserBalance::getUserId, Function.identity()));
+        List<BalanceDeltaDto> changes = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            Long userId = entry.getKey();
+            long delta = entry.getValue();
+            UserBalance balance = balances.get(userId);
+            long updated = balance == null ? delta : Money.toCents(balance.getBalance()) + delta;
+            if (balance == null) {
+                entityManager.persist(new UserBalance(userId, Money.toBigDecimal(updated)));
+            } else {
+                balance.setBalance(Money.toBigDecimal(updated));
+            }
+            String userName = userNames.computeIfAbsent(userId, id -> entityManager.find(User.class, id).getName());
+            changes.add(new BalanceDeltaDto(userName, groupName, expenseName, Money.toBigDecimal(delta),
+                    Money.toBigDecimal(updated)));
+        }
+        eventPublisher.publishEvent(new BalanceChangeEvent(groupName, changes));
+    }
+
+    /**
+     * Reads a user's materialized balance.
+     *
+     * @param userName the name of the user
+     * @return the user's balance, zero if the user has no shares yet
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserBalanceDto getBalance(String userName) {
+        BigDecimal balance = userBalanceRepository.findBalanceByUserName(userName)
+                .orElse(BigDecimal.ZERO);
+        return new UserBalanceDto(userName, balance);
+    }
+
+    /**
+     * Recomputes every balance from expenses, mappings and shares and reports the differences.
+     * <p>
+     * The balances are recomputed by {@link GroupBalanceEngine}, which reads each table once and
+     * computes groups in parallel. Stored balances are only reported, never modified.
+     * </p>
+     *
+     * @return one entry per user whose stored balance differs from the recomputed one
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BalanceDriftDto> reconcile() {
+        BalanceSnapshot snapshot = groupBalanceEngine.snapshot();
+        Map<Long, BigDecimal> stored = userBalanceRepository.findAll().stream()
+                .collect(Collectors.toMap(UserBalance::getUserId, UserBalance::getBalance));
+
+        List<BalanceDriftDto> drifts = new ArrayList<>();
+        for (int user = 0; user < snapshot.userCount(); user++) {
+            long expectedCents = snapshot.balanceCents(user);
+            BigDecimal actual = stored.remove(snapshot.userId(user));
+            if (expectedCents != (actual != null ? Money.toCents(actual) : 0L)) {
+                drifts.add(new BalanceDriftDto(snapshot.userName(user), Money.toBigDecimal(expectedCents),
+                        actual != null ? actual : BigDecimal.ZERO));
+            }
+        }
+        // Balances left over belong to users deleted since; nothing is owed to or by them any more
+        stored.forEach((userId, actual) -> {
+            if (Money.toCents(actual) != 0) {
+                drifts.add(new BalanceDriftDto(String.valueOf(userId), BigDecimal.ZERO, actual));
+            }
+        });
+        return drifts;
+    }
+}
@@ -0,0 +1,44 @@
+package com.expenses.splitwise.service.impl;
+
+/**
+ * Net balance of every user recomputed by {@link GroupBalanceEngine}.
+ * <p>
+ * Users are indexed as in the {@link GroupLedger} the snapshot was computed from, i.e. by name;
+ * balances are {@code long} cents, positive when the user is owed money.
+ * </p>
+ */
+public final class BalanceSnapshot {
+
+    private final GroupLedger ledger;
+
+    private final long[] balances;
+
+    BalanceSnapshot(GroupLedger ledger, long[] balances) {
+        this.ledger = ledger;
+        this.balances = balances;
+    }
+
+    public int userCount() {
+        return ledger.userCount();
+    }
+
+    public long userId(int user) {
+        return ledger.userId(user);
+    }
+
+    public String userName(int user) {
+        return ledger.userName(user);
+    }
+
+    public long balanceCents(int user) {
+        return balances[user];
+    }
+
+    public int groupCount() {
+        return ledger.groupCount();
+    }
+
+    public int expenseCount() {
+        return ledger.expenseCount();
+    }
+}
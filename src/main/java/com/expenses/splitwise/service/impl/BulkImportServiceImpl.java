@@ -0,0 +1,514 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.dto.ImportFormat;
+import com.expenses.splitwise.dto.ImportReportDto;
+import com.expenses.splitwise.dto.ImportRow;
+import com.expenses.splitwise.dto.ImportRowError;
+import com.expenses.splitwise.dto.ImportRowType;
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.entity.ExpenseUser;
+import com.expenses.splitwise.entity.ExpenseUserId;
+import com.expenses.splitwise.entity.ImportCheckpoint;
+import com.expenses.splitwise.entity.User;
+import com.expenses.splitwise.repository.ExpenseRepository;
+import com.expenses.splitwise.repository.ExpenseShareRepository;
+import com.expenses.splitwise.repository.ExpenseUserRepository;
+import com.expenses.splitwise.repository.ImportCheckpointRepository;
+import com.expenses.splitwise.repository.UserRepository;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.BulkImportInterface;
+import com.expenses.splitwise.service.DataVersionInterface;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service class importing expenses, participants and shares from a CSV or NDJSON stream.
+ * <p>
+ * The stream is read one line at a time and processed in chunks of `splitwise.import.chunk-size` rows.
+ * For each chunk this service:
+ * 1. Loads the referenced users and expenses once into in-memory maps, locking the existing expenses
+ * 2. Validates every row against those maps, collecting a per-row error instead of failing the file
+ * 3. Writes the valid rows in JDBC batches, creating the missing groups of new expenses
+ * 4. Adds the new expenses and members to the running totals of their groups, once per group,
+ *    refreshes the materialized balances of the touched expenses, increments the versions of the changed
+ *    listings and of the participants' expense shares, and publishes the ledger records of the chunk
+ * 5. Records the last line of the chunk in 'import_checkpoint' in the same transaction
+ * </p>
+ * Only one chunk is held in memory at a time, so memory does not depend on the file size.
+ * Running the same import id again skips every line up to the last committed chunk.
+ *
+ * @see ImportRow
+ * @see ImportCheckpoint
+ */
+@Service
+public class BulkImportServiceImpl implements BulkImportInterface {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportServiceImpl.class);
+
+    /** Batched insert of new expenses; expense ids are read back by name */
+    private static final String INSERT_EXPENSE = "INSERT INTO expenses " +
+            "(expense_date, group_name, expense_name, total_amount, split_type, created_by_id, group_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Repository for managing expense entities */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for managing user entities */
+    private final UserRepository userRepository;
+
+    /** Repository for managing expense-user mapping entities */
+    private final ExpenseUserRepository expenseUserRepository;
+
+    /** Repository for managing expense shares */
+    private final ExpenseShareRepository expenseShareRepository;
+
+    /** Repository for managing import checkpoints */
+    private final ImportCheckpointRepository importCheckpointRepository;
+
+    /** Service maintaining materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /** Writer of the share rows of EQUAL expenses */
+    private final EqualShareMaterializer equalShareMaterializer;
+
+    /** Entity manager used to persist mappings and shares in batches */
+    private final EntityManager entityManager;
+
+    /** Template used to insert expenses in JDBC batches */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Template running each chunk in its own transaction */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Publisher of the ledger events of each chunk */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Service maintaining the version counters behind the listing and expense share ETags */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Writer of the groups of new expenses and their running totals */
+    private final GroupRollupWriter groupRollupWriter;
+
+    /** Reader for NDJSON rows */
+    private final ObjectReader jsonReader;
+
+    /** Mapper for CSV rows */
+    private final CsvMapper csvMapper;
+
+    /** Number of rows written per transaction */
+    private final int chunkSize;
+
+    /** Number of inserts sent to the database per JDBC batch */
+    private final int batchSize;
+
+    /** Maximum number of rejected rows listed in a report */
+    private final int maxReportedErrors;
+
+    /**
+     * Constructs a new BulkImportServiceImpl.
+     *
+     * @param expenseRepository repository for expense operations
+     * @param userRepository repository for user operations
+     * @param expenseUserRepository repository for expense-user mapping operations
+     * @param expenseShareRepository repository for expense share operations
+     * @param importCheckpointRepository repository for import checkpoint operations
+     * @param balanceInterface service maintaining materialized balances
+     * @param equalShareMaterializer writer of the share rows of EQUAL expenses
+     * @param entityManager entity manager used to persist mappings and shares
+     * @param jdbcTemplate template used to insert expenses
+     * @param transactionManager transaction manager for the chunk transactions
+     * @param eventPublisher publisher of the ledger events of each chunk
+     * @param dataVersionInterface service maintaining the version counters behind the ETags
+     * @param groupRollupWriter writer of the groups of new expenses and their running totals
+     * @param objectMapper mapper used to read NDJSON rows
+     * @param chunkSize number of rows written per transaction
+     * @param batchSize number of inserts per JDBC batch
+     * @param maxReportedErrors maximum number of rejected rows listed in a report
+     */
+    public BulkImportServiceImpl(ExpenseRepository expenseRepository, UserRepository userRepository,
+                                 ExpenseUserRepository expenseUserRepository, ExpenseShareRepository expenseShareRepository,
+                                 ImportCheckpointRepository importCheckpointRepository, BalanceInterface balanceInterface,
+                                 EqualShareMaterializer equalShareMaterializer,
+                                 EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                 DataVersionInterface dataVersionInterface, GroupRollupWriter groupRollupWriter,
+                                 ObjectMapper objectMapper,
+                                 @Value("${splitwise.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${splitwise.jdbc.batch-size:50}") int batchSize,
+                                 @Value("${splitwise.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.expenseUserRepository = expenseUserRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.importCheckpointRepository = importCheckpointRepository;
+        this.balanceInterface = balanceInterface;
+        this.equalShareMaterializer = equalShareMaterializer;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.dataVersionInterface = dataVersionInterface;
+        this.groupRollupWriter = groupRollupWriter;
+        this.jsonReader = objectMapper.readerFor(ImportRow.class);
+        this.csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .build();
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports every row of the stream, resuming after the last committed chunk of the same import id.
+     * <p>
+     * This method:
+     * 1. Loads or creates the checkpoint of the import
+     * 2. Skips the lines already covered by the checkpoint
+     * 3. Parses the remaining lines and commits them chunk by chunk
+     * </p>
+     *
+     * @param importId the id of the import, a new one is generated when null or blank
+     * @param format the format of the stream
+     * @param in the uploaded file; not closed by this method
+     * @return the report of this run
+     * @throws UncheckedIOException if the stream cannot be read
+     * @throws RuntimeException if a chunk cannot be written; earlier chunks stay committed
+     */
+    @Override
+    public ImportReportDto importRows(String importId, ImportFormat format, InputStream in) {
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        ImportCheckpoint checkpoint = importCheckpointRepository.findById(id)
+                .orElseGet(() -> new ImportCheckpoint(id, 0L, 0L, 0L, false));
+        ImportReportDto report = new ImportReportDto();
+        report.setImportId(id);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            long lineNumber = 0;
+            ObjectReader rowReader = jsonReader;
+            if (format == ImportFormat.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return report;
+                }
+                rowReader = csvReader(header);
+            }
+
+            Chunk chunk = new Chunk();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= checkpoint.getCommittedLine()) {
+                    report.setRowsSkipped(report.getRowsSkipped() + 1);
+                    continue;
+                }
+                if (!line.isBlank()) {
+                    try {
+                        chunk.rows.add(new NumberedRow(lineNumber, rowReader.readValue(line)));
+                    } catch (JsonProcessingException e) {
+                        chunk.errors.add(new ImportRowError(lineNumber, "Malformed row: " + e.getOriginalMessage()));
+                    }
+                }
+                if (chunk.rows.size() + chunk.errors.size() >= chunkSize) {
+                    commit(checkpoint, chunk, lineNumber, false, report);
+                    chunk = new Chunk();
+                }
+            }
+            commit(checkpoint, chunk, Math.max(lineNumber, checkpoint.getCommittedLine()), true, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import " + id, e);
+        }
+        logger.info("Import {} finished: {} imported, {} rejected, {} skipped",
+                id, report.getRowsImported(), report.getRowsFailed(), report.getRowsSkipped());
+        return report;
+    }
+
+    /**
+     * Builds the reader for the CSV rows from the column names in the header line.
+     */
+    private ObjectReader csvReader(String header) {
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : header.split(",")) {
+            schema.addColumn(column.trim());
+        }
+        return csvMapper.readerFor(ImportRow.class).with(schema.build());
+    }
+
+    /**
+     * Writes one chunk and advances the checkpoint in a single transaction, then adds its outcome to the report.
+     */
+    private void commit(ImportCheckpoint checkpoint, Chunk chunk, long lastLine, boolean completed, ImportReportDto report) {
+        long imported = transactionTemplate.execute(status -> {
+            long written = write(chunk);
+            checkpoint.setCommittedLine(lastLine);
+            checkpoint.setRowsImported(checkpoint.getRowsImported() + written);
+            checkpoint.setRowsFailed(checkpoint.getRowsFailed() + chunk.errors.size());
+            checkpoint.setCompleted(completed);
+            importCheckpointRepository.save(checkpoint);
+            return written;
+        });
+        report.setRowsImported(report.getRowsImported() + imported);
+        report.setRowsFailed(report.getRowsFailed() + chunk.errors.size());
+        for (ImportRowError error : chunk.errors) {
+            if (report.getErrors().size() < maxReportedErrors) {
+                report.getErrors().add(error);
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    /**
+     * Validates and writes the rows of one chunk inside the current transaction.
+     *
+     * @return the number of rows written
+     */
+    private long write(Chunk chunk) {
+        if (chunk.rows.isEmpty()) {
+            return 0;
+        }
+        Set<String> userNames = new HashSet<>();
+        Set<String> expenseNames = new HashSet<>();
+        for (NumberedRow numbered : chunk.rows) {
+            ImportRow row = numbered.row;
+            addIfPresent(userNames, row.getCreatedBy());
+            addIfPresent(userNames, row.getUserName());
+            addIfPresent(expenseNames, row.getExpenseName());
+        }
+        Map<String, Long> userIds = userRepository.findByNameIn(userNames).stream()
+                .collect(Collectors.toMap(User::getName, User::getId));
+        Map<String, Long> expenseIds = new HashMap<>();
+        Map<String, SPLIT_TYPE> splitTypes = new HashMap<>();
+        Map<Long, Long> expenseGroups = new HashMap<>();
+        for (Expense expense : expenseRepository.findAllForUpdateByExpenseNameIn(expenseNames)) {
+            expenseIds.put(expense.getExpenseName(), expense.getId());
+            splitTypes.put(expense.getExpenseName(), expense.getSplitType());
+            if (expense.getGroup() != null) {
+                expenseGroups.put(expense.getId(), expense.getGroup().getId());
+            }
+        }
+        Set<ExpenseUserId> mappings = new HashSet<>(expenseUserRepository.findKeysByExpenseIdIn(expenseIds.values()));
+        Set<ExpenseUserId> shares = new HashSet<>(expenseShareRepository.findKeysByExpenseIdIn(expenseIds.values()));
+
+        // Expenses first, so participant and share rows can refer to expenses created in the same chunk
+        Set<String> newExpenses = new HashSet<>();
+        List<ImportRow> newExpenseRows = new ArrayList<>();
+        List<NumberedRow> dependentRows = new ArrayList<>();
+        for (NumberedRow numbered : chunk.rows) {
+            ImportRow row = numbered.row;
+            String error = row.getType() == null ? "Missing type" : switch (row.getType()) {
+                case EXPENSE -> validateExpense(row, userIds, expenseIds, newExpenses);
+                case PARTICIPANT, SHARE -> validateReference(row, userIds, splitTypes);
+            };
+            if (error != null) {
+                chunk.errors.add(new ImportRowError(numbered.line, error));
+            } else if (row.getType() == ImportRowType.EXPENSE) {
+                newExpenses.add(row.getExpenseName());
+                splitTypes.put(row.getExpenseName(), row.getSplitType());
+                newExpenseRows.add(row);
+            } else {
+                dependentRows.add(numbered);
+            }
+        }
+        long written = newExpenseRows.size();
+        Map<String, Long> groupIds = groupRollupWriter.resolve(newExpenseRows.stream().map(ImportRow::getGroupName).toList());
+        if (!newExpenseRows.isEmpty()) {
+            List<Object[]> expenseRows = new ArrayList<>();
+            for (ImportRow row : newExpenseRows) {
+                expenseRows.add(new Object[]{Date.valueOf(row.getExpenseDate()), row.getGroupName(), row.getExpenseName(),
+                        row.getTotalAmount(), row.getSplitType().name(), userIds.get(row.getCreatedBy()),
+                        groupIds.get(row.getGroupName())});
+            }
+            jdbcTemplate.batchUpdate(INSERT_EXPENSE, expenseRows, batchSize, (ps, values) -> {
+                for (int i = 0; i < values.length; i++) {
+                    ps.setObject(i + 1, values[i]);
+                }
+            });
+            for (Expense expense : expenseRepository.findByExpenseNameIn(newExpenses)) {
+                expenseIds.put(expense.getExpenseName(), expense.getId());
+            }
+        }
+
+        List<LedgerRecord> records = new ArrayList<>();
+        Map<Long, GroupChange> groupChanges = new TreeMap<>();
+        for (ImportRow row : newExpenseRows) {
+            Long expenseId = expenseIds.get(row.getExpenseName());
+            Long groupId = groupIds.get(row.getGroupName());
+            records.add(LedgerRecord.expense(expenseId, row.getSplitType(),
+                    Money.toCents(row.getTotalAmount()), userIds.get(row.getCreatedBy())));
+            expenseGroups.put(expenseId, groupId);
+            GroupChange change = groupChanges.computeIfAbsent(groupId, id -> new GroupChange());
+            change.expenses++;
+            change.amount = change.amount.add(row.getTotalAmount());
+            change.members.add(userIds.get(row.getCreatedBy()));
+        }
+        Set<Long> touchedExpenses = new TreeSet<>();
+        Set<Long> regroupedExpenses = new TreeSet<>();
+        newExpenses.forEach(name -> touchedExpenses.add(expenseIds.get(name)));
+        boolean sharesWritten = false;
+        int pending = 0;
+        for (NumberedRow numbered : dependentRows) {
+            ImportRow row = numbered.row;
+            ExpenseUserId key = new ExpenseUserId(expenseIds.get(row.getExpenseName()), userIds.get(row.getUserName()));
+            if (row.getType() == ImportRowType.PARTICIPANT) {
+                if (mappings.add(key)) {
+                    entityManager.persist(new ExpenseUser(key.getExpenseId(), key.getUserId(), null, null));
+                    records.add(LedgerRecord.participant(key.getExpenseId(), key.getUserId()));
+                    regroupedExpenses.add(key.getExpenseId());
+                    Long groupId = expenseGroups.get(key.getExpenseId());
+                    if (groupId != null) {
+                        groupChanges.computeIfAbsent(groupId, id -> new GroupChange()).members.add(key.getUserId());
+                    }
+                    pending++;
+                }
+            } else if (!shares.add(key)) {
+                chunk.errors.add(new ImportRowError(numbered.line, "Share already exists for user " + row.getUserName()));
+                continue;
+            } else {
+                entityManager.persist(new ExpenseShare(null, key.getExpenseId(), key.getUserId(),
+                        row.getPercentage(), row.getAmount(), null, null));
+                records.add(LedgerRecord.share(key.getExpenseId(), key.getUserId(),
+                        row.getPercentage() == null ? null : Money.toCents(row.getPercentage()),
+                        row.getAmount() == null ? null : Money.toCents(row.getAmount())));
+                sharesWritten = true;
+                pending++;
+            }
+            written++;
+            touchedExpenses.add(key.getExpenseId());
+            if (pending >= batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        regroupedExpenses.forEach(equalShareMaterializer::materialize);
+        // Groups after the expenses, like every other writer
+        groupChanges.forEach((groupId, change) ->
+                groupRollupWriter.record(groupId, change.expenses, change.amount, change.members));
+        touchedExpenses.forEach(balanceInterface::refreshExpense);
+        List<ExportTable> changedTables = new ArrayList<>();
+        if (!newExpenses.isEmpty()) {
+            changedTables.add(ExportTable.EXPENSES);
+        }
+        if (!regroupedExpenses.isEmpty()) {
+            changedTables.add(ExportTable.EXPENSE_USERS);
+        }
+        // New participants may have rewritten EQUAL share rows
+        if (sharesWritten || !regroupedExpenses.isEmpty()) {
+            changedTables.add(ExportTable.EXPENSE_SHARES);
+        }
+        dataVersionInterface.bumpTables(changedTables.toArray(ExportTable[]::new));
+        dataVersionInterface.bumpParticipants(touchedExpenses);
+        eventPublisher.publishEvent(new LedgerEvent(records));
+        return written;
+    }
+
+    /**
+     * Checks an expense row, returning the reason it is rejected or null when it is valid.
+     */
+    private static String validateExpense(ImportRow row, Map<String, Long> userIds, Map<String, Long> expenseIds,
+                                          Set<String> newExpenses) {
+        if (isBlank(row.getExpenseName()) || row.getExpenseDate() == null || isBlank(row.getGroupName())
+                || row.getTotalAmount() == null || row.getSplitType() == null || isBlank(row.getCreatedBy())) {
+            return "Expense rows need expenseName, expenseDate, groupName, totalAmount, splitType and createdBy";
+        }
+        if (!userIds.containsKey(row.getCreatedBy())) {
+            return "User not found: " + row.getCreatedBy();
+        }
+        if (expenseIds.containsKey(row.getExpenseName()) || newExpenses.contains(row.getExpenseName())) {
+            return "Expense already exists: " + row.getExpenseName();
+        }
+        return null;
+    }
+
+    /**
+     * Checks a participant or share row, returning the reason it is rejected or null when it is valid.
+     */
+    private String validateReference(ImportRow row, Map<String, Long> userIds, Map<String, SPLIT_TYPE> splitTypes) {
+        if (isBlank(row.getExpenseName()) || isBlank(row.getUserName())) {
+            return row.getType() + " rows need expenseName and userName";
+        }
+        if (!splitTypes.containsKey(row.getExpenseName())) {
+            return "Expense not found: " + row.getExpenseName();
+        }
+        if (!userIds.containsKey(row.getUserName())) {
+            return "User not found: " + row.getUserName();
+        }
+        if (row.getType() == ImportRowType.SHARE) {
+            if (row.getPercentage() == null && row.getAmount() == null) {
+                return "Share rows need a percentage or an amount";
+            }
+            if (equalShareMaterializer.owns(splitTypes.get(row.getExpenseName()))) {
+                return "Shares of EQUAL expenses are derived from their participants";
+            }
+        }
+        return null;
+    }
+
+    private static void addIfPresent(Set<String> names, String name) {
+        if (!isBlank(name)) {
+            names.add(name);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * A parsed row with its line number in the file.
+     */
+    private record NumberedRow(long line, ImportRow row) {
+    }
+
+    /**
+     * Rows and parse errors of one chunk.
+     */
+    private static final class Chunk {
+        private final List<NumberedRow> rows = new ArrayList<>();
+        private final List<ImportRowError> errors = new ArrayList<>();
+    }
+
+    /**
+     * The expenses and members a chunk adds to one group.
+     */
+    private static final class GroupChange {
+        private int expenses;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private final Set<Long> members = new TreeSet<>();
+    }
+}
@@ -0,0 +1,214 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.UserDto;
+import com.expenses.splitwise.service.UserInterface;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight layer in front of {@link UserServiceImpl}, enabled with `splitwise.coalescing.enabled=true`.
+ * <p>
+ * Concurrent {@link #calculateUserExpenseShares(String)} calls for the same user share one computation:
+ * - The first call computes the shares and publishes them to the calls that arrive meanwhile
+ * - A failure is rethrown to every call that shared the computation
+ * - Nothing is kept once the computation completes; the next call computes again
+ * </p>
+ * Writes invalidate computations in flight. Every write to expenses, participants or shares publishes a
+ * {@link LedgerEvent} inside its transaction. From then until the transaction completes, calls are not
+ * coalesced. Once it completes, no call joins a computation that started before it. A call therefore never
+ * receives shares older than a write committed before the call started. Creating a user through this
+ * service fences the same way.
+ * <p>
+ * Calls are counted in `splitwise.coalescing.requests` by outcome: computed, joined, or bypassed during a
+ * write. Joined calls are also counted per user in `splitwise.coalescing.joined`. The first
+ * `splitwise.coalescing.max-tagged-users` users get their own tag; later users share the tag "other".
+ * </p>
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "splitwise.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingUserServiceImpl implements UserInterface {
+
+    /** Tag value of the users beyond `splitwise.coalescing.max-tagged-users` */
+    static final String OTHER_USERS = "other";
+
+    private final UserServiceImpl delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    /** Computations in flight, by user name */
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    /** Writes between their first change event and the end of their transaction */
+    private final AtomicInteger writesInProgress = new AtomicInteger();
+
+    /** Number of completed writes; a computation may only be joined while it is unchanged */
+    private final AtomicLong epoch = new AtomicLong();
+
+    /** Per-user counters of joined calls */
+    private final Map<String, Counter> joinedByUser = new ConcurrentHashMap<>();
+
+    private final Counter computed;
+
+    private final Counter joined;
+
+    private final Counter bypassed;
+
+    /** Number of users counted under their own tag */
+    private final int maxTaggedUsers;
+
+    /**
+     * Constructs a new CoalescingUserServiceImpl.
+     *
+     * @param delegate the user service computing the shares
+     * @param meterRegistry registry receiving the coalescing counters
+     * @param maxTaggedUsers number of users counted under their own tag
+     */
+    public CoalescingUserServiceImpl(UserServiceImpl delegate, MeterRegistry meterRegistry,
+                                     @Value("${splitwise.coalescing.max-tagged-users:100}") int maxTaggedUsers) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.maxTaggedUsers = maxTaggedUsers;
+        this.computed = meterRegistry.counter("splitwise.coalescing.requests", "outcome", "computed");
+        this.joined = meterRegistry.counter("splitwise.coalescing.requests", "outcome", "joined");
+        this.bypassed = meterRegistry.counter("splitwise.coalescing.requests", "outcome", "bypassed");
+    }
+
+    /**
+     * Creates a user, fencing computations in flight until the creation committed.
+     *
+     * @param userDto the user data transfer object containing user details
+     * @return the created user as DTO
+     */
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        writesInProgress.incrementAndGet();
+        try {
+            return delegate.createUser(userDto);
+        } finally {
+            completeWrite();
+        }
+    }
+
+    /**
+     * Calculates the expense shares of a user, sharing the computation already in flight for the same user.
+     *
+     * @param userName the name of the user to calculate shares for
+     * @return unmodifiable list of expense share DTOs, possibly shared with concurrent callers
+     */
+    @Override
+    public List<ExpenseShareDto> calculateUserExpenseShares(String userName) {
+        if (writesInProgress.get() > 0) {
+            bypassed.increment();
+            return Collections.unmodifiableList(delegate.calculateUserExpenseShares(userName));
+        }
+        long current = epoch.get();
+        Flight mine = new Flight(current);
+        Flight flight = flights.compute(userName,
+                (name, existing) -> existing != null && existing.epoch >= current ? existing : mine);
+        if (flight != mine) {
+            joined.increment();
+            joinedCounter(userName).increment();
+            return await(flight);
+        }
+
+        computed.increment();
+        try {
+            List<ExpenseShareDto> shares = Collections.unmodifiableList(delegate.calculateUserExpenseShares(userName));
+            mine.result.complete(shares);
+            return shares;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(userName, mine);
+        }
+    }
+
+    /**
+     * Fences computations in flight when a write changes expenses, participants or shares.
+     * <p>
+     * Called inside the writing transaction; the fence is lifted once the transaction completes, whether it
+     * committed or rolled back. A change made outside a transaction invalidates the computations at once.
+     * </p>
+     *
+     * @param event the state changes of one write
+     */
+    @EventListener
+    public void onWrite(LedgerEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            epoch.incrementAndGet();
+            return;
+        }
+        writesInProgress.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completeWrite();
+            }
+        });
+    }
+
+    /**
+     * Ends a write: computations started before it can no longer be joined.
+     */
+    private void completeWrite() {
+        epoch.incrementAndGet();
+        writesInProgress.decrementAndGet();
+    }
+
+    private Counter joinedCounter(String userName) {
+        Counter counter = joinedByUser.get(userName);
+        if (counter != null) {
+            return counter;
+        }
+        String tag = joinedByUser.size() < maxTaggedUsers ? userName : OTHER_USERS;
+        return joinedByUser.computeIfAbsent(tag,
+                user -> meterRegistry.counter("splitwise.coalescing.joined", "user", user));
+    }
+
+    private static List<ExpenseShareDto> await(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A computation in flight and the write epoch it started in.
+     */
+    private static final class Flight {
+        private final CompletableFuture<List<ExpenseShareDto>> result = new CompletableFuture<>();
+
+        private final long epoch;
+
+        private Flight(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
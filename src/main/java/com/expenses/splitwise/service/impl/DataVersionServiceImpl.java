@@ -0,0 +1,297 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.entity.DataVersion;
+import com.expenses.splitwise.service.DataVersionInterface;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class maintaining the version counters behind the ETags of the listing and expense share endpoints.
+ * <p>
+ * This service handles:
+ * - Incrementing the counter of every table a write transaction changes, once it commits
+ * - Incrementing the counters of the participants of the expenses a write transaction changes, since
+ *   their expense shares may have changed with them
+ * - Reading one counter, by table or by user name, in a single statement
+ * </p>
+ * Table counters are shared by every writer, so they are never incremented inside the write transaction:
+ * a committed change queues its tables for one background writer, which holds no other connection and
+ * increments them in a transaction of its own. A table changed by several transactions while it waits is
+ * incremented once. A rolled back change increments nothing, and a failed increment is retried every
+ * `splitwise.versions.retry-ms`. From the moment a transaction changes a table until its increment is done,
+ * this instance reports no version for the table, so its responses go untagged rather than answered `304`
+ * for the previous content. User counters are incremented inside the write transaction, so they commit or
+ * roll back with the change they count.
+ * Reads are read-only transactions, routed like the listings themselves: read before the data,
+ * a version is never newer than the content it is sent with.
+ *
+ * @see DataVersion
+ */
+@Service
+public class DataVersionServiceImpl implements DataVersionInterface {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionServiceImpl.class);
+
+    /** Scope of the per-user counters */
+    static final String USER_SCOPE = "user";
+
+    private static final String BUMP_TABLES = "UPDATE data_version SET version = version + 1 "
+            + "WHERE scope_id = 0 AND scope IN (%s)";
+
+    private static final String INSERT_TABLE = "INSERT INTO data_version (scope, scope_id, version) VALUES (?, 0, 1)";
+
+    private static final String BUMP_TABLE = "UPDATE data_version SET version = version + 1 WHERE scope = ? AND scope_id = 0";
+
+    private static final String BUMP_USERS = "UPDATE data_version SET version = version + 1 "
+            + "WHERE scope = '" + USER_SCOPE + "' AND scope_id IN "
+            + "(SELECT user_id FROM expense_user WHERE expense_id IN (%s))";
+
+    private static final String INSERT_USERS = "INSERT INTO data_version (scope, scope_id, version) "
+            + "SELECT DISTINCT '" + USER_SCOPE + "', eu.user_id, 1 FROM expense_user eu WHERE eu.expense_id IN (%s) "
+            + "AND NOT EXISTS (SELECT 1 FROM data_version v WHERE v.scope = '" + USER_SCOPE + "' AND v.scope_id = eu.user_id)";
+
+    private static final String SELECT_TABLE = "SELECT version FROM data_version WHERE scope = ? AND scope_id = 0";
+
+    private static final String SELECT_USER = "SELECT v.version FROM users u JOIN data_version v "
+            + "ON v.scope = '" + USER_SCOPE + "' AND v.scope_id = u.id WHERE u.name = ?";
+
+    private static final ExportTable[] TABLES = ExportTable.values();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Entity manager flushed before the participants are read */
+    private final EntityManager entityManager;
+
+    /** Template running the table counter increments in their own transaction */
+    private final TransactionTemplate bumpTransaction;
+
+    /** Delay in milliseconds before a failed increment is retried */
+    private final long retryMs;
+
+    /** Single thread incrementing the table counters */
+    private final ScheduledExecutorService bumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "data-version-bumper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Open transactions that changed each table, by ordinal; guards the other counts */
+    private final int[] changing = new int[TABLES.length];
+
+    /** Committed changes of each table, by ordinal */
+    private final long[] committed = new long[TABLES.length];
+
+    /** Committed changes of each table covered by an increment, by ordinal */
+    private final long[] bumped = new long[TABLES.length];
+
+    /** Whether the bumper has a run queued, in progress or waiting for a retry */
+    private boolean bumping;
+
+    /**
+     * Constructs a new DataVersionServiceImpl.
+     *
+     * @param jdbcTemplate template used for the counter statements
+     * @param entityManager entity manager flushed before the participants are read
+     * @param transactionManager manager of the table counter transactions
+     * @param retryMs delay in milliseconds before a failed increment is retried
+     */
+    public DataVersionServiceImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${splitwise.versions.retry-ms:1000}") long retryMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        this.retryMs = retryMs;
+    }
+
+    /**
+     * Queues the counters of tables for an increment once the current transaction commits.
+     * <p>
+     * Costs no statement in the transaction; the tables go untagged on this instance until the increment is done.
+     * </p>
+     *
+     * @param tables the tables changed by the current transaction
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpTables(ExportTable... tables) {
+        if (tables.length == 0) {
+            return;
+        }
+        Set<ExportTable> changed = EnumSet.copyOf(Arrays.asList(tables));
+        synchronized (changing) {
+            changed.forEach(table -> changing[table.ordinal()]++);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean commit = status == STATUS_COMMITTED;
+                synchronized (changing) {
+                    for (ExportTable table : changed) {
+                        changing[table.ordinal()]--;
+                        if (commit) {
+                            committed[table.ordinal()]++;
+                        }
+                    }
+                    if (commit && !bumping) {
+                        bumping = true;
+                        bumper.execute(DataVersionServiceImpl.this::bumpCommitted);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Increments, one transaction at a time, the counter of every table with committed changes not covered yet,
+     * until none is left; schedules a retry when an increment fails.
+     */
+    private void bumpCommitted() {
+        while (true) {
+            long[] covered;
+            List<Object> scopes = new ArrayList<>();
+            synchronized (changing) {
+                covered = committed.clone();
+                for (ExportTable table : TABLES) {
+                    if (covered[table.ordinal()] > bumped[table.ordinal()]) {
+                        scopes.add(scope(table));
+                    }
+                }
+                if (scopes.isEmpty()) {
+                    bumping = false;
+                    return;
+                }
+            }
+            try {
+                bumpTransaction.executeWithoutResult(status -> bumpScopes(scopes.toArray()));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to increment the versions of {}, retrying in {} ms: {}", scopes, retryMs,
+                        e.getMessage(), e);
+                bumper.schedule(this::bumpCommitted, retryMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+            synchronized (changing) {
+                System.arraycopy(covered, 0, bumped, 0, covered.length);
+            }
+        }
+    }
+
+    /**
+     * Stops the table counter thread.
+     */
+    @PreDestroy
+    void shutdown() {
+        bumper.shutdownNow();
+    }
+
+    private void bumpScopes(Object[] scopes) {
+        if (jdbcTemplate.update(String.format(BUMP_TABLES, placeholders(scopes.length)), scopes) == scopes.length) {
+            return;
+        }
+        for (Object scope : scopes) {
+            if (jdbcTemplate.queryForList(SELECT_TABLE, Long.class, scope).isEmpty()) {
+                try {
+                    jdbcTemplate.update(INSERT_TABLE, scope);
+                } catch (DuplicateKeyException e) {
+                    // Created by a concurrent transaction since
+                    jdbcTemplate.update(BUMP_TABLE, scope);
+                }
+            }
+        }
+    }
+
+    /**
+     * Increments the counters of every participant of the given expenses, creating the missing ones.
+     * <p>
+     * Pending inserts are flushed first, so participants added in the current transaction are included.
+     * Costs two statements.
+     * </p>
+     *
+     * @param expenseIds the ids of the expenses changed by the current transaction
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpParticipants(Collection<Long> expenseIds) {
+        if (expenseIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        Object[] ids = expenseIds.toArray();
+        String in = placeholders(ids.length);
+        jdbcTemplate.update(String.format(BUMP_USERS, in), ids);
+        try {
+            jdbcTemplate.update(String.format(INSERT_USERS, in), ids);
+        } catch (DuplicateKeyException e) {
+            // A concurrent transaction created some of the counters; every counter exists now
+            jdbcTemplate.update(String.format(BUMP_USERS, in), ids);
+        }
+    }
+
+    /**
+     * Returns the counter of a table.
+     *
+     * @param table the table
+     * @return the version, or empty while the table was never changed through the service layer or while
+     *         a change of it is not counted yet
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> tableVersion(ExportTable table) {
+        synchronized (changing) {
+            if (changing[table.ordinal()] > 0 || committed[table.ordinal()] > bumped[table.ordinal()]) {
+                return Optional.empty();
+            }
+        }
+        return first(jdbcTemplate.queryForList(SELECT_TABLE, Long.class, scope(table)));
+    }
+
+    /**
+     * Returns the counter of the expense shares of a user.
+     *
+     * @param userName the name of the user
+     * @return the version, or empty when the user does not exist or never took part in a changed expense
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> userVersion(String userName) {
+        return first(jdbcTemplate.queryForList(SELECT_USER, Long.class, userName));
+    }
+
+    private static String scope(ExportTable table) {
+        return table.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Optional<Long> first(List<Long> versions) {
+        return versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(0));
+    }
+}
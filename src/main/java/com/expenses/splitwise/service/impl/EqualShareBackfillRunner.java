@@ -0,0 +1,168 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.entity.ExpenseUserId;
+import com.expenses.splitwise.repository.ExpenseRepository;
+import com.expenses.splitwise.repository.ExpenseShareRepository;
+import com.expenses.splitwise.repository.ExpenseUserRepository;
+import com.expenses.splitwise.service.DataVersionInterface;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Startup job materializing the EQUAL expenses created before `splitwise.shares.materialize-equal` was enabled.
+ * <p>
+ * Runs once after the mode is enabled. The EQUAL expenses are read {@value #PAGE_SIZE} at a time with
+ * their participants and share rows, and every expense whose rows differ from its equal split is
+ * rematerialized: missing rows, rows written before the mode was enabled, rows of former participants or
+ * rows holding a percentage. Each repaired expense is locked and materialized in its own transaction, so
+ * the job can be interrupted and restarted. Until it reaches an expense, {@link ShareRowQueries} derives
+ * the shares of that expense from its participants.
+ * </p>
+ * Completion is recorded in `backfill_run`, so later starts with the mode on skip the scan. A start with
+ * the mode off deletes the record: expenses written meanwhile are not materialized, and the next start
+ * with the mode on scans again. Every instance must run with the same mode.
+ */
+@Component
+public class EqualShareBackfillRunner implements ApplicationRunner {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(EqualShareBackfillRunner.class);
+
+    /** Name of this job in `backfill_run` */
+    static final String TASK = "equal-shares";
+
+    /** Number of expenses compared per page */
+    static final int PAGE_SIZE = 500;
+
+    /** Repository for managing expense entities */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for managing expense-user mapping entities */
+    private final ExpenseUserRepository expenseUserRepository;
+
+    /** Repository for managing expense shares */
+    private final ExpenseShareRepository expenseShareRepository;
+
+    /** Writer of the share rows of EQUAL expenses */
+    private final EqualShareMaterializer equalShareMaterializer;
+
+    /** Entity manager used to lock each expense */
+    private final EntityManager entityManager;
+
+    /** Template running each expense in its own transaction */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Service maintaining the version counter of the shares listing */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Template reading and writing the completion record */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Whether EQUAL shares are stored in `expense_share` */
+    private final boolean enabled;
+
+    /**
+     * Constructs a new EqualShareBackfillRunner.
+     *
+     * @param expenseRepository repository for expense operations
+     * @param expenseUserRepository repository for expense-user mapping operations
+     * @param expenseShareRepository repository for expense share operations
+     * @param equalShareMaterializer writer of the share rows of EQUAL expenses
+     * @param entityManager entity manager used to lock each expense
+     * @param transactionManager transaction manager for the per-expense transactions
+     * @param dataVersionInterface service maintaining the version counter of the shares listing
+     * @param jdbcTemplate template reading and writing the completion record
+     * @param enabled whether EQUAL shares are stored in `expense_share`
+     */
+    public EqualShareBackfillRunner(ExpenseRepository expenseRepository, ExpenseUserRepository expenseUserRepository,
+                                    ExpenseShareRepository expenseShareRepository,
+                                    EqualShareMaterializer equalShareMaterializer,
+                                    EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                    DataVersionInterface dataVersionInterface, JdbcTemplate jdbcTemplate,
+                                    @Value("${splitwise.shares.materialize-equal:false}") boolean enabled) {
+        this.expenseRepository = expenseRepository;
+        this.expenseUserRepository = expenseUserRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.equalShareMaterializer = equalShareMaterializer;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataVersionInterface = dataVersionInterface;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Rematerializes every EQUAL expense whose share rows do not match its participants, unless a previous
+     * start already did and the mode stayed on since.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            jdbcTemplate.update("DELETE FROM backfill_run WHERE task = ?", TASK);
+            return;
+        }
+        Integer completed = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM backfill_run WHERE task = ?",
+                Integer.class, TASK);
+        if (completed != null && completed > 0) {
+            return;
+        }
+        List<Long> expenseIds = findStaleExpenseIds();
+        if (!expenseIds.isEmpty()) {
+            logger.info("Materializing the shares of {} EQUAL expenses", expenseIds.size());
+            for (Long expenseId : expenseIds) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.find(Expense.class, expenseId, LockModeType.PESSIMISTIC_WRITE);
+                    equalShareMaterializer.materialize(expenseId);
+                    dataVersionInterface.bumpTables(ExportTable.EXPENSE_SHARES);
+                });
+            }
+            logger.info("Materialized the shares of {} EQUAL expenses", expenseIds.size());
+        }
+        jdbcTemplate.update("INSERT INTO backfill_run (task, completed_at) VALUES (?, ?)",
+                TASK, System.currentTimeMillis());
+    }
+
+    /**
+     * Compares the share rows of every EQUAL expense with its participants, a page at a time.
+     *
+     * @return the ids of the expenses to rematerialize, ascending
+     */
+    List<Long> findStaleExpenseIds() {
+        List<Long> stale = new ArrayList<>();
+        long after = 0;
+        List<Expense> page;
+        while (!(page = expenseRepository.findEqualExpensesAfter(after, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            List<Long> ids = page.stream().map(Expense::getId).toList();
+            Map<Long, List<Long>> participants = expenseUserRepository.findKeysByExpenseIdInOrderByUserName(ids).stream()
+                    .collect(Collectors.groupingBy(ExpenseUserId::getExpenseId,
+                            Collectors.mapping(ExpenseUserId::getUserId, Collectors.toList())));
+            Map<Long, List<ExpenseShare>> shares = expenseShareRepository.findByExpenseIdIn(ids).stream()
+                    .collect(Collectors.groupingBy(ExpenseShare::getExpenseId));
+            for (Expense expense : page) {
+                if (!equalShareMaterializer.isMaterialized(expense, participants.getOrDefault(expense.getId(), List.of()),
+                        shares.getOrDefault(expense.getId(), List.of()))) {
+                    stale.add(expense.getId());
+                }
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+        return stale;
+    }
+}
@@ -0,0 +1,141 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.repository.ExpenseShareRepository;
+import com.expenses.splitwise.repository.ExpenseUserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores the per-participant amounts of EQUAL expenses in `expense_share`.
+ * <p>
+ * Enabled with `splitwise.shares.materialize-equal=true`. Whenever the participant set of an EQUAL
+ * expense changes, its share rows are rewritten:
+ * - Every participant gets the floor of total / participants, in cents
+ * - The remainder cents go one each to the participants first by user name, as the derived shares do
+ * - Rows of users who are no longer participants are removed
+ * </p>
+ * Share rows of EQUAL expenses are then owned by this class and cannot be added through the API.
+ */
+@Component
+public class EqualShareMaterializer {
+
+    /** Repository for managing expense-user mapping entities */
+    private final ExpenseUserRepository expenseUserRepository;
+
+    /** Repository for managing expense shares */
+    private final ExpenseShareRepository expenseShareRepository;
+
+    /** Entity manager used to load the expense and persist new shares */
+    private final EntityManager entityManager;
+
+    /** Whether EQUAL shares are stored in `expense_share` */
+    private final boolean enabled;
+
+    /**
+     * Constructs a new EqualShareMaterializer.
+     *
+     * @param expenseUserRepository repository for expense-user mapping operations
+     * @param expenseShareRepository repository for expense share operations
+     * @param entityManager entity manager used to load expenses and persist shares
+     * @param enabled whether EQUAL shares are stored in `expense_share`
+     */
+    public EqualShareMaterializer(ExpenseUserRepository expenseUserRepository, ExpenseShareRepository expenseShareRepository,
+                                  EntityManager entityManager,
+                                  @Value("${splitwise.shares.materialize-equal:false}") boolean enabled) {
+        this.expenseUserRepository = expenseUserRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether the share rows of expenses with the given split type are written by this class.
+     *
+     * @param splitType the split type of the expense
+     * @return true if EQUAL shares are materialized and the split type is EQUAL
+     */
+    public boolean owns(SPLIT_TYPE splitType) {
+        return enabled && splitType == SPLIT_TYPE.EQUAL;
+    }
+
+    /**
+     * Rewrites the share rows of an expense after its participant set changed.
+     * <p>
+     * Does nothing unless the expense is {@link #owns(SPLIT_TYPE) owned}. Must run in the transaction that changed the
+     * participants, after the expense was locked.
+     * </p>
+     *
+     * @param expenseId the id of the expense
+     * @throws RuntimeException if the expense does not exist
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void materialize(Long expenseId) {
+        Expense expense = entityManager.find(Expense.class, expenseId);
+        if (expense == null) {
+            throw new RuntimeException("Expense not found");
+        }
+        if (!owns(expense.getSplitType())) {
+            return;
+        }
+        List<Long> participants = expenseUserRepository.findUserIdsByExpenseIdOrderByUserName(expenseId);
+        Map<Long, ExpenseShare> stale = expenseShareRepository.findByExpenseId(expenseId).stream()
+                .collect(Collectors.toMap(ExpenseShare::getUserId, Function.identity()));
+        long total = Money.toCents(expense.getTotalAmount());
+
+        for (int rank = 0; rank < participants.size(); rank++) {
+            Long userId = participants.get(rank);
+            long amount = Money.equalShare(total, participants.size(), rank);
+            ExpenseShare share = stale.remove(userId);
+            if (share == null) {
+                share = new ExpenseShare();
+                share.setExpenseId(expenseId);
+                share.setUserId(userId);
+                share.setAmount(Money.toBigDecimal(amount));
+                entityManager.persist(share);
+            } else {
+                share.setPercentage(null);
+                share.setAmount(Money.toBigDecimal(amount));
+            }
+        }
+        expenseShareRepository.deleteAll(stale.values());
+    }
+
+    /**
+     * Tells whether the share rows of an EQUAL expense are exactly the ones {@link #materialize(Long)} would write.
+     * <p>
+     * That is one row per participant holding its equal share as an amount and no percentage, and no other row.
+     * </p>
+     *
+     * @param expense the EQUAL expense
+     * @param participants the user ids of its participants, in user name order
+     * @param shares its current share rows
+     * @return true if the share rows need no rewrite
+     */
+    public boolean isMaterialized(Expense expense, List<Long> participants, List<ExpenseShare> shares) {
+        if (shares.size() != participants.size()) {
+            return false;
+        }
+        Map<Long, ExpenseShare> byUser = shares.stream()
+                .collect(Collectors.toMap(ExpenseShare::getUserId, Function.identity(), (first, second) -> first));
+        long total = Money.toCents(expense.getTotalAmount());
+        for (int rank = 0; rank < participants.size(); rank++) {
+            ExpenseShare share = byUser.get(participants.get(rank));
+            if (share == null || share.getPercentage() != null || share.getAmount() == null
+                    || Money.toCents(share.getAmount()) != Money.equalShare(total, participants.size(), rank)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,11 +1,20 @@
 package com.expenses.splitwise.service.impl;
 
 import com.expenses.splitwise.dto.ExpenseDto;
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
 import com.expenses.splitwise.entity.Expense;
 import com.expenses.splitwise.entity.User;
 import com.expenses.splitwise.repository.*;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.DataVersionInterface;
 import com.expenses.splitwise.service.ExpenseInterface;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * Service class for managing expense-related operations.
@@ -25,35 +34,70 @@ public class ExpenseServiceImpl implements ExpenseInterface {
     /** Repository for managing user entities */
     private final UserRepository userRepository;
 
+    /** Service maintaining materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /** Publisher of the ledger events of new expenses */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Service maintaining the version counters behind the listing ETags */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Writer of the groups and their running totals */
+    private final GroupRollupWriter groupRollupWriter;
+
+    /** Repository providing references to groups */
+    private final GroupRepository groupRepository;
+
     /**
      * Constructs a new ExpenseServiceImpl with required repositories.
      *
      * @param expenseRepository repository for expense operations
      * @param userRepository repository for user operations
+     * @param balanceInterface service maintaining materialized balances
+     * @param eventPublisher publisher of the ledger events of new expenses
+     * @param dataVersionInterface service maintaining the version counters behind the listing ETags
+     * @param groupRollupWriter writer of the groups and their running totals
+     * @param groupRepository repository providing references to groups
      */
-    public ExpenseServiceImpl(ExpenseRepository expenseRepository, UserRepository userRepository) {
+    public ExpenseServiceImpl(ExpenseRepository expenseRepository, UserRepository userRepository, BalanceInterface balanceInterface,
+                              ApplicationEventPublisher eventPublisher, DataVersionInterface dataVersionInterface,
+                              GroupRollupWriter groupRollupWriter, GroupRepository groupRepository) {
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
+        this.balanceInterface = balanceInterface;
+        this.eventPublisher = eventPublisher;
+        this.dataVersionInterface = dataVersionInterface;
+        this.groupRollupWriter = groupRollupWriter;
+        this.groupRepository = groupRepository;
     }
 
     /**
      * Creates a new expense from the provided DTO.
      * <p>
      * This method:
-     * 1. Validates the creator exists
-     * 2. Converts DTO to entity
-     * 3. Saves the expense
-     * 4. Returns the saved expense as DTO
+     * 1. Validates the creator exists, using the user lookup cache
+     * 2. Converts DTO to entity, in the group of that name, created when missing
+     * 3. Saves the expense, refreshes the materialized balances and increments the version of the expenses
+     *    listing in the same transaction
+     * 4. Adds the expense to the group's running totals and the creator to its members
+     * 5. Publishes a {@link LedgerEvent} for the new expense
+     * 6. Returns the saved expense as DTO
      * </p>
      *
      * @param expenseDto the expense data transfer object containing expense details
      * @return the created expense as DTO
-     * @throws RuntimeException if the creator user is not found
+     * @throws RuntimeException if the creator user is not found or the group name is missing
      */
     @Override
+    @Transactional
     public ExpenseDto createExpense(ExpenseDto expenseDto) {
         User creator = userRepository.findByName(expenseDto.getCreatedBy())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        if (expenseDto.getGroupName() == null || expenseDto.getGroupName().isBlank()) {
+            throw new RuntimeException("Group name is required");
+        }
+        Long groupId = groupRollupWriter.resolve(List.of(expenseDto.getGroupName())).get(expenseDto.getGroupName());
         Expense expense = new Expense();
         expense.setExpenseDate(expenseDto.getExpenseDate());
         expense.setGroupName(expenseDto.getGroupName());
@@ -61,8 +105,14 @@ public class ExpenseServiceImpl implements ExpenseInterface {
         expense.setTotalAmount(expenseDto.getTotalAmount());
         expense.setSplitType(expenseDto.getSplit_type());
         expense.setCreatedBy(creator);
+        expense.setGroup(groupRepository.getReferenceById(groupId));
 
         Expense savedExpense = expenseRepository.save(expense);
+        groupRollupWriter.record(groupId, 1, savedExpense.getTotalAmount(), List.of(creator.getId()));
+        balanceInterface.refreshExpense(savedExpense.getId());
+        dataVersionInterface.bumpTables(ExportTable.EXPENSES);
+        eventPublisher.publishEvent(new LedgerEvent(List.of(LedgerRecord.expense(savedExpense.getId(),
+                savedExpense.getSplitType(), Money.toCents(savedExpense.getTotalAmount()), creator.getId()))));
         return convertToDto(savedExpense);
     }
 
@@ -0,0 +1,139 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExpenseSharePercentage;
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.repository.ExpenseRepository;
+import com.expenses.splitwise.repository.UserRepository;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.DataVersionInterface;
+import com.expenses.splitwise.service.ExpenseShareInterface;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for managing expense share operations.
+ * <p>
+ * This service handles the business logic for:
+ * - Storing percentage and manual share amounts for an expense
+ * - Writing all shares of a request in a single transaction
+ * - Flushing inserts in JDBC batches of a configurable size
+ * </p>
+ *
+ * @see ExpenseShare
+ */
+@Service
+public class ExpenseShareServiceImpl implements ExpenseShareInterface {
+
+    /** Repository for managing expense entities */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for managing user entities */
+    private final UserRepository userRepository;
+
+    /** Service maintaining materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /** Writer of the share rows of EQUAL expenses */
+    private final EqualShareMaterializer equalShareMaterializer;
+
+    /** Entity manager used to persist shares in batches */
+    private final EntityManager entityManager;
+
+    /** Publisher of the ledger events of new shares */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Service maintaining the version counters behind the listing and expense share ETags */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Number of inserts sent to the database per JDBC batch */
+    private final int batchSize;
+
+    /**
+     * Constructs a new ExpenseShareServiceImpl.
+     *
+     * @param expenseRepository repository for expense operations
+     * @param userRepository repository for user operations
+     * @param balanceInterface service maintaining materialized balances
+     * @param equalShareMaterializer writer of the share rows of EQUAL expenses
+     * @param entityManager entity manager used to persist shares
+     * @param eventPublisher publisher of the ledger events of new shares
+     * @param dataVersionInterface service maintaining the version counters behind the ETags
+     * @param batchSize number of inserts per JDBC batch
+     */
+    public ExpenseShareServiceImpl(ExpenseRepository expenseRepository, UserRepository userRepository,
+                                   BalanceInterface balanceInterface, EqualShareMaterializer equalShareMaterializer,
+                                   EntityManager entityManager, ApplicationEventPublisher eventPublisher,
+                                   DataVersionInterface dataVersionInterface,
+                                   @Value("${splitwise.jdbc.batch-size:50}") int batchSize) {
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.balanceInterface = balanceInterface;
+        this.equalShareMaterializer = equalShareMaterializer;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.dataVersionInterface = dataVersionInterface;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds shares for an expense.
+     * <p>
+     * This method:
+     * 1. Locks the expense the shares belong to and resolves the usernames to user ids in one query
+     * 2. Creates an ExpenseShare entity for each requested share
+     * 3. Persists them in one transaction, flushing every {@code batchSize} inserts
+     * 4. Refreshes the materialized balances of the expense's participants and publishes a {@link LedgerEvent}
+     * 5. Increments the versions of the shares listing and of the expense shares of every participant
+     * </p>
+     *
+     * @param expenseName the name of the expense the shares belong to
+     * @param shares the percentage or amount of each user
+     * @throws RuntimeException if the expense or any user is not found, the expense's EQUAL shares are materialized,
+     * or any share cannot be stored; no share is stored in that case
+     */
+    @Override
+    @Transactional
+    public void addShares(String expenseName, List<ExpenseSharePercentage> shares) {
+        Expense expense = expenseRepository.findForUpdateByExpenseName(expenseName)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        if (equalShareMaterializer.owns(expense.getSplitType())) {
+            throw new RuntimeException("Shares of EQUAL expenses are derived from their participants");
+        }
+        Long expenseId = expense.getId();
+        Map<String, Long> userIds = UserIds.resolve(userRepository,
+                shares.stream().map(ExpenseSharePercentage::getUserName).toList());
+        List<LedgerRecord> records = new ArrayList<>(shares.size());
+        int pending = 0;
+        for (ExpenseSharePercentage shareDto : shares) {
+            ExpenseShare share = new ExpenseShare();
+            share.setExpenseId(expenseId);
+            share.setUserId(userIds.get(shareDto.getUserName()));
+            share.setPercentage(shareDto.getPercentage());
+            share.setAmount(shareDto.getAmount());
+            entityManager.persist(share);
+            records.add(LedgerRecord.share(expenseId, share.getUserId(),
+                    share.getPercentage() == null ? null : Money.toCents(share.getPercentage()),
+                    share.getAmount() == null ? null : Money.toCents(share.getAmount())));
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        balanceInterface.refreshExpense(expenseId);
+        dataVersionInterface.bumpTables(ExportTable.EXPENSE_SHARES);
+        dataVersionInterface.bumpParticipants(List.of(expenseId));
+        eventPublisher.publishEvent(new LedgerEvent(records));
+    }
+}
@@ -1,10 +1,26 @@
 package com.expenses.splitwise.service.impl;
 
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.entity.Expense;
 import com.expenses.splitwise.entity.ExpenseUser;
+import com.expenses.splitwise.repository.ExpenseRepository;
 import com.expenses.splitwise.repository.ExpenseUserRepository;
+import com.expenses.splitwise.repository.UserRepository;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.DataVersionInterface;
 import com.expenses.splitwise.service.ExpenseUserInterface;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for managing expense-user mapping operations.
@@ -12,7 +28,7 @@ import java.util.List;
  * This service handles the business logic for:
  * - Creating mappings between expenses and users
  * - Managing expense participation relationships
- * - Storing expense-user associations in the database
+ * - Storing expense-user associations in the database in JDBC batches
  * </p>
  *
  * @see ExpenseUser
@@ -24,35 +40,123 @@ public class ExpenseUserServiceImpl implements ExpenseUserInterface {
     /** Repository for managing expense-user mapping entities */
     private final ExpenseUserRepository expenseUserRepository;
 
+    /** Repository for managing expense entities */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for managing user entities */
+    private final UserRepository userRepository;
+
+    /** Service maintaining materialized balances */
+    private final BalanceInterface balanceInterface;
+
+    /** Writer of the share rows of EQUAL expenses */
+    private final EqualShareMaterializer equalShareMaterializer;
+
+    /** Entity manager used to persist mappings in batches */
+    private final EntityManager entityManager;
+
+    /** Publisher of the ledger events of new mappings */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Service maintaining the version counters behind the listing and expense share ETags */
+    private final DataVersionInterface dataVersionInterface;
+
+    /** Writer of the members of the expense's group */
+    private final GroupRollupWriter groupRollupWriter;
+
+    /** Number of inserts sent to the database per JDBC batch */
+    private final int batchSize;
+
     /**
      * Constructs a new ExpenseUserServiceImpl with required repository.
      *
      * @param expenseUserRepository repository for expense-user mapping operations
+     * @param expenseRepository repository for expense operations
+     * @param userRepository repository for user operations
+     * @param balanceInterface service maintaining materialized balances
+     * @param equalShareMaterializer writer of the share rows of EQUAL expenses
+     * @param entityManager entity manager used to persist mappings
+     * @param eventPublisher publisher of the ledger events of new mappings
+     * @param dataVersionInterface service maintaining the version counters behind the ETags
+     * @param groupRollupWriter writer of the members of the expense's group
+     * @param batchSize number of inserts per JDBC batch
      */
-    public ExpenseUserServiceImpl(ExpenseUserRepository expenseUserRepository) {
+    public ExpenseUserServiceImpl(ExpenseUserRepository expenseUserRepository, ExpenseRepository expenseRepository,
+                                  UserRepository userRepository, BalanceInterface balanceInterface,
+                                  EqualShareMaterializer equalShareMaterializer, EntityManager entityManager,
+                                  ApplicationEventPublisher eventPublisher, DataVersionInterface dataVersionInterface,
+                                  GroupRollupWriter groupRollupWriter,
+                                  @Value("${splitwise.jdbc.batch-size:50}") int batchSize) {
         this.expenseUserRepository = expenseUserRepository;
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.balanceInterface = balanceInterface;
+        this.equalShareMaterializer = equalShareMaterializer;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.dataVersionInterface = dataVersionInterface;
+        this.groupRollupWriter = groupRollupWriter;
+        this.batchSize = batchSize;
     }
 
     /**
      * Creates mappings between an expense and multiple users.
      * <p>
      * This method:
-     * 1. Takes an expense name and a list of usernames
-     * 2. Creates ExpenseUser entities for each user
-     * 3. Saves the mappings to the database
+     * 1. Takes an expense name and a list of usernames and locks the expense
+     * 2. Resolves the usernames to user ids in one query
+     * 3. Skips users that are already mapped to the expense
+     * 4. Persists the new ExpenseUser entities in one transaction, flushing every {@code batchSize} inserts
+     * 5. Rewrites the EQUAL share rows and publishes a {@link LedgerEvent} when participants were added,
+     *    see {@link EqualShareMaterializer}
+     * 6. Refreshes the materialized balances of the expense's participants and adds the new ones to the
+     *    members of the expense's group
+     * 7. Increments the versions of the changed listings and of the expense shares of every participant,
+     *    since an added participant changes the EQUAL shares of the others
      * </p>
      *
      * @param expenseName the name of the expense to map users to
      * @param userNames list of usernames to be mapped to the expense
-     * @throws RuntimeException if there's an error during the mapping process
+     * @throws RuntimeException if the expense or any user is not found or there's an error during the mapping process
      */
     @Override
+    @Transactional
     public void createExpenseUserMapping(String expenseName, List<String> userNames) {
-        userNames.forEach(userName -> {
+        Expense expense = expenseRepository.findForUpdateByExpenseName(expenseName)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        Long expenseId = expense.getId();
+        Set<Long> newUserIds = new LinkedHashSet<>(UserIds.resolve(userRepository, userNames).values());
+        newUserIds.removeAll(expenseUserRepository.findUserIdsByExpenseId(expenseId));
+
+        int pending = 0;
+        for (Long userId : newUserIds) {
             ExpenseUser expenseUser = new ExpenseUser();
-            expenseUser.setExpenseName(expenseName);
-            expenseUser.setUserName(userName);
-            expenseUserRepository.save(expenseUser);
-        });
+            expenseUser.setExpenseId(expenseId);
+            expenseUser.setUserId(userId);
+            entityManager.persist(expenseUser);
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        if (!newUserIds.isEmpty()) {
+            equalShareMaterializer.materialize(expenseId);
+            eventPublisher.publishEvent(new LedgerEvent(newUserIds.stream()
+                    .map(userId -> LedgerRecord.participant(expenseId, userId))
+                    .toList()));
+        }
+        balanceInterface.refreshExpense(expenseId);
+        if (!newUserIds.isEmpty()) {
+            if (equalShareMaterializer.owns(expense.getSplitType())) {
+                dataVersionInterface.bumpTables(ExportTable.EXPENSE_USERS, ExportTable.EXPENSE_SHARES);
+            } else {
+                dataVersionInterface.bumpTables(ExportTable.EXPENSE_USERS);
+            }
+            dataVersionInterface.bumpParticipants(List.of(expenseId));
+            if (expense.getGroup() != null) {
+                groupRollupWriter.record(expense.getGroup().getId(), 0, BigDecimal.ZERO, newUserIds);
+            }
+        }
     }
 }
@@ -0,0 +1,118 @@
+package com.expenses.splitwise.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off job filling the BIGINT id columns added by `migrations/numeric-foreign-keys.sql`.
+ * <p>
+ * Enabled with `splitwise.migration.backfill-foreign-keys=true`. The job walks the id range of the
+ * parent table in chunks of `splitwise.migration.backfill-chunk-size` and:
+ * - Updates only rows of the current chunk whose id columns are still NULL, so it can be restarted
+ * - Commits every statement on its own, keeping row locks short and the tables writable
+ * - Pauses `splitwise.migration.backfill-pause-ms` between chunks to limit replication lag
+ * </p>
+ * Statements resolve names with correlated sub-selects on the unique name indexes.
+ */
+@Component
+@ConditionalOnProperty(name = "splitwise.migration.backfill-foreign-keys", havingValue = "true")
+public class ForeignKeyBackfillRunner implements ApplicationRunner {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(ForeignKeyBackfillRunner.class);
+
+    /** Backfill of expenses.created_by_id, chunked by expense id */
+    private static final String EXPENSES = "UPDATE expenses SET created_by_id = " +
+            "(SELECT u.id FROM users u WHERE u.name = expenses.created_by) " +
+            "WHERE id BETWEEN ? AND ? AND created_by_id IS NULL";
+
+    /** Backfill of expense_share ids, chunked by share id */
+    private static final String EXPENSE_SHARES = "UPDATE expense_share SET " +
+            "expense_id = (SELECT e.id FROM expenses e WHERE e.expense_name = expense_share.expense_name), " +
+            "user_id = (SELECT u.id FROM users u WHERE u.name = expense_share.user_name) " +
+            "WHERE id BETWEEN ? AND ? AND (expense_id IS NULL OR user_id IS NULL)";
+
+    /** Backfill of expense_user ids, chunked by the id of the mapped expense */
+    private static final String EXPENSE_USERS = "UPDATE expense_user SET " +
+            "expense_id = (SELECT e.id FROM expenses e WHERE e.expense_name = expense_user.expense_name), " +
+            "user_id = (SELECT u.id FROM users u WHERE u.name = expense_user.user_name) " +
+            "WHERE expense_name IN (SELECT e.expense_name FROM expenses e WHERE e.id BETWEEN ? AND ?) " +
+            "AND (expense_id IS NULL OR user_id IS NULL)";
+
+    /** Backfill of user_expense_balance ids, chunked by the id of the expense */
+    private static final String USER_EXPENSE_BALANCES = "UPDATE user_expense_balance SET " +
+            "expense_id = (SELECT e.id FROM expenses e WHERE e.expense_name = user_expense_balance.expense_name), " +
+            "user_id = (SELECT u.id FROM users u WHERE u.name = user_expense_balance.user_name) " +
+            "WHERE expense_name IN (SELECT e.expense_name FROM expenses e WHERE e.id BETWEEN ? AND ?) " +
+            "AND (expense_id IS NULL OR user_id IS NULL)";
+
+    /** Backfill of user_balance.user_id, chunked by user id */
+    private static final String USER_BALANCES = "UPDATE user_balance SET " +
+            "user_id = (SELECT u.id FROM users u WHERE u.name = user_balance.user_name) " +
+            "WHERE user_name IN (SELECT u.name FROM users u WHERE u.id BETWEEN ? AND ?) AND user_id IS NULL";
+
+    /** Template running each chunk in its own auto-committed statement */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Number of parent ids covered per chunk */
+    private final int chunkSize;
+
+    /** Pause in milliseconds between chunks */
+    private final long pauseMs;
+
+    /**
+     * Constructs a new ForeignKeyBackfillRunner.
+     *
+     * @param jdbcTemplate template bound to the primary database
+     * @param chunkSize number of parent ids covered per chunk
+     * @param pauseMs pause in milliseconds between chunks
+     */
+    public ForeignKeyBackfillRunner(JdbcTemplate jdbcTemplate,
+                                    @Value("${splitwise.migration.backfill-chunk-size:1000}") int chunkSize,
+                                    @Value("${splitwise.migration.backfill-pause-ms:50}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    /**
+     * Backfills every table, parents before children.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        backfill("expenses", EXPENSES, "expenses");
+        backfill("expense_share", EXPENSE_SHARES, "expense_share");
+        backfill("expense_user", EXPENSE_USERS, "expenses");
+        backfill("user_expense_balance", USER_EXPENSE_BALANCES, "expenses");
+        backfill("user_balance", USER_BALANCES, "users");
+        logger.info("Foreign key backfill finished");
+    }
+
+    /**
+     * Runs one backfill statement over the id range of the table driving its chunks.
+     *
+     * @param table the table being backfilled, for logging
+     * @param sql the update taking the inclusive id bounds of a chunk
+     * @param rangeTable the table whose ids define the chunks
+     */
+    private void backfill(String table, String sql, String rangeTable) throws InterruptedException {
+        Long min = jdbcTemplate.queryForObject("SELECT MIN(id) FROM " + rangeTable, Long.class);
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + rangeTable, Long.class);
+        if (min == null || max == null) {
+            logger.info("Backfill of {}: nothing to do", table);
+            return;
+        }
+        long updated = 0;
+        for (long from = min; from <= max; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, max);
+            updated += jdbcTemplate.update(sql, from, to);
+            logger.info("Backfill of {}: ids {} to {} of {} done, {} rows updated", table, from, to, max, updated);
+            Thread.sleep(pauseMs);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.expenses.splitwise.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * One-off job linking the expenses written before groups existed to their group (see `migrations/expense-groups.sql`).
+ * <p>
+ * Enabled with `splitwise.migration.backfill-groups=true`, once the version maintaining the groups is deployed.
+ * The job:
+ * 1. Walks the expense ids in chunks of `splitwise.migration.backfill-chunk-size`, creating the missing groups
+ *    and setting group_id where it is still NULL, each statement committed on its own
+ * 2. Walks the groups one at a time and, under that group's row lock, adds the missing members and recounts
+ *    the group's totals, in a transaction per group
+ * </p>
+ * It pauses `splitwise.migration.backfill-pause-ms` between chunks and groups, and can be restarted.
+ * Writers lock a group's row before changing its totals, so a recount is never raced.
+ */
+@Component
+@ConditionalOnProperty(name = "splitwise.migration.backfill-groups", havingValue = "true")
+public class GroupBackfillRunner implements ApplicationRunner {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(GroupBackfillRunner.class);
+
+    /** Creation of the groups named by a chunk of expenses that have none */
+    private static final String INSERT_GROUPS = "INSERT INTO expense_groups (name, expense_count, member_count, total_amount) " +
+            "SELECT DISTINCT e.group_name, 0, 0, 0 FROM expenses e WHERE e.id BETWEEN ? AND ? AND e.group_id IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM expense_groups g WHERE g.name = e.group_name)";
+
+    /** Backfill of expenses.group_id, chunked by expense id */
+    private static final String LINK_EXPENSES = "UPDATE expenses SET group_id = " +
+            "(SELECT g.id FROM expense_groups g WHERE g.name = expenses.group_name) " +
+            "WHERE id BETWEEN ? AND ? AND group_id IS NULL";
+
+    private static final String LOCK_GROUP = "SELECT id FROM expense_groups WHERE id = ? FOR UPDATE";
+
+    /** Members of a group: the creators and participants of its expenses */
+    private static final String INSERT_MEMBERS = "INSERT INTO group_member (group_id, user_id) " +
+            "SELECT ?, m.user_id FROM (" +
+            "SELECT created_by_id AS user_id FROM expenses WHERE group_id = ? " +
+            "UNION SELECT eu.user_id FROM expenses e JOIN expense_user eu ON eu.expense_id = e.id WHERE e.group_id = ?) m " +
+            "WHERE NOT EXISTS (SELECT 1 FROM group_member gm WHERE gm.group_id = ? AND gm.user_id = m.user_id)";
+
+    private static final String RECOUNT_GROUP = "UPDATE expense_groups SET " +
+            "expense_count = (SELECT COUNT(*) FROM expenses e WHERE e.group_id = ?), " +
+            "total_amount = (SELECT COALESCE(SUM(e.total_amount), 0) FROM expenses e WHERE e.group_id = ?), " +
+            "member_count = (SELECT COUNT(*) FROM group_member m WHERE m.group_id = ?) WHERE id = ?";
+
+    /** Template running each chunk in its own auto-committed statement */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Template running the recount of each group in its own transaction */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Number of expense ids covered per chunk */
+    private final int chunkSize;
+
+    /** Pause in milliseconds between chunks */
+    private final long pauseMs;
+
+    /**
+     * Constructs a new GroupBackfillRunner.
+     *
+     * @param jdbcTemplate template bound to the primary database
+     * @param transactionManager transaction manager for the per-group transactions
+     * @param chunkSize number of expense ids covered per chunk
+     * @param pauseMs pause in milliseconds between chunks
+     */
+    public GroupBackfillRunner(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${splitwise.migration.backfill-chunk-size:1000}") int chunkSize,
+                               @Value("${splitwise.migration.backfill-pause-ms:50}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    /**
+     * Links every expense to its group, then recounts every group.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        linkExpenses();
+        recountGroups();
+        logger.info("Group backfill finished");
+    }
+
+    /**
+     * Creates the missing groups and sets group_id over the expense id range, one chunk at a time.
+     */
+    private void linkExpenses() throws InterruptedException {
+        Long min = jdbcTemplate.queryForObject("SELECT MIN(id) FROM expenses", Long.class);
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM expenses", Long.class);
+        if (min == null || max == null) {
+            logger.info("Backfill of expenses.group_id: nothing to do");
+            return;
+        }
+        long updated = 0;
+        for (long from = min; from <= max; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, max);
+            try {
+                jdbcTemplate.update(INSERT_GROUPS, from, to);
+            } catch (DuplicateKeyException e) {
+                // A writer created one of the groups meanwhile; the retry skips the existing ones
+                jdbcTemplate.update(INSERT_GROUPS, from, to);
+            }
+            updated += jdbcTemplate.update(LINK_EXPENSES, from, to);
+            logger.info("Backfill of expenses.group_id: ids {} to {} of {} done, {} rows updated", from, to, max, updated);
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    /**
+     * Adds the missing members and recounts the totals of each group in its own transaction, holding only
+     * that group's row lock.
+     */
+    private void recountGroups() throws InterruptedException {
+        List<Long> groupIds = jdbcTemplate.queryForList("SELECT id FROM expense_groups ORDER BY id", Long.class);
+        int done = 0;
+        for (Long groupId : groupIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(LOCK_GROUP, Long.class, groupId);
+                jdbcTemplate.update(INSERT_MEMBERS, groupId, groupId, groupId, groupId);
+                jdbcTemplate.update(RECOUNT_GROUP, groupId, groupId, groupId, groupId);
+            });
+            if (++done % chunkSize == 0 || done == groupIds.size()) {
+                logger.info("Recount of groups: {} of {} done", done, groupIds.size());
+            }
+            Thread.sleep(pauseMs);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch engine recomputing every user's net balance from the raw tables.
+ * <p>
+ * This engine:
+ * 1. Streams users, expenses, expense_user and expense_share once each into a {@link GroupLedger}
+ * 2. Partitions the expenses by group and computes each group's net balances on a {@link ForkJoinPool}
+ * 3. Adds the per-group balances into one {@link BalanceSnapshot}
+ * </p>
+ * Participant counts and EQUAL ranks are taken from the ledger instead of a self-join, and every group
+ * is computed with primitive accumulators, so the work scales with the cores given by
+ * `splitwise.balance.snapshot-parallelism` (0 uses every available processor).
+ * A single group is never split, so one very large group bounds the speed-up.
+ */
+@Component
+public class GroupBalanceEngine {
+
+    /** Groups are computed sequentially once a task holds at most this many expenses */
+    static final int SEQUENTIAL_EXPENSES = 2048;
+
+    private static final String USERS = "SELECT id, name FROM users ORDER BY name";
+
+    private static final String EXPENSES =
+            "SELECT id, group_name, total_amount, split_type, created_by_id FROM expenses ORDER BY id";
+
+    private static final String PARTICIPANTS = "SELECT expense_id, user_id FROM expense_user ORDER BY expense_id";
+
+    private static final String SHARES =
+            "SELECT expense_id, user_id, percentage, amount FROM expense_share ORDER BY expense_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int fetchSize;
+
+    /** Pool computing the groups, shared by every snapshot */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new GroupBalanceEngine.
+     *
+     * @param jdbcTemplate template used to stream the raw tables
+     * @param fetchSize rows fetched per round trip when streaming
+     * @param parallelism number of worker threads, 0 for every available processor
+     */
+    public GroupBalanceEngine(JdbcTemplate jdbcTemplate,
+                              @Value("${splitwise.export.fetch-size:1000}") int fetchSize,
+                              @Value("${splitwise.balance.snapshot-parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads the raw tables and computes every user's balance.
+     * <p>
+     * All tables are read in one read-only transaction, so on MySQL's default REPEATABLE READ
+     * isolation they come from the same consistent snapshot.
+     * </p>
+     *
+     * @return the balance of every user
+     */
+    @Transactional(readOnly = true)
+    public BalanceSnapshot snapshot() {
+        return compute(load(), pool);
+    }
+
+    /**
+     * Streams users, expenses, participants and shares into a sealed ledger.
+     */
+    GroupLedger load() {
+        GroupLedger ledger = new GroupLedger();
+        stream(USERS, rs -> ledger.addUser(rs.getLong(1), rs.getString(2)));
+        stream(EXPENSES, rs -> ledger.addExpense(rs.getLong(1), rs.getString(2), Money.toCents(rs.getBigDecimal(3)),
+                SPLIT_TYPE.valueOf(rs.getString(4)), rs.getLong(5)));
+        stream(PARTICIPANTS, rs -> ledger.addParticipant(rs.getLong(1), rs.getLong(2)));
+        stream(SHARES, rs -> ledger.addShare(rs.getLong(1), rs.getLong(2), cents(rs.getBigDecimal(3)),
+                cents(rs.getBigDecimal(4))));
+        ledger.seal();
+        return ledger;
+    }
+
+    /**
+     * Computes every user's balance from a ledger.
+     *
+     * @param ledger the ledger, sealed if it is not already
+     * @param pool the pool computing the groups
+     * @return the balance of every user in the ledger
+     */
+    public static BalanceSnapshot compute(GroupLedger ledger, ForkJoinPool pool) {
+        ledger.seal();
+        int groups = ledger.groupCount();
+        int[][] members = new int[groups][];
+        long[][] nets = new long[groups][];
+        if (groups > 0) {
+            pool.invoke(new GroupTask(ledger, 0, groups, members, nets));
+        }
+
+        // Each group wrote only its own slot; users shared by several groups are summed here
+        long[] balances = new long[ledger.userCount()];
+        for (int group = 0; group < groups; group++) {
+            for (int i = 0; i < members[group].length; i++) {
+                balances[members[group][i]] += nets[group][i];
+            }
+        }
+        return new BalanceSnapshot(ledger, balances);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Computes the net balance of every member of one group.
+     * <p>
+     * Members are the distinct participants of the group's expenses, sorted by user index; they and
+     * their balances are stored at the same positions of the group's slots in {@code members} and {@code nets}.
+     * </p>
+     */
+    private static void computeGroup(GroupLedger ledger, int group, int[][] members, long[][] nets) {
+        int from = ledger.groupStart(group);
+        int to = ledger.groupStart(group + 1);
+        int mappings = 0;
+        for (int position = from; position < to; position++) {
+            int expense = ledger.groupExpense(position);
+            mappings += ledger.participantStart(expense + 1) - ledger.participantStart(expense);
+        }
+        int[] users = new int[mappings];
+        int next = 0;
+        for (int position = from; position < to; position++) {
+            int expense = ledger.groupExpense(position);
+            for (int p = ledger.participantStart(expense); p < ledger.participantStart(expense + 1); p++) {
+                users[next++] = ledger.participantUser(p);
+            }
+        }
+        Arrays.sort(users);
+        int memberCount = 0;
+        for (int i = 0; i < users.length; i++) {
+            if (i == 0 || users[i] != users[i - 1]) {
+                users[memberCount++] = users[i];
+            }
+        }
+        users = Arrays.copyOf(users, memberCount);
+
+        long[] balances = new long[memberCount];
+        for (int position = from; position < to; position++) {
+            int expense = ledger.groupExpense(position);
+            int start = ledger.participantStart(expense);
+            int count = ledger.participantStart(expense + 1) - start;
+            for (int rank = 0; rank < count; rank++) {
+                int user = ledger.participantUser(start + rank);
+                int share = ledger.sharePosition(expense, user);
+                balances[Arrays.binarySearch(users, user)] += ShareCalculator.signedShareCents(
+                        ledger.splitType(expense), ledger.totalCents(expense), count, rank,
+                        share >= 0 ? ledger.sharePercentage(share) : 0L,
+                        share >= 0 ? ledger.shareAmount(share) : 0L,
+                        user == ledger.creator(expense));
+            }
+        }
+        members[group] = users;
+        nets[group] = balances;
+    }
+
+    private void stream(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : fetchSize);
+            return statement;
+        }, handler);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? Money.toCents(amount) : 0L;
+    }
+
+    private static boolean isMySql(Connection con) throws SQLException {
+        return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * Splits a range of groups in halves until it holds few enough expenses to compute sequentially.
+     */
+    private static final class GroupTask extends RecursiveAction {
+
+        private final GroupLedger ledger;
+        private final int from;
+        private final int to;
+        private final int[][] members;
+        private final long[][] nets;
+
+        GroupTask(GroupLedger ledger, int from, int to, int[][] members, long[][] nets) {
+            this.ledger = ledger;
+            this.from = from;
+            this.to = to;
+            this.members = members;
+            this.nets = nets;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || ledger.groupStart(to) - ledger.groupStart(from) <= SEQUENTIAL_EXPENSES) {
+                for (int group = from; group < to; group++) {
+                    computeGroup(ledger, group, members, nets);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GroupTask(ledger, from, middle, members, nets),
+                    new GroupTask(ledger, middle, to, members, nets));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+
+import java.util.*;
+
+/**
+ * Columnar, primitive copy of users, expenses, participants and shares used by {@link GroupBalanceEngine}.
+ * <p>
+ * Rows are appended in the order the tables are streamed:
+ * 1. Users ordered by name, so a user's index is also its rank by name
+ * 2. Expenses ordered by id
+ * 3. Participants and shares ordered by expense id
+ * </p>
+ * Users and expenses are referenced by dense int indexes and amounts are {@code long} cents, so the
+ * engine computes balances without boxing. {@link #seal()} must be called once all rows are added.
+ */
+public final class GroupLedger {
+
+    /** Initial capacity of the growable columns */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Long, Integer> userIndexes = new HashMap<>();
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private String[] userNames = new String[INITIAL_CAPACITY];
+    private int userCount;
+
+    private final Map<String, Integer> groupIndexes = new HashMap<>();
+    private final List<String> groupNames = new ArrayList<>();
+
+    private long[] expenseIds = new long[INITIAL_CAPACITY];
+    private int[] expenseGroups = new int[INITIAL_CAPACITY];
+    private long[] totalCents = new long[INITIAL_CAPACITY];
+    private SPLIT_TYPE[] splitTypes = new SPLIT_TYPE[INITIAL_CAPACITY];
+    private int[] creators = new int[INITIAL_CAPACITY];
+    private int expenseCount;
+
+    private int[] participantExpenses = new int[INITIAL_CAPACITY];
+    private int[] participantUsers = new int[INITIAL_CAPACITY];
+    private int participantCount;
+
+    private int[] shareExpenses = new int[INITIAL_CAPACITY];
+    private int[] shareUsers = new int[INITIAL_CAPACITY];
+    private long[] sharePercentages = new long[INITIAL_CAPACITY];
+    private long[] shareAmounts = new long[INITIAL_CAPACITY];
+    private int shareCount;
+
+    /** Offsets into the participant, share and group-expense columns, built by {@link #seal()} */
+    private int[] participantStarts;
+    private int[] shareStarts;
+    private int[] groupStarts;
+    private int[] groupExpenses;
+
+    /**
+     * Adds a user; users must be added in name order.
+     *
+     * @param id the user id
+     * @param name the user name
+     */
+    public void addUser(long id, String name) {
+        checkOpen();
+        if (userCount == userIds.length) {
+            userIds = Arrays.copyOf(userIds, userCount * 2);
+            userNames = Arrays.copyOf(userNames, userCount * 2);
+        }
+        userIds[userCount] = id;
+        userNames[userCount] = name;
+        userIndexes.put(id, userCount++);
+    }
+
+    /**
+     * Adds an expense; expenses must be added in ascending id order after their creator.
+     *
+     * @param id the expense id
+     * @param groupName the group of the expense
+     * @param cents the total amount in cents
+     * @param splitType how the expense is split
+     * @param createdById the id of the creator
+     */
+    public void addExpense(long id, String groupName, long cents, SPLIT_TYPE splitType, long createdById) {
+        checkOpen();
+        if (expenseCount > 0 && id <= expenseIds[expenseCount - 1]) {
+            throw new IllegalArgumentException("Expenses must be added in ascending id order, got " + id);
+        }
+        if (expenseCount == expenseIds.length) {
+            int capacity = expenseCount * 2;
+            expenseIds = Arrays.copyOf(expenseIds, capacity);
+            expenseGroups = Arrays.copyOf(expenseGroups, capacity);
+            totalCents = Arrays.copyOf(totalCents, capacity);
+            splitTypes = Arrays.copyOf(splitTypes, capacity);
+            creators = Arrays.copyOf(creators, capacity);
+        }
+        expenseIds[expenseCount] = id;
+        expenseGroups[expenseCount] = groupIndexes.computeIfAbsent(groupName, name -> {
+            groupNames.add(name);
+            return groupNames.size() - 1;
+        });
+        totalCents[expenseCount] = cents;
+        splitTypes[expenseCount] = splitType;
+        creators[expenseCount] = userIndex(createdById);
+        expenseCount++;
+    }
+
+    /**
+     * Maps a user to an expense; mappings must be added in expense id order.
+     *
+     * @param expenseId the id of an added expense
+     * @param userId the id of an added user
+     */
+    public void addParticipant(long expenseId, long userId) {
+        checkOpen();
+        int expense = expenseIndex(expenseId);
+        if (participantCount > 0 && expense < participantExpenses[participantCount - 1]) {
+            throw new IllegalArgumentException("Participants must be added in expense id order, got " + expenseId);
+        }
+        if (participantCount == participantUsers.length) {
+            participantExpenses = Arrays.copyOf(participantExpenses, participantCount * 2);
+            participantUsers = Arrays.copyOf(participantUsers, participantCount * 2);
+        }
+        participantExpenses[participantCount] = expense;
+        participantUsers[participantCount++] = userIndex(userId);
+    }
+
+    /**
+     * Adds a stored share; shares must be added in expense id order.
+     *
+     * @param expenseId the id of an added expense
+     * @param userId the id of an added user
+     * @param percentageHundredths the stored percentage in hundredths, 0 when absent
+     * @param amountCents the stored amount in cents, 0 when absent
+     */
+    public void addShare(long expenseId, long userId, long percentageHundredths, long amountCents) {
+        checkOpen();
+        int expense = expenseIndex(expenseId);
+        if (shareCount > 0 && expense < shareExpenses[shareCount - 1]) {
+            throw new IllegalArgumentException("Shares must be added in expense id order, got " + expenseId);
+        }
+        if (shareCount == shareUsers.length) {
+            int capacity = shareCount * 2;
+            shareExpenses = Arrays.copyOf(shareExpenses, capacity);
+            shareUsers = Arrays.copyOf(shareUsers, capacity);
+            sharePercentages = Arrays.copyOf(sharePercentages, capacity);
+            shareAmounts = Arrays.copyOf(shareAmounts, capacity);
+        }
+        shareExpenses[shareCount] = expense;
+        shareUsers[shareCount] = userIndex(userId);
+        sharePercentages[shareCount] = percentageHundredths;
+        shareAmounts[shareCount++] = amountCents;
+    }
+
+    /**
+     * Builds the per-expense and per-group offsets; further rows can no longer be added.
+     * <p>
+     * Participants and shares of each expense are sorted by user index, i.e. by name, so a participant's
+     * position within its expense is its EQUAL rank. Calling this again has no effect.
+     * </p>
+     */
+    public void seal() {
+        if (groupStarts != null) {
+            return;
+        }
+        participantStarts = offsets(participantExpenses, participantCount, expenseCount);
+        shareStarts = offsets(shareExpenses, shareCount, expenseCount);
+        for (int expense = 0; expense < expenseCount; expense++) {
+            Arrays.sort(participantUsers, participantStarts[expense], participantStarts[expense + 1]);
+            sortShares(shareStarts[expense], shareStarts[expense + 1]);
+        }
+        groupStarts = offsets(expenseGroups, expenseCount, groupNames.size());
+        groupExpenses = new int[expenseCount];
+        int[] next = Arrays.copyOf(groupStarts, groupNames.size());
+        for (int expense = 0; expense < expenseCount; expense++) {
+            groupExpenses[next[expenseGroups[expense]]++] = expense;
+        }
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public long userId(int user) {
+        return userIds[user];
+    }
+
+    public String userName(int user) {
+        return userNames[user];
+    }
+
+    public int expenseCount() {
+        return expenseCount;
+    }
+
+    public int groupCount() {
+        return groupNames.size();
+    }
+
+    public String groupName(int group) {
+        return groupNames.get(group);
+    }
+
+    int groupStart(int group) {
+        return groupStarts[group];
+    }
+
+    int groupExpense(int position) {
+        return groupExpenses[position];
+    }
+
+    long totalCents(int expense) {
+        return totalCents[expense];
+    }
+
+    SPLIT_TYPE splitType(int expense) {
+        return splitTypes[expense];
+    }
+
+    int creator(int expense) {
+        return creators[expense];
+    }
+
+    int participantStart(int expense) {
+        return participantStarts[expense];
+    }
+
+    int participantUser(int position) {
+        return participantUsers[position];
+    }
+
+    /**
+     * Returns the position of a user's stored share of an expense, or -1 when there is none.
+     */
+    int sharePosition(int expense, int user) {
+        int position = Arrays.binarySearch(shareUsers, shareStarts[expense], shareStarts[expense + 1], user);
+        return position >= 0 ? position : -1;
+    }
+
+    long sharePercentage(int position) {
+        return sharePercentages[position];
+    }
+
+    long shareAmount(int position) {
+        return shareAmounts[position];
+    }
+
+    private int userIndex(long userId) {
+        Integer user = userIndexes.get(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("Unknown user id " + userId);
+        }
+        return user;
+    }
+
+    private int expenseIndex(long expenseId) {
+        int expense = Arrays.binarySearch(expenseIds, 0, expenseCount, expenseId);
+        if (expense < 0) {
+            throw new IllegalArgumentException("Unknown expense id " + expenseId);
+        }
+        return expense;
+    }
+
+    private void checkOpen() {
+        if (groupStarts != null) {
+            throw new IllegalStateException("Ledger is sealed");
+        }
+    }
+
+    /**
+     * Counts rows per key and returns the start offset of every key plus the end offset.
+     */
+    private static int[] offsets(int[] keys, int rows, int keyCount) {
+        int[] starts = new int[keyCount + 1];
+        for (int row = 0; row < rows; row++) {
+            starts[keys[row] + 1]++;
+        }
+        for (int key = 0; key < keyCount; key++) {
+            starts[key + 1] += starts[key];
+        }
+        return starts;
+    }
+
+    /**
+     * Insertion-sorts one expense's shares by user index; expenses have few shares each.
+     */
+    private void sortShares(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int user = shareUsers[i];
+            long percentage = sharePercentages[i];
+            long amount = shareAmounts[i];
+            int j = i - 1;
+            for (; j >= from && shareUsers[j] > user; j--) {
+                shareUsers[j + 1] = shareUsers[j];
+                sharePercentages[j + 1] = sharePercentages[j];
+                shareAmounts[j + 1] = shareAmounts[j];
+            }
+            shareUsers[j + 1] = user;
+            sharePercentages[j + 1] = percentage;
+            shareAmounts[j + 1] = amount;
+        }
+    }
+}
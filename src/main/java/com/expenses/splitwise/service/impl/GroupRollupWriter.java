@@ -0,0 +1,142 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.entity.Group;
+import com.expenses.splitwise.entity.GroupMember;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maintains the 'expense_groups' rows, their running totals and the 'group_member' rows.
+ * <p>
+ * Writers adding expenses or participants call this class in their own transaction:
+ * - {@link #resolve(Collection)} returns the group ids by name, creating the missing groups
+ * - {@link #record(long, int, BigDecimal, Collection)} adds expenses to the totals of one group and its new
+ *   members, locking the group row until the transaction ends
+ * </p>
+ * Every change of a group starts by locking its row, so members are added and counted by one writer at a
+ * time. Writers lock expenses before groups. The order in which several groups are locked is not fixed:
+ * {@link #resolve(Collection)} locks them in whatever order the database reads the names. Two transactions
+ * locking several of the same groups can therefore deadlock, and the database rolls one of them back.
+ *
+ * @see Group
+ * @see GroupMember
+ */
+@Component
+public class GroupRollupWriter {
+
+    private static final String SELECT_IDS = "SELECT id, name FROM expense_groups WHERE name IN (%s)";
+
+    private static final String INSERT_GROUP = "INSERT INTO expense_groups (name, expense_count, member_count, total_amount) "
+            + "VALUES (?, 0, 0, 0)";
+
+    private static final String ADD_EXPENSES = "UPDATE expense_groups SET expense_count = expense_count + ?, "
+            + "total_amount = total_amount + ? WHERE id = ?";
+
+    private static final String LOCK_GROUP = "SELECT id FROM expense_groups WHERE id = ? FOR UPDATE";
+
+    private static final String INSERT_MEMBERS = "INSERT INTO group_member (group_id, user_id) "
+            + "SELECT g.id, u.id FROM expense_groups g, users u WHERE g.id = ? AND u.id IN (%s) "
+            + "AND NOT EXISTS (SELECT 1 FROM group_member m WHERE m.group_id = g.id AND m.user_id = u.id)";
+
+    private static final String ADD_MEMBERS = "UPDATE expense_groups SET member_count = member_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new GroupRollupWriter.
+     *
+     * @param jdbcTemplate template used for the group statements
+     */
+    public GroupRollupWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the ids of groups by name, creating the groups that do not exist yet with zero totals.
+     * <p>
+     * Costs a single query once every group exists.
+     * </p>
+     *
+     * @param groupNames the names of the groups
+     * @return the id of every group, by name, ignoring case like the name column's collation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, Long> resolve(Collection<String> groupNames) {
+        Set<String> names = new LinkedHashSet<>(groupNames);
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> ids = select(SELECT_IDS, names);
+        if (ids.keySet().containsAll(names)) {
+            return ids;
+        }
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                try {
+                    jdbcTemplate.update(INSERT_GROUP, name);
+                } catch (DuplicateKeyException e) {
+                    // Created by a concurrent transaction since
+                }
+            }
+        }
+        // A locking read, which sees groups committed by concurrent transactions since this one started
+        return select(SELECT_IDS + " FOR UPDATE", names);
+    }
+
+    /**
+     * Adds expenses and members to one group, locking the group row until the transaction ends.
+     * <p>
+     * Users who already are members are skipped; the member count grows by the users actually added.
+     * </p>
+     *
+     * @param groupId the id of the group
+     * @param expenses the number of expenses added to the group, 0 when only members are added
+     * @param amount the sum of the total amounts of those expenses
+     * @param userIds the creators and participants of the changed expenses
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(long groupId, int expenses, BigDecimal amount, Collection<Long> userIds) {
+        if (expenses > 0) {
+            jdbcTemplate.update(ADD_EXPENSES, expenses, amount, groupId);
+        } else if (!userIds.isEmpty()) {
+            jdbcTemplate.queryForList(LOCK_GROUP, Long.class, groupId);
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Object[] args = new Object[userIds.size() + 1];
+        args[0] = groupId;
+        int i = 1;
+        for (Long userId : userIds) {
+            args[i++] = userId;
+        }
+        int added = jdbcTemplate.update(String.format(INSERT_MEMBERS, placeholders(userIds.size())), args);
+        if (added > 0) {
+            jdbcTemplate.update(ADD_MEMBERS, added, groupId);
+        }
+    }
+
+    private Map<String, Long> select(String sql, Set<String> names) {
+        Map<String, Long> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        jdbcTemplate.query(String.format(sql, placeholders(names.size())),
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                }, names.toArray());
+        return ids;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.GroupSummaryDto;
+import com.expenses.splitwise.dto.SettlementTransferDto;
+import com.expenses.splitwise.dto.UserShareRow;
+import com.expenses.splitwise.repository.GroupRepository;
+import com.expenses.splitwise.service.GroupInterface;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Service class for group-level operations.
+ * <p>
+ * This service handles:
+ * - Netting every member's balance within a group
+ * - Computing the transfers that settle the group through {@link SettlementEngine}
+ * - Reading the running totals of a group, maintained on write by {@link GroupRollupWriter}
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class GroupServiceImpl implements GroupInterface {
+
+    /** Queries reading the share rows of a group */
+    private final ShareRowQueries shareRowQueries;
+
+    /** Repository reading the running totals of groups */
+    private final GroupRepository groupRepository;
+
+    /**
+     * Constructs a new GroupServiceImpl with required repositories.
+     *
+     * @param shareRowQueries queries reading the share rows of a group
+     * @param groupRepository repository reading the running totals of groups
+     */
+    public GroupServiceImpl(ShareRowQueries shareRowQueries, GroupRepository groupRepository) {
+        this.shareRowQueries = shareRowQueries;
+        this.groupRepository = groupRepository;
+    }
+
+    /**
+     * Retrieves the running totals of a group.
+     * <p>
+     * The totals are read from the group's row, in one query, whatever the number of its expenses.
+     * </p>
+     *
+     * @param groupName the name of the group
+     * @return the number of expenses and members and the total amount of the group, empty if it does not exist
+     */
+    @Override
+    public Optional<GroupSummaryDto> getGroup(String groupName) {
+        return groupRepository.findSummaryByName(groupName);
+    }
+
+    /**
+     * Calculates the payments that settle all expenses of a group.
+     * <p>
+     * This method:
+     * 1. Fetches the share rows of every expense in the group in one query, through the expenses' group id
+     * 2. Debits each participant their share and credits the same amount to the expense creator
+     * 3. Settles the resulting net balances, kept in cents, with {@link SettlementEngine}
+     * </p>
+     * The creator's own share is not a transfer, so the net balances always sum to zero.
+     *
+     * @param groupName the name of the group
+     * @return the transfers settling the group, empty when everyone is even
+     */
+    @Override
+    public List<SettlementTransferDto> calculateSettlements(String groupName) {
+        Map<String, Integer> memberIndexes = new HashMap<>();
+        List<String> members = new ArrayList<>();
+        List<UserShareRow> rows = shareRowQueries.byGroupName(groupName);
+        long[] balances = new long[rows.size() * 2];
+
+        for (UserShareRow row : rows) {
+            if (row.getUserId().equals(row.getCreatedById())) {
+                continue;
+            }
+            // Participants' signed shares are negative: what they owe the creator
+            long owed = -ShareCalculator.signedShareCents(row);
+            int participant = memberIndexes.computeIfAbsent(row.getUserName(), name -> addMember(members, name));
+            int creator = memberIndexes.computeIfAbsent(row.getCreatedBy(), name -> addMember(members, name));
+            balances[participant] -= owed;
+            balances[creator] += owed;
+        }
+
+        SettlementEngine.Transfers transfers = SettlementEngine.settle(Arrays.copyOf(balances, members.size()));
+        List<SettlementTransferDto> result = new ArrayList<>(transfers.count);
+        for (int i = 0; i < transfers.count; i++) {
+            result.add(new SettlementTransferDto(
+                    members.get(transfers.from[i]),
+                    members.get(transfers.to[i]),
+                    Money.toBigDecimal(transfers.amounts[i])));
+        }
+        return result;
+    }
+
+    private static int addMember(List<String> members, String name) {
+        members.add(name);
+        return members.size() - 1;
+    }
+}
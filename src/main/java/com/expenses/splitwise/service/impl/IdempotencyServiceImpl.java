@@ -0,0 +1,188 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.config.CacheConfig;
+import com.expenses.splitwise.dto.IdempotencyClaim;
+import com.expenses.splitwise.dto.IdempotentResponse;
+import com.expenses.splitwise.entity.IdempotencyRecord;
+import com.expenses.splitwise.service.IdempotencyInterface;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service class recording the responses of write requests by idempotency key.
+ * <p>
+ * This service handles:
+ * - Claiming a key before its request runs, so concurrent duplicates are refused
+ * - Storing the response once the request completes, or releasing the key when it fails
+ * - Returning the stored response to retries, from the in-memory hot index when possible
+ * - Purging expired keys
+ * </p>
+ * Keys live in the 'idempotency_key' table for `splitwise.idempotency.ttl-ms`. Every statement is a
+ * single-row, auto-committed JDBC call on the primary, so a claim is visible to every instance at once
+ * and never touches the domain tables. A claim older than `splitwise.idempotency.lock-timeout-ms` whose
+ * request never completed, e.g. because the instance died, can be taken over by a retry. The claim's
+ * creation time is its token: completing or releasing the key requires it, so a slow request whose claim
+ * was taken over cannot overwrite or delete the retry's claim. A takeover always happens after the
+ * timeout, so the new claim's time differs from the old one.
+ *
+ * @see IdempotencyRecord
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyInterface {
+
+    /** Largest response body stored, matching the 'response_body' column; larger ones keep the status only */
+    static final int MAX_RESPONSE_BYTES = 8192;
+
+    private static final String INSERT = "INSERT INTO idempotency_key "
+            + "(idempotency_key, request_hash, status_code, created_at, expires_at) VALUES (?, ?, 0, ?, ?)";
+
+    private static final String SELECT = "SELECT request_hash, status_code, content_type, response_body, created_at, "
+            + "expires_at FROM idempotency_key WHERE idempotency_key = ?";
+
+    private static final String RECLAIM = "UPDATE idempotency_key SET request_hash = ?, status_code = 0, "
+            + "content_type = NULL, response_body = NULL, created_at = ?, expires_at = ? "
+            + "WHERE idempotency_key = ? AND created_at = ?";
+
+    private static final String COMPLETE = "UPDATE idempotency_key SET status_code = ?, content_type = ?, "
+            + "response_body = ? WHERE idempotency_key = ? AND status_code = 0 AND created_at = ?";
+
+    private static final String RELEASE = "DELETE FROM idempotency_key "
+            + "WHERE idempotency_key = ? AND status_code = 0 AND created_at = ?";
+
+    private static final String PURGE = "DELETE FROM idempotency_key WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Hot index of completed responses */
+    private final Cache responses;
+
+    /** How long a key is remembered */
+    private final long ttlMs;
+
+    /** How long a claim blocks retries before it may be taken over */
+    private final long lockTimeoutMs;
+
+    /**
+     * Constructs a new IdempotencyServiceImpl.
+     *
+     * @param jdbcTemplate template used for the single-row statements
+     * @param cacheManager cache manager holding the hot index
+     * @param ttlMs how long a key is remembered
+     * @param lockTimeoutMs how long a claim blocks retries before it may be taken over
+     */
+    public IdempotencyServiceImpl(JdbcTemplate jdbcTemplate, CacheManager cacheManager,
+                                  @Value("${splitwise.idempotency.ttl-ms:86400000}") long ttlMs,
+                                  @Value("${splitwise.idempotency.lock-timeout-ms:60000}") long lockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.responses = cacheManager.getCache(CacheConfig.IDEMPOTENT_RESPONSES);
+        this.ttlMs = ttlMs;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    /**
+     * Claims a key for a request, or returns what is recorded for it.
+     *
+     * @param key the idempotency key
+     * @param requestHash fingerprint of the request
+     * @return the token of the claim when the caller now owns the key and must run the request; otherwise
+     *         the recorded response, which may be in progress or belong to a request with another fingerprint
+     */
+    @Override
+    public IdempotencyClaim claim(String key, long requestHash) {
+        IdempotentResponse cached = responses.get(key, IdempotentResponse.class);
+        if (cached != null) {
+            return IdempotencyClaim.refused(cached);
+        }
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update(INSERT, key, requestHash, now, now + ttlMs);
+            return IdempotencyClaim.owned(now);
+        } catch (DuplicateKeyException e) {
+            // Known key, read what is recorded below
+        }
+
+        List<IdempotencyRecord> records = jdbcTemplate.query(SELECT, (rs, rowNum) -> new IdempotencyRecord(key,
+                rs.getLong(1), rs.getShort(2), rs.getString(3), rs.getBytes(4), rs.getLong(5), rs.getLong(6)), key);
+        if (records.isEmpty()) {
+            // Released or purged in between; let the client retry
+            return inProgress(requestHash);
+        }
+        IdempotencyRecord record = records.get(0);
+        boolean abandoned = record.getStatusCode() == IdempotentResponse.IN_PROGRESS
+                && record.getCreatedAt() < now - lockTimeoutMs;
+        if (record.getExpiresAt() < now || abandoned) {
+            if (jdbcTemplate.update(RECLAIM, requestHash, now, now + ttlMs, key, record.getCreatedAt()) == 1) {
+                return IdempotencyClaim.owned(now);
+            }
+            return inProgress(requestHash);
+        }
+
+        IdempotentResponse response = new IdempotentResponse(record.getRequestHash(), record.getStatusCode(),
+                record.getContentType(), record.getResponseBody());
+        if (!response.inProgress()) {
+            responses.put(key, response);
+        }
+        return IdempotencyClaim.refused(response);
+    }
+
+    private static IdempotencyClaim inProgress(long requestHash) {
+        return IdempotencyClaim.refused(new IdempotentResponse(requestHash, IdempotentResponse.IN_PROGRESS, null, null));
+    }
+
+    /**
+     * Stores the response of a claimed key.
+     * <p>
+     * A body over {@value #MAX_RESPONSE_BYTES} bytes is not stored: the key is completed with the status
+     * alone, and retries get that status with an empty body.
+     * </p>
+     *
+     * @param key the idempotency key
+     * @param token the token returned by the claim
+     * @param requestHash fingerprint of the request
+     * @param status HTTP status of the response
+     * @param contentType content type of the response, may be null
+     * @param body body of the response
+     * @return false when the claim was lost, e.g. taken over by a retry after the lock timeout
+     */
+    @Override
+    public boolean complete(String key, long token, long requestHash, int status, String contentType, byte[] body) {
+        if (body.length > MAX_RESPONSE_BYTES) {
+            contentType = null;
+            body = null;
+        }
+        if (jdbcTemplate.update(COMPLETE, status, contentType, body, key, token) != 1) {
+            return false;
+        }
+        responses.put(key, new IdempotentResponse(requestHash, status, contentType, body));
+        return true;
+    }
+
+    /**
+     * Forgets a claimed key whose request failed, so a retry runs it again; a claim taken over is kept.
+     *
+     * @param key the idempotency key
+     * @param token the token returned by the claim
+     */
+    @Override
+    public void release(String key, long token) {
+        jdbcTemplate.update(RELEASE, key, token);
+    }
+
+    /**
+     * Deletes expired keys; expired keys are also taken over on their next use.
+     *
+     * @return the number of deleted keys
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${splitwise.idempotency.purge-interval-ms:600000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update(PURGE, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,248 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the writes accepted by the write-behind ingestion.
+ * <p>
+ * Each write is one JSON line in a segment file named after its first sequence number. This journal:
+ * - Assigns sequence numbers in append order
+ * - Syncs to disk in groups: one {@code force} covers every line appended before it
+ * - Rolls over to a new segment after `segmentBytes` and deletes segments whose writes are all applied
+ * - Recovers the writes of existing segments on open, cutting off a line torn by a crash
+ * </p>
+ * Every open starts a new segment, so recovered writes are never appended to. Sequence numbers are only
+ * unique within one journal directory, which is identified by the id in its {@value #ID_FILE} file.
+ */
+final class IngestionJournal implements Closeable {
+
+    private static final String PREFIX = "journal-";
+
+    private static final String SUFFIX = ".ndjson";
+
+    /** File holding the id of the journal in its directory */
+    static final String ID_FILE = "journal.id";
+
+    private final Path directory;
+
+    private final long segmentBytes;
+
+    private final ObjectMapper objectMapper;
+
+    /** First sequence number of every segment, oldest first; the last one is written to */
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+
+    /** Guards {@link #channel} replacement and the force calls */
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+
+    private long segmentSize;
+
+    /** Last sequence number appended, written under this journal's lock */
+    private volatile long lastSequence;
+
+    /** Last sequence number known to be on disk */
+    private volatile long syncedSequence;
+
+    private IngestionJournal(Path directory, long segmentBytes, ObjectMapper objectMapper, long lastSequence) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.objectMapper = objectMapper;
+        this.lastSequence = lastSequence;
+        this.syncedSequence = lastSequence;
+    }
+
+    /**
+     * Returns the id of the journal in a directory, creating the directory and the id on first use.
+     *
+     * @param directory the journal directory
+     * @return the id, a random UUID kept for the life of the directory
+     */
+    static String id(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(ID_FILE);
+        if (!Files.exists(file)) {
+            Path temporary = Files.createTempFile(directory, ID_FILE, ".tmp");
+            Files.writeString(temporary, UUID.randomUUID().toString(), StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return Files.readString(file).trim();
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the writes of its segments.
+     *
+     * @param directory the journal directory, created if missing
+     * @param segmentBytes size after which a new segment is started
+     * @param objectMapper mapper writing and reading the JSON lines
+     * @param minSequence sequence numbers continue above this even if the segments are gone
+     * @param recovered receives every recovered write in sequence order
+     * @return the journal, ready for appends
+     */
+    static IngestionJournal open(Path directory, long segmentBytes, ObjectMapper objectMapper, long minSequence,
+                                 Consumer<IngestionCommand> recovered) throws IOException {
+        Files.createDirectories(directory);
+        NavigableMap<Long, Path> existing = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(IngestionJournal::isSegment).forEach(file -> existing.put(firstSequence(file), file));
+        }
+        long last = minSequence;
+        for (Path segment : existing.values()) {
+            last = Math.max(last, recover(segment, objectMapper, recovered));
+        }
+        IngestionJournal journal = new IngestionJournal(directory, segmentBytes, objectMapper, last);
+        journal.segments.putAll(existing);
+        journal.roll();
+        return journal;
+    }
+
+    /**
+     * Appends a write, assigning its sequence number.
+     * <p>
+     * The write is not durable before {@link #sync(long)} returns for its sequence number.
+     * {@code appended} runs under the journal lock, so writes handed on from it keep sequence order.
+     * </p>
+     *
+     * @param command the write; its sequence number is set
+     * @param appended called with the write once it is appended
+     * @return the sequence number of the write
+     */
+    synchronized long append(IngestionCommand command, Consumer<IngestionCommand> appended) throws IOException {
+        command.setSequence(lastSequence + 1);
+        byte[] json = objectMapper.writeValueAsBytes(command);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        if (segmentSize > 0 && segmentSize + line.remaining() > segmentBytes) {
+            roll();
+        }
+        while (line.hasRemaining()) {
+            segmentSize += channel.write(line);
+        }
+        lastSequence = command.getSequence();
+        appended.accept(command);
+        return lastSequence;
+    }
+
+    /**
+     * Makes every write up to a sequence number durable, syncing at most once for concurrent callers.
+     *
+     * @param sequence the sequence number that must be on disk
+     */
+    void sync(long sequence) throws IOException {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            // Everything appended so far is in the current segment or was synced when it rolled over
+            long target = lastSequence;
+            channel.force(false);
+            syncedSequence = target;
+        }
+    }
+
+    /**
+     * Deletes the segments whose writes are all applied.
+     *
+     * @param appliedThrough computes, under the journal lock, the sequence number up to which every write is applied
+     */
+    synchronized void compact(LongSupplier appliedThrough) throws IOException {
+        long applied = appliedThrough.getAsLong();
+        while (segments.size() > 1) {
+            Map.Entry<Long, Path> oldest = segments.firstEntry();
+            if (segments.higherKey(oldest.getKey()) - 1 > applied) {
+                return;
+            }
+            Files.deleteIfExists(oldest.getValue());
+            segments.pollFirstEntry();
+        }
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (syncLock) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Syncs and closes the current segment and starts a new one at the next sequence number.
+     */
+    private void roll() throws IOException {
+        synchronized (syncLock) {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                syncedSequence = lastSequence;
+            }
+            long first = lastSequence + 1;
+            Path file = directory.resolve(String.format("%s%020d%s", PREFIX, first, SUFFIX));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segments.put(first, file);
+            segmentSize = channel.size();
+        }
+        // Make the new file itself survive a crash
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Directories cannot be opened for sync on every platform
+        }
+    }
+
+    /**
+     * Reads one segment, truncating a torn last line.
+     *
+     * @return the highest sequence number in the segment, 0 when empty
+     */
+    private static long recover(Path segment, ObjectMapper objectMapper, Consumer<IngestionCommand> recovered)
+            throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        long last = 0;
+        int start = 0;
+        for (int end = 0; end < bytes.length; end++) {
+            if (bytes[end] != '\n') {
+                continue;
+            }
+            IngestionCommand command = objectMapper.readValue(bytes, start, end - start, IngestionCommand.class);
+            recovered.accept(command);
+            last = command.getSequence();
+            start = end + 1;
+        }
+        if (start < bytes.length) {
+            // The crash interrupted the last append, which was never acknowledged
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+                channel.force(false);
+            }
+        }
+        return last;
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,505 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.IngestionAckDto;
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.expenses.splitwise.service.ExpenseInterface;
+import com.expenses.splitwise.service.ExpenseShareInterface;
+import com.expenses.splitwise.service.ExpenseUserInterface;
+import com.expenses.splitwise.service.IngestionInterface;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind ingestion of expense, participant and share writes.
+ * <p>
+ * This service:
+ * 1. Accepts a write into a bounded in-memory queue, refusing it when `splitwise.ingest.queue-capacity`
+ *    writes are pending
+ * 2. Appends it to the {@link IngestionJournal} and acknowledges it with its sequence number once synced
+ * 3. Hands it to one of `splitwise.ingest.partitions` writers, chosen by expense name so the writes of an
+ *    expense are applied in order
+ * 4. Lets each writer commit its writes in group transactions of up to `splitwise.ingest.batch-size`
+ *    writes, waiting at most `splitwise.ingest.max-delay-ms` for a group to fill
+ * </p>
+ * Writes are applied through the same services as the synchronous endpoints. A group transaction also
+ * advances the partition's row in 'ingestion_checkpoint', so on startup exactly the acknowledged writes
+ * that were not committed are replayed from the journal. Sequence numbers come from the local journal of
+ * each instance, so the rows are keyed by the journal's id as well as the partition. A group that fails on a transient database
+ * error (lock timeout, deadlock, lost connection) is retried as a whole, with a pause doubling from
+ * {@value #RETRY_PAUSE_MS} ms up to {@value #MAX_RETRY_PAUSE_MS} ms. When a group fails for any other reason, it is
+ * rolled back and its writes are applied one per transaction; a write that fails again on a transient
+ * error sends the rest back to retrying, and a write that fails on its own, e.g. a missing user or a
+ * duplicate expense, is logged, counted in `splitwise.ingest.failed` and skipped. Keep
+ * `splitwise.ingest.partitions` unchanged while the journal holds unapplied writes.
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.ingest.enabled", havingValue = "true")
+public class IngestionServiceImpl implements IngestionInterface, SmartLifecycle {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(IngestionServiceImpl.class);
+
+    private static final String CHECKPOINTS =
+            "SELECT partition_id, applied_sequence FROM ingestion_checkpoint WHERE journal_id = ?";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO ingestion_checkpoint (journal_id, partition_id, applied_sequence) VALUES (?, ?, 0)";
+
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE ingestion_checkpoint SET applied_sequence = ? WHERE journal_id = ? AND partition_id = ?";
+
+    /** First pause before a writer retries a group after a database failure */
+    private static final long RETRY_PAUSE_MS = 1000;
+
+    /** Longest pause between retries of a group */
+    private static final long MAX_RETRY_PAUSE_MS = 30000;
+
+    /** Service for creating expenses */
+    private final ExpenseInterface expenseInterface;
+
+    /** Service for mapping users to expenses */
+    private final ExpenseUserInterface expenseUserInterface;
+
+    /** Service for adding shares */
+    private final ExpenseShareInterface expenseShareInterface;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Template running each group in one transaction */
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Path directory;
+
+    private final long segmentBytes;
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    private final long maxDelayNanos;
+
+    private final Partition[] partitions;
+
+    /** Writes accepted and not yet committed, over all partitions */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Counter rejected;
+
+    private final Counter failed;
+
+    private final DistributionSummary groupSize;
+
+    private IngestionJournal journal;
+
+    /** Id of the journal, keying this instance's rows in 'ingestion_checkpoint' */
+    private String journalId;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a new IngestionServiceImpl.
+     *
+     * @param expenseInterface service for creating expenses
+     * @param expenseUserInterface service for mapping users to expenses
+     * @param expenseShareInterface service for adding shares
+     * @param jdbcTemplate template used for the checkpoint rows
+     * @param transactionManager transaction manager for the group transactions
+     * @param objectMapper mapper writing the journal lines
+     * @param meterRegistry registry receiving the queue metrics
+     * @param directory directory of the journal segments
+     * @param segmentBytes size after which a new journal segment is started
+     * @param partitions number of writers
+     * @param queueCapacity maximum number of pending writes
+     * @param batchSize maximum number of writes per group transaction
+     * @param maxDelayMs longest wait for a group to fill
+     */
+    public IngestionServiceImpl(ExpenseInterface expenseInterface, ExpenseUserInterface expenseUserInterface,
+                                ExpenseShareInterface expenseShareInterface, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${splitwise.ingest.directory:ingest-journal}") Path directory,
+                                @Value("${splitwise.ingest.segment-bytes:67108864}") long segmentBytes,
+                                @Value("${splitwise.ingest.partitions:4}") int partitions,
+                                @Value("${splitwise.ingest.queue-capacity:10000}") int queueCapacity,
+                                @Value("${splitwise.ingest.batch-size:200}") int batchSize,
+                                @Value("${splitwise.ingest.max-delay-ms:5}") long maxDelayMs) {
+        this.expenseInterface = expenseInterface;
+        this.expenseUserInterface = expenseUserInterface;
+        this.expenseShareInterface = expenseShareInterface;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.partitions = new Partition[Math.max(1, partitions)];
+        for (int i = 0; i < this.partitions.length; i++) {
+            this.partitions[i] = new Partition(i);
+        }
+        this.rejected = meterRegistry.counter("splitwise.ingest.rejected");
+        this.failed = meterRegistry.counter("splitwise.ingest.failed");
+        this.groupSize = DistributionSummary.builder("splitwise.ingest.group.size")
+                .description("Writes committed per group transaction")
+                .register(meterRegistry);
+        Gauge.builder("splitwise.ingest.pending", pending, AtomicInteger::get)
+                .description("Accepted writes not committed yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accepts a write, returning once it is durable in the journal.
+     *
+     * @param command the write
+     * @return the acknowledgement, empty when the queue is full and the client should retry later
+     */
+    @Override
+    public Optional<IngestionAckDto> submit(IngestionCommand command) {
+        if (!running) {
+            throw new IllegalStateException("Ingestion is not running");
+        }
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+        Partition partition = partitionOf(command.getExpenseName());
+        try {
+            long sequence = journal.append(command, partition::enqueue);
+            journal.sync(sequence);
+            return Optional.of(new IngestionAckDto(sequence, partition.index));
+        } catch (IOException e) {
+            // Nothing was enqueued when the append failed; a failed sync leaves the write to be applied anyway
+            throw new UncheckedIOException("Failed to journal write for expense " + command.getExpenseName(), e);
+        }
+    }
+
+    /**
+     * Waits until every accepted write is committed or skipped.
+     *
+     * @param timeoutMs longest wait
+     * @return whether the queue drained in time
+     */
+    public boolean awaitDrained(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Replays the unapplied journal writes and starts the writers.
+     */
+    @Override
+    public void start() {
+        try {
+            journalId = IngestionJournal.id(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the ingestion journal id in " + directory, e);
+        }
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query(CHECKPOINTS, rs -> {
+            checkpoints.put(rs.getInt(1), rs.getLong(2));
+        }, journalId);
+        if (checkpoints.keySet().stream().anyMatch(partition -> partition >= partitions.length)) {
+            throw new IllegalStateException("ingestion_checkpoint has partitions beyond splitwise.ingest.partitions="
+                    + partitions.length + " for journal " + journalId + "; restore the previous value until the journal is applied");
+        }
+        for (Partition partition : partitions) {
+            if (!checkpoints.containsKey(partition.index)) {
+                jdbcTemplate.update(INSERT_CHECKPOINT, journalId, partition.index);
+            }
+            partition.applied = checkpoints.getOrDefault(partition.index, 0L);
+        }
+
+        long maxApplied = checkpoints.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        int[] replayed = {0};
+        try {
+            journal = IngestionJournal.open(directory, segmentBytes, objectMapper, maxApplied, command -> {
+                Partition partition = partitionOf(command.getExpenseName());
+                if (command.getSequence() > partition.applied) {
+                    pending.incrementAndGet();
+                    partition.enqueue(command);
+                    replayed[0]++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ingestion journal in " + directory, e);
+        }
+        if (replayed[0] > 0) {
+            logger.warn("Replaying {} acknowledged writes from the ingestion journal", replayed[0]);
+        }
+
+        running = true;
+        for (Partition partition : partitions) {
+            partition.writer = new Thread(() -> drain(partition), "ingest-writer-" + partition.index);
+            partition.writer.start();
+        }
+        logger.info("Ingestion started with {} partitions, journal {} in {}", partitions.length, journalId,
+                directory.toAbsolutePath());
+    }
+
+    /**
+     * Stops accepting writes, lets the writers commit what is queued and closes the journal.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Partition partition : partitions) {
+            try {
+                if (partition.writer != null) {
+                    partition.writer.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close ingestion journal: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request finds the writers stopped.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Runs one partition's writer until the service stops and its queue is empty.
+     */
+    private void drain(Partition partition) {
+        List<IngestionCommand> group = new ArrayList<>(batchSize);
+        long retryPause = RETRY_PAUSE_MS;
+        while (running || !partition.queue.isEmpty() || !group.isEmpty()) {
+            try {
+                if (group.isEmpty() && !collect(partition, group)) {
+                    continue;
+                }
+                commit(partition, group);
+                pending.addAndGet(-group.size());
+                groupSize.record(group.size());
+                group.clear();
+                retryPause = RETRY_PAUSE_MS;
+                journal.compact(this::appliedThrough);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                // The group stays queued and is retried; applied writes are skipped by their sequence number
+                logger.error("Ingestion writer {} failed, retrying: {}", partition.index, e.getMessage(), e);
+                if (!running) {
+                    // Left in the journal and replayed on the next start
+                    return;
+                }
+                try {
+                    Thread.sleep(retryPause);
+                    retryPause = Math.min(retryPause * 2, MAX_RETRY_PAUSE_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills a group with up to {@link #batchSize} writes, waiting at most {@link #maxDelayNanos} after the first.
+     *
+     * @return whether any write was collected
+     */
+    private boolean collect(Partition partition, List<IngestionCommand> group) throws InterruptedException {
+        IngestionCommand first = partition.queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < batchSize) {
+            partition.queue.drainTo(group, batchSize - group.size());
+            long wait = deadline - System.nanoTime();
+            if (group.size() >= batchSize || wait <= 0) {
+                break;
+            }
+            IngestionCommand next = partition.queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return true;
+    }
+
+    /**
+     * Commits a group in one transaction, or one write per transaction when the group fails for a reason
+     * other than a transient database error.
+     *
+     * @throws RuntimeException on a transient database error; the writes not applied yet are to be retried
+     */
+    private void commit(Partition partition, List<IngestionCommand> group) throws IOException {
+        List<IngestionCommand> unapplied = group.stream()
+                .filter(command -> command.getSequence() > partition.applied)
+                .toList();
+        if (unapplied.isEmpty()) {
+            return;
+        }
+        long last = unapplied.get(unapplied.size() - 1).getSequence();
+        // Writes are applied only once they are on disk
+        journal.sync(last);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                unapplied.forEach(this::apply);
+                checkpoint(partition, last);
+            });
+            partition.applied = last;
+            return;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            if (unapplied.size() == 1) {
+                skip(partition, unapplied.get(0), e);
+                return;
+            }
+            logger.debug("Group of {} writes failed, applying them one by one: {}", unapplied.size(), e.getMessage());
+        }
+        for (IngestionCommand command : unapplied) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    apply(command);
+                    checkpoint(partition, command.getSequence());
+                });
+                partition.applied = command.getSequence();
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                skip(partition, command, e);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a failure may succeed on retry, as opposed to a write that is invalid in itself.
+     */
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof PessimisticLockingFailureException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    /**
+     * Records a write that cannot be applied as done, so it is neither retried nor replayed.
+     */
+    private void skip(Partition partition, IngestionCommand command, RuntimeException cause) {
+        transactionTemplate.executeWithoutResult(status -> checkpoint(partition, command.getSequence()));
+        partition.applied = command.getSequence();
+        failed.increment();
+        logger.atWarn().addKeyValue("sequence", command.getSequence()).addKeyValue("type", command.getType())
+                .addKeyValue("expense", command.getExpenseName())
+                .log("Skipped ingested write: {}", cause.getMessage());
+    }
+
+    private void apply(IngestionCommand command) {
+        switch (command.getType()) {
+            case EXPENSE -> expenseInterface.createExpense(command.getExpense());
+            case PARTICIPANTS -> expenseUserInterface.createExpenseUserMapping(command.getExpenseName(), command.getUserNames());
+            case SHARES -> expenseShareInterface.addShares(command.getExpenseName(), command.getShares());
+        }
+    }
+
+    private void checkpoint(Partition partition, long sequence) {
+        jdbcTemplate.update(UPDATE_CHECKPOINT, sequence, journalId, partition.index);
+    }
+
+    /**
+     * Returns the sequence number up to which every journaled write is applied; called under the journal lock.
+     */
+    private long appliedThrough() {
+        long through = journal.lastSequence();
+        for (Partition partition : partitions) {
+            if (partition.enqueued > partition.applied) {
+                through = Math.min(through, partition.applied);
+            }
+        }
+        return through;
+    }
+
+    private Partition partitionOf(String expenseName) {
+        return partitions[Math.floorMod(Objects.hashCode(expenseName), partitions.length)];
+    }
+
+    /**
+     * Queue and progress of one writer.
+     */
+    private static final class Partition {
+
+        private final int index;
+
+        /** Writes in sequence order; capacity is enforced by {@link #pending} */
+        private final LinkedBlockingQueue<IngestionCommand> queue = new LinkedBlockingQueue<>();
+
+        /** Sequence number of the last write queued */
+        private volatile long enqueued;
+
+        /** Sequence number of the last write committed or skipped */
+        private volatile long applied;
+
+        private Thread writer;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        private void enqueue(IngestionCommand command) {
+            queue.add(command);
+            enqueued = command.getSequence();
+        }
+    }
+}
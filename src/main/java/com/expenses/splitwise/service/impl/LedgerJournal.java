@@ -0,0 +1,334 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.LedgerRecordType;
+import com.expenses.splitwise.dto.LedgerSyncPolicy;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of ledger records, written through memory-mapped segment files.
+ * <p>
+ * Every record takes {@value #RECORD_BYTES} bytes at a fixed offset of its segment:
+ * - 0: CRC32C of bytes 4 to 63
+ * - 4: type code, 0 for a never written record
+ * - 5: split type ordinal, -1 when absent
+ * - 8: sequence number, 16: timestamp, 24: expense id, 32: user id
+ * - 40: total or amount in cents, 48: percentage in hundredths, {@link Long#MIN_VALUE} when absent
+ * </p>
+ * Segments are named after their first sequence number and preallocated to `segmentRecords` records,
+ * so the record of sequence number {@code n} sits at slot {@code n - first} and appends never grow a file.
+ * <p>
+ * This journal:
+ * - Assigns sequence numbers in append order and rolls over to a new segment when one is full
+ * - Skips sequence numbers on request by starting a new segment, so a gap always ends a segment
+ * - Forces the mapped pages to disk according to its {@link LedgerSyncPolicy}
+ * - Recovers the end of the last segment on open: the first slot that is empty, fails its CRC or holds
+ *   another sequence number ends the journal, and everything after it is zeroed
+ * </p>
+ */
+public final class LedgerJournal implements Closeable {
+
+    /** Size of one record in bytes */
+    public static final int RECORD_BYTES = 64;
+
+    private static final String PREFIX = "ledger-";
+
+    private static final String SUFFIX = ".bin";
+
+    /** Marks an absent split type */
+    private static final byte NO_SPLIT_TYPE = -1;
+
+    /** Marks an absent amount or percentage */
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private static final SPLIT_TYPE[] SPLIT_TYPES = SPLIT_TYPE.values();
+
+    private final Path directory;
+
+    private final int segmentRecords;
+
+    private final LedgerSyncPolicy syncPolicy;
+
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    /** First sequence number of the current segment */
+    private long segmentFirst;
+
+    /** Last sequence number appended */
+    private long lastSequence;
+
+    /** Whether records were appended since the last force */
+    private boolean dirty;
+
+    private LedgerJournal(Path directory, int segmentRecords, LedgerSyncPolicy syncPolicy) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.syncPolicy = syncPolicy;
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the end of its last segment.
+     *
+     * @param directory the journal directory, created if missing
+     * @param segmentRecords number of records per segment, at most 2 GiB of records
+     * @param syncPolicy when appended records are forced to disk
+     * @return the journal, ready for appends
+     */
+    public static LedgerJournal open(Path directory, int segmentRecords, LedgerSyncPolicy syncPolicy) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / RECORD_BYTES) {
+            throw new IllegalArgumentException("Segment records must be between 1 and " + Integer.MAX_VALUE / RECORD_BYTES);
+        }
+        Files.createDirectories(directory);
+        LedgerJournal journal = new LedgerJournal(directory, segmentRecords, syncPolicy);
+        NavigableMap<Long, Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            journal.map(1);
+        } else {
+            Path last = segments.lastEntry().getValue();
+            journal.channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            journal.segmentFirst = segments.lastKey();
+            journal.segment = journal.channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_BYTES);
+            journal.recover();
+        }
+        return journal;
+    }
+
+    /**
+     * Appends records, assigning their sequence numbers and timestamps.
+     * <p>
+     * The records of one call are contiguous in the journal. Under {@link LedgerSyncPolicy#EVERY_WRITE}
+     * they are on disk when this method returns, otherwise once {@link #sync()} ran.
+     * </p>
+     *
+     * @param records the records; their sequence numbers and timestamps are set
+     * @return the sequence number of the last record
+     */
+    public synchronized long append(List<LedgerRecord> records) throws IOException {
+        long now = System.currentTimeMillis();
+        for (LedgerRecord record : records) {
+            if (lastSequence + 1 - segmentFirst == segmentRecords) {
+                roll();
+            }
+            record.setSequence(lastSequence + 1);
+            record.setTimestampMillis(now);
+            encode(segment, slot(record.getSequence()), record, crc);
+            lastSequence = record.getSequence();
+        }
+        if (syncPolicy == LedgerSyncPolicy.EVERY_WRITE) {
+            segment.force();
+        } else {
+            dirty = true;
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Forces the records appended since the last force to disk, without blocking appends meanwhile.
+     */
+    public void sync() {
+        MappedByteBuffer written;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            written = segment;
+        }
+        written.force();
+    }
+
+    /**
+     * Continues the journal at a later sequence number, leaving the numbers in between unused.
+     * <p>
+     * The current segment is forced and closed where it is, and a new segment starts at {@code next}.
+     * </p>
+     *
+     * @param next the sequence number of the next record appended
+     */
+    public synchronized void skipTo(long next) throws IOException {
+        if (next <= lastSequence + 1) {
+            throw new IllegalArgumentException("Sequence " + next + " does not skip past " + lastSequence);
+        }
+        segment.force();
+        channel.close();
+        dirty = false;
+        map(next);
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment.force();
+        channel.close();
+    }
+
+    /**
+     * Reads every record of the journal in a directory, in sequence order, up to the first invalid slot
+     * of each segment.
+     * <p>
+     * Only the last segment and the segments followed by skipped sequence numbers end before they are full.
+     * </p>
+     *
+     * @param directory the journal directory
+     * @param consumer receives each record
+     * @return the number of records read
+     */
+    public static long read(Path directory, Consumer<LedgerRecord> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        for (Map.Entry<Long, Path> entry : segments(directory).entrySet()) {
+            try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long expected = entry.getKey();
+                for (int offset = 0; offset + RECORD_BYTES <= buffer.capacity(); offset += RECORD_BYTES, expected++) {
+                    if (!valid(buffer, offset, expected, crc)) {
+                        break;
+                    }
+                    consumer.accept(decode(buffer, offset));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the last valid record of the current segment and zeroes every slot after it.
+     */
+    private void recover() throws IOException {
+        long expected = segmentFirst;
+        int offset = 0;
+        while (offset < segment.capacity() && valid(segment, offset, expected, crc)) {
+            offset += RECORD_BYTES;
+            expected++;
+        }
+        lastSequence = expected - 1;
+        // A crash can leave a torn record, or pages of later records written before earlier ones
+        boolean torn = false;
+        for (int i = offset; i < segment.capacity() && !torn; i += Long.BYTES) {
+            torn = segment.getLong(i) != 0;
+        }
+        if (torn) {
+            for (int i = offset; i < segment.capacity(); i += Long.BYTES) {
+                segment.putLong(i, 0);
+            }
+            segment.force();
+        }
+        if (offset == segment.capacity()) {
+            roll();
+        }
+    }
+
+    /**
+     * Forces and releases the current segment and maps a new one at the next sequence number.
+     */
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        map(lastSequence + 1);
+    }
+
+    private void map(long first) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, first, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_BYTES);
+        segmentFirst = first;
+        lastSequence = first - 1;
+        // Make the new file itself survive a crash
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Directories cannot be opened for sync on every platform
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence - segmentFirst) * RECORD_BYTES;
+    }
+
+    private static void encode(ByteBuffer buffer, int offset, LedgerRecord record, CRC32C crc) {
+        buffer.put(offset + 4, record.getType().code());
+        buffer.put(offset + 5, record.getSplitType() == null ? NO_SPLIT_TYPE : (byte) record.getSplitType().ordinal());
+        buffer.putShort(offset + 6, (short) 0);
+        buffer.putLong(offset + 8, record.getSequence());
+        buffer.putLong(offset + 16, record.getTimestampMillis());
+        buffer.putLong(offset + 24, record.getExpenseId());
+        buffer.putLong(offset + 32, record.getUserId());
+        long cents = record.getType() == LedgerRecordType.EXPENSE ? record.getTotalCents()
+                : record.getAmountCents() == null ? ABSENT : record.getAmountCents();
+        buffer.putLong(offset + 40, cents);
+        buffer.putLong(offset + 48, record.getPercentageHundredths() == null ? ABSENT : record.getPercentageHundredths());
+        buffer.putLong(offset + 56, 0);
+        buffer.putInt(offset, checksum(buffer, offset, crc));
+    }
+
+    private static LedgerRecord decode(ByteBuffer buffer, int offset) {
+        LedgerRecordType type = LedgerRecordType.ofCode(buffer.get(offset + 4));
+        byte splitType = buffer.get(offset + 5);
+        long cents = buffer.getLong(offset + 40);
+        long percentage = buffer.getLong(offset + 48);
+        boolean expense = type == LedgerRecordType.EXPENSE;
+        return new LedgerRecord(type, buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24), buffer.getLong(offset + 32),
+                splitType == NO_SPLIT_TYPE ? null : SPLIT_TYPES[splitType],
+                expense ? cents : 0,
+                percentage == ABSENT ? null : percentage,
+                expense || cents == ABSENT ? null : cents);
+    }
+
+    /**
+     * Returns whether a slot holds an intact record with the expected sequence number.
+     */
+    private static boolean valid(ByteBuffer buffer, int offset, long expectedSequence, CRC32C crc) {
+        byte type = buffer.get(offset + 4);
+        byte splitType = buffer.get(offset + 5);
+        return type > 0 && type <= LedgerRecordType.values().length
+                && splitType >= NO_SPLIT_TYPE && splitType < SPLIT_TYPES.length
+                && buffer.getLong(offset + 8) == expectedSequence
+                && buffer.getInt(offset) == checksum(buffer, offset, crc);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, CRC32C crc) {
+        crc.reset();
+        crc.update(buffer.slice(offset + 4, RECORD_BYTES - 4));
+        return (int) crc.getValue();
+    }
+
+    private static NavigableMap<Long, Path> segments(Path directory) throws IOException {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).forEach(file -> {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+            });
+        }
+        return segments;
+    }
+}
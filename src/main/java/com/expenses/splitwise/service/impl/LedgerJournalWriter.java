@@ -0,0 +1,234 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.LedgerRecordType;
+import com.expenses.splitwise.dto.LedgerSyncPolicy;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the committed state changes to the {@link LedgerJournal}, enabled with `splitwise.ledger.enabled=true`.
+ * <p>
+ * This component:
+ * - Inserts the records of every {@link LedgerEvent} into 'ledger_outbox' in the transaction that published it,
+ *   so they commit or roll back with the change and no commit waits for another
+ * - Appends the committed rows of its journal every `splitwise.ledger.poll-interval-ms`, up to
+ *   `splitwise.ledger.batch-size` at a time, in id order; it numbers them in the outbox first, then appends them
+ * - Deletes the rows once the journal holding them is forced: after each append under EVERY_WRITE, after each
+ *   force every `splitwise.ledger.sync-interval-ms` under INTERVAL, and right after the append under OS
+ * </p>
+ * Appends run on one scheduler thread, so the journal follows the order in which rows are seen committed, and
+ * records of concurrent changes can interleave. A failed append is logged, counted in
+ * `splitwise.ledger.append.failed` and retried at the same sequence numbers on the next poll. Numbered rows
+ * past the end of the journal, left by a crash before the journal was forced, are appended again at their
+ * numbers; if the journal lost records whose rows were already deleted, the missing numbers are logged,
+ * counted in `splitwise.ledger.gap` and skipped.
+ *
+ * @see com.expenses.splitwise.entity.LedgerOutbox
+ */
+@Component
+@ConditionalOnProperty(name = "splitwise.ledger.enabled", havingValue = "true")
+public class LedgerJournalWriter {
+    /** Logger instance for this class */
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournalWriter.class);
+
+    private static final String INSERT = "INSERT INTO ledger_outbox (journal_id, record_type, expense_id, user_id, "
+            + "split_type, total_cents, percentage_hundredths, amount_cents) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNS = "SELECT id, journal_sequence, record_type, expense_id, user_id, split_type, "
+            + "total_cents, percentage_hundredths, amount_cents FROM ledger_outbox ";
+
+    /** Numbered rows the journal does not hold, in sequence order */
+    private static final String SELECT_NUMBERED = COLUMNS
+            + "WHERE journal_id = ? AND journal_sequence > ? ORDER BY journal_sequence LIMIT ?";
+
+    /** Rows committed since the last poll, in id order */
+    private static final String SELECT_NEW = COLUMNS
+            + "WHERE journal_id = ? AND journal_sequence IS NULL ORDER BY id LIMIT ?";
+
+    private static final String NUMBER = "UPDATE ledger_outbox SET journal_sequence = ? WHERE id = ?";
+
+    private static final String DELETE_DURABLE = "DELETE FROM ledger_outbox WHERE journal_id = ? AND journal_sequence <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Path directory;
+
+    private final int segmentRecords;
+
+    private final LedgerSyncPolicy syncPolicy;
+
+    /** Largest number of rows appended per poll */
+    private final int batchSize;
+
+    private final Counter failed;
+
+    private final Counter gaps;
+
+    private String journalId;
+
+    private LedgerJournal journal;
+
+    /**
+     * Constructs a new LedgerJournalWriter.
+     *
+     * @param meterRegistry registry receiving the failure and gap counters
+     * @param jdbcTemplate template used for the outbox rows
+     * @param directory directory of the journal segments
+     * @param segmentRecords number of records per segment
+     * @param syncPolicy when appended records are forced to disk
+     * @param batchSize largest number of rows appended per poll
+     */
+    public LedgerJournalWriter(MeterRegistry meterRegistry, JdbcTemplate jdbcTemplate,
+                               @Value("${splitwise.ledger.directory:ledger}") Path directory,
+                               @Value("${splitwise.ledger.segment-records:1048576}") int segmentRecords,
+                               @Value("${splitwise.ledger.sync-policy:INTERVAL}") LedgerSyncPolicy syncPolicy,
+                               @Value("${splitwise.ledger.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.syncPolicy = syncPolicy;
+        this.batchSize = batchSize;
+        this.failed = meterRegistry.counter("splitwise.ledger.append.failed");
+        this.gaps = meterRegistry.counter("splitwise.ledger.gap");
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        journalId = IngestionJournal.id(directory);
+        journal = LedgerJournal.open(directory, segmentRecords, syncPolicy);
+        // The recovered journal is on disk; its rows were left by a crash before they were deleted
+        jdbcTemplate.update(DELETE_DURABLE, journalId, journal.lastSequence());
+        logger.info("Ledger journal {} in {} continues after sequence {}", journalId, directory, journal.lastSequence());
+    }
+
+    /**
+     * Adds the records of a change to the outbox, in the transaction of the change when there is one.
+     *
+     * @param event the state changes of one write
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(LedgerEvent event) {
+        List<LedgerRecord> records = event.getRecords();
+        if (records.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, records, records.size(), (ps, record) -> {
+            ps.setString(1, journalId);
+            ps.setString(2, record.getType().name());
+            ps.setLong(3, record.getExpenseId());
+            ps.setLong(4, record.getUserId());
+            ps.setString(5, record.getSplitType() == null ? null : record.getSplitType().name());
+            ps.setLong(6, record.getTotalCents());
+            ps.setObject(7, record.getPercentageHundredths());
+            ps.setObject(8, record.getAmountCents());
+        });
+    }
+
+    /**
+     * Appends one batch of outbox rows to the journal: first the numbered rows it lacks, otherwise the rows
+     * committed since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${splitwise.ledger.poll-interval-ms:100}")
+    public synchronized void drain() {
+        long last = journal.lastSequence();
+        List<Row> rows = jdbcTemplate.query(SELECT_NUMBERED, Row.MAPPER, journalId, last, batchSize);
+        if (rows.isEmpty()) {
+            rows = jdbcTemplate.query(SELECT_NEW, Row.MAPPER, journalId, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            // Numbers are committed before the append, so a crash in between appends the same rows again
+            List<Object[]> numbers = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                numbers.add(new Object[]{last + 1 + i, rows.get(i).id()});
+            }
+            jdbcTemplate.batchUpdate(NUMBER, numbers);
+        } else if (rows.get(0).sequence() > last + 1) {
+            gaps.increment();
+            logger.error("Ledger journal {} in {} lacks the records {} to {}; rebuild them from the database",
+                    journalId, directory, last + 1, rows.get(0).sequence() - 1);
+            try {
+                journal.skipTo(rows.get(0).sequence());
+            } catch (IOException e) {
+                failed.increment();
+                logger.error("Failed to skip ledger journal {} to {}: {}", journalId, rows.get(0).sequence(),
+                        e.getMessage(), e);
+                return;
+            }
+        }
+        if (rows.get(0).sequence() != null) {
+            // Append up to the next missing number; the rows after it are handled on the next poll
+            int contiguous = 1;
+            while (contiguous < rows.size() && rows.get(contiguous).sequence() == rows.get(0).sequence() + contiguous) {
+                contiguous++;
+            }
+            rows = rows.subList(0, contiguous);
+        }
+        append(rows);
+    }
+
+    private void append(List<Row> rows) {
+        List<LedgerRecord> records = rows.stream().map(Row::record).toList();
+        try {
+            journal.append(records);
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            logger.error("Failed to journal ledger records {} to {}, retrying on the next poll: {}",
+                    journal.lastSequence() + 1, journal.lastSequence() + records.size(), e.getMessage(), e);
+            return;
+        }
+        if (syncPolicy != LedgerSyncPolicy.INTERVAL) {
+            jdbcTemplate.update(DELETE_DURABLE, journalId, journal.lastSequence());
+        }
+    }
+
+    /**
+     * Forces the records appended since the last run and deletes their outbox rows, under the INTERVAL
+     * sync policy.
+     */
+    @Scheduled(fixedDelayString = "${splitwise.ledger.sync-interval-ms:1000}")
+    public synchronized void sync() {
+        if (syncPolicy == LedgerSyncPolicy.INTERVAL) {
+            long appended = journal.lastSequence();
+            journal.sync();
+            jdbcTemplate.update(DELETE_DURABLE, journalId, appended);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * One outbox row, numbered or not.
+     */
+    private record Row(long id, Long sequence, LedgerRecord record) {
+
+        static final RowMapper<Row> MAPPER = (rs, rowNum) -> new Row(
+                rs.getLong(1), rs.getObject(2, Long.class),
+                new LedgerRecord(LedgerRecordType.valueOf(rs.getString(3)), 0, 0, rs.getLong(4), rs.getLong(5),
+                        rs.getString(6) == null ? null : SPLIT_TYPE.valueOf(rs.getString(6)), rs.getLong(7),
+                        rs.getObject(8, Long.class), rs.getObject(9, Long.class)));
+    }
+}
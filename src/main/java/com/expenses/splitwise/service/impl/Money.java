@@ -0,0 +1,91 @@
+package com.expenses.splitwise.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Allocation-free money arithmetic on {@code long} amounts in minor units (cents).
+ * <p>
+ * Share calculations and aggregations run on cents and only convert to {@link BigDecimal}
+ * at the DTO boundary. Rounding matches the previous two-decimal {@link RoundingMode#HALF_UP}
+ * BigDecimal results exactly:
+ * - Divisions round half away from zero
+ * - Percentages are carried in hundredths of a percent (the column scale)
+ * - Equal splits hand the remainder cents out one by one so the parts sum to the total
+ * </p>
+ * All multiplications are overflow-checked.
+ */
+public final class Money {
+
+    /** Hundredths of a percent in 100% */
+    private static final long FULL_PERCENT = 10_000L;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to cents, rounding half up beyond two decimals.
+     *
+     * @param amount the amount in major units
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to a two-decimal amount.
+     *
+     * @param cents the amount in cents
+     * @return the amount in major units with scale 2
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Divides and rounds half away from zero, like {@link RoundingMode#HALF_UP}.
+     *
+     * @param dividend the dividend
+     * @param divisor the divisor, must not be zero
+     * @return the rounded quotient
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Calculates a percentage of an amount, rounded half up to whole cents.
+     *
+     * @param cents the amount in cents
+     * @param hundredthsOfPercent the percentage in hundredths of a percent (25.50% is 2550)
+     * @return the share in cents
+     */
+    public static long percentOf(long cents, long hundredthsOfPercent) {
+        return divideHalfUp(Math.multiplyExact(cents, hundredthsOfPercent), FULL_PERCENT);
+    }
+
+    /**
+     * Calculates one part of an equal split whose parts sum exactly to the total.
+     * <p>
+     * Every part gets the floor of {@code total / parts}; the remaining cents go one each
+     * to the parts ranked lowest, so the result is deterministic for a given ranking.
+     * </p>
+     *
+     * @param total the total in cents
+     * @param parts the number of parts, must be positive
+     * @param rank the zero-based rank of the requested part
+     * @return the requested part in cents
+     */
+    public static long equalShare(long total, long parts, long rank) {
+        long base = Math.floorDiv(total, parts);
+        long remainder = total - base * parts;
+        return rank < remainder ? base + 1 : base;
+    }
+}
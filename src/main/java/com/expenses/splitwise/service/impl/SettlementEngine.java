@@ -0,0 +1,138 @@
+package com.expenses.splitwise.service.impl;
+
+/**
+ * In-memory engine computing the settlement transfers of a group on primitive arrays.
+ * <p>
+ * Members are identified by their index in the balance array and balances are in cents.
+ * The engine greedily matches the largest creditor with the largest debtor, both kept in
+ * binary max-heaps over member indexes, until every balance is zero:
+ * - Every transfer zeroes at least one member, so there are at most n - 1 transfers
+ * - Running time is O(n log n) with no per-member object allocation
+ * </p>
+ * Finding the absolute minimum number of transfers is NP-hard; the greedy match is the
+ * usual practical bound.
+ */
+public final class SettlementEngine {
+
+    private SettlementEngine() {
+    }
+
+    /**
+     * Transfers produced by {@link #settle(long[])}, stored as parallel arrays.
+     * Transfer {@code i} moves {@code amounts[i]} cents from member {@code from[i]} to member {@code to[i]}.
+     */
+    public static final class Transfers {
+        /** Paying member index per transfer */
+        public final int[] from;
+
+        /** Receiving member index per transfer */
+        public final int[] to;
+
+        /** Amount in cents per transfer */
+        public final long[] amounts;
+
+        /** Number of valid entries in the arrays */
+        public final int count;
+
+        Transfers(int[] from, int[] to, long[] amounts, int count) {
+            this.from = from;
+            this.to = to;
+            this.amounts = amounts;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Computes transfers that bring every balance to zero.
+     *
+     * @param balances net balance per member in cents, positive when the member is owed money
+     * @return the transfers settling all balances
+     * @throws IllegalArgumentException if the balances do not sum to zero
+     */
+    public static Transfers settle(long[] balances) {
+        int n = balances.length;
+        long[] remaining = new long[n];
+        int[] creditors = new int[n];
+        int[] debtors = new int[n];
+        int creditorCount = 0;
+        int debtorCount = 0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            long balance = balances[i];
+            sum = Math.addExact(sum, balance);
+            if (balance > 0) {
+                remaining[i] = balance;
+                creditors[creditorCount++] = i;
+            } else if (balance < 0) {
+                remaining[i] = Math.negateExact(balance);
+                debtors[debtorCount++] = i;
+            }
+        }
+        if (sum != 0) {
+            throw new IllegalArgumentException("Balances must sum to zero but sum to " + sum + " cents");
+        }
+        heapify(creditors, creditorCount, remaining);
+        heapify(debtors, debtorCount, remaining);
+
+        int capacity = Math.max(0, creditorCount + debtorCount - 1);
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        long[] amounts = new long[capacity];
+        int count = 0;
+        while (creditorCount > 0 && debtorCount > 0) {
+            int creditor = creditors[0];
+            int debtor = debtors[0];
+            long amount = Math.min(remaining[creditor], remaining[debtor]);
+            from[count] = debtor;
+            to[count] = creditor;
+            amounts[count] = amount;
+            count++;
+
+            remaining[creditor] -= amount;
+            remaining[debtor] -= amount;
+            if (remaining[creditor] == 0) {
+                creditors[0] = creditors[--creditorCount];
+            }
+            siftDown(creditors, 0, creditorCount, remaining);
+            if (remaining[debtor] == 0) {
+                debtors[0] = debtors[--debtorCount];
+            }
+            siftDown(debtors, 0, debtorCount, remaining);
+        }
+        return new Transfers(from, to, amounts, count);
+    }
+
+    /**
+     * Arranges the first {@code size} member indexes into a max-heap keyed by {@code keys}.
+     */
+    private static void heapify(int[] heap, int size, long[] keys) {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, i, size, keys);
+        }
+    }
+
+    /**
+     * Moves the member at {@code index} down until both children have smaller keys.
+     */
+    private static void siftDown(int[] heap, int index, int size, long[] keys) {
+        if (size == 0) {
+            return;
+        }
+        int member = heap[index];
+        long key = keys[member];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] > keys[heap[child]]) {
+                child = right;
+            }
+            if (keys[heap[child]] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = member;
+    }
+}
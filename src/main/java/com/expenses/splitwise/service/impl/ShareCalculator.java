@@ -0,0 +1,125 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.dto.UserShareRow;
+
+import java.math.BigDecimal;
+
+/**
+ * In-memory share engine working on pre-fetched {@link UserShareRow} projections.
+ * <p>
+ * All database access happens before this class is used, so computing the shares of
+ * any number of expenses costs no additional queries. Amounts are {@code long} cents
+ * (see {@link Money}) and the rules are:
+ * - EQUAL: total amount divided by the participant count, remainder cents going to the
+ *   participants first by name so the shares sum to the total; rows read without a participant
+ *   count carry the amount materialized by {@link EqualShareMaterializer} instead
+ * - PERCENTAGE: stored percentage of the total amount, rounded half up
+ * - MANUAL: stored amount
+ * - The creator is credited what others owe, every other participant is debited
+ * </p>
+ */
+public final class ShareCalculator {
+
+    private ShareCalculator() {
+    }
+
+    /**
+     * Calculates the unsigned share of the row's participant.
+     *
+     * @param row the pre-fetched expense and share data
+     * @return the participant's part of the expense in cents
+     */
+    public static long shareCents(UserShareRow row) {
+        return switch (row.getSplitType()) {
+            case EQUAL -> equalShareCents(row);
+            case PERCENTAGE -> Money.percentOf(row.getTotalCents(),
+                    row.getPercentageHundredths() != null ? row.getPercentageHundredths() : 0L);
+            case MANUAL -> row.getAmountCents() != null ? row.getAmountCents() : 0L;
+        };
+    }
+
+    /**
+     * Returns the EQUAL share of the row's participant, derived from the participant count when the
+     * row carries one and read from the materialized amount otherwise.
+     *
+     * @throws IllegalStateException if the row has neither, i.e. the expense was never materialized
+     */
+    private static long equalShareCents(UserShareRow row) {
+        if (row.getParticipantCount() != null && row.getParticipantCount() > 0) {
+            return Money.equalShare(row.getTotalCents(), row.getParticipantCount(), row.getParticipantRank());
+        }
+        if (row.getAmountCents() == null) {
+            throw new IllegalStateException("EQUAL shares of expense " + row.getExpenseName() + " are not materialized");
+        }
+        return row.getAmountCents();
+    }
+
+    /**
+     * Calculates the signed share of the row's participant.
+     *
+     * @param row the pre-fetched expense and share data
+     * @return cents owed to the creator when positive, cents owed by a participant when negative
+     */
+    public static long signedShareCents(UserShareRow row) {
+        long share = shareCents(row);
+        if (row.getCreatedById().equals(row.getUserId())) {
+            // Creator is credited what others owe
+            return row.getTotalCents() - share;
+        }
+        // Others owe the calculated amount
+        return -share;
+    }
+
+    /**
+     * Calculates a participant's signed share from primitive columns, for engines that count
+     * participants themselves instead of reading {@link UserShareRow} projections.
+     *
+     * @param splitType the split type of the expense
+     * @param totalCents the total amount in cents
+     * @param participantCount the number of participants of the expense, must be positive for EQUAL
+     * @param participantRank the zero-based rank of the participant by name
+     * @param percentageHundredths the stored percentage in hundredths, 0 when absent
+     * @param amountCents the stored amount in cents, 0 when absent
+     * @param creator whether the participant created the expense
+     * @return cents owed to the creator when positive, cents owed by a participant when negative
+     */
+    public static long signedShareCents(SPLIT_TYPE splitType, long totalCents, long participantCount, long participantRank,
+                                        long percentageHundredths, long amountCents, boolean creator) {
+        long share = switch (splitType) {
+            case EQUAL -> Money.equalShare(totalCents, participantCount, participantRank);
+            case PERCENTAGE -> Money.percentOf(totalCents, percentageHundredths);
+            case MANUAL -> amountCents;
+        };
+        return creator ? totalCents - share : -share;
+    }
+
+    /**
+     * Calculates the signed share of the row's participant as a two-decimal amount.
+     *
+     * @param row the pre-fetched expense and share data
+     * @return positive amount owed to the creator, negative amount owed by a participant
+     */
+    public static BigDecimal signedShare(UserShareRow row) {
+        return Money.toBigDecimal(signedShareCents(row));
+    }
+
+    /**
+     * Converts a row into the expense share DTO returned by the API.
+     *
+     * @param row the pre-fetched expense and share data
+     * @return the expense share DTO with the signed share
+     */
+    public static ExpenseShareDto toDto(UserShareRow row) {
+        return new ExpenseShareDto(
+                row.getExpenseDate(),
+                row.getGroupName(),
+                row.getExpenseName(),
+                Money.toBigDecimal(row.getTotalCents()),
+                row.getCreatedBy(),
+                row.getSplitType(),
+                signedShare(row)
+        );
+    }
+}
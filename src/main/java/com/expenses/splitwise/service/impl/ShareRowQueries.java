@@ -0,0 +1,150 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.dto.UserShareRow;
+import com.expenses.splitwise.entity.ExpenseUserId;
+import com.expenses.splitwise.repository.ExpenseUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the share-row queries matching how EQUAL shares are stored.
+ * <p>
+ * With `splitwise.shares.materialize-equal=true` every share, whatever the split type, is read from
+ * `expense_share` without counting participants (see {@link EqualShareMaterializer}); otherwise EQUAL
+ * shares are derived from the participant count and rank.
+ * </p>
+ * A user's rows get the count and rank from the query, which joins the participants of that user's
+ * expenses. The rows of an expense or a group already hold every participant of each expense, listed by
+ * expense and user name, so they are ranked in memory instead of joining the participants with each other.
+ * <p>
+ * Right after the mode is enabled, EQUAL expenses written before it have no stored amount until
+ * {@link EqualShareBackfillRunner} reaches them. Their rows are counted and ranked like in the derived mode:
+ * in memory for an expense or a group, with one more query over their participants for a user.
+ * </p>
+ */
+@Component
+public class ShareRowQueries {
+
+    /** Repository for managing expense-user mapping entities */
+    private final ExpenseUserRepository expenseUserRepository;
+
+    /** Whether EQUAL shares are stored in `expense_share` */
+    private final boolean materialized;
+
+    /**
+     * Constructs a new ShareRowQueries.
+     *
+     * @param expenseUserRepository repository for expense-user mapping operations
+     * @param materialized whether EQUAL shares are stored in `expense_share`
+     */
+    public ShareRowQueries(ExpenseUserRepository expenseUserRepository,
+                           @Value("${splitwise.shares.materialize-equal:false}") boolean materialized) {
+        this.expenseUserRepository = expenseUserRepository;
+        this.materialized = materialized;
+    }
+
+    /**
+     * Retrieves one share row per expense the user is mapped to.
+     *
+     * @param userName the name of the user
+     * @return the user's share rows
+     */
+    public List<UserShareRow> byUserName(String userName) {
+        if (!materialized) {
+            return expenseUserRepository.findShareRowsByUserName(userName);
+        }
+        List<UserShareRow> rows = expenseUserRepository.findFlatShareRowsByUserName(userName);
+        rankFromParticipants(rows);
+        return rows;
+    }
+
+    /**
+     * Retrieves one share row per participant of the expense.
+     *
+     * @param expenseId the id of the expense
+     * @return the expense's share rows
+     */
+    public List<UserShareRow> byExpenseId(Long expenseId) {
+        List<UserShareRow> rows = expenseUserRepository.findFlatShareRowsByExpenseId(expenseId);
+        rankByPosition(rows, materialized);
+        return rows;
+    }
+
+    /**
+     * Retrieves one share row per expense-user mapping in the group.
+     *
+     * @param groupName the name of the group
+     * @return the group's share rows
+     */
+    public List<UserShareRow> byGroupName(String groupName) {
+        List<UserShareRow> rows = expenseUserRepository.findFlatShareRowsByGroupName(groupName);
+        rankByPosition(rows, materialized);
+        return rows;
+    }
+
+    /**
+     * Sets the participant count and rank of rows listed by expense and, within an expense, by user name.
+     * <p>
+     * The rank is the position in that order, which the database sorted with the name column's collation,
+     * like the order the shares are materialized in.
+     * </p>
+     *
+     * @param rows every participant of each of their expenses, the rows of an expense next to each other
+     * @param unmaterializedOnly whether to rank only the expenses with an EQUAL share that is not stored
+     */
+    static void rankByPosition(List<UserShareRow> rows, boolean unmaterializedOnly) {
+        int end;
+        for (int first = 0; first < rows.size(); first = end) {
+            Long expenseId = rows.get(first).getExpenseId();
+            boolean rank = !unmaterializedOnly;
+            for (end = first; end < rows.size() && rows.get(end).getExpenseId().equals(expenseId); end++) {
+                rank |= isUnmaterialized(rows.get(end));
+            }
+            if (!rank) {
+                continue;
+            }
+            for (int j = first; j < end; j++) {
+                rows.get(j).setParticipantCount((long) (end - first));
+                rows.get(j).setParticipantRank((long) (j - first));
+            }
+        }
+    }
+
+    /**
+     * Sets the participant count and rank of a user's rows whose EQUAL share is not stored, reading the
+     * participants of those expenses only.
+     *
+     * @param rows the user's rows, one per expense
+     */
+    private void rankFromParticipants(List<UserShareRow> rows) {
+        Map<Long, UserShareRow> pending = new HashMap<>();
+        for (UserShareRow row : rows) {
+            if (isUnmaterialized(row)) {
+                pending.put(row.getExpenseId(), row);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<ExpenseUserId> keys = expenseUserRepository.findKeysByExpenseIdInOrderByUserName(pending.keySet());
+        int end;
+        for (int first = 0; first < keys.size(); first = end) {
+            UserShareRow row = pending.get(keys.get(first).getExpenseId());
+            for (end = first; end < keys.size() && keys.get(end).getExpenseId().equals(row.getExpenseId()); end++) {
+                if (keys.get(end).getUserId().equals(row.getUserId())) {
+                    row.setParticipantRank((long) (end - first));
+                }
+            }
+            row.setParticipantCount((long) (end - first));
+        }
+    }
+
+    private static boolean isUnmaterialized(UserShareRow row) {
+        return row.getSplitType() == SPLIT_TYPE.EQUAL && row.getAmountCents() == null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.service.TableExportInterface;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.*;
+
+/**
+ * Service class streaming whole tables as newline-delimited JSON.
+ * <p>
+ * This service handles:
+ * - Reading rows through a forward-only, read-only JDBC cursor
+ * - Writing each row as one JSON object per line straight to the output stream
+ * </p>
+ * No row outlives its own iteration, so memory stays flat whatever the table size.
+ * On MySQL the driver only streams when the fetch size is {@link Integer#MIN_VALUE};
+ * other databases use the configured fetch size.
+ */
+@Service
+public class TableExportServiceImpl implements TableExportInterface {
+
+    /** Template executing the export queries */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Factory for the streaming JSON writers */
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /** Rows fetched per round trip on databases that honour a positive fetch size */
+    private final int fetchSize;
+
+    /**
+     * Constructs a new TableExportServiceImpl.
+     *
+     * @param jdbcTemplate template executing the export queries
+     * @param fetchSize rows fetched per round trip on non-MySQL databases
+     */
+    public TableExportServiceImpl(JdbcTemplate jdbcTemplate, @Value("${splitwise.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every row of a table to the output stream as NDJSON.
+     *
+     * @param table the table to export
+     * @param out the stream receiving one JSON object per line; not closed by this method
+     * @return the number of exported rows
+     * @throws UncheckedIOException if writing to the stream fails
+     */
+    @Override
+    public long export(ExportTable table, OutputStream out) {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long[] rows = {0};
+            jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(table.getSql(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : fetchSize);
+                return statement;
+            }, rs -> {
+                writeRow(generator, table, rs);
+                rows[0]++;
+            });
+            generator.flush();
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export " + table, e);
+        }
+    }
+
+    /**
+     * Writes the current row as one JSON object followed by a newline.
+     */
+    private static void writeRow(JsonGenerator generator, ExportTable table, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            for (int column = 0; column < table.getFieldCount(); column++) {
+                generator.writeFieldName(table.getField(column));
+                Object value = rs.getObject(column + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Date date) {
+                    generator.writeString(date.toLocalDate().toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isMySql(Connection con) throws SQLException {
+        return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+    }
+}
@@ -0,0 +1,43 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.entity.User;
+import com.expenses.splitwise.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the user names accepted by the API to the numeric ids stored in the join tables.
+ */
+final class UserIds {
+
+    private UserIds() {
+    }
+
+    /**
+     * Looks up the ids of the given users in one query.
+     *
+     * @param userRepository repository used for the lookup
+     * @param userNames the names to resolve; duplicates are ignored
+     * @return the id of every name, in the order the names were given
+     * @throws RuntimeException if any of the users is not found
+     */
+    static Map<String, Long> resolve(UserRepository userRepository, Collection<String> userNames) {
+        Set<String> names = new LinkedHashSet<>(userNames);
+        Map<String, Long> found = userRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(User::getName, User::getId));
+        Map<String, Long> ids = new LinkedHashMap<>();
+        for (String name : names) {
+            Long id = found.get(name);
+            if (id == null) {
+                throw new RuntimeException("User not found: " + name);
+            }
+            ids.put(name, id);
+        }
+        return ids;
+    }
+}
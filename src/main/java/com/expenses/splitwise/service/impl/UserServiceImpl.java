@@ -1,19 +1,20 @@
 package com.expenses.splitwise.service.impl;
 
+import com.expenses.splitwise.config.CacheConfig;
 import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.ExportTable;
 import com.expenses.splitwise.dto.UserDto;
 import com.expenses.splitwise.entity.*;
-import com.expenses.splitwise.repository.ExpenseShareRepository;
-import com.expenses.splitwise.repository.ExpenseUserRepository;
+import com.expenses.splitwise.repository.UserBalanceRepository;
 import com.expenses.splitwise.repository.UserRepository;
+import com.expenses.splitwise.service.DataVersionInterface;
 import com.expenses.splitwise.service.UserInterface;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -32,29 +33,37 @@ public class UserServiceImpl implements UserInterface {
     /** Repository for managing user entities */
     private final UserRepository userRepository;
 
-    /** Repository for managing expense-user mapping entities */
-    private final ExpenseUserRepository expenseUserRepository;
+    /** Queries reading the share rows of users */
+    private final ShareRowQueries shareRowQueries;
 
-    /** Repository for managing expense share entities */
-    private final ExpenseShareRepository expenseShareRepository;
+    /** Repository for managing materialized user balances */
+    private final UserBalanceRepository userBalanceRepository;
+
+    /** Service maintaining the version counters behind the listing ETags */
+    private final DataVersionInterface dataVersionInterface;
 
     /**
      * Constructs a new UserServiceImpl with required repositories.
      *
      * @param userRepository repository for user operations
-     * @param expenseUserRepository repository for expense-user mapping operations
-     * @param expenseShareRepository repository for expense share operations
+     * @param shareRowQueries queries reading the share rows of users
+     * @param userBalanceRepository repository for user balance operations
+     * @param dataVersionInterface service maintaining the version counters behind the listing ETags
      */
-    public UserServiceImpl(UserRepository userRepository, ExpenseUserRepository expenseUserRepository, ExpenseShareRepository expenseShareRepository) {
+    public UserServiceImpl(UserRepository userRepository, ShareRowQueries shareRowQueries,
+                           UserBalanceRepository userBalanceRepository, DataVersionInterface dataVersionInterface) {
         this.userRepository = userRepository;
-        this.expenseUserRepository = expenseUserRepository;
-        this.expenseShareRepository = expenseShareRepository;
+        this.shareRowQueries = shareRowQueries;
+        this.userBalanceRepository = userBalanceRepository;
+        this.dataVersionInterface = dataVersionInterface;
     }
 
     /**
      * Creates a new user from the provided DTO.
      * <p>
-     * Validates the user data and creates a new user entity in the system.
+     * Validates the user data and creates a new user entity in the system,
+     * together with a zero materialized balance, and increments the version of the users listing. Any cached lookup of the name is evicted
+     * once the transaction commits.
      * </p>
      *
      * @param userDto the user data transfer object containing user details
@@ -63,6 +72,7 @@ public class UserServiceImpl implements UserInterface {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, key = "#userDto.name.trim()")
     public UserDto createUser(UserDto userDto) {
         if (userDto == null || userDto.getName() == null || userDto.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("User name cannot be null or empty");
@@ -71,6 +81,8 @@ public class UserServiceImpl implements UserInterface {
         user.setName(userDto.getName().trim());
 
         User savedUser = userRepository.save(user);
+        userBalanceRepository.save(new UserBalance(savedUser.getId(), BigDecimal.ZERO));
+        dataVersionInterface.bumpTables(ExportTable.USERS);
         return convertToDto(savedUser);
     }
 
@@ -88,8 +100,8 @@ public class UserServiceImpl implements UserInterface {
      * Calculates expense shares for a specific user.
      * <p>
      * This method:
-     * 1. Retrieves all expense mappings for the user
-     * 2. Calculates shares based on expense split type (EQUAL, PERCENTAGE, MANUAL)
+     * 1. Retrieves the user's mappings, participant counts and share rows in one query
+     * 2. Calculates shares in memory based on expense split type (EQUAL, PERCENTAGE, MANUAL)
      * 3. Determines transaction direction (credit/debit)
      * 4. Returns a list of expense share DTOs
      * </p>
@@ -99,54 +111,9 @@ public class UserServiceImpl implements UserInterface {
      */
     @Override
     public List<ExpenseShareDto> calculateUserExpenseShares(String userName) {
-        List<ExpenseUser> userMappings = expenseUserRepository.findByUserName(userName);
-
-        return userMappings.stream().map(eu -> {
-            Expense e = eu.getExpense();
-            String expenseName = e.getExpenseName();
-
-            BigDecimal share = BigDecimal.ZERO;
-
-            switch (e.getSplitType()) {
-                case EQUAL -> {
-                    long userCount = expenseUserRepository.countUsersForExpense(expenseName);
-                    BigDecimal perUserShare = e.getTotalAmount().divide(BigDecimal.valueOf(userCount), 2, RoundingMode.HALF_UP);
-                    share = perUserShare;
-                }
-                case PERCENTAGE -> {
-                    Optional<BigDecimal> optionalPercentage = expenseShareRepository.findPercentageByExpenseNameAndUserName(expenseName, userName);
-                    BigDecimal percentage = optionalPercentage.orElse(BigDecimal.ZERO); // or throw a custom exception if needed
-                    share = e.getTotalAmount()
-                            .multiply(percentage)
-                            .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                }
-                case MANUAL -> {
-                    Optional<BigDecimal> amount = expenseShareRepository.findAmountByExpenseNameAndUserName(expenseName, userName);
-                    BigDecimal manualAmount = amount.orElse(BigDecimal.ZERO);
-                    share = manualAmount;
-                }
-            }
-
-            // Determine direction of transaction (credit or debit)
-            if (e.getCreatedBy().getName().equals(userName)) {
-                // Creator is credited what others owe
-                long count = expenseUserRepository.countUsersForExpense(expenseName);
-                share = e.getTotalAmount().subtract(share); // amount owed by others
-            } else {
-                // Others owe the calculated amount
-                share = share.negate();
-            }
-
-            return new ExpenseShareDto(
-                    e.getExpenseDate(),
-                    e.getGroupName(),
-                    e.getExpenseName(),
-                    e.getTotalAmount(),
-                    e.getCreatedBy().getName(),
-                    e.getSplitType(),
-                    share
-            );
-        }).collect(Collectors.toList());
+        return shareRowQueries.byUserName(userName).stream()
+                .map(ShareCalculator::toDto)
+                .collect(Collectors.toList());
     }
 
 }
\ No newline at end of file
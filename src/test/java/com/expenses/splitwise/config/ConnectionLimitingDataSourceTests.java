@@ -0,0 +1,35 @@
+package com.expenses.splitwise.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the acquisition limit fails fast when exhausted and frees permits on close.
+ */
+class ConnectionLimitingDataSourceTests {
+
+    @Test
+    void failsFastWhenLimitReachedAndRecoversAfterClose() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:limit;DB_CLOSE_DELAY=-1");
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(h2, 1, 50);
+
+        Connection first = limited.getConnection();
+        assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        try (Connection second = limited.getConnection()) {
+            assertThat(second.isValid(1)).isTrue();
+        }
+        try (Connection third = limited.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+    }
+}
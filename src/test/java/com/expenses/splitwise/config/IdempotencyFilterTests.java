@@ -0,0 +1,207 @@
+package com.expenses.splitwise.config;
+
+import com.expenses.splitwise.dto.IdempotencyClaim;
+import com.expenses.splitwise.dto.IdempotentResponse;
+import com.expenses.splitwise.service.IdempotencyInterface;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that retries with a known key are replayed without running the request, and that failed
+ * requests and reused keys are handled.
+ */
+class IdempotencyFilterTests {
+
+    private final InMemoryIdempotency idempotency = new InMemoryIdempotency();
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(idempotency, new String[]{"/import"});
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryReplaysTheStoredResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"expenseName\":\"Hotel\"}", 201);
+        MockHttpServletResponse retry = send("key-1", "{\"expenseName\":\"Hotel\"}", 201);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).contains("Hotel");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() throws Exception {
+        send("key-2", "{\"expenseName\":\"Hotel\"}", 201);
+        MockHttpServletResponse reused = send("key-2", "{\"expenseName\":\"Taxi\"}", 201);
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() throws Exception {
+        send("key-3", "{}", 500);
+        MockHttpServletResponse retry = send("key-3", "{}", 201);
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void handledRequestKeepsTheKeyWhenItsResponseCannotBeStored() throws Exception {
+        idempotency.failComplete = true;
+        MockHttpServletResponse first = send("key-4", "{}", 201);
+        idempotency.failComplete = false;
+        MockHttpServletResponse retry = send("key-4", "{}", 201);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void requestWhoseClaimWasTakenOverLeavesTheNewClaim() throws Exception {
+        // Each request outlives its claim: a retry takes the key over before the request ends
+        for (int status : new int[]{201, 500}) {
+            String key = "key-6-" + status;
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/addExpenses");
+            request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+            request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                idempotency.takeOver(key, 42);
+                ((HttpServletResponse) res).setStatus(status);
+            });
+
+            assertThat(idempotency.records.get(key)).as("claim of the retry after a %d", status)
+                    .returns(42L, IdempotentResponse::getRequestHash)
+                    .returns(true, IdempotentResponse::inProgress);
+        }
+    }
+
+    @Test
+    void bodyCanBeReadWithAReadListener() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/addExpenses");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, "key-5");
+        request.setContent("{\"expenseName\":\"Hotel\"}".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    int read;
+                    while (in.isReady() && (read = in.read(buffer)) != -1) {
+                        received.write(buffer, 0, read);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            ((HttpServletResponse) res).setStatus(201);
+        });
+
+        assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo("{\"expenseName\":\"Hotel\"}");
+        assertThat(allDataRead).hasValue(1);
+    }
+
+    private MockHttpServletResponse send(String key, String body, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/addExpenses");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            executions.incrementAndGet();
+            String received = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("text/plain");
+            res.getWriter().write("created " + received);
+        });
+        return response;
+    }
+
+    /**
+     * Map-backed stand-in for the 'idempotency_key' table.
+     */
+    private static final class InMemoryIdempotency implements IdempotencyInterface {
+
+        private final Map<String, IdempotentResponse> records = new HashMap<>();
+
+        /** Token of the current claim of each key, like its 'created_at' column */
+        private final Map<String, Long> tokens = new HashMap<>();
+
+        private long lastToken;
+
+        /** Whether storing a response fails, as when the database is unavailable */
+        private boolean failComplete;
+
+        @Override
+        public IdempotencyClaim claim(String key, long requestHash) {
+            IdempotentResponse existing = records.putIfAbsent(key,
+                    new IdempotentResponse(requestHash, IdempotentResponse.IN_PROGRESS, null, null));
+            if (existing != null) {
+                return IdempotencyClaim.refused(existing);
+            }
+            tokens.put(key, ++lastToken);
+            return IdempotencyClaim.owned(lastToken);
+        }
+
+        /**
+         * Gives the claim of a key to another request, as a retry does after the lock timeout.
+         */
+        void takeOver(String key, long requestHash) {
+            records.put(key, new IdempotentResponse(requestHash, IdempotentResponse.IN_PROGRESS, null, null));
+            tokens.put(key, ++lastToken);
+        }
+
+        @Override
+        public boolean complete(String key, long token, long requestHash, int status, String contentType, byte[] body) {
+            if (failComplete) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            if (!tokens.get(key).equals(token) || !records.get(key).inProgress()) {
+                return false;
+            }
+            records.put(key, new IdempotentResponse(requestHash, status, contentType, body));
+            return true;
+        }
+
+        @Override
+        public void release(String key, long token) {
+            if (tokens.get(key).equals(token) && records.get(key).inProgress()) {
+                records.remove(key);
+                tokens.remove(key);
+            }
+        }
+
+        @Override
+        public int purgeExpired() {
+            return 0;
+        }
+    }
+}
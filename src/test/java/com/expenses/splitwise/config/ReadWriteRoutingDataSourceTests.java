@@ -0,0 +1,60 @@
+package com.expenses.splitwise.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that read-only transactions run on the replica and every other transaction on the primary.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() throws Exception {
+        JdbcDataSource primary = database("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "primary");
+        JdbcDataSource replica = database("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "replica");
+        try (ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(routing);
+            TransactionTemplate writes = new TransactionTemplate(new DataSourceTransactionManager(routing));
+            TransactionTemplate reads = new TransactionTemplate(new DataSourceTransactionManager(routing));
+            reads.setReadOnly(true);
+
+            writes.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO marker (name) VALUES ('written')"));
+
+            assertThat(writes.execute(status -> jdbcTemplate.queryForList("SELECT name FROM marker ORDER BY name", String.class)))
+                    .containsExactly("primary", "written");
+            assertThat(reads.execute(status -> jdbcTemplate.queryForList("SELECT name FROM marker ORDER BY name", String.class)))
+                    .containsExactly("replica");
+            assertThat(new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM marker", Integer.class)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void everythingUsesThePrimaryWithoutReplica() throws Exception {
+        JdbcDataSource primary = database("jdbc:h2:mem:routing-single;DB_CLOSE_DELAY=-1", "primary");
+        try (ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, null)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(routing);
+            TransactionTemplate reads = new TransactionTemplate(new DataSourceTransactionManager(routing));
+            reads.setReadOnly(true);
+
+            assertThat(reads.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class)))
+                    .isEqualTo("primary");
+        }
+    }
+
+    /**
+     * Creates an embedded database holding one marker row naming it.
+     */
+    private static JdbcDataSource database(String url, String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,41 @@
+package com.expenses.splitwise.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the statements of a request are counted under its route and not leaked to the next one.
+ */
+class RequestMetricsFilterTests {
+
+    @Test
+    void recordsStatementsPerRequestByRoute() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestMetricsFilter filter = new RequestMetricsFilter(registry);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:request-metrics")));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/alice/balance");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{userName}/balance");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            jdbcTemplate.batchUpdate("CREATE TABLE IF NOT EXISTS probe (id INT)", "DELETE FROM probe");
+        });
+        jdbcTemplate.queryForObject("SELECT 3", Integer.class);
+
+        DistributionSummary summary = registry.get(RequestMetricsFilter.QUERIES_METRIC)
+                .tag("uri", "/users/{userName}/balance").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        // The query, then the batch as one round trip
+        assertThat(summary.totalAmount()).isEqualTo(2);
+        assertThat(QueryCountingDataSource.current()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.expenses.splitwise.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks which events the sampling filter keeps, for classic and fluent log calls.
+ */
+class SamplingFilterTests {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final SamplingFilter filter = new SamplingFilter();
+
+    @BeforeEach
+    void attach() {
+        filter.setRates("sampling.dropped=0, sampling.dropped.kept=1, sampling.half=0.5");
+        filter.start();
+        appender.setContext(context);
+        appender.addFilter(filter);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+    }
+
+    @Test
+    void dropsInfoOfSampledLoggersOnly() {
+        Logger dropped = context.getLogger("sampling.dropped.child");
+
+        dropped.info("classic");
+        dropped.atInfo().addKeyValue("user", "alice").log("fluent");
+        dropped.warn("warning");
+        dropped.atError().log("error");
+        context.getLogger("sampling.dropped.kept").atInfo().log("more specific rate");
+        context.getLogger("sampling.other").atInfo().log("no rate");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("warning", "error", "more specific rate", "no rate");
+    }
+
+    @Test
+    void samplesEachFluentCallOnce() {
+        Logger half = context.getLogger("sampling.half");
+        int calls = 10_000;
+
+        for (int i = 0; i < calls; i++) {
+            if (half.isInfoEnabled()) {
+                half.atInfo().log("sampled");
+            }
+        }
+
+        // Sampling the enabled check and the call would keep about a quarter of them
+        assertThat(appender.list).hasSizeBetween(calls * 45 / 100, calls * 55 / 100);
+    }
+
+    @Test
+    void rejectsMalformedRates() {
+        assertThatThrownBy(() -> filter.setRates("sampling.dropped")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> filter.setRates("sampling.dropped=2")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
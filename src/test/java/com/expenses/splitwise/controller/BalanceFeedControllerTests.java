@@ -0,0 +1,74 @@
+package com.expenses.splitwise.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that committed balance changes reach the feeds of the affected users and their group.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:balance-feed;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class BalanceFeedControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void committedChangesArePushedToUserAndGroupFeeds() throws Exception {
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"feed-alice\"}"));
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"feed-bob\"}"));
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"feed-carol\"}"));
+        perform(post("/addExpenses").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expenseDate\":\"2025-05-01\",\"groupName\":\"feed-trip\",\"expenseName\":\"feed-dinner\","
+                        + "\"totalAmount\":100.00,\"split_type\":\"PERCENTAGE\",\"createdBy\":\"feed-alice\"}"));
+
+        MockHttpServletResponse bob = subscribe("/users/feed-bob/balance-feed");
+        MockHttpServletResponse carol = subscribe("/users/feed-carol/balance-feed");
+        MockHttpServletResponse trip = subscribe("/groups/feed-trip/balance-feed");
+
+        perform(post("/expenses/feed-dinner/users").param("request", "feed-alice,feed-bob"));
+        perform(post("/feed-dinner").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"userName\":\"feed-alice\",\"percentage\":60},{\"userName\":\"feed-bob\",\"percentage\":40}]"));
+
+        awaitContent(bob, "\"balance\":-40.00");
+        awaitContent(trip, "\"balance\":40.00");
+        assertThat(bob.getContentAsString()).contains("event:balance", "\"expenseName\":\"feed-dinner\"")
+                .doesNotContain("feed-alice");
+        assertThat(trip.getContentAsString()).contains("feed-alice", "feed-bob");
+        assertThat(carol.getContentAsString()).doesNotContain("event:balance");
+    }
+
+    private MockHttpServletResponse subscribe(String path) throws Exception {
+        return mockMvc.perform(get(path).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+
+    /**
+     * Waits for the dispatcher thread to write an expected event to a feed.
+     */
+    private static void awaitContent(MockHttpServletResponse feed, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!feed.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(feed.getContentAsString()).contains(expected);
+    }
+}
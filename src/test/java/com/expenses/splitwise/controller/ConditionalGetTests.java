@@ -0,0 +1,121 @@
+package com.expenses.splitwise.controller;
+
+import com.expenses.splitwise.dto.ExportTable;
+import com.expenses.splitwise.service.DataVersionInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that conditional GETs are answered from the version counters, that writes change the tags and that
+ * table counters are only incremented, and locked, once their write transaction has committed, with the table
+ * untagged until then.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional-get;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(UserControllerStatementCountTests.CountingConfig.class)
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DataVersionInterface dataVersionInterface;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unchangedDataIsNotModifiedAfterOneLookup() throws Exception {
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"etag-alice\"}"));
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"etag-bob\"}"));
+        perform(post("/addExpenses").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expenseDate\":\"2025-06-01\",\"groupName\":\"etag\",\"expenseName\":\"etag-lunch\","
+                        + "\"totalAmount\":30.00,\"split_type\":\"EQUAL\",\"createdBy\":\"etag-alice\"}"));
+        perform(post("/expenses/etag-lunch/users").param("request", "etag-alice"));
+
+        String shares = etag("/users/etag-alice/expense-shares");
+        settledVersion(ExportTable.EXPENSES);
+        String expenses = etag("/getExpensese");
+        StatementCountingDataSource counter = (StatementCountingDataSource) dataSource;
+        counter.reset();
+        mockMvc.perform(get("/users/etag-alice/expense-shares").header(HttpHeaders.IF_NONE_MATCH, shares))
+                .andExpect(status().isNotModified());
+        assertThat(counter.statements()).isEqualTo(1);
+        mockMvc.perform(get("/getExpensese").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + expenses))
+                .andExpect(status().isNotModified());
+
+        // A new participant changes the EQUAL shares of the existing ones, but no expense row
+        perform(post("/expenses/etag-lunch/users").param("request", "etag-bob"));
+        mockMvc.perform(get("/users/etag-alice/expense-shares").header(HttpHeaders.IF_NONE_MATCH, shares))
+                .andExpect(status().isOk());
+        assertThat(etag("/users/etag-alice/expense-shares")).isNotEqualTo(shares);
+        assertThat(etag("/users/etag-bob/expense-shares")).isNotNull();
+        mockMvc.perform(get("/getExpensese").header(HttpHeaders.IF_NONE_MATCH, expenses))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void tableCountersAreIncrementedAfterCommitWithoutLockingTheirRow() throws Exception {
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"etag-carol\"}"));
+        long before = settledVersion(ExportTable.USERS);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            dataVersionInterface.bumpTables(ExportTable.USERS);
+            assertThat(dataVersionInterface.tableVersion(ExportTable.USERS)).isEmpty();
+            // Another writer increments the same counter while this transaction is still open
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "UPDATE data_version SET version = version + 1 WHERE scope = 'users' AND scope_id = 0")).join();
+        });
+        assertThat(settledVersion(ExportTable.USERS)).isEqualTo(before + 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            dataVersionInterface.bumpTables(ExportTable.USERS);
+            status.setRollbackOnly();
+        });
+        assertThat(dataVersionInterface.tableVersion(ExportTable.USERS)).contains(before + 2);
+    }
+
+    private long settledVersion(ExportTable table) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Optional<Long> version = dataVersionInterface.tableVersion(table);
+        while (version.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            version = dataVersionInterface.tableVersion(table);
+        }
+        return version.orElseThrow();
+    }
+
+    private String etag(String path) throws Exception {
+        return mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,83 @@
+package com.expenses.splitwise.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the running totals of a group, the keyset pages of its expense listing and the rejection of
+ * malformed cursors.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:groups;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class GroupControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void totalsAndListingFollowWrites() throws Exception {
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"group-alice\"}"));
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"group-bob\"}"));
+        addExpense("group-trip", "group-hotel", "2025-06-01", "30.00");
+        addExpense("group-trip", "group-dinner", "2025-06-03", "20.00");
+        addExpense("group-trip", "group-taxi", "2025-06-02", "10.00");
+        addExpense("group-home", "group-rent", "2025-06-04", "500.00");
+        perform(post("/expenses/group-hotel/users").param("request", "group-alice,group-bob"));
+
+        mockMvc.perform(get("/groups/group-trip"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expenseCount").value(3))
+                .andExpect(jsonPath("$.memberCount").value(2))
+                .andExpect(jsonPath("$.totalAmount").value(60.00));
+        mockMvc.perform(get("/groups/group-missing")).andExpect(status().isNotFound());
+
+        MvcResult first = mockMvc.perform(get("/groups/group-trip/expenses").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].expenseName").value("group-dinner"))
+                .andExpect(jsonPath("$[1].expenseName").value("group-taxi"))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(UserController.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotNull();
+        MvcResult second = mockMvc.perform(get("/groups/group-trip/expenses").param("limit", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].expenseName").value("group-hotel"))
+                .andReturn();
+        assertThat(second.getResponse().getHeader(UserController.NEXT_CURSOR_HEADER)).isNull();
+
+        for (String malformed : List.of("%%%", encode("2025-06-02"), encode("06/02/2025:1"), encode("2025-06-02:x"))) {
+            mockMvc.perform(get("/groups/group-trip/expenses").param("limit", "2").param("after", malformed))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void addExpense(String group, String name, String date, String amount) throws Exception {
+        perform(post("/addExpenses").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expenseDate\":\"" + date + "\",\"groupName\":\"" + group + "\",\"expenseName\":\"" + name
+                        + "\",\"totalAmount\":" + amount + ",\"split_type\":\"EQUAL\",\"createdBy\":\"group-alice\"}"));
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,183 @@
+package com.expenses.splitwise.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Checks that each listing endpoint reads only the columns it returns, in one statement after its version lookup.
+ * <p>
+ * Every listing is called paged and unpaged over a seeded database while a counting data source
+ * records its statements, rows, column values and value bytes. The seeded tables have no version counters,
+ * so the version lookup reads no row. The test fails when a listing runs more than one statement besides
+ * that lookup, reads more values per row than its response has fields, or returns nested objects.
+ * The measurements are logged, so fetch plans can be compared between builds.
+ * </p>
+ * Each listing is also measured against the entity graph it was served from before projections: the
+ * entities with every association fetched, serialized as they were returned. Its rows, values, value bytes
+ * and response bytes are logged next to the listing's, and the listing may not exceed any of them.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:listing-fetch-plan;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(UserControllerStatementCountTests.CountingConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingFetchPlanTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingFetchPlanTests.class);
+
+    private static final int USERS = 50;
+
+    private static final int EXPENSES = 500;
+
+    /** Fields of each listing's rows, the most column values a row may read */
+    private static final Map<String, Integer> FIELDS = Map.of(
+            "getUsers", 2,
+            "getExpensese", 8,
+            "getExpenseUser", 4,
+            "getExpenseShare", 7);
+
+    /**
+     * Entity graph each listing returned before projections. Associations used to be eager; fetching them
+     * in the same statement reads no more values than the separate selects findAll issued for them.
+     */
+    private static final Map<String, String> ENTITY_GRAPHS = Map.of(
+            "getUsers", "SELECT u FROM User u",
+            "getExpensese", "SELECT e FROM Expense e JOIN FETCH e.createdBy",
+            "getExpenseUser", "SELECT eu FROM ExpenseUser eu JOIN FETCH eu.expense e JOIN FETCH e.createdBy JOIN FETCH eu.user",
+            "getExpenseShare", "SELECT es FROM ExpenseShare es JOIN FETCH es.expense e JOIN FETCH e.createdBy JOIN FETCH es.user");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void listingsReadOnlyTheColumnsTheyReturn() throws Exception {
+        StatementCountingDataSource counter = (StatementCountingDataSource) dataSource;
+        SoftAssertions softly = new SoftAssertions();
+        for (Map.Entry<String, Integer> listing : FIELDS.entrySet()) {
+            for (String limit : new String[]{"50", null}) {
+                String name = listing.getKey() + (limit != null ? "?limit=" + limit : "");
+                counter.reset();
+                MvcResult result = mockMvc.perform(limit != null ? get("/" + listing.getKey()).param("limit", limit)
+                        : get("/" + listing.getKey())).andReturn();
+                byte[] body = result.getResponse().getContentAsByteArray();
+                logger.info("{}: {} statements, {} rows, {} values, {} value bytes, {} response bytes", name,
+                        counter.statements(), counter.rows(), counter.values(), counter.valueBytes(), body.length);
+
+                JsonNode rows = objectMapper.readTree(body);
+                softly.assertThat(result.getResponse().getStatus()).as("status of %s", name).isEqualTo(200);
+                softly.assertThat(counter.statements()).as("statements of %s", name).isEqualTo(2);
+                softly.assertThat(counter.rows()).as("rows of %s", name).isEqualTo(rows.size());
+                softly.assertThat(counter.values()).as("values of %s", name)
+                        .isLessThanOrEqualTo(counter.rows() * listing.getValue());
+                for (JsonNode row : rows) {
+                    row.forEach(field -> softly.assertThat(field.isContainerNode()).as("nested field in %s", name).isFalse());
+                }
+            }
+        }
+        softly.assertAll();
+    }
+
+    @Test
+    void listingsReadNoMoreThanTheirFormerEntityGraphs() throws Exception {
+        StatementCountingDataSource counter = (StatementCountingDataSource) dataSource;
+        SoftAssertions softly = new SoftAssertions();
+        for (Map.Entry<String, String> listing : ENTITY_GRAPHS.entrySet()) {
+            String name = listing.getKey();
+            counter.reset();
+            byte[] entityBody = new TransactionTemplate(transactionManager).execute(status -> {
+                try {
+                    return objectMapper.writeValueAsBytes(entityManager.createQuery(listing.getValue()).getResultList());
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long[] entityGraph = {counter.rows(), counter.values(), counter.valueBytes(), entityBody.length};
+
+            counter.reset();
+            byte[] body = mockMvc.perform(get("/" + name)).andReturn().getResponse().getContentAsByteArray();
+            // The listing's version lookup reads no row, so only the listing query is counted
+            long[] projection = {counter.rows(), counter.values(), counter.valueBytes(), body.length};
+            logger.info("{}: entity graph {} rows, {} values, {} value bytes, {} response bytes; "
+                            + "projection {} rows, {} values, {} value bytes, {} response bytes", name,
+                    entityGraph[0], entityGraph[1], entityGraph[2], entityGraph[3],
+                    projection[0], projection[1], projection[2], projection[3]);
+
+            softly.assertThat(projection[0]).as("rows of %s", name).isEqualTo(entityGraph[0]);
+            softly.assertThat(projection[1]).as("values of %s", name).isLessThanOrEqualTo(entityGraph[1]);
+            softly.assertThat(projection[2]).as("value bytes of %s", name).isLessThanOrEqualTo(entityGraph[2]);
+            softly.assertThat(projection[3]).as("response bytes of %s", name).isLessThanOrEqualTo(entityGraph[3]);
+        }
+        softly.assertAll();
+    }
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[]{"listing-user-" + u});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name) VALUES (?)", users);
+
+        Date date = Date.valueOf(LocalDate.of(2025, 4, 1));
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> mappings = new ArrayList<>();
+        List<Object[]> shares = new ArrayList<>();
+        for (int e = 0; e < EXPENSES; e++) {
+            String expenseName = "listing-expense-" + e;
+            expenses.add(new Object[]{date, "listing", expenseName, new BigDecimal("90.00"), "PERCENTAGE", "listing-user-" + e % USERS});
+            for (int p = 0; p < 3; p++) {
+                String member = "listing-user-" + (e + p) % USERS;
+                mappings.add(new Object[]{expenseName, member});
+                shares.add(new Object[]{new BigDecimal(p == 0 ? "50.00" : "25.00"), expenseName, member});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, split_type, created_by_id) " +
+                "SELECT ?, ?, ?, ?, ?, id FROM users WHERE name = ?", expenses);
+        jdbcTemplate.batchUpdate("INSERT INTO expense_user (expense_id, user_id) " +
+                "SELECT e.id, u.id FROM expenses e, users u WHERE e.expense_name = ? AND u.name = ?", mappings);
+        jdbcTemplate.batchUpdate("INSERT INTO expense_share (id, expense_id, user_id, percentage) " +
+                "SELECT NEXT VALUE FOR expense_share_seq, e.id, u.id, ? FROM expenses e, users u " +
+                "WHERE e.expense_name = ? AND u.name = ?", shares);
+    }
+}
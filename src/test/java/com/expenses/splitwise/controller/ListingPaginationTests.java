@@ -0,0 +1,120 @@
+package com.expenses.splitwise.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that keyset pages cover every row exactly once, that malformed cursors are rejected and that the
+ * NDJSON export returns every row.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:pagination;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingPaginationTests {
+
+    private static final int EXPENSES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void seed() throws Exception {
+        for (String user : List.of("page-alice", "page-bob", "page-carol")) {
+            mockMvc.perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"" + user + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+        for (int i = 0; i < EXPENSES; i++) {
+            mockMvc.perform(post("/addExpenses").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"expenseDate\":\"2025-06-01\",\"groupName\":\"page\",\"expenseName\":\"page-" + i
+                                    + "\",\"totalAmount\":30.00,\"split_type\":\"EQUAL\",\"createdBy\":\"page-alice\"}"))
+                    .andExpect(status().is2xxSuccessful());
+            mockMvc.perform(post("/expenses/page-" + i + "/users").param("request", "page-alice,page-bob,page-carol"))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    @Test
+    void keysetPagesCoverEveryRowOnce() throws Exception {
+        List<JsonNode> expenses = pages("/getExpensese", 2);
+        assertThat(expenses).extracting(expense -> expense.get("expenseName").asText())
+                .containsExactly("page-0", "page-1", "page-2", "page-3", "page-4");
+
+        List<JsonNode> mappings = pages("/getExpenseUser", 4);
+        assertThat(mappings).hasSize(EXPENSES * 3);
+        for (int i = 1; i < mappings.size(); i++) {
+            JsonNode previous = mappings.get(i - 1);
+            JsonNode current = mappings.get(i);
+            int order = Long.compare(previous.get("expenseId").asLong(), current.get("expenseId").asLong());
+            assertThat(order != 0 ? order : Long.compare(previous.get("userId").asLong(), current.get("userId").asLong()))
+                    .as("mapping %d follows mapping %d", i, i - 1).isNegative();
+        }
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() throws Exception {
+        for (String cursor : List.of("%%%", encode("no-separator"), encode("1:x"), encode(":"))) {
+            mockMvc.perform(get("/getExpenseUser").param("limit", "2").param("after", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/getExpensese").param("limit", "2").param("after", "x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStreamsEveryRow() throws Exception {
+        MvcResult started = mockMvc.perform(get("/export/expense-users")).andExpect(request().asyncStarted()).andReturn();
+        started.getAsyncResult(10_000);
+        List<String> lines = started.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(EXPENSES * 3)
+                .allSatisfy(line -> assertThat(objectMapper.readTree(line).has("userId")).isTrue());
+
+        mockMvc.perform(get("/export/unknown")).andExpect(status().isNotFound());
+    }
+
+    /**
+     * Follows the next-page cursor from the first page until a page comes without one.
+     */
+    private List<JsonNode> pages(String path, int limit) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult result = mockMvc.perform(cursor == null
+                            ? get(path).param("limit", String.valueOf(limit))
+                            : get(path).param("limit", String.valueOf(limit)).param("after", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertThat(page.size()).isLessThanOrEqualTo(limit);
+            page.forEach(rows::add);
+            cursor = result.getResponse().getHeader(UserController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return rows;
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,150 @@
+package com.expenses.splitwise.controller;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test data source counting the statements executed and the rows and column values read through it.
+ * <p>
+ * Counts every JDBC call, so statements issued through `JdbcTemplate` are included as well as
+ * Hibernate's. A JDBC batch counts as one statement, matching a single round trip. Value bytes
+ * estimate what the driver transfers: the UTF-8 length of strings, the length of binary values,
+ * the unscaled size of decimals and 8 bytes for any other non-null value.
+ * </p>
+ */
+class StatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    /** Statements executed since the last reset */
+    private final AtomicLong statements = new AtomicLong();
+
+    /** Result set rows read since the last reset */
+    private final AtomicLong rows = new AtomicLong();
+
+    /** Column values read since the last reset */
+    private final AtomicLong values = new AtomicLong();
+
+    /** Estimated bytes of the column values read since the last reset */
+    private final AtomicLong valueBytes = new AtomicLong();
+
+    StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    void reset() {
+        statements.set(0);
+        rows.set(0);
+        values.set(0);
+        valueBytes.set(0);
+    }
+
+    long statements() {
+        return statements.get();
+    }
+
+    long rows() {
+        return rows.get();
+    }
+
+    long values() {
+        return values.get();
+    }
+
+    long valueBytes() {
+        return valueBytes.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, super.getConnection(), this::onConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, super.getConnection(username, password), this::onConnection);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object onConnection(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        if (result instanceof Statement statement) {
+            Class<? extends Statement> type = (Class<? extends Statement>) method.getReturnType();
+            return wrap(type, statement, this::onStatement);
+        }
+        return result;
+    }
+
+    private Object onStatement(Object statement, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute")) {
+            statements.incrementAndGet();
+        }
+        Object result = invoke(statement, method, args);
+        if (result instanceof ResultSet resultSet
+                && (method.getName().equals("executeQuery") || method.getName().equals("getResultSet"))) {
+            return wrap(ResultSet.class, resultSet, this::onResultSet);
+        }
+        return result;
+    }
+
+    private Object onResultSet(Object resultSet, Method method, Object[] args) throws Throwable {
+        Object result = invoke(resultSet, method, args);
+        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+            rows.incrementAndGet();
+        } else if (method.getName().startsWith("get") && args != null && args.length > 0) {
+            // Column getters are the only getters taking arguments
+            values.incrementAndGet();
+            valueBytes.addAndGet(size(result));
+        }
+        return result;
+    }
+
+    private static long size(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String string) {
+            return string.getBytes(StandardCharsets.UTF_8).length;
+        } else if (value instanceof byte[] bytes) {
+            return bytes.length;
+        } else if (value instanceof BigDecimal decimal) {
+            return decimal.unscaledValue().bitLength() / 8 + 1;
+        }
+        return Long.BYTES;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, invocationHandler));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
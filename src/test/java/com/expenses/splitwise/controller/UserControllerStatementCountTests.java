@@ -0,0 +1,236 @@
+package com.expenses.splitwise.controller;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Guards every {@link UserController} endpoint against N+1 regressions.
+ * <p>
+ * The database is grown from 1 to 10,000 background expenses. At each size a fresh set of probe
+ * users and expenses is created and every endpoint is called once while a counting data source
+ * records the JDBC statements and rows of the request. The test fails when:
+ * - An endpoint runs more statements than its budget
+ * - A bounded endpoint reads more rows than its budget
+ * - An endpoint runs more statements at a larger size than at the smallest one
+ * </p>
+ * Full-table endpoints (unpaged listings, export, reconciliation) read every row by design, so only
+ * their statement count is bounded.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-count;DB_CLOSE_DELAY=-1",
+        "spring.mvc.async.request-timeout=60s"})
+@AutoConfigureMockMvc
+class UserControllerStatementCountTests {
+
+    /** Background data sizes, in expenses */
+    private static final int[] SIZES = {1, 100, 10_000};
+
+    /** Users the background expenses are spread over */
+    private static final int BULK_USERS = 100;
+
+    /** Statement budget of a request that writes */
+    private static final int WRITE_STATEMENTS = 25;
+
+    /** Statement budget of a request that only reads */
+    private static final int READ_STATEMENTS = 5;
+
+    /** Row budget of a bounded request */
+    private static final int BOUNDED_ROWS = 60;
+
+    /** Marks a full-table endpoint whose rows are not bounded */
+    private static final int ALL_ROWS = -1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TestConfiguration
+    static class CountingConfig {
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && !(bean instanceof StatementCountingDataSource)
+                            ? new StatementCountingDataSource(target) : bean;
+                }
+            };
+        }
+    }
+
+    @Test
+    void statementsPerRequestAreBoundedAndDoNotGrowWithData() throws Exception {
+        StatementCountingDataSource counter = (StatementCountingDataSource) dataSource;
+        List<Probe> probes = probes();
+        seedBulkUsers();
+
+        // Warm caches, sequences and lazily created rows so the first measured size is not special
+        run(probes, 0, counter);
+
+        Map<String, long[]> statements = new LinkedHashMap<>();
+        int seeded = 0;
+        SoftAssertions softly = new SoftAssertions();
+        for (int s = 0; s < SIZES.length; s++) {
+            seedBulkExpenses(seeded, SIZES[s]);
+            seeded = SIZES[s];
+            Map<String, long[]> counts = run(probes, SIZES[s], counter);
+            for (Probe probe : probes) {
+                long[] count = counts.get(probe.name());
+                statements.computeIfAbsent(probe.name(), name -> new long[SIZES.length])[s] = count[0];
+                softly.assertThat(count[0]).as("statements of %s at %d expenses", probe.name(), SIZES[s])
+                        .isLessThanOrEqualTo(probe.maxStatements());
+                if (probe.maxRows() != ALL_ROWS) {
+                    softly.assertThat(count[1]).as("rows of %s at %d expenses", probe.name(), SIZES[s])
+                            .isLessThanOrEqualTo(probe.maxRows());
+                }
+            }
+        }
+        statements.forEach((name, counts) -> {
+            for (int s = 1; s < SIZES.length; s++) {
+                softly.assertThat(counts[s]).as("statements of %s at %d vs %d expenses", name, SIZES[s], SIZES[0])
+                        .isLessThanOrEqualTo(counts[0]);
+            }
+        });
+        softly.assertAll();
+    }
+
+    /**
+     * Every endpoint, in an order where each write prepares the data of the following requests.
+     */
+    private static List<Probe> probes() {
+        List<Probe> probes = new ArrayList<>();
+        probes.add(new Probe("addUsers", WRITE_STATEMENTS, BOUNDED_ROWS, run -> post("/addUsers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"alice-" + run + "\"}")));
+        probes.add(new Probe("addExpenses", WRITE_STATEMENTS, BOUNDED_ROWS, run -> post("/addExpenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expenseDate\":\"2025-05-01\",\"groupName\":\"probe-" + run + "\",\"expenseName\":\"dinner-" + run
+                        + "\",\"totalAmount\":100.00,\"split_type\":\"PERCENTAGE\",\"createdBy\":\"alice-" + run + "\"}")));
+        probes.add(new Probe("expenses/{expenseName}/users", WRITE_STATEMENTS, BOUNDED_ROWS, run -> post("/expenses/dinner-" + run + "/users")
+                .param("request", "alice-" + run + ",bob-" + run)));
+        probes.add(new Probe("{expenseName}", WRITE_STATEMENTS, BOUNDED_ROWS, run -> post("/dinner-" + run)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"userName\":\"alice-" + run + "\",\"percentage\":60},{\"userName\":\"bob-" + run + "\",\"percentage\":40}]")));
+        probes.add(new Probe("import", WRITE_STATEMENTS, BOUNDED_ROWS, run -> post("/import")
+                .param("importId", "import-" + run)
+                .contentType("application/x-ndjson")
+                .content("{\"type\":\"EXPENSE\",\"expenseName\":\"taxi-" + run + "\",\"expenseDate\":\"2025-05-02\",\"groupName\":\"probe-" + run
+                        + "\",\"totalAmount\":30.00,\"splitType\":\"EQUAL\",\"createdBy\":\"bob-" + run + "\"}\n"
+                        + "{\"type\":\"PARTICIPANT\",\"expenseName\":\"taxi-" + run + "\",\"userName\":\"alice-" + run + "\"}\n"
+                        + "{\"type\":\"PARTICIPANT\",\"expenseName\":\"taxi-" + run + "\",\"userName\":\"bob-" + run + "\"}\n")));
+        probes.add(new Probe("users/{userName}/expense-shares", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/users/alice-" + run + "/expense-shares")));
+        probes.add(new Probe("users/{userName}/balance", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/users/alice-" + run + "/balance")));
+        probes.add(new Probe("groups/{groupName}/settlements", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/groups/probe-" + run + "/settlements")));
+        probes.add(new Probe("groups/{groupName}", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/groups/bulk")));
+        probes.add(new Probe("groups/{groupName}/expenses", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/groups/bulk/expenses")
+                .param("limit", "50")));
+        for (String listing : List.of("getUsers", "getExpensese", "getExpenseUser", "getExpenseShare")) {
+            probes.add(new Probe(listing + "?limit", READ_STATEMENTS, BOUNDED_ROWS, run -> get("/" + listing).param("limit", "50")));
+            probes.add(new Probe(listing, READ_STATEMENTS, ALL_ROWS, run -> get("/" + listing)));
+        }
+        probes.add(new Probe("balances/reconciliation", READ_STATEMENTS, ALL_ROWS, run -> get("/balances/reconciliation")));
+        probes.add(new Probe("export/{table}", READ_STATEMENTS, ALL_ROWS, run -> get("/export/expense-users")));
+        return probes;
+    }
+
+    /**
+     * Creates the second probe user of the run, then calls every endpoint once.
+     *
+     * @return statements and rows per probe
+     */
+    private Map<String, long[]> run(List<Probe> probes, int run, StatementCountingDataSource counter) throws Exception {
+        perform(post("/addUsers").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"bob-" + run + "\"}"));
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        for (Probe probe : probes) {
+            counter.reset();
+            perform(probe.request().apply(run));
+            counts.put(probe.name(), new long[]{counter.statements(), counter.rows()});
+        }
+        return counts;
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        if (status >= 300) {
+            throw new AssertionError(result.getRequest().getRequestURI() + " returned " + status + ": "
+                    + result.getResponse().getContentAsString());
+        }
+    }
+
+    private void seedBulkUsers() {
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 0; u < BULK_USERS; u++) {
+            users.add(new Object[]{"bulk-user-" + u});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name) VALUES (?)", users);
+        jdbcTemplate.update("INSERT INTO expense_groups (name, expense_count, member_count, total_amount) VALUES ('bulk', 0, 0, 0)");
+    }
+
+    /**
+     * Adds background expenses {@code from} to {@code to} to the "bulk" group, each with three participants and
+     * percentage shares.
+     */
+    private void seedBulkExpenses(int from, int to) {
+        Date date = Date.valueOf(LocalDate.of(2025, 4, 1));
+        BigDecimal[] percentages = {new BigDecimal("50.00"), new BigDecimal("30.00"), new BigDecimal("20.00")};
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> mappings = new ArrayList<>();
+        List<Object[]> shares = new ArrayList<>();
+        for (int e = from; e < to; e++) {
+            String expenseName = "bulk-expense-" + e;
+            expenses.add(new Object[]{date, expenseName, new BigDecimal("90.00"), "PERCENTAGE", "bulk", "bulk-user-" + e % BULK_USERS});
+            for (int p = 0; p < 3; p++) {
+                String member = "bulk-user-" + (e + p) % BULK_USERS;
+                mappings.add(new Object[]{expenseName, member});
+                shares.add(new Object[]{percentages[p], expenseName, member});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, split_type, created_by_id, group_id) " +
+                "SELECT ?, g.name, ?, ?, ?, u.id, g.id FROM users u, expense_groups g WHERE g.name = ? AND u.name = ?", expenses);
+        jdbcTemplate.batchUpdate("INSERT INTO expense_user (expense_id, user_id) " +
+                "SELECT e.id, u.id FROM expenses e, users u WHERE e.expense_name = ? AND u.name = ?", mappings);
+        jdbcTemplate.batchUpdate("INSERT INTO expense_share (id, expense_id, user_id, percentage) " +
+                "SELECT NEXT VALUE FOR expense_share_seq, e.id, u.id, ? FROM expenses e, users u " +
+                "WHERE e.expense_name = ? AND u.name = ?", shares);
+    }
+
+    /**
+     * One endpoint call with its budgets; the request is built from the run number so names stay unique.
+     */
+    private record Probe(String name, int maxStatements, int maxRows, IntFunction<RequestBuilder> request) {
+    }
+}
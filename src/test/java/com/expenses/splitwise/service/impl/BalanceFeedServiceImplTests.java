@@ -0,0 +1,152 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.BalanceChangeEvent;
+import com.expenses.splitwise.dto.BalanceDeltaDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a subscriber falling behind gets a single resync event, and that a write blocked past the
+ * write timeout closes its feed without holding up the others. Emitters record their events instead of
+ * writing them, and block their writes until released, as a client that stopped reading would.
+ */
+class BalanceFeedServiceImplTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Emitters handed out by the service, in subscription order */
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private BalanceFeedServiceImpl service;
+
+    @AfterEach
+    void close() {
+        emitters.forEach(emitter -> emitter.release.countDown());
+        service.close();
+    }
+
+    @Test
+    void fullBufferIsReplacedByOneResyncEvent() throws Exception {
+        service = service(2, 60_000);
+        RecordingEmitter alice = subscribe("alice", true);
+
+        publish("alice", 1);
+        assertThat(alice.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Two changes fill the buffer while the first write is blocked; the third overflows it
+        for (int i = 2; i <= 5; i++) {
+            publish("alice", i);
+        }
+        alice.release.countDown();
+
+        alice.await(2);
+        assertThat(alice.events).containsExactly("balance", "resync");
+        assertThat(meterRegistry.counter("splitwise.feed.resyncs").count()).isEqualTo(1);
+
+        publish("alice", 6);
+        alice.await(3);
+        assertThat(alice.events).containsExactly("balance", "resync", "balance");
+    }
+
+    @Test
+    void stalledWriteClosesItsFeedAndFreesTheDispatcher() throws Exception {
+        service = service(64, 50);
+        RecordingEmitter stalled = subscribe("alice", true);
+        RecordingEmitter bob = subscribe("bob", false);
+
+        publish("alice", 1);
+        assertThat(stalled.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        service.closeStalledFeeds();
+
+        // The only dispatcher is still blocked; bob's change goes through the thread added in its place
+        publish("bob", 2);
+        bob.await(1);
+        publish("alice", 3);
+        assertThat(meterRegistry.counter("splitwise.feed.stalled-writes").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("splitwise.feed.subscribers").gauge().value()).isEqualTo(1);
+
+        stalled.release.countDown();
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.events).containsExactly("balance");
+    }
+
+    private BalanceFeedServiceImpl service(int bufferSize, long writeTimeoutMillis) {
+        return new BalanceFeedServiceImpl(meterRegistry, 100, bufferSize, 1, writeTimeoutMillis) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(String userName, boolean blocking) {
+        assertThat(service.subscribeUser(userName)).isPresent();
+        RecordingEmitter emitter = emitters.get(emitters.size() - 1);
+        if (!blocking) {
+            emitter.release.countDown();
+        }
+        return emitter;
+    }
+
+    private void publish(String userName, int change) {
+        service.publish(new BalanceChangeEvent("trip", List.of(new BalanceDeltaDto(userName, "trip", "dinner-" + change,
+                BigDecimal.ONE, BigDecimal.valueOf(change)))));
+    }
+
+    /**
+     * Emitter recording the name of every event written, whose writes wait until it is released.
+     */
+    private final class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch writing = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter() {
+            emitters.add(this);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            String event = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .reduce("", String::concat);
+            event.lines().filter(line -> line.startsWith("event:"))
+                    .forEach(line -> events.add(line.substring("event:".length())));
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed.countDown();
+        }
+
+        void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+    }
+}
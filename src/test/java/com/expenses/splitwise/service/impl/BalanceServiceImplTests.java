@@ -0,0 +1,89 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.BalanceDriftDto;
+import com.expenses.splitwise.dto.ExpenseDto;
+import com.expenses.splitwise.dto.ExpenseSharePercentage;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.dto.UserDto;
+import com.expenses.splitwise.service.BalanceInterface;
+import com.expenses.splitwise.service.ExpenseInterface;
+import com.expenses.splitwise.service.ExpenseShareInterface;
+import com.expenses.splitwise.service.ExpenseUserInterface;
+import com.expenses.splitwise.service.UserInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the materialized balances after each kind of write and the drift reported by the reconciliation.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:balances;DB_CLOSE_DELAY=-1")
+class BalanceServiceImplTests {
+
+    @Autowired
+    private UserInterface userInterface;
+
+    @Autowired
+    private ExpenseInterface expenseInterface;
+
+    @Autowired
+    private ExpenseUserInterface expenseUserInterface;
+
+    @Autowired
+    private ExpenseShareInterface expenseShareInterface;
+
+    @Autowired
+    private BalanceInterface balanceInterface;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void balancesFollowWritesAndDriftIsReported() {
+        for (String name : List.of("balance-alice", "balance-bob", "balance-carol")) {
+            userInterface.createUser(new UserDto(name));
+        }
+
+        expenseInterface.createExpense(new ExpenseDto(LocalDate.of(2025, 6, 1), "balance-trip", "balance-dinner",
+                new BigDecimal("90.00"), SPLIT_TYPE.EQUAL, "balance-alice"));
+        assertBalances("0.00", "0.00", "0.00");
+
+        expenseUserInterface.createExpenseUserMapping("balance-dinner",
+                List.of("balance-alice", "balance-bob", "balance-carol"));
+        assertBalances("60.00", "-30.00", "-30.00");
+
+        // Until its shares are added, a PERCENTAGE expense credits its creator the whole amount
+        expenseInterface.createExpense(new ExpenseDto(LocalDate.of(2025, 6, 2), "balance-trip", "balance-taxi",
+                new BigDecimal("50.00"), SPLIT_TYPE.PERCENTAGE, "balance-bob"));
+        expenseUserInterface.createExpenseUserMapping("balance-taxi", List.of("balance-bob", "balance-carol"));
+        assertBalances("60.00", "20.00", "-30.00");
+
+        expenseShareInterface.addShares("balance-taxi", List.of(
+                new ExpenseSharePercentage("balance-bob", new BigDecimal("40.00"), null),
+                new ExpenseSharePercentage("balance-carol", new BigDecimal("60.00"), null)));
+        assertBalances("60.00", "0.00", "-60.00");
+        assertThat(balanceInterface.reconcile()).isEmpty();
+
+        jdbcTemplate.update("UPDATE user_balance SET balance = balance + 5 "
+                + "WHERE user_id = (SELECT id FROM users WHERE name = 'balance-carol')");
+        List<BalanceDriftDto> drifts = balanceInterface.reconcile();
+        assertThat(drifts).singleElement().satisfies(drift -> {
+            assertThat(drift.getUserName()).isEqualTo("balance-carol");
+            assertThat(drift.getExpectedBalance()).isEqualByComparingTo("-60.00");
+            assertThat(drift.getActualBalance()).isEqualByComparingTo("-55.00");
+        });
+    }
+
+    private void assertBalances(String alice, String bob, String carol) {
+        assertThat(balanceInterface.getBalance("balance-alice").getBalance()).isEqualByComparingTo(alice);
+        assertThat(balanceInterface.getBalance("balance-bob").getBalance()).isEqualByComparingTo(bob);
+        assertThat(balanceInterface.getBalance("balance-carol").getBalance()).isEqualByComparingTo(carol);
+    }
+}
@@ -0,0 +1,158 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ImportFormat;
+import com.expenses.splitwise.dto.ImportReportDto;
+import com.expenses.splitwise.dto.ImportRowError;
+import com.expenses.splitwise.dto.UserDto;
+import com.expenses.splitwise.entity.ImportCheckpoint;
+import com.expenses.splitwise.repository.ImportCheckpointRepository;
+import com.expenses.splitwise.service.BulkImportInterface;
+import com.expenses.splitwise.service.UserInterface;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the per-row error report of an import, the rejection of malformed CSV and NDJSON rows and the
+ * restart of an import after a failed chunk. Chunks hold two rows so every file spans several of them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imports;DB_CLOSE_DELAY=-1",
+        "splitwise.import.chunk-size=2"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkImportServiceImplTests {
+
+    private static final String CSV_HEADER =
+            "type,expenseName,expenseDate,groupName,totalAmount,splitType,createdBy,userName,percentage,amount";
+
+    @Autowired
+    private BulkImportInterface bulkImportInterface;
+
+    @Autowired
+    private ImportCheckpointRepository importCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    void seed(@Autowired UserInterface userInterface) {
+        userInterface.createUser(new UserDto("import-alice"));
+        userInterface.createUser(new UserDto("import-bob"));
+    }
+
+    @Test
+    void rejectedRowsAreReportedWithTheirLine() {
+        ImportReportDto report = importRows("report", ImportFormat.NDJSON,
+                "{\"type\":\"EXPENSE\",\"expenseName\":\"import-lunch\",\"expenseDate\":\"2025-06-01\",\"groupName\":\"import-office\","
+                        + "\"totalAmount\":30.00,\"splitType\":\"EQUAL\",\"createdBy\":\"import-alice\"}",
+                "{\"type\":\"EXPENSE\",\"expenseName\":\"import-ghost\",\"expenseDate\":\"2025-06-01\",\"groupName\":\"import-office\","
+                        + "\"totalAmount\":10.00,\"splitType\":\"EQUAL\",\"createdBy\":\"import-nobody\"}",
+                "{\"type\":\"PARTICIPANT\",\"expenseName\":\"import-missing\",\"userName\":\"import-bob\"}",
+                "{\"type\":\"SHARE\",\"expenseName\":\"import-lunch\",\"userName\":\"import-bob\"}",
+                "{\"type\":\"EXPENSE\",\"expenseName\":",
+                "{\"expenseName\":\"import-lunch\",\"userName\":\"import-bob\"}",
+                "{\"type\":\"PARTICIPANT\",\"expenseName\":\"import-lunch\",\"userName\":\"import-bob\"}",
+                "");
+
+        assertThat(report.getRowsImported()).isEqualTo(2);
+        assertThat(report.getRowsFailed()).isEqualTo(5);
+        assertThat(report.isErrorsTruncated()).isFalse();
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(report.getErrors()).extracting(ImportRowError::getMessage).satisfiesExactly(
+                message -> assertThat(message).isEqualTo("User not found: import-nobody"),
+                message -> assertThat(message).isEqualTo("Expense not found: import-missing"),
+                message -> assertThat(message).isEqualTo("Share rows need a percentage or an amount"),
+                message -> assertThat(message).startsWith("Malformed row: "),
+                message -> assertThat(message).isEqualTo("Missing type"));
+        assertThat(participants("import-lunch")).containsExactly("import-bob");
+    }
+
+    @Test
+    void malformedCsvRowsAreRejected() {
+        ImportReportDto report = importRows("csv", ImportFormat.CSV,
+                CSV_HEADER,
+                "EXPENSE,import-bad-date,01/06/2025,import-csv,10.00,EQUAL,import-alice,,,",
+                "EXPENSE,import-bad-amount,2025-06-01,import-csv,ten,EQUAL,import-alice,,,",
+                "EXPENSE,import-bad-split,2025-06-01,import-csv,10.00,HALVES,import-alice,,,",
+                "EXPENSE,import-csv-ok,2025-06-01,import-csv,10.00,EQUAL,import-alice,,,");
+
+        assertThat(report.getRowsImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine).containsExactly(2L, 3L, 4L);
+        assertThat(report.getErrors()).allSatisfy(error -> assertThat(error.getMessage()).startsWith("Malformed row: "));
+        assertThat(expenseCount("import-bad-%")).isZero();
+        assertThat(expenseCount("import-csv-ok")).isEqualTo(1);
+    }
+
+    @Test
+    void failedImportResumesAfterTheLastCommittedChunk() throws Exception {
+        String dinner = "EXPENSE,import-dinner,2025-06-01,import-trip,90.00,EQUAL,import-alice,,,";
+        String dinnerParticipant = "PARTICIPANT,import-dinner,,,,,,import-bob,,";
+        String hotelParticipant = "PARTICIPANT,import-hotel,,,,,,import-bob,,";
+        // The amount does not fit the total_amount column, so the second chunk fails in the database
+        String overflowingHotel = "EXPENSE,import-hotel,2025-06-02,import-trip,123456789012.00,EQUAL,import-alice,,,";
+        String hotel = "EXPENSE,import-hotel,2025-06-02,import-trip,300.00,EQUAL,import-alice,,,";
+
+        mockMvc.perform(post("/import").param("importId", "restart").contentType("text/csv")
+                        .content(lines(CSV_HEADER, dinner, dinnerParticipant, overflowingHotel, hotelParticipant)))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.importId").value("restart"));
+
+        ImportCheckpoint failed = importCheckpointRepository.findById("restart").orElseThrow();
+        assertThat(failed.getCommittedLine()).isEqualTo(3);
+        assertThat(failed.getRowsImported()).isEqualTo(2);
+        assertThat(failed.isCompleted()).isFalse();
+        assertThat(expenseCount("import-hotel")).isZero();
+
+        mockMvc.perform(post("/import").param("importId", "restart").contentType("text/csv")
+                        .content(lines(CSV_HEADER, dinner, dinnerParticipant, hotel, hotelParticipant)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsSkipped").value(2))
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsFailed").value(0));
+
+        ImportCheckpoint completed = importCheckpointRepository.findById("restart").orElseThrow();
+        assertThat(completed.getCommittedLine()).isEqualTo(5);
+        assertThat(completed.getRowsImported()).isEqualTo(4);
+        assertThat(completed.isCompleted()).isTrue();
+        assertThat(expenseCount("import-dinner")).isEqualTo(1);
+        assertThat(expenseCount("import-hotel")).isEqualTo(1);
+        assertThat(participants("import-hotel")).containsExactly("import-bob");
+    }
+
+    private ImportReportDto importRows(String importId, ImportFormat format, String... lines) {
+        return bulkImportInterface.importRows(importId, format,
+                new ByteArrayInputStream(lines(lines).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private int expenseCount(String namePattern) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE expense_name LIKE ?", Integer.class, namePattern);
+    }
+
+    private List<String> participants(String expenseName) {
+        return jdbcTemplate.queryForList("SELECT u.name FROM expense_user eu JOIN users u ON u.id = eu.user_id "
+                + "JOIN expenses e ON e.id = eu.expense_id WHERE e.expense_name = ? ORDER BY u.name", String.class, expenseName);
+    }
+}
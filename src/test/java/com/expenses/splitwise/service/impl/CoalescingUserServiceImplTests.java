@@ -0,0 +1,92 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.LedgerEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingUserServiceImplTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** Computes one share per call, blocking until released */
+    private final UserServiceImpl delegate = new UserServiceImpl(null, null, null, null) {
+        @Override
+        public List<ExpenseShareDto> calculateUserExpenseShares(String userName) {
+            computations.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ArrayList<>(List.of(new ExpenseShareDto()));
+        }
+    };
+
+    private final CoalescingUserServiceImpl service = new CoalescingUserServiceImpl(delegate, meterRegistry, 100);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        Future<List<ExpenseShareDto>> first = callers.submit(() -> service.calculateUserExpenseShares("alice"));
+        await(() -> computations.get() == 1);
+        Future<List<ExpenseShareDto>> second = callers.submit(() -> service.calculateUserExpenseShares("alice"));
+        await(() -> joined("alice") == 1);
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(computations).hasValue(1);
+        service.calculateUserExpenseShares("alice");
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void writesInvalidateComputationsInFlight() throws Exception {
+        Future<List<ExpenseShareDto>> first = callers.submit(() -> service.calculateUserExpenseShares("alice"));
+        await(() -> computations.get() == 1);
+        service.onWrite(new LedgerEvent(List.of()));
+        Future<List<ExpenseShareDto>> second = callers.submit(() -> service.calculateUserExpenseShares("alice"));
+        await(() -> computations.get() == 2);
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isNotSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(meterRegistry.find("splitwise.coalescing.joined").counter()).isNull();
+    }
+
+    private double joined(String user) {
+        Counter counter = meterRegistry.find("splitwise.coalescing.joined").tag("user", user).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
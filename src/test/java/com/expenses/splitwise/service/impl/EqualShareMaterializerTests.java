@@ -0,0 +1,152 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.dto.UserShareRow;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.entity.ExpenseUser;
+import com.expenses.splitwise.entity.Group;
+import com.expenses.splitwise.entity.User;
+import com.expenses.splitwise.repository.ExpenseShareRepository;
+import com.expenses.splitwise.repository.ExpenseUserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class EqualShareMaterializerTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManager jpaEntityManager;
+
+    @Autowired
+    private ExpenseUserRepository expenseUserRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    @Test
+    void materializedSharesMatchDerivedSharesAndFollowParticipantChanges() {
+        EqualShareMaterializer materializer =
+                new EqualShareMaterializer(expenseUserRepository, expenseShareRepository, jpaEntityManager, true);
+        User manish = entityManager.persist(new User(null, "manish"));
+        User keerthi = entityManager.persist(new User(null, "keerthi"));
+        User nikki = entityManager.persist(new User(null, "nikki"));
+        Group goa = entityManager.persist(new Group(null, "Trip to Goa", 1, 3, new BigDecimal("100.00")));
+        Expense expense = entityManager.persist(new Expense(null, LocalDate.of(2025, 5, 1), "Trip to Goa", "dinner",
+                new BigDecimal("100.00"), SPLIT_TYPE.EQUAL, manish, goa));
+        for (User participant : new User[]{manish, keerthi, nikki}) {
+            entityManager.persist(new ExpenseUser(expense.getId(), participant.getId(), null, null));
+        }
+        entityManager.flush();
+
+        materializer.materialize(expense.getId());
+        entityManager.flush();
+
+        // 100.00 / 3: the extra cent goes to "keerthi", first by name
+        assertThat(amounts(expense.getId())).containsExactlyInAnyOrderEntriesOf(Map.of(
+                keerthi.getId(), new BigDecimal("33.34"),
+                manish.getId(), new BigDecimal("33.33"),
+                nikki.getId(), new BigDecimal("33.33")));
+        Map<Long, Long> derived = signedShares(new ShareRowQueries(expenseUserRepository, false));
+        Map<Long, Long> materialized = signedShares(new ShareRowQueries(expenseUserRepository, true));
+        assertThat(materialized).isEqualTo(derived);
+        // The rows of one expense are ranked in memory, in the same order
+        assertThat(new ShareRowQueries(expenseUserRepository, false).byExpenseId(expense.getId()).stream()
+                .collect(Collectors.toMap(UserShareRow::getUserId, ShareCalculator::signedShareCents))).isEqualTo(derived);
+
+        User amit = entityManager.persist(new User(null, "amit"));
+        entityManager.persist(new ExpenseUser(expense.getId(), amit.getId(), null, null));
+        entityManager.flush();
+        materializer.materialize(expense.getId());
+        entityManager.flush();
+
+        assertThat(amounts(expense.getId())).hasSize(4).allSatisfy((userId, amount) ->
+                assertThat(amount).isEqualByComparingTo("25.00"));
+    }
+
+    @Test
+    void sharesNotMaterializedYetAreDerivedFromTheParticipants() {
+        User manish = entityManager.persist(new User(null, "manish"));
+        User keerthi = entityManager.persist(new User(null, "keerthi"));
+        User nikki = entityManager.persist(new User(null, "nikki"));
+        Group goa = entityManager.persist(new Group(null, "Trip to Goa", 1, 3, new BigDecimal("100.00")));
+        Expense expense = entityManager.persist(new Expense(null, LocalDate.of(2025, 5, 1), "Trip to Goa", "dinner",
+                new BigDecimal("100.00"), SPLIT_TYPE.EQUAL, manish, goa));
+        for (User participant : new User[]{manish, keerthi, nikki}) {
+            entityManager.persist(new ExpenseUser(expense.getId(), participant.getId(), null, null));
+        }
+        entityManager.flush();
+
+        // Written before the mode was enabled: no share rows until the backfill reaches the expense
+        ShareRowQueries derivedQueries = new ShareRowQueries(expenseUserRepository, false);
+        ShareRowQueries materializedQueries = new ShareRowQueries(expenseUserRepository, true);
+        Map<Long, Long> derived = signedShares(derivedQueries);
+        assertThat(signedShares(materializedQueries)).isEqualTo(derived);
+        assertThat(materializedQueries.byExpenseId(expense.getId()).stream()
+                .collect(Collectors.toMap(UserShareRow::getUserId, ShareCalculator::signedShareCents))).isEqualTo(derived);
+        for (User participant : new User[]{manish, keerthi, nikki}) {
+            assertThat(materializedQueries.byUserName(participant.getName()))
+                    .singleElement()
+                    .extracting(ShareCalculator::signedShareCents)
+                    .isEqualTo(derived.get(participant.getId()));
+        }
+    }
+
+    @Test
+    void onlyTheExactEqualSplitCountsAsMaterialized() {
+        EqualShareMaterializer materializer =
+                new EqualShareMaterializer(expenseUserRepository, expenseShareRepository, jpaEntityManager, true);
+        User manish = entityManager.persist(new User(null, "manish"));
+        User keerthi = entityManager.persist(new User(null, "keerthi"));
+        Expense expense = entityManager.persist(new Expense(null, LocalDate.of(2025, 5, 1), "Trip to Goa", "taxi",
+                new BigDecimal("10.01"), SPLIT_TYPE.EQUAL, manish, null));
+        // Participants in user name order; "keerthi" gets the extra cent
+        List<Long> participants = List.of(keerthi.getId(), manish.getId());
+
+        assertThat(materializer.isMaterialized(expense, participants, List.of(
+                share(expense, keerthi, null, "5.01"), share(expense, manish, null, "5.00")))).isTrue();
+        assertThat(materializer.isMaterialized(expense, participants, List.of())).isFalse();
+        assertThat(materializer.isMaterialized(expense, participants, List.of(
+                share(expense, keerthi, null, "5.00"), share(expense, manish, null, "5.01")))).isFalse();
+        assertThat(materializer.isMaterialized(expense, participants, List.of(
+                share(expense, keerthi, new BigDecimal("50.00"), "5.01"), share(expense, manish, null, "5.00")))).isFalse();
+        assertThat(materializer.isMaterialized(expense, participants, List.of(
+                share(expense, keerthi, null, null), share(expense, manish, null, "5.00")))).isFalse();
+        assertThat(materializer.isMaterialized(expense, List.of(keerthi.getId()), List.of(
+                share(expense, keerthi, null, "10.01"), share(expense, manish, null, "0.00")))).isFalse();
+        assertThat(materializer.isMaterialized(expense, List.of(), List.of())).isTrue();
+    }
+
+    private static ExpenseShare share(Expense expense, User user, BigDecimal percentage, String amount) {
+        ExpenseShare share = new ExpenseShare();
+        share.setExpenseId(expense.getId());
+        share.setUserId(user.getId());
+        share.setPercentage(percentage);
+        share.setAmount(amount == null ? null : new BigDecimal(amount));
+        return share;
+    }
+
+    private Map<Long, BigDecimal> amounts(Long expenseId) {
+        return expenseShareRepository.findByExpenseId(expenseId).stream()
+                .collect(Collectors.toMap(ExpenseShare::getUserId, ExpenseShare::getAmount));
+    }
+
+    private Map<Long, Long> signedShares(ShareRowQueries queries) {
+        return queries.byGroupName("Trip to Goa").stream()
+                .collect(Collectors.toMap(UserShareRow::getUserId, ShareCalculator::signedShareCents));
+    }
+}
@@ -0,0 +1,78 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupBalanceEngineTests {
+
+    @Test
+    void balancesFollowTheShareRulesAcrossGroups() {
+        GroupLedger ledger = new GroupLedger();
+        ledger.addUser(1, "a");
+        ledger.addUser(2, "b");
+        ledger.addUser(3, "c");
+        ledger.addExpense(10, "g1", 1000, SPLIT_TYPE.EQUAL, 1);
+        ledger.addExpense(11, "g2", 2000, SPLIT_TYPE.PERCENTAGE, 2);
+        ledger.addExpense(12, "g1", 900, SPLIT_TYPE.MANUAL, 3);
+        ledger.addParticipant(10, 3);
+        ledger.addParticipant(10, 1);
+        ledger.addParticipant(10, 2);
+        ledger.addParticipant(11, 2);
+        ledger.addParticipant(11, 1);
+        ledger.addParticipant(12, 2);
+        ledger.addParticipant(12, 3);
+        ledger.addShare(11, 2, 7500, 0);
+        ledger.addShare(11, 1, 2500, 0);
+        ledger.addShare(12, 3, 0, 500);
+        ledger.addShare(12, 2, 0, 400);
+
+        BalanceSnapshot snapshot = GroupBalanceEngine.compute(ledger, ForkJoinPool.commonPool());
+
+        // EQUAL remainder cent goes to "a", first by name
+        assertThat(balances(snapshot)).containsExactly(666 - 500, -333 + 500 - 400, -333 + 400);
+        assertThat(snapshot.groupCount()).isEqualTo(2);
+    }
+
+    @Test
+    void parallelComputationMatchesSequential() {
+        int users = 500;
+        Random random = new Random(7);
+        GroupLedger ledger = new GroupLedger();
+        for (int u = 0; u < users; u++) {
+            ledger.addUser(u, "user-" + u);
+        }
+        int expenses = 4 * GroupBalanceEngine.SEQUENTIAL_EXPENSES * 10;
+        for (int e = 0; e < expenses; e++) {
+            int first = random.nextInt(users - 3);
+            ledger.addExpense(e, "group-" + random.nextInt(100), random.nextInt(1, 100_000), SPLIT_TYPE.EQUAL, first);
+            for (int p = 0; p < 3; p++) {
+                ledger.addParticipant(e, first + p);
+            }
+        }
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            long[] sequential = balances(GroupBalanceEngine.compute(ledger, single));
+            assertThat(balances(GroupBalanceEngine.compute(ledger, parallel))).isEqualTo(sequential);
+            assertThat(Arrays.stream(sequential).sum()).isZero();
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private static long[] balances(BalanceSnapshot snapshot) {
+        long[] balances = new long[snapshot.userCount()];
+        for (int user = 0; user < balances.length; user++) {
+            balances[user] = snapshot.balanceCents(user);
+        }
+        return balances;
+    }
+}
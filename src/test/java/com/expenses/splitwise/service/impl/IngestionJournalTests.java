@@ -0,0 +1,56 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestionJournalTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversAcknowledgedWritesAndDropsTornTail() throws Exception {
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1024, objectMapper, 0, command -> { })) {
+            for (int i = 0; i < 50; i++) {
+                long sequence = journal.append(IngestionCommand.participants("expense-" + i, List.of("a", "b")), command -> { });
+                journal.sync(sequence);
+            }
+        }
+        assertThat(segments()).hasSizeGreaterThan(1);
+        // A crash in the middle of an unacknowledged append
+        Files.writeString(segments().get(segments().size() - 1), "{\"sequence\":51,\"type\":\"PART",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<IngestionCommand> recovered = new ArrayList<>();
+        try (IngestionJournal journal = IngestionJournal.open(directory, 1024, objectMapper, 0, recovered::add)) {
+            assertThat(recovered).extracting(IngestionCommand::getSequence)
+                    .containsExactlyElementsOf(Stream.iterate(1L, s -> s + 1).limit(50).toList());
+            assertThat(recovered.get(49).getExpenseName()).isEqualTo("expense-49");
+            assertThat(journal.append(IngestionCommand.participants("next", List.of("a")), command -> { })).isEqualTo(51);
+
+            journal.compact(() -> 51);
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.IngestionCommand;
+import com.expenses.splitwise.service.ExpenseUserInterface;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that failed groups fall back to one write per transaction, retrying transient failures and
+ * skipping invalid writes, that acknowledged writes are replayed after a restart, and that instances
+ * sharing the database keep separate checkpoints.
+ */
+class IngestionServiceImplTests {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTables() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ingestion-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ingestion_checkpoint (journal_id VARCHAR(36) NOT NULL, partition_id INT NOT NULL, "
+                + "applied_sequence BIGINT NOT NULL, PRIMARY KEY (journal_id, partition_id))");
+        jdbcTemplate.execute("CREATE TABLE applied (id BIGINT AUTO_INCREMENT PRIMARY KEY, expense_name VARCHAR(100))");
+    }
+
+    @Test
+    void retriesTransientFailuresAndSkipsInvalidWrites() throws Exception {
+        AtomicInteger lockFailures = new AtomicInteger();
+        IngestionServiceImpl service = service((expenseName, userNames) -> {
+            if (expenseName.equals("locked") && lockFailures.getAndIncrement() == 0) {
+                throw new PessimisticLockingFailureException("Lock wait timeout exceeded");
+            }
+            if (expenseName.equals("invalid")) {
+                throw new RuntimeException("User not found");
+            }
+            record(expenseName);
+        });
+        service.start();
+        try {
+            for (String expenseName : List.of("first", "locked", "invalid", "last")) {
+                service.submit(IngestionCommand.participants(expenseName, List.of("alice")));
+            }
+            assertThat(service.awaitDrained(30_000)).isTrue();
+        } finally {
+            service.stop();
+        }
+
+        assertThat(applied()).containsExactly("first", "locked", "last");
+        assertThat(lockFailures.get()).isPositive();
+        assertThat(meterRegistry.counter("splitwise.ingest.failed").count()).isEqualTo(1);
+        assertThat(appliedSequence()).isEqualTo(4);
+    }
+
+    @Test
+    void replaysAcknowledgedWritesAfterRestart() throws Exception {
+        IngestionServiceImpl unavailable = service((expenseName, userNames) -> {
+            throw new CannotAcquireLockException("Database unavailable");
+        });
+        unavailable.start();
+        for (String expenseName : List.of("first", "second", "third")) {
+            unavailable.submit(IngestionCommand.participants(expenseName, List.of("alice")));
+        }
+        unavailable.stop();
+        assertThat(applied()).isEmpty();
+
+        IngestionServiceImpl restarted = service((expenseName, userNames) -> record(expenseName));
+        restarted.start();
+        try {
+            assertThat(restarted.awaitDrained(30_000)).isTrue();
+        } finally {
+            restarted.stop();
+        }
+
+        assertThat(applied()).containsExactly("first", "second", "third");
+        assertThat(meterRegistry.counter("splitwise.ingest.failed").count()).isZero();
+        assertThat(appliedSequence()).isEqualTo(3);
+    }
+
+    @Test
+    void instancesKeepSeparateCheckpoints() throws Exception {
+        IngestionServiceImpl first = service(directory.resolve("first"), (expenseName, userNames) -> record(expenseName));
+        first.start();
+        try {
+            for (String expenseName : List.of("first-1", "first-2", "first-3")) {
+                first.submit(IngestionCommand.participants(expenseName, List.of("alice")));
+            }
+            assertThat(first.awaitDrained(30_000)).isTrue();
+        } finally {
+            first.stop();
+        }
+
+        // The second journal numbers its writes from 1 again; the first journal's checkpoint must not cover them
+        IngestionServiceImpl second = service(directory.resolve("second"), (expenseName, userNames) -> record(expenseName));
+        second.start();
+        try {
+            assertThat(second.submit(IngestionCommand.participants("second-1", List.of("alice"))))
+                    .hasValueSatisfying(ack -> assertThat(ack.getSequence()).isEqualTo(1));
+            assertThat(second.awaitDrained(30_000)).isTrue();
+        } finally {
+            second.stop();
+        }
+
+        assertThat(applied()).containsExactly("first-1", "first-2", "first-3", "second-1");
+        assertThat(jdbcTemplate.queryForList("SELECT applied_sequence FROM ingestion_checkpoint ORDER BY applied_sequence",
+                Long.class)).containsExactly(1L, 3L);
+    }
+
+    private IngestionServiceImpl service(ExpenseUserInterface expenseUserInterface) {
+        return service(directory, expenseUserInterface);
+    }
+
+    /**
+     * Creates a service with one partition, journaling in the given directory, whose participant writes go to
+     * the given writer.
+     */
+    private IngestionServiceImpl service(Path journalDirectory, ExpenseUserInterface expenseUserInterface) {
+        return new IngestionServiceImpl(null, expenseUserInterface, null, jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), objectMapper, meterRegistry,
+                journalDirectory, 1024 * 1024, 1, 100, 10, 200);
+    }
+
+    /**
+     * Records an applied write in the transaction of its group.
+     */
+    private void record(String expenseName) {
+        jdbcTemplate.update("INSERT INTO applied (expense_name) VALUES (?)", expenseName);
+    }
+
+    private List<String> applied() {
+        return jdbcTemplate.queryForList("SELECT expense_name FROM applied ORDER BY id", String.class);
+    }
+
+    private long appliedSequence() {
+        return jdbcTemplate.queryForObject("SELECT applied_sequence FROM ingestion_checkpoint WHERE partition_id = 0",
+                Long.class);
+    }
+}
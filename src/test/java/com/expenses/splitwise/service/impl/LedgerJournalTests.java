@@ -0,0 +1,89 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.LedgerSyncPolicy;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAcrossSegments() throws Exception {
+        try (LedgerJournal journal = LedgerJournal.open(directory, 4, LedgerSyncPolicy.EVERY_WRITE)) {
+            journal.append(List.of(LedgerRecord.expense(7, SPLIT_TYPE.PERCENTAGE, 12_345, 1),
+                    LedgerRecord.participant(7, 1), LedgerRecord.participant(7, 2)));
+            assertThat(journal.append(List.of(LedgerRecord.share(7, 1, 2_500L, null),
+                    LedgerRecord.share(7, 2, 7_500L, null)))).isEqualTo(5);
+        }
+        assertThat(segments()).hasSize(2);
+
+        List<LedgerRecord> records = read();
+        assertThat(records).extracting(LedgerRecord::getSequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(records.get(0)).extracting(LedgerRecord::getSplitType, LedgerRecord::getTotalCents, LedgerRecord::getUserId)
+                .containsExactly(SPLIT_TYPE.PERCENTAGE, 12_345L, 1L);
+        assertThat(records.get(4)).extracting(LedgerRecord::getUserId, LedgerRecord::getPercentageHundredths,
+                LedgerRecord::getAmountCents).containsExactly(2L, 7_500L, null);
+    }
+
+    @Test
+    void truncatesTornTailOnOpen() throws Exception {
+        try (LedgerJournal journal = LedgerJournal.open(directory, 16, LedgerSyncPolicy.OS)) {
+            for (long i = 1; i <= 3; i++) {
+                journal.append(List.of(LedgerRecord.participant(1, i)));
+            }
+        }
+        // A crash that wrote part of the fourth record and a page of a later one
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, 4L), 3L * LedgerJournal.RECORD_BYTES + 8);
+            channel.write(ByteBuffer.allocate(8).putLong(0, -1L), 9L * LedgerJournal.RECORD_BYTES);
+        }
+
+        try (LedgerJournal journal = LedgerJournal.open(directory, 16, LedgerSyncPolicy.OS)) {
+            assertThat(journal.lastSequence()).isEqualTo(3);
+            assertThat(journal.append(List.of(LedgerRecord.participant(1, 9)))).isEqualTo(4);
+        }
+        assertThat(read()).extracting(LedgerRecord::getUserId).containsExactly(1L, 2L, 3L, 9L);
+    }
+
+    @Test
+    void skippedSequencesEndTheirSegment() throws Exception {
+        try (LedgerJournal journal = LedgerJournal.open(directory, 16, LedgerSyncPolicy.EVERY_WRITE)) {
+            journal.append(List.of(LedgerRecord.participant(1, 1), LedgerRecord.participant(1, 2)));
+            journal.skipTo(5);
+            assertThat(journal.append(List.of(LedgerRecord.participant(1, 5)))).isEqualTo(5);
+        }
+        assertThat(segments()).hasSize(2);
+
+        try (LedgerJournal journal = LedgerJournal.open(directory, 16, LedgerSyncPolicy.EVERY_WRITE)) {
+            assertThat(journal.lastSequence()).isEqualTo(5);
+        }
+        assertThat(read()).extracting(LedgerRecord::getSequence).containsExactly(1L, 2L, 5L);
+    }
+
+    private List<LedgerRecord> read() throws Exception {
+        List<LedgerRecord> records = new ArrayList<>();
+        LedgerJournal.read(directory, records::add);
+        return records;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.LedgerEvent;
+import com.expenses.splitwise.dto.LedgerRecord;
+import com.expenses.splitwise.dto.LedgerSyncPolicy;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Checks that the journal takes committed changes only, through the outbox, and that numbered outbox rows
+ * the journal lacks are appended again or skipped as a gap.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerJournalWriterTests {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearOutbox() {
+        jdbcTemplate.update("DELETE FROM ledger_outbox");
+    }
+
+    @Test
+    void onlyCommittedChangesAreJournaledAndTheirRowsDeleted() throws Exception {
+        LedgerJournalWriter writer = writer();
+        try {
+            commit(writer, LedgerRecord.expense(1, SPLIT_TYPE.EQUAL, 1_000, 1), LedgerRecord.participant(1, 1));
+            rollBack(writer, LedgerRecord.participant(1, 2));
+            commit(writer, LedgerRecord.share(1, 3, 2_500L, null));
+            writer.drain();
+        } finally {
+            writer.close();
+        }
+
+        assertThat(read()).extracting(LedgerRecord::getSequence, LedgerRecord::getUserId, LedgerRecord::getPercentageHundredths)
+                .containsExactly(tuple(1L, 1L, null), tuple(2L, 1L, null), tuple(3L, 3L, 2_500L));
+        assertThat(outbox()).isZero();
+    }
+
+    @Test
+    void numberedRowsTheJournalLacksAreAppendedAgainOrSkipped() throws Exception {
+        LedgerJournalWriter writer = writer();
+        try {
+            commit(writer, LedgerRecord.participant(1, 1));
+            writer.drain();
+        } finally {
+            writer.close();
+        }
+        String journalId = Files.readString(directory.resolve(IngestionJournal.ID_FILE)).trim();
+        // Numbered before a crash: 2 never reached the journal, 3 and 4 were lost with their rows, 5 survived
+        insertNumbered(journalId, 2, 2);
+        insertNumbered(journalId, 5, 5);
+        insertNumbered("another-journal", 2, 9);
+
+        LedgerJournalWriter restarted = writer();
+        try {
+            restarted.drain();
+            restarted.drain();
+            commit(restarted, LedgerRecord.participant(1, 6));
+            restarted.drain();
+        } finally {
+            restarted.close();
+        }
+
+        assertThat(meterRegistry.counter("splitwise.ledger.gap").count()).isEqualTo(1);
+        assertThat(read()).extracting(LedgerRecord::getSequence, LedgerRecord::getUserId)
+                .containsExactly(tuple(1L, 1L), tuple(2L, 2L), tuple(5L, 5L), tuple(6L, 6L));
+        assertThat(outbox()).isEqualTo(1);
+    }
+
+    private LedgerJournalWriter writer() throws Exception {
+        LedgerJournalWriter writer = new LedgerJournalWriter(meterRegistry, jdbcTemplate, directory, 16,
+                LedgerSyncPolicy.EVERY_WRITE, 100);
+        writer.open();
+        return writer;
+    }
+
+    private void commit(LedgerJournalWriter writer, LedgerRecord... records) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                writer.record(new LedgerEvent(List.of(records))));
+    }
+
+    private void rollBack(LedgerJournalWriter writer, LedgerRecord... records) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            writer.record(new LedgerEvent(List.of(records)));
+            status.setRollbackOnly();
+        });
+    }
+
+    private void insertNumbered(String journalId, long sequence, long userId) {
+        jdbcTemplate.update("INSERT INTO ledger_outbox (journal_id, journal_sequence, record_type, expense_id, user_id, "
+                + "total_cents) VALUES (?, ?, 'PARTICIPANT', 1, ?, 0)", journalId, sequence, userId);
+    }
+
+    private long outbox() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_outbox", Long.class);
+    }
+
+    private List<LedgerRecord> read() throws Exception {
+        List<LedgerRecord> records = new ArrayList<>();
+        LedgerJournal.read(directory, records::add);
+        return records;
+    }
+}
@@ -0,0 +1,72 @@
+package com.expenses.splitwise.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the cents arithmetic against the BigDecimal expressions it replaced, over randomized inputs.
+ */
+class MoneyTests {
+
+    private static final int ROUNDS = 200_000;
+
+    @Test
+    void percentOfMatchesBigDecimalHalfUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < ROUNDS; i++) {
+            BigDecimal total = BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L), 2);
+            BigDecimal percentage = BigDecimal.valueOf(random.nextLong(0, 100_000), 2);
+
+            BigDecimal expected = total.multiply(percentage).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+
+            assertThat(Money.toBigDecimal(Money.percentOf(Money.toCents(total), Money.toCents(percentage))))
+                    .as("%s%% of %s", percentage, total)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void divideHalfUpMatchesBigDecimalHalfUp() {
+        Random random = new Random(2);
+        for (int i = 0; i < ROUNDS; i++) {
+            BigDecimal total = BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L), 2);
+            int parts = random.nextInt(1, 500);
+
+            BigDecimal expected = total.divide(BigDecimal.valueOf(parts), 2, RoundingMode.HALF_UP);
+
+            assertThat(Money.toBigDecimal(Money.divideHalfUp(Money.toCents(total), parts)))
+                    .as("%s / %d", total, parts)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void equalSharesSumToTotalAndStayWithinOneCentOfHalfUp() {
+        Random random = new Random(3);
+        for (int i = 0; i < ROUNDS / 100; i++) {
+            long total = random.nextLong(0, 10_000_000_000L);
+            int parts = random.nextInt(1, 500);
+            long halfUp = Money.divideHalfUp(total, parts);
+
+            long sum = 0;
+            for (int rank = 0; rank < parts; rank++) {
+                long share = Money.equalShare(total, parts, rank);
+                assertThat(Math.abs(share - halfUp)).isLessThanOrEqualTo(1);
+                sum += share;
+            }
+            assertThat(sum).isEqualTo(total);
+        }
+    }
+
+    @Test
+    void convertsBetweenCentsAndDecimals() {
+        assertThat(Money.toCents(new BigDecimal("3000"))).isEqualTo(300_000);
+        assertThat(Money.toCents(new BigDecimal("-12.345"))).isEqualTo(-1_235);
+        assertThat(Money.toBigDecimal(-1_235)).isEqualTo(new BigDecimal("-12.35"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.expenses.splitwise.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class SettlementEngineTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 10, 200, 50_000})
+    void transfersZeroOutEveryBalance(int members) {
+        Random random = new Random(members);
+        for (int round = 0; round < 20; round++) {
+            long[] balances = randomBalances(random, members);
+            SettlementEngine.Transfers transfers = SettlementEngine.settle(balances.clone());
+
+            long[] settled = balances.clone();
+            for (int i = 0; i < transfers.count; i++) {
+                assertThat(transfers.amounts[i]).isPositive();
+                assertThat(transfers.from[i]).isNotEqualTo(transfers.to[i]);
+                settled[transfers.from[i]] += transfers.amounts[i];
+                settled[transfers.to[i]] -= transfers.amounts[i];
+            }
+            assertThat(settled).isEqualTo(new long[members]);
+            assertThat(transfers.count).isLessThanOrEqualTo(Math.max(0, members - 1));
+        }
+    }
+
+    @Test
+    void singleDebtorPaysEachCreditorOnce() {
+        SettlementEngine.Transfers transfers = SettlementEngine.settle(new long[]{-900, 300, 600, 0});
+
+        assertThat(transfers.count).isEqualTo(2);
+        assertThat(transfers.from).containsOnly(0);
+    }
+
+    @Test
+    void rejectsUnbalancedInput() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SettlementEngine.settle(new long[]{100, -99}));
+    }
+
+    /**
+     * Random balances in cents that sum to zero, with some members already even.
+     */
+    private static long[] randomBalances(Random random, int members) {
+        long[] balances = new long[members];
+        long sum = 0;
+        for (int i = 0; i < members - 1; i++) {
+            balances[i] = random.nextInt(4) == 0 ? 0 : random.nextLong(-1_000_000, 1_000_000);
+            sum += balances[i];
+        }
+        if (members > 0) {
+            balances[members - 1] = -sum;
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,94 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExportTable;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that an export streams its rows: a million expenses are exported by a JVM whose heap could not
+ * hold them.
+ */
+class TableExportServiceImplTests {
+
+    /** Expenses exported by the child JVM */
+    private static final int ROWS = 1_000_000;
+
+    /** Heap of the child JVM; the NDJSON of {@value #ROWS} expenses is about 150 MB */
+    private static final String HEAP = "-Xmx48m";
+
+    @Test
+    void exportsAMillionRowsUnderASmallHeap(@TempDir Path directory) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Path log = directory.resolve("child.log");
+        Process process = new ProcessBuilder(java, HEAP, "-cp", System.getProperty("java.class.path"),
+                TableExportServiceImplTests.class.getName(), directory.resolve("export").toString())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        boolean exited = process.waitFor(5, TimeUnit.MINUTES);
+        if (!exited) {
+            process.destroyForcibly().waitFor();
+        }
+        String output = Files.readString(log, StandardCharsets.UTF_8);
+
+        assertThat(exited).as("child JVM finished").isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        List<String> lines = output.lines().toList();
+        assertThat(lines.get(lines.size() - 1)).isEqualTo(ROWS + " rows");
+    }
+
+    /**
+     * Runs in the child JVM: seeds a file database with {@value #ROWS} expenses and exports them to a
+     * stream that only counts lines, printing the number of exported rows.
+     *
+     * @param args the path of the database files
+     */
+    public static void main(String[] args) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // A small page cache and lazy results keep the database itself well inside the heap
+        dataSource.setURL("jdbc:h2:file:" + args[0] + ";CACHE_SIZE=4096;LAZY_QUERY_EXECUTION=TRUE");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE expenses (id BIGINT AUTO_INCREMENT PRIMARY KEY, expense_date DATE NOT NULL, "
+                + "group_name VARCHAR(100) NOT NULL, expense_name VARCHAR(100) NOT NULL, total_amount DECIMAL(10, 2) NOT NULL, "
+                + "split_type VARCHAR(20) NOT NULL, created_by_id BIGINT NOT NULL)");
+        for (int from = 1; from <= ROWS; from += 100_000) {
+            jdbcTemplate.update("INSERT INTO expenses (expense_date, group_name, expense_name, total_amount, split_type, "
+                    + "created_by_id) SELECT DATE '2025-05-01', 'export-group', 'export-expense-' || X, 1000.00, 'EQUAL', 1 "
+                    + "FROM SYSTEM_RANGE(?, ?)", from, Math.min(from + 99_999, ROWS));
+        }
+
+        long[] lines = {0};
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    lines[0]++;
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                for (int i = off; i < off + len; i++) {
+                    write(b[i]);
+                }
+            }
+        };
+        long rows = new TableExportServiceImpl(jdbcTemplate, 1000).export(ExportTable.EXPENSES, counting);
+        if (rows != lines[0]) {
+            throw new IllegalStateException(rows + " rows exported but " + lines[0] + " lines written");
+        }
+        System.out.println(rows + " rows");
+    }
+}
@@ -0,0 +1,95 @@
+package com.expenses.splitwise.service.impl;
+
+import com.expenses.splitwise.dto.ExpenseShareDto;
+import com.expenses.splitwise.dto.SPLIT_TYPE;
+import com.expenses.splitwise.entity.Expense;
+import com.expenses.splitwise.entity.ExpenseShare;
+import com.expenses.splitwise.entity.ExpenseUser;
+import com.expenses.splitwise.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({UserServiceImpl.class, ShareRowQueries.class})
+class UserServiceImplTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Test
+    void calculatesSharesForEverySplitType() {
+        seed(3);
+
+        List<ExpenseShareDto> creatorShares = userService.calculateUserExpenseShares("manish");
+        List<ExpenseShareDto> participantShares = userService.calculateUserExpenseShares("keerthi");
+
+        // EQUAL: 300.00 / 3 = 100.00, PERCENTAGE: 25% of 301.00 = 75.25, MANUAL: 40.00
+        assertThat(creatorShares).extracting(ExpenseShareDto::getShare)
+                .containsExactlyInAnyOrder(new BigDecimal("200.00"), new BigDecimal("225.75"), new BigDecimal("262.00"));
+        assertThat(participantShares).extracting(ExpenseShareDto::getShare)
+                .containsExactlyInAnyOrder(new BigDecimal("-100.00"), new BigDecimal("-75.25"), new BigDecimal("-40.00"));
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithExpenses() {
+        seed(60);
+
+        long small = countStatements("nikki", 3);
+        long large = countStatements("keerthi", 60);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long countStatements(String userName, int expectedRows) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(userService.calculateUserExpenseShares(userName)).hasSize(expectedRows);
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Seeds expenses cycling through the split types; "nikki" is only mapped to the first three.
+     */
+    private void seed(int expenseCount) {
+        User manish = entityManager.persist(new User(null, "manish"));
+        User keerthi = entityManager.persist(new User(null, "keerthi"));
+        User nikki = entityManager.persist(new User(null, "nikki"));
+
+        for (int i = 0; i < expenseCount; i++) {
+            SPLIT_TYPE splitType = SPLIT_TYPE.values()[i % 3];
+            String expenseName = "expense-" + i;
+            BigDecimal total = BigDecimal.valueOf(300 + i % 3).setScale(2);
+            Expense expense = entityManager.persist(new Expense(null, LocalDate.of(2025, 5, 1), "Trip to Goa", expenseName,
+                    total, splitType, manish, null));
+
+            List<User> participants = i < 3 ? List.of(manish, keerthi, nikki) : List.of(manish, keerthi);
+            for (User participant : participants) {
+                entityManager.persist(new ExpenseUser(expense.getId(), participant.getId(), null, null));
+                if (splitType != SPLIT_TYPE.EQUAL) {
+                    entityManager.persist(new ExpenseShare(null, expense.getId(), participant.getId(),
+                            new BigDecimal("25.00"), new BigDecimal("40.00"), null, null));
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}